@@ -20,20 +20,31 @@ package atomicJ.analysis;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.swing.SwingUtilities;
+
 import atomicJ.gui.GeneralPreferences;
+import atomicJ.utilities.ComputeScheduler;
 import atomicJ.utilities.Validation;
 
+//each pack is processed by a separate subtask of the shared ComputeScheduler, so that packs which take long to process
+//do not leave the other threads idle, and no threads are created for each run
+//results are passed to the ProcessingResultsHandler on the event dispatch thread while the processing goes on,
+//in the order in which the packs are finished, so that a pack which takes long does not hold back the results of the others,
+//and the handler is asked to publish the results it has got so far at most once per PARTIAL_PUBLICATION_PERIOD_IN_MILISECONDS
 public class ConcurrentProcessingTask<E, Y> extends MonitoredSwingWorker<Void, Void> 
 {   
+    private static final long PARTIAL_PUBLICATION_PERIOD_IN_MILISECONDS = 500;
+
     private final List<E> packs;
 
     private final Processor<E, Y> processor;
@@ -45,7 +56,15 @@ public class ConcurrentProcessingTask<E, Y> extends MonitoredSwingWorker<Void, V
 
     private final int problemSize;  
 
-    private ExecutorService executor;
+    //results of the processed packs, which are not yet passed to the handler
+    private final Queue<Y> results = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean resultDeliveryScheduled = new AtomicBoolean();
+    //accessed only on the event dispatch thread
+    private long lastPartialPublicationTime = System.currentTimeMillis();
+
+    private final List<Future<?>> packFutures = new ArrayList<>();
+    private ComputeScheduler.TaskExecutor executor;
+    private volatile boolean cancelled;
 
     public ConcurrentProcessingTask(List<E> packs, Processor<E, Y> processor, ProcessingResultsHandler<Y> processingResultsHandler)
     {
@@ -59,67 +78,44 @@ public class ConcurrentProcessingTask<E, Y> extends MonitoredSwingWorker<Void, V
     @Override
     public Void doInBackground() 
     {                       
-        int maxTaskNumber = GeneralPreferences.GENERAL_PREFERENCES.getTaskNumber();
-        int taskNumber = Math.min(Math.max(problemSize/5, 1), maxTaskNumber);
-
-        int basicTaskSize = problemSize/taskNumber;
-        int remainingPacks = problemSize%taskNumber;
+        int taskNumber = GeneralPreferences.GENERAL_PREFERENCES.getTaskNumber();
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
-
-        int currentIndex = 0;
+        synchronized(packFutures)
+        {
+            if(cancelled)
+            {
+                return null;
+            }
 
-        List<Subtask> tasks = new ArrayList<>();
+            executor = ComputeScheduler.getInstance().newTaskExecutor("Processing", ComputeScheduler.Priority.BATCH, taskNumber);
 
-        for(int i = 0; i <taskNumber; i++ ) 
-        {
-            int currentTaskSize = basicTaskSize;
-            if(i<remainingPacks)
+            for(int i = 0; i < problemSize; i++)
             {
-                currentTaskSize++;
+                packFutures.add(executor.submit(new PackTask(i)));
             }
-            List<E> fileSublist = new ArrayList<>(packs.subList(currentIndex, currentIndex + currentTaskSize));
 
-            Subtask task = new Subtask(fileSublist);
-            tasks.add(task);
-            currentIndex = currentIndex + currentTaskSize;
+            executor.shutdown();
         }
 
-        try 
+        for(Future<?> future : packFutures)
         {
-            CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
-
-            for(Subtask subtask: tasks)
+            try 
             {
-                completionService.submit(subtask);
-            }
-            for(int i = 0; i<tasks.size(); i++)
+                future.get();
+            } 
+            catch (InterruptedException | CancellationException e) 
             {
-                completionService.take().get();
+                break;
             }
-
-            List<Y> allProcessingResult = new ArrayList<>();
-
-            for(Subtask subtask: tasks)
+            catch (ExecutionException e) 
             {
-                allProcessingResult.addAll(subtask.getProcessingResults());
+                e.printStackTrace();
             }
-
-            processingResultsHandler.acceptAndSegregateResults(allProcessingResult);
-        } 
-        catch (Exception e) 
-        {
-            e.printStackTrace();
-        }       
-        finally
-        {
-            executor.shutdown();
         }
 
         return null;    
     }   
 
-
     @Override
     protected void done()
     {
@@ -127,6 +123,7 @@ public class ConcurrentProcessingTask<E, Y> extends MonitoredSwingWorker<Void, V
         {                      
             if(!isCancelled())
             {                     
+                deliverProcessedResults();
                 processingResultsHandler.reactToFailures(failures.intValue());
                 processingResultsHandler.sendResultsToDestination();
             }
@@ -151,65 +148,124 @@ public class ConcurrentProcessingTask<E, Y> extends MonitoredSwingWorker<Void, V
         setStep(processedCount.incrementAndGet());
     }
 
-    private class Subtask implements Callable<Void>
-    {       
-        private final List<E> processablePacks;
-        private final List<Y> processedPacks = new ArrayList<>();
+    //many packs can be processed before the event dispatch thread runs the delivery, so a single delivery is scheduled at a time,
+    //and it passes all results that are ready
+    private void scheduleResultDelivery()
+    {
+        if(resultDeliveryScheduled.compareAndSet(false, true))
+        {
+            SwingUtilities.invokeLater(new Runnable() 
+            {
+                @Override
+                public void run() 
+                {
+                    resultDeliveryScheduled.set(false);
+
+                    if(!isCancelled())
+                    {
+                        deliverProcessedResults();
+                        publishPartialResultsIfDue();
+                    }
+                }
+            });
+        }
+    }
+
+    //passes the results of all packs processed so far
+    private void deliverProcessedResults()
+    {
+        List<Y> batch = new ArrayList<>();
 
-        public Subtask(List<E> processablePacks)
+        Y result;
+        while((result = results.poll()) != null)
         {
-            this.processablePacks = processablePacks;
+            batch.add(result);
         }
 
-        private  List<Y> getProcessingResults()
+        if(!batch.isEmpty())
         {
-            return processedPacks;
+            processingResultsHandler.acceptAndSegregateResults(batch);
         }
+    }
 
-        @Override
-        public Void call() throws InterruptedException
-        { 
-            Thread currentThread = Thread.currentThread();
+    //the final results are published in done(), so the last partial publication is skipped if the processing is finished
+    private void publishPartialResultsIfDue()
+    {
+        long currentTime = System.currentTimeMillis();
 
-            for(E pack: processablePacks)
-            {   
-                if(currentThread.isInterrupted())
-                {
-                    throw new InterruptedException();
-                }
+        if(processedCount.get() < problemSize && currentTime - lastPartialPublicationTime >= PARTIAL_PUBLICATION_PERIOD_IN_MILISECONDS)
+        {
+            processingResultsHandler.publishPartialResults();
+            this.lastPartialPublicationTime = currentTime;
+        }
+    }
 
-                try
-                {
-                    Y result = processor.process(pack);                 
-                    processedPacks.add(result);                                                 
-                }           
-                catch(OutOfMemoryError e)
+    private class PackTask implements Runnable
+    {       
+        private final int packIndex;
+
+        public PackTask(int packIndex)
+        {
+            this.packIndex = packIndex;
+        }
+
+        @Override
+        public void run()
+        {
+            if(cancelled)
+            {
+                return;
+            }
+
+            try
+            {
+                Y result = processor.process(packs.get(packIndex));
+                if(result != null)
                 {
-                    setRunOutOfMemory();
-                    e.printStackTrace();
-                    throw e;
+                    results.add(result);
                 }
-                catch(Exception e)
+            }           
+            catch(OutOfMemoryError e)
+            {
+                setRunOutOfMemory();
+                e.printStackTrace();
+                throw e;
+            }
+            catch(Exception e)
+            {
+                if(!cancelled)
                 {
                     Logger.getLogger("").log(Level.SEVERE, e.getMessage(), e);
                     e.printStackTrace();
                     failures.incrementAndGet();
                 }
-
-                incrementProgress();                
             }
 
-            return null;
+            incrementProgress();
+            scheduleResultDelivery();
         }
     }
 
     @Override
     public void cancelAllTasks() 
     {
-        if(executor != null)
+        synchronized(packFutures)
         {
-            executor.shutdownNow();
+            this.cancelled = true;
+
+            if(executor != null)
+            {
+                //packs which have not been started are discarded, and the processing of the others is interrupted
+                for(Runnable discardedTask : executor.shutdownNow())
+                {
+                    if(discardedTask instanceof Future)
+                    {
+                        ((Future<?>)discardedTask).cancel(false);
+                    }
+                }
+            }
         }
+
         cancel(true);
     }
 }
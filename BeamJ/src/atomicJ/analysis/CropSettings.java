@@ -73,4 +73,32 @@ public class CropSettings
     {
         return bottom;
     }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 17;
+
+        result = 31*result + Double.hashCode(top);
+        result = 31*result + Double.hashCode(left);
+        result = 31*result + Double.hashCode(bottom);
+        result = 31*result + Double.hashCode(right);
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object that)
+    {
+        if(that instanceof CropSettings)
+        {
+            CropSettings thatSettings = (CropSettings)that;
+
+            boolean equal = Double.compare(this.top, thatSettings.top) == 0 && Double.compare(this.left, thatSettings.left) == 0
+                    && Double.compare(this.bottom, thatSettings.bottom) == 0 && Double.compare(this.right, thatSettings.right) == 0;
+            return equal;
+        }
+
+        return false;
+    }
 }
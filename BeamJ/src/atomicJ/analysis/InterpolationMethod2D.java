@@ -2,11 +2,16 @@ package atomicJ.analysis;
 
 import java.awt.Shape;
 import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import org.apache.commons.math.analysis.BivariateRealFunction;
 import org.jfree.data.Range;
 
-import edu.mines.jtk.dsp.Sampling;
 import edu.mines.jtk.interp.SibsonInterpolator2;
 import edu.mines.jtk.mesh.TriMesh;
 
@@ -16,7 +21,8 @@ import atomicJ.data.Channel2DData;
 import atomicJ.data.Grid2D;
 import atomicJ.data.GridChannel2DData;
 import atomicJ.gui.DistanceShapeFactors;
-import atomicJ.utilities.ArrayUtilities;
+import atomicJ.gui.GeneralPreferences;
+import atomicJ.utilities.ComputeScheduler;
 
 
 public enum InterpolationMethod2D 
@@ -627,140 +633,192 @@ public enum InterpolationMethod2D
 
     SIBSON("Sibson") {
         @Override
-        public double getValue(Channel2DData channel, double x, double y) 
+        public double getValue(Channel2DData channel, final double x, final double y) 
         {
-            float[] xCoords = ArrayUtilities.toFloat(channel.getXCoordinates());
-            float[] yCoords = ArrayUtilities.toFloat(channel.getYCoordinates());
-            float[] zCoords = ArrayUtilities.toFloat(channel.getZCoordinates());
-
-            SibsonInterpolator2 sibsonInterpolator = new SibsonInterpolator2(zCoords, xCoords, yCoords);
-
-            Range xRange = channel.getXRange();
-            Range yRange = channel.getYRange();
-
-            float xMin = (float) xRange.getLowerBound();
-            float yMin = (float) yRange.getLowerBound();        
-
-            float xMax = (float) xRange.getUpperBound();
-            float yMax = (float) yRange.getUpperBound();
-
-            sibsonInterpolator.setBounds(xMin, xMax, yMin, yMax);
-            sibsonInterpolator.setNullValue(Float.NaN);
-
-            double value = sibsonInterpolator.interpolate((float)x, (float)y);
+            double value = SibsonInterpolatorCache.getInstance().interpolate(channel, new Function<SibsonInterpolator2, Double>() 
+            {
+                @Override
+                public Double apply(SibsonInterpolator2 sibsonInterpolator) 
+                {
+                    return (double) sibsonInterpolator.interpolate((float)x, (float)y);
+                }
+            });
 
             return value;
         }
 
         @Override
-        public double[] getProfileValues(Channel2DData channel, Shape profile, int n) 
+        public double[] getProfileValues(Channel2DData channel, Shape profile, final int n) 
         {       
-            double[][] profilePoints = DistanceShapeFactors.getProfilePoints(profile, n);
-
-            float[] xCoords = ArrayUtilities.toFloat(channel.getXCoordinates());
-            float[] yCoords = ArrayUtilities.toFloat(channel.getYCoordinates());
-            float[] zCoords = ArrayUtilities.toFloat(channel.getZCoordinates());
-
-            SibsonInterpolator2 sibsonInterpolator = new SibsonInterpolator2(zCoords, xCoords, yCoords);
+            final double[][] profilePoints = DistanceShapeFactors.getProfilePoints(profile, n);
 
             Range xRange = channel.getXRange();
             Range yRange = channel.getYRange();
 
-            float xMin = (float) xRange.getLowerBound();
-            float yMin = (float) yRange.getLowerBound();        
+            final float xMin = (float) xRange.getLowerBound();
+            final float yMin = (float) yRange.getLowerBound();        
 
-            float xMax = (float) xRange.getUpperBound();
-            float yMax = (float) yRange.getUpperBound();
+            final float xMax = (float) xRange.getUpperBound();
+            final float yMax = (float) yRange.getUpperBound();
 
-            sibsonInterpolator.setBounds(xMin, xMax, yMin, yMax);
-            sibsonInterpolator.setNullValue(Float.NaN);
+            double[] values = SibsonInterpolatorCache.getInstance().interpolate(channel, new Function<SibsonInterpolator2, double[]>() 
+            {
+                @Override
+                public double[] apply(SibsonInterpolator2 sibsonInterpolator) 
+                {
+                    double[] values = new double[n];
 
-            double[] values = new double[n];
+                    for (int i = 0; i < n; i++) 
+                    {
+                        float x = (float)profilePoints[i][0];
+                        float y = (float)profilePoints[i][1];
 
-            for (int i = 0; i < n; i++) 
-            {
-                float x = (float)profilePoints[i][0];
-                float y = (float)profilePoints[i][1];
+                        values[i] = (x>= xMin && x <= xMax && y >= yMin && y <= yMax) ? 
+                                sibsonInterpolator.interpolate(x, y) : Double.NaN;   
+                    }
 
-                values[i] = (x>= xMin && x <= xMax && y >= yMin && y <= yMax) ? 
-                        sibsonInterpolator.interpolate(x, y) : Double.NaN;   
-            }
+                    return values;
+                }
+            });
 
             return values;
         }
 
         @Override
-        public double[][] getCrossSection(Channel2DData channel, double[][] profilePoints) 
+        public double[][] getCrossSection(Channel2DData channel, final double[][] profilePoints) 
         {
-            int pointCount = profilePoints.length;
-            double[][] data = new double[pointCount][];
-
-            float[] xCoords = ArrayUtilities.toFloat(channel.getXCoordinates());
-            float[] yCoords = ArrayUtilities.toFloat(channel.getYCoordinates());
-            float[] zCoords = ArrayUtilities.toFloat(channel.getZCoordinates());
-
-            SibsonInterpolator2 sibsonInterpolator = new SibsonInterpolator2(zCoords, xCoords, yCoords);
-
             Range xRange = channel.getXRange();
             Range yRange = channel.getYRange();
 
-            float xMin = (float) xRange.getLowerBound();               
-            float xMax = (float) xRange.getUpperBound();
-
-            float yMin = (float) yRange.getLowerBound();        
-            float yMax = (float) yRange.getUpperBound();
+            final float xMin = (float) xRange.getLowerBound();               
+            final float xMax = (float) xRange.getUpperBound();
 
-            sibsonInterpolator.setBounds(xMin, xMax, yMin, yMax);
-            sibsonInterpolator.setNullValue(Float.NaN);
+            final float yMin = (float) yRange.getLowerBound();        
+            final float yMax = (float) yRange.getUpperBound();
 
-            for (int i = 0; i < pointCount; i++) 
+            double[][] data = SibsonInterpolatorCache.getInstance().interpolate(channel, new Function<SibsonInterpolator2, double[][]>() 
             {
-                double[] p = profilePoints[i];
-                float x = (float)p[0];
-                float y = (float)p[1];
-                double d = p[2];
+                @Override
+                public double[][] apply(SibsonInterpolator2 sibsonInterpolator) 
+                {
+                    int pointCount = profilePoints.length;
+                    double[][] data = new double[pointCount][];
 
-                double z = (x >= xMin && x <= xMax && y >= yMin && y <= yMax) ? sibsonInterpolator.interpolate(x, y) : Double.NaN; 
+                    for (int i = 0; i < pointCount; i++) 
+                    {
+                        double[] p = profilePoints[i];
+                        float x = (float)p[0];
+                        float y = (float)p[1];
+                        double d = p[2];
 
-                data[i] = new double[] {d,z};
-            }
+                        double z = (x >= xMin && x <= xMax && y >= yMin && y <= yMax) ? sibsonInterpolator.interpolate(x, y) : Double.NaN; 
+
+                        data[i] = new double[] {d,z};
+                    }
+
+                    return data;
+                }
+            });
 
             return data;
         }
 
+        //large grids are divided into blocks of rows, which are interpolated concurrently
+        //each concurrent task needs its own interpolator, i.e. its own triangulation of the data, so one interpolator is prepared first,
+        //and further tasks are started only if each of them interpolates at least as many nodes as there are points of the data,
+        //as otherwise triangulating the data again would take longer than the interpolation which the task saves
         @Override
-        public double[][] getGriddedData(Channel2DData channel, int rowCount, int columnCount)
+        public double[][] getGriddedData(final Channel2DData channel, int rowCount, final int columnCount)
         {
-            float[] xCoords = ArrayUtilities.toFloat(channel.getXCoordinates());
-            float[] yCoords = ArrayUtilities.toFloat(channel.getYCoordinates());
-            float[] zCoords = ArrayUtilities.toFloat(channel.getZCoordinates());
-
-            SibsonInterpolator2 sibsonInterpolator = new SibsonInterpolator2(zCoords, xCoords, yCoords);
-
             Range xRange = channel.getXRange();
             Range yRange = channel.getYRange();
 
-            double xLength = xRange.getLength();
-            double yLength = yRange.getLength();
+            final double xOrigin = xRange.getLowerBound();
+            final double yOrigin = yRange.getLowerBound();        
 
-            double xOrigin = xRange.getLowerBound();
-            double yOrigin = yRange.getLowerBound();        
+            final double xMax = xRange.getUpperBound();
+            final double yMax = yRange.getUpperBound();
+
+            final double xIncrement = xRange.getLength()/(columnCount - 1.);
+            final double yIncrement = yRange.getLength()/(rowCount - 1.);
+
+            final double[][] interpolatedDoubles = new double[rowCount][];
 
-            double xIncrement = xLength/(columnCount - 1.);
-            double yIncrement = yLength/(rowCount - 1.);
+            int maxTaskNumber = GeneralPreferences.GENERAL_PREFERENCES.getTaskNumber();
+            long nodeCount = (long)rowCount*columnCount;
+            long nodesPerTask = Math.max(MINIMAL_GRIDDING_TASK_NODE_COUNT, channel.getItemCount());
+            int taskNumber = (int)Math.min(Math.max(nodeCount/nodesPerTask, 1), Math.min(maxTaskNumber, rowCount));
+            int basicTaskSize = rowCount/taskNumber;
+            int remainingRows = rowCount%taskNumber;
 
-            Sampling xCoordsSampling = new Sampling(columnCount, xIncrement, xOrigin);
-            Sampling yCoordsSampling = new Sampling(rowCount, yIncrement, yOrigin);
+            SibsonInterpolatorCache.getInstance().prepareInterpolator(channel);
 
-            sibsonInterpolator.setBounds(xCoordsSampling, yCoordsSampling);
+            ExecutorService executor = ComputeScheduler.getInstance().newTaskExecutor("Sibson gridding", ComputeScheduler.Priority.BATCH, taskNumber); 
+            List<Future<?>> futures = new ArrayList<>();
 
-            float[][] interpolated = sibsonInterpolator.interpolate(xCoordsSampling, yCoordsSampling);
-            double[][] interpolatedDoubles = ArrayUtilities.toDouble(interpolated);
+            int currentIndex = 0;
+
+            for(int i = 0; i < taskNumber; i++) 
+            {
+                final int minRow = currentIndex;
+                final int maxRow = currentIndex + (i < remainingRows ? basicTaskSize + 1 : basicTaskSize);
+
+                //the coordinates of the last nodes are clamped to the data range, as rounding could otherwise place them out of the interpolation bounds
+                futures.add(executor.submit(new Runnable() 
+                {
+                    @Override
+                    public void run() 
+                    {
+                        SibsonInterpolatorCache.getInstance().interpolate(channel, new Function<SibsonInterpolator2, Void>() 
+                        {
+                            @Override
+                            public Void apply(SibsonInterpolator2 sibsonInterpolator) 
+                            {
+                                for(int r = minRow; r < maxRow; r++)
+                                {
+                                    float y = (float)Math.min(yOrigin + r*yIncrement, yMax);
+                                    double[] row = new double[columnCount];
+
+                                    for(int c = 0; c < columnCount; c++)
+                                    {
+                                        float x = (float)Math.min(xOrigin + c*xIncrement, xMax);
+                                        row[c] = sibsonInterpolator.interpolate(x, y);
+                                    }
+
+                                    interpolatedDoubles[r] = row;
+                                }
+
+                                return null;
+                            }
+                        });
+                    }
+                }));
+
+                currentIndex = maxRow;
+            }
+
+            executor.shutdown();
+
+            try 
+            {
+                for(Future<?> future : futures)
+                {
+                    future.get();
+                }
+            } 
+            catch (InterruptedException | ExecutionException e) 
+            {
+                executor.shutdownNow();
+                throw new IllegalStateException("Gridding of the data was not completed", e);
+            }
 
             return interpolatedDoubles;
         }
     };
 
+    //the minimal number of grid nodes for which a separate gridding task is started
+    private static final int MINIMAL_GRIDDING_TASK_NODE_COUNT = 1 << 14;
+
     private static final double TOLERANCE = 1e-12;
 
     private String name;
@@ -6,6 +6,9 @@ import java.util.List;
 public interface ProcessingResultsHandler<Y>
 {
     public void acceptAndSegregateResults(List<Y> results);
+    //called while the processing goes on, the results accepted since the last publication may be shown
+    public void publishPartialResults();
+    //called when the processing is finished, the results which were not published yet should be shown
     public void sendResultsToDestination();
     public void reactToFailures(int failuresCount);
     public void reactToCancellation();
@@ -0,0 +1,198 @@
+package atomicJ.analysis;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+import org.jfree.data.Range;
+
+import atomicJ.data.Channel2DData;
+import atomicJ.utilities.ArrayUtilities;
+import edu.mines.jtk.interp.SibsonInterpolator2;
+
+//building a SibsonInterpolator2 triangulates all points of the channel, which takes much longer than
+//interpolating at a single point, so interpolators are kept and reused for later calls with the same channel data
+//Channel2DData objects are not modified by transformations, which produce new data objects,
+//so the interpolators are looked up by the identity of the data, and become unreachable together with the data
+//code which modifies the coordinates of data in place must call invalidate(), which increments the generation of the entry,
+//interpolators built from an earlier generation are not returned to the cache, even if they were in use during invalidation
+//SibsonInterpolator2 is not thread-safe, so each interpolator is used by one thread at a time,
+//and threads interpolating the same data concurrently get separate interpolators, which are kept for later use
+//idle interpolators are held by soft references, as triangulations of large data sets take a lot of memory,
+//and at most MAXIMAL_IDLE_INTERPOLATOR_COUNT of them are kept for the same data, the others are dropped when they are released
+public class SibsonInterpolatorCache
+{
+    private static final int MAXIMAL_IDLE_INTERPOLATOR_COUNT = 2;
+
+    private static final SibsonInterpolatorCache INSTANCE = new SibsonInterpolatorCache();
+
+    private final Map<Channel2DData, CacheEntry> entries = new WeakHashMap<>();
+
+    private SibsonInterpolatorCache()
+    {}
+
+    public static SibsonInterpolatorCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    public <T> T interpolate(Channel2DData channel, Function<SibsonInterpolator2, T> interpolation)
+    {
+        int generation = getGeneration(channel);
+        SibsonInterpolator2 interpolator = acquireInterpolator(channel, generation);
+
+        try
+        {
+            return interpolation.apply(interpolator);
+        }
+        finally
+        {
+            releaseInterpolator(channel, interpolator, generation);
+        }
+    }
+
+    public boolean isInterpolatorAvailable(Channel2DData channel)
+    {
+        synchronized(entries)
+        {
+            CacheEntry entry = entries.get(channel);
+
+            if(entry != null)
+            {
+                for(SoftReference<SibsonInterpolator2> reference : entry.idleInterpolators)
+                {
+                    if(reference.get() != null)
+                    {
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }
+    }
+
+    public void prepareInterpolator(Channel2DData channel)
+    {
+        if(!isInterpolatorAvailable(channel))
+        {
+            int generation = getGeneration(channel);
+            releaseInterpolator(channel, buildInterpolator(channel), generation);
+        }
+    }
+
+    //should be called if the coordinates of the channel data are changed in place
+    public void invalidate(Channel2DData channel)
+    {
+        synchronized(entries)
+        {
+            CacheEntry entry = entries.get(channel);
+
+            if(entry != null)
+            {
+                entry.generation++;
+                entry.idleInterpolators.clear();
+            }
+        }
+    }
+
+    private int getGeneration(Channel2DData channel)
+    {
+        synchronized(entries)
+        {
+            CacheEntry entry = entries.get(channel);
+            return entry != null ? entry.generation : 0;
+        }
+    }
+
+    private SibsonInterpolator2 acquireInterpolator(Channel2DData channel, int generation)
+    {
+        synchronized(entries)
+        {
+            CacheEntry entry = entries.get(channel);
+
+            while(entry != null && entry.generation == generation && !entry.idleInterpolators.isEmpty())
+            {
+                SibsonInterpolator2 interpolator = entry.idleInterpolators.poll().get();
+
+                if(interpolator != null)
+                {
+                    return interpolator;
+                }
+            }
+        }
+
+        //the interpolator is built outside the lock, so that interpolators for different data can be built concurrently
+        return buildInterpolator(channel);
+    }
+
+    //the interpolator is kept only if the data were not invalidated since the generation was read
+    private void releaseInterpolator(Channel2DData channel, SibsonInterpolator2 interpolator, int generation)
+    {
+        synchronized(entries)
+        {
+            CacheEntry entry = entries.get(channel);
+
+            if(entry == null)
+            {
+                entry = new CacheEntry();
+                entries.put(channel, entry);
+            }
+
+            if(entry.generation == generation)
+            {
+                entry.removeClearedReferences();
+
+                if(entry.idleInterpolators.size() < MAXIMAL_IDLE_INTERPOLATOR_COUNT)
+                {
+                    entry.idleInterpolators.push(new SoftReference<>(interpolator));
+                }
+            }
+        }
+    }
+
+    private static SibsonInterpolator2 buildInterpolator(Channel2DData channel)
+    {
+        float[] xCoords = ArrayUtilities.toFloat(channel.getXCoordinates());
+        float[] yCoords = ArrayUtilities.toFloat(channel.getYCoordinates());
+        float[] zCoords = ArrayUtilities.toFloat(channel.getZCoordinates());
+
+        SibsonInterpolator2 sibsonInterpolator = new SibsonInterpolator2(zCoords, xCoords, yCoords);
+
+        Range xRange = channel.getXRange();
+        Range yRange = channel.getYRange();
+
+        float xMin = (float) xRange.getLowerBound();
+        float yMin = (float) yRange.getLowerBound();
+
+        float xMax = (float) xRange.getUpperBound();
+        float yMax = (float) yRange.getUpperBound();
+
+        sibsonInterpolator.setBounds(xMin, xMax, yMin, yMax);
+        sibsonInterpolator.setNullValue(Float.NaN);
+
+        return sibsonInterpolator;
+    }
+
+    private static class CacheEntry
+    {
+        private int generation;
+        private final Deque<SoftReference<SibsonInterpolator2>> idleInterpolators = new ArrayDeque<>();
+
+        private void removeClearedReferences()
+        {
+            Iterator<SoftReference<SibsonInterpolator2>> it = idleInterpolators.iterator();
+            while(it.hasNext())
+            {
+                if(it.next().get() == null)
+                {
+                    it.remove();
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package atomicJ.curveProcessing;
 
 import atomicJ.analysis.SortedArrayOrder;
+import atomicJ.data.AppendableChannel1DData;
 import atomicJ.data.Channel1DData;
 import atomicJ.data.FlexibleChannel1DData;
 import atomicJ.data.Point1DData;
@@ -23,6 +24,12 @@ public class ClearPoints1DTransformation implements Channel1DDataTransformation
     //the order of the result channel is the same as the order of the input
     private Channel1DData transformAnyChannel(Channel1DData channel)
     {
+        //points of AppendableChannel1DData cannot be removed in place, but a new empty channel is still appendable
+        if(channel instanceof AppendableChannel1DData && SortedArrayOrder.ASCENDING.equals(newPointsOrder))
+        {
+            return new AppendableChannel1DData(channel.getXQuantity(), channel.getYQuantity());
+        }
+
         FlexibleChannel1DData channelModified = new FlexibleChannel1DData(new double[][] {}, channel.getXQuantity(), channel.getYQuantity(), newPointsOrder);
         return channelModified;
     }
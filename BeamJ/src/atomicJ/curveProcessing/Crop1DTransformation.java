@@ -279,4 +279,21 @@ public class Crop1DTransformation implements Channel1DDataInROITransformation
 
         return null;
     }
+
+    @Override
+    public int hashCode()
+    {
+        return cropSettings.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object that)
+    {
+        if(that instanceof Crop1DTransformation)
+        {
+            return this.cropSettings.equals(((Crop1DTransformation)that).cropSettings);
+        }
+
+        return false;
+    }
 }
@@ -21,10 +21,7 @@ public abstract class CurveFilter implements Channel1DDataInROITransformation
 
         double[] transformed = new double[columnCount];
 
-        for(int j = 0; j<columnCount; j++)
-        {             
-            transformed[j] = filter(j, data, columnCount);
-        }
+        filter(data, columnCount, transformed);
 
         GridChannel1DData channelData = new GridChannel1DData(transformed, grid, channel.getYQuantity());
         return channelData;
@@ -82,6 +79,15 @@ public abstract class CurveFilter implements Channel1DDataInROITransformation
 
     protected abstract double filter(int j, double[] matrix, int columnCount);
 
+    //filters all points, filters which can reuse calculations made for the previous point should override it
+    protected void filter(double[] data, int columnCount, double[] filtered)
+    {
+        for(int j = 0; j<columnCount; j++)
+        {             
+            filtered[j] = filter(j, data, columnCount);
+        }
+    }
+
     protected double getPixel(int column, double[] pixels, int width)
     { 
         if (column<=0) column = 0; 
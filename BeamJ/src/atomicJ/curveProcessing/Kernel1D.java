@@ -202,4 +202,30 @@ public class Kernel1D implements Convolable1D
         else if (column>=width) {column = width-1;} 
         return matrix[column]; 
     }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 17;
+
+        result = 31*result + centerColumnIndex;
+        result = 31*result + Arrays.hashCode(matrix);
+
+        return result;
+    }
+
+    //kernels of different subclasses are not equal, even if they have the same coefficients
+    @Override
+    public boolean equals(Object that)
+    {
+        if(that != null && this.getClass().equals(that.getClass()))
+        {
+            Kernel1D thatKernel = (Kernel1D)that;
+
+            boolean equal = this.centerColumnIndex == thatKernel.centerColumnIndex && Arrays.equals(this.matrix, thatKernel.matrix);
+            return equal;
+        }
+
+        return false;
+    }
 }
@@ -90,4 +90,31 @@ public class Kernel1DSet<E extends Kernel1D> implements Convolable1D
 
         return transformed;
     }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 17;
+
+        result = 31*result + mainKernel.hashCode();
+        result = 31*result + leftMarginKernels.hashCode();
+        result = 31*result + rightMarginKernels.hashCode();
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object that)
+    {
+        if(that instanceof Kernel1DSet)
+        {
+            Kernel1DSet<?> thatSet = (Kernel1DSet<?>)that;
+
+            boolean equal = this.mainKernel.equals(thatSet.mainKernel) && this.leftMarginKernels.equals(thatSet.leftMarginKernels)
+                    && this.rightMarginKernels.equals(thatSet.rightMarginKernels);
+            return equal;
+        }
+
+        return false;
+    }
 }
@@ -1,5 +1,7 @@
 package atomicJ.curveProcessing;
 
+import java.util.Objects;
+
 import atomicJ.data.Channel1DData;
 import atomicJ.data.FlexibleChannel1DData;
 import atomicJ.data.Grid1D;
@@ -51,14 +53,15 @@ public class LocalRegressionTransformation implements Channel1DDataInROITransfor
 
         double[][] points = channel.getPoints();
 
-        double[][] transformed = LocalRegression.smooth(points, spanGeometry, spanType.getSpanLengthInPoints(span, points.length), robustnessIterationsCount, 1e-6, degree, weightFunction);
-
+        //the smoothed values are not needed for the derivative, which is calculated from the original points
         if(derivativeIndex > 0)
         {
-            transformed = LocalRegression.smooth(points, spanGeometry, spanType.getSpanLengthInPoints(span, points.length), degree, derivativeIndex, weightFunction);
+            double[][] transformed = LocalRegression.smooth(points, spanGeometry, spanType.getSpanLengthInPoints(span, points.length), degree, derivativeIndex, weightFunction);
             return new FlexibleChannel1DData(transformed, channel.getXQuantity(), getQuantity(channel.getXQuantity(), channel.getYQuantity(), derivativeIndex), channel.getXOrder());
         }
 
+        double[][] transformed = LocalRegression.smooth(points, spanGeometry, spanType.getSpanLengthInPoints(span, points.length), robustnessIterationsCount, 1e-6, degree, weightFunction);
+
         FlexibleChannel1DData channelData = new FlexibleChannel1DData(transformed, channel.getXQuantity(), channel.getYQuantity(), channel.getXOrder());
         return channelData;
     }
@@ -137,4 +140,40 @@ public class LocalRegressionTransformation implements Channel1DDataInROITransfor
 
         return null;
     }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 17;
+
+        result = 31*result + Double.hashCode(span);
+        result = 31*result + Objects.hashCode(spanType);
+        result = 31*result + robustnessIterationsCount;
+        result = 31*result + degree;
+        result = 31*result + derivativeIndex;
+        result = 31*result + Objects.hashCode(weightFunction);
+        result = 31*result + Objects.hashCode(spanGeometry);
+
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object that)
+    {
+        if(that instanceof LocalRegressionTransformation)
+        {
+            LocalRegressionTransformation thatTransformation = (LocalRegressionTransformation)that;
+
+            boolean equal = Double.compare(this.span, thatTransformation.span) == 0
+                    && Objects.equals(this.spanType, thatTransformation.spanType)
+                    && this.robustnessIterationsCount == thatTransformation.robustnessIterationsCount
+                    && this.degree == thatTransformation.degree
+                    && this.derivativeIndex == thatTransformation.derivativeIndex
+                    && Objects.equals(this.weightFunction, thatTransformation.weightFunction)
+                    && Objects.equals(this.spanGeometry, thatTransformation.spanGeometry);
+            return equal;
+        }
+
+        return false;
+    }
 }
@@ -1,8 +1,9 @@
 package atomicJ.curveProcessing;
 
 import atomicJ.statistics.DescriptiveStatistics;
+import atomicJ.statistics.SlidingWindowMedian;
 
-
+//all points are filtered with a sliding window, in which the value leaving the window is replaced with the value entering it
 public class MedianFilter1D extends CurveFilter
 {    
     private final int kernelColumnCount;
@@ -30,4 +31,28 @@ public class MedianFilter1D extends CurveFilter
 
         return DescriptiveStatistics.median(values);
     }
+
+    @Override
+    protected void filter(double[] data, int columnCount, double[] filtered)
+    {
+        if(columnCount == 0)
+        {
+            return;
+        }
+
+        SlidingWindowMedian window = new SlidingWindowMedian(kernelColumnCount);
+
+        for(int k = 0; k<kernelColumnCount; k++)
+        {
+            window.set(k, getPixel(k - kernelCenterColumn, data, columnCount));
+        }
+
+        filtered[0] = window.getMedian();
+
+        for(int j = 1; j<columnCount; j++)
+        {
+            window.set((j - 1) % kernelColumnCount, getPixel(j + kernelCenterColumn, data, columnCount));
+            filtered[j] = window.getMedian();
+        }
+    }
 }
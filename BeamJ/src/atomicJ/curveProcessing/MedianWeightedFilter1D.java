@@ -1,9 +1,11 @@
 package atomicJ.curveProcessing;
 
 import atomicJ.statistics.DescriptiveStatistics;
+import atomicJ.statistics.SlidingWindowMedian;
 import atomicJ.utilities.ArrayUtilities;
 
-
+//the weight of a value depends on its position in the window, so the window cannot be updated by replacing
+//a single value, instead, one buffer is reused for all points
 public class MedianWeightedFilter1D extends CurveFilter
 {    
     private final double[] kernel;
@@ -27,8 +29,28 @@ public class MedianWeightedFilter1D extends CurveFilter
     {    
         double[] values = new double[weightCount];
 
+        fillWindow(j, matrix, columnCount, values);
+
+        return DescriptiveStatistics.median(values);
+    }
+
+    @Override
+    protected void filter(double[] data, int columnCount, double[] filtered)
+    {
+        double[] values = new double[weightCount];
+
+        for(int j = 0; j<columnCount; j++)
+        {
+            int valueCount = fillWindow(j, data, columnCount, values);
+            filtered[j] = SlidingWindowMedian.median(values, valueCount);
+        }
+    }
+
+    private int fillWindow(int j, double[] matrix, int columnCount, double[] values)
+    {
+        int index = 0;
 
-        for(int k = 0, index = 0; k<kernelColumnCount; k++)
+        for(int k = 0; k<kernelColumnCount; k++)
         {      
             int weight = (int) kernel[kernelColumnCount - k - 1];
 
@@ -42,6 +64,6 @@ public class MedianWeightedFilter1D extends CurveFilter
             }
         }
 
-        return DescriptiveStatistics.median(values);
+        return index;
     }
 }
@@ -0,0 +1,79 @@
+package atomicJ.curveProcessing;
+
+import atomicJ.analysis.SortedArrayOrder;
+import atomicJ.data.AppendableChannel1DData;
+import atomicJ.data.Channel1DData;
+import atomicJ.data.Point1DData;
+
+//appends the new points in place if the channel is an AppendableChannel1DData and the new points
+//do not precede its last point, otherwise the points are added to a copy of the channel,
+//which is again appendable if the transformed channel was appendable
+public class MultiplePointsAppending1DTransformation implements Channel1DDataTransformation
+{
+    private final double[] newXs;
+    private final double[] newYs;
+
+    //the x-coordinates of new points must be in the ascending order
+    public MultiplePointsAppending1DTransformation(double[] newXs, double[] newYs)
+    {
+        if(newXs.length != newYs.length)
+        {
+            throw new IllegalArgumentException("The arrays newXs and newYs should be of equal length");
+        }
+
+        this.newXs = newXs;
+        this.newYs = newYs;
+    }
+
+    @Override
+    public Channel1DData transform(Channel1DData channel)
+    {
+        if(channel instanceof Point1DData)
+        {
+            return transformPointChannel((Point1DData)channel);
+        }
+
+        int newPointCount = newXs.length;
+
+        if(newPointCount == 0)
+        {
+            return channel;
+        }
+
+        if(channel instanceof AppendableChannel1DData)
+        {
+            AppendableChannel1DData appendableChannel = (AppendableChannel1DData)channel;
+
+            if(appendableChannel.canAppend(newXs[0]))
+            {
+                appendableChannel.append(newXs, newYs, 0, newPointCount);
+                return appendableChannel;
+            }
+
+            Channel1DData channelModified = transformAnyChannel(appendableChannel);
+            return AppendableChannel1DData.getInstance(channelModified);
+        }
+
+        return transformAnyChannel(channel);
+    }
+
+    private Channel1DData transformAnyChannel(Channel1DData channel)
+    {
+        int newPointCount = newXs.length;
+
+        double[][] newPoints = new double[newPointCount][];
+        for(int i = 0; i < newPointCount; i++)
+        {
+            newPoints[i] = new double[] {newXs[i], newYs[i]};
+        }
+
+        Channel1DDataTransformation tr = new MultiplePointsAddition1DTransformation(newPoints, SortedArrayOrder.ASCENDING);
+        return tr.transform(channel);
+    }
+
+    @Override
+    public Point1DData transformPointChannel(Point1DData channel)
+    {
+        return channel;
+    }
+}
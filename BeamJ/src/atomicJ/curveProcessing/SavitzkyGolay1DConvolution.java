@@ -77,4 +77,21 @@ public class SavitzkyGolay1DConvolution implements Channel1DDataInROITransformat
 
         return null;
     }
+
+    @Override
+    public int hashCode()
+    {
+        return kernel.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object that)
+    {
+        if(that instanceof SavitzkyGolay1DConvolution)
+        {
+            return this.kernel.equals(((SavitzkyGolay1DConvolution)that).kernel);
+        }
+
+        return false;
+    }
 }
@@ -49,4 +49,21 @@ public class SavitzkyGolay1DKernel extends Kernel1D
 
         return kernelSet;
     }
+
+    @Override
+    public int hashCode()
+    {
+        return 31*super.hashCode() + derivative;
+    }
+
+    @Override
+    public boolean equals(Object that)
+    {
+        if(super.equals(that))
+        {
+            return this.derivative == ((SavitzkyGolay1DKernel)that).derivative;
+        }
+
+        return false;
+    }
 }
@@ -1,5 +1,7 @@
 package atomicJ.curveProcessing;
 
+import java.util.Objects;
+
 import atomicJ.analysis.SortedArrayOrder;
 import atomicJ.data.Channel1DData;
 import atomicJ.data.FlexibleChannel1DData;
@@ -84,4 +86,21 @@ public class SortX1DTransformation implements Channel1DDataInROITransformation
 
         return null;
     }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(order);
+    }
+
+    @Override
+    public boolean equals(Object that)
+    {
+        if(that instanceof SortX1DTransformation)
+        {
+            return Objects.equals(this.order, ((SortX1DTransformation)that).order);
+        }
+
+        return false;
+    }
 }
@@ -0,0 +1,65 @@
+package atomicJ.curveProcessing;
+
+import atomicJ.data.AppendableChannel1DData;
+import atomicJ.data.Channel1DData;
+import atomicJ.data.FlexibleFlatChannel1DData;
+import atomicJ.data.Point1DData;
+
+//keeps every n-th point of the channel, starting from the first one, e.g. to bound the number of points of a live chart
+//the result is again appendable if the transformed channel was appendable
+public class Thinning1DTransformation implements Channel1DDataTransformation
+{
+    private final int stride;
+
+    public Thinning1DTransformation(int stride)
+    {
+        if(stride < 1)
+        {
+            throw new IllegalArgumentException("Stride must be positive");
+        }
+
+        this.stride = stride;
+    }
+
+    @Override
+    public Channel1DData transform(Channel1DData channel)
+    {
+        if(channel instanceof Point1DData)
+        {
+            return transformPointChannel((Point1DData)channel);
+        }
+
+        if(stride == 1)
+        {
+            return channel;
+        }
+
+        int n = channel.getItemCount();
+        int keptCount = (n + stride - 1)/stride;
+
+        double[] xs = new double[keptCount];
+        double[] ys = new double[keptCount];
+
+        for(int i = 0; i < keptCount; i++)
+        {
+            xs[i] = channel.getX(i*stride);
+            ys[i] = channel.getY(i*stride);
+        }
+
+        if(channel instanceof AppendableChannel1DData)
+        {
+            AppendableChannel1DData channelThinned = new AppendableChannel1DData(channel.getXQuantity(), channel.getYQuantity());
+            channelThinned.append(xs, ys, 0, keptCount);
+
+            return channelThinned;
+        }
+
+        return new FlexibleFlatChannel1DData(xs, ys, channel.getXQuantity(), channel.getYQuantity(), channel.getXOrder());
+    }
+
+    @Override
+    public Point1DData transformPointChannel(Point1DData channel)
+    {
+        return channel;
+    }
+}
@@ -21,6 +21,7 @@ import java.awt.Shape;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -40,13 +41,26 @@ import atomicJ.resources.CrossSectionSettings;
 import atomicJ.sources.IdentityTag;
 import atomicJ.statistics.DescriptiveStatistics;
 import atomicJ.utilities.ArrayUtilities;
-
+import atomicJ.utilities.Validation;
+
+//the values are stored either in a jagged array of rows, or in a single contiguous FlatArray2D
+//flat storage is used by transformations which produce whole images, as it needs one allocation instead of one per row
+//getData() converts the flat storage into rows when it is called for the first time, and from then on the rows are used,
+//as the callers of getData() may modify the returned rows
+//the values of large images read from files may also be left in an Array2DSource, and obtained from it whenever they are needed,
+//until getData() copies them into rows
 public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> implements ArrayChannel2DData
 {
-    private final double[][] gridData;
+    //at least one of gridData, flatData and lazySource is not null
+    private volatile double[][] gridData;
+    private volatile FlatArray2D flatData;
+    private final Array2DSource lazySource;
+    //the values last obtained from lazySource, they are referenced weakly, so that they are freed when the source no longer keeps them
+    private volatile WeakReference<FlatArray2D> loadedValues;
     private final E grid;
     private final Quantity zQuantity;
-    private final Range zRange;
+    //calculated when it is needed for the first time, if the values are obtained from lazySource
+    private volatile Range zRange;
     private Range automaticRange;
     private final ChannelDomainIdentifier domainIdentifier;
 
@@ -56,15 +70,49 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
     {
         this.grid = grid;
         this.gridData = gridData;
+        this.lazySource = null;
         this.zQuantity = zQuantity;
         this.zRange = ArrayUtilities.getBoundedRange(gridData);
         this.domainIdentifier = new ChannelDomainIdentifier(grid.getGridDensity(), grid);
     }
 
+    //the values are not copied if the flat array is contiguous, so it should not be modified afterwards
+    public AbstractArrayChannel2DData(FlatArray2D flatData, E grid, Quantity zQuantity)
+    {
+        if(flatData.getRowCount() != grid.getRowCount() || flatData.getColumnCount() != grid.getColumnCount())
+        {
+            throw new IllegalArgumentException("The dimensions of 'flatData' should be equal to the dimensions of the grid");
+        }
+
+        this.grid = grid;
+        this.flatData = flatData.isContiguous() ? flatData : flatData.copy();
+        this.lazySource = null;
+        this.zQuantity = zQuantity;
+        this.zRange = ArrayUtilities.getBoundedRange(this.flatData.getValues());
+        this.domainIdentifier = new ChannelDomainIdentifier(grid.getGridDensity(), grid);
+    }
+
+    //the values are not read from the source until they are needed
+    public AbstractArrayChannel2DData(Array2DSource lazySource, E grid, Quantity zQuantity)
+    {
+        this.grid = grid;
+        this.lazySource = Validation.requireNonNullParameterName(lazySource, "lazySource");
+        this.zQuantity = zQuantity;
+        this.domainIdentifier = new ChannelDomainIdentifier(grid.getGridDensity(), grid);
+    }
+
     public AbstractArrayChannel2DData(AbstractArrayChannel2DData<E> that)
     {
+        FlatArray2D thatFlatData = that.flatData;
+        double[][] thatGridData = that.gridData;
+
+        //a copy of data, whose values have not been copied into rows yet, shares the source of the values, which are never modified
+        boolean sharesSource = thatFlatData == null && thatGridData == null;
+
         this.grid = that.grid;
-        this.gridData = ArrayUtilities.deepCopy(that.gridData);
+        this.lazySource = sharesSource ? that.lazySource : null;
+        this.flatData = (thatFlatData != null) ? thatFlatData.copy() : null;
+        this.gridData = (thatFlatData != null || sharesSource) ? null : ArrayUtilities.deepCopy(thatGridData);
         this.zQuantity = that.zQuantity;
         this.zRange = that.zRange;
         this.automaticRange = that.automaticRange;
@@ -98,16 +146,75 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
     @Override
     public double[][] getData() 
     {
-        return gridData;
+        double[][] data = gridData;
+
+        if(data == null)
+        {
+            synchronized(this)
+            {
+                if(gridData == null)
+                {
+                    //gridData is assigned before flatData is cleared, so that the accessors always find one of them
+                    gridData = (flatData != null) ? flatData.toRows() : lazySource.getValues().toRows();
+                    flatData = null;
+                }
+
+                data = gridData;
+            }
+        }
+
+        return data;
     }
 
     @Override
     public double[][] getDataCopy()
     {
-        double[][] data = ArrayUtilities.deepCopy(gridData);
+        FlatArray2D flat = getFlatStorage();
+        double[][] data = (flat != null) ? flat.toRows() : ArrayUtilities.deepCopy(gridData);
         return data;
     }
 
+    public boolean hasFlatStorage()
+    {
+        return flatData != null || (lazySource != null && gridData == null);
+    }
+
+    //returns the flat storage of the values, if the data have it, or a flat copy of the rows otherwise
+    //the returned array should not be modified
+    public FlatArray2D getFlatData()
+    {
+        FlatArray2D flat = getFlatStorage();
+        return (flat != null) ? flat : FlatArray2D.fromRows(gridData, grid.getRowCount(), grid.getColumnCount());
+    }
+
+    //returns the flat array of values, or the values obtained from lazySource, or null if the values are stored in rows
+    private FlatArray2D getFlatStorage()
+    {
+        FlatArray2D flat = flatData;
+
+        if(flat != null || lazySource == null || gridData != null)
+        {
+            return flat;
+        }
+
+        WeakReference<FlatArray2D> reference = loadedValues;
+        FlatArray2D loaded = (reference != null) ? reference.get() : null;
+
+        if(loaded == null)
+        {
+            loaded = lazySource.getValues();
+            loadedValues = new WeakReference<>(loaded);
+        }
+
+        return loaded;
+    }
+
+    private double getStoredValue(int row, int column)
+    {
+        FlatArray2D flat = getFlatStorage();
+        return (flat != null) ? flat.get(row, column) : gridData[row][column];
+    }
+
     @Override
     public double[][] getPoints() 
     {
@@ -126,7 +233,7 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
             for(int j = 0; j<rowCount; j++,index++)
             {
                 double y = nodeYs[j];
-                double z = gridData[j][i];
+                double z = getStoredValue(j, i);
 
                 data[index] = new double[] {x, y, z};
             }
@@ -191,13 +298,13 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
         int column = item % columnCount;
         int row = item / columnCount;
 
-        return gridData[row][column];
+        return getStoredValue(row, column);
     }
 
     @Override
     public double getZ(int row, int column) 
     {
-        return gridData[row][column];
+        return getStoredValue(row, column);
     }
 
     @Override
@@ -210,7 +317,7 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
 
         if (row < grid.getRowCount() && column < grid.getColumnCount())
         {
-            value = gridData[row][column];
+            value = getStoredValue(row, column);
         }
 
         return value;
@@ -237,7 +344,16 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
     @Override
     public Range getZRange() 
     {
-        return zRange;
+        Range range = zRange;
+
+        if(range == null)
+        {
+            FlatArray2D flat = getFlatStorage();
+            range = (flat != null) ? ArrayUtilities.getBoundedRange(flat.getValues()) : ArrayUtilities.getBoundedRange(gridData);
+            zRange = range;
+        }
+
+        return range;
     }
 
     @Override
@@ -255,7 +371,13 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
     @Override
     public Range getAutomaticZRange()
     {
-        this.automaticRange = (automaticRange != null) ? automaticRange : DescriptiveStatistics.getMADBasedRange(ArrayUtilities.flatten(gridData), 3.5);
+        if(automaticRange == null)
+        {
+            FlatArray2D flat = getFlatStorage();
+            double[] values = (flat != null) ? flat.getValues() : ArrayUtilities.flatten(gridData);
+            this.automaticRange = DescriptiveStatistics.getMADBasedRange(values, 3.5);
+        }
+
         return automaticRange;
     }
 
@@ -267,7 +389,7 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
         int column = item % columnCount;
         int row = item / columnCount;
 
-        return new double[] {grid.getX(column), grid.getY(row), gridData[row][column]};
+        return new double[] {grid.getX(column), grid.getY(row), getStoredValue(row, column)};
     } 
 
     @Override
@@ -282,18 +404,16 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
 
         double[] xs = new double[count];
         double[] ys = new double[count];
-        double[] zs = new double[count];
+        double[] zs = getZCoordinatesCopy();
 
         for (int i = 0, index = 0; i < rowCount; i++) 
         {
             double y = yNodes[i];
-            double[] gridRow = gridData[i];
 
             for (int j = 0; j < columnCount; j++, index++) 
             {
                 xs[index] = xNodes[j];
                 ys[index] = y;
-                zs[index] = gridRow[j];
             }
         }
 
@@ -359,9 +479,17 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
     @Override
     public double[] getZCoordinatesCopy() 
     {
+        FlatArray2D flat = getFlatStorage();
+
+        if(flat != null)
+        {
+            return flat.getValues().clone();
+        }
+
         int rowCount = grid.getRowCount();
         int columnCount = grid.getColumnCount();
 
+        double[][] gridData = this.gridData;
         double[] zs = new double[rowCount * columnCount];
 
         for (int i = 0, index = 0; i < rowCount; i++) 
@@ -379,7 +507,8 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
     @Override
     public double[] getRow(int rowIndex)
     {
-        return gridData[rowIndex];
+        FlatArray2D flat = getFlatStorage();
+        return (flat != null) ? flat.getRowCopy(rowIndex) : gridData[rowIndex];
     }
 
     @Override
@@ -391,7 +520,7 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
 
         for(int i = 0; i<rowCount; i++)
         {
-            column[i] = gridData[i][columnIndex];
+            column[i] = getStoredValue(i, columnIndex);
         }
 
         return column;
@@ -432,7 +561,8 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
 
     private void buildBicubicSplineInterpolationFunction() 
     {                 
-        double[][] transposedData = ArrayUtilities.transpose(gridData,grid.getRowCount(), grid.getColumnCount());
+        FlatArray2D flat = getFlatStorage();
+        double[][] transposedData = (flat != null) ? flat.getTransposed().toRows() : ArrayUtilities.transpose(gridData,grid.getRowCount(), grid.getColumnCount());
 
         this.interpolationFunction = null;
 
@@ -502,7 +632,7 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
 
             @Override
             public void addPoint(int row, int column) {                 
-                valuesInSample[count++] = gridData[row][column];                    
+                valuesInSample[count++] = getStoredValue(row, column);                    
             }
 
             @Override
@@ -510,10 +640,9 @@ public abstract class AbstractArrayChannel2DData <E extends ArraySupport2D> impl
             {
                 for(int i = rowFrom; i<rowTo; i++)
                 {
-                    double[] channelRow = gridData[i];
                     for(int j = columnFrom; j<columnTo; j++)
                     {
-                        valuesInSample[count++] = channelRow[j];                    
+                        valuesInSample[count++] = getStoredValue(i, j);                    
                     }
                 }
             }
@@ -0,0 +1,680 @@
+package atomicJ.data;
+
+import java.util.Arrays;
+
+import org.jfree.data.Range;
+
+import atomicJ.analysis.SortedArrayOrder;
+import atomicJ.data.units.Quantity;
+import atomicJ.utilities.MathUtilities;
+import atomicJ.utilities.OrderedIntegerPair;
+import atomicJ.utilities.Validation;
+
+/**
+ * A growable, append-only channel, whose x-coordinates are in the ascending order.
+ * The coordinates are stored in columns of fixed-size chunks, so appending a point costs amortized O(1)
+ * and never copies the points already stored. Points that have been appended are never modified,
+ * so {@link #getSnapshot()} can return a read-only view that shares the chunks with this channel and that
+ * is not affected by subsequent appends.
+ *
+ * Appends should be made from a single thread. Readers on other threads should work on snapshots.
+ * */
+public class AppendableChannel1DData implements Channel1DData
+{
+    private static final int CHUNK_SIZE_EXPONENT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SIZE_EXPONENT;
+    private static final int CHUNK_INDEX_MASK = CHUNK_SIZE - 1;
+
+    private static final int INITIAL_CHUNK_TABLE_LENGTH = 8;
+
+    private double[][] xChunks;
+    private double[][] yChunks;
+
+    private volatile int itemCount;
+
+    //indices of the extrema of y among points with finite y-coordinates, -1 if there is no such point
+    private int yMinimumIndex = -1;
+    private int yMaximumIndex = -1;
+
+    private final boolean readOnly;
+
+    private final Quantity xQuantity;
+    private final Quantity yQuantity;
+
+    public AppendableChannel1DData(Quantity xQuantity, Quantity yQuantity)
+    {
+        this.xChunks = new double[INITIAL_CHUNK_TABLE_LENGTH][];
+        this.yChunks = new double[INITIAL_CHUNK_TABLE_LENGTH][];
+        this.xQuantity = xQuantity;
+        this.yQuantity = yQuantity;
+        this.readOnly = false;
+    }
+
+    private AppendableChannel1DData(AppendableChannel1DData that)
+    {
+        //chunk tables are copied, because the table of the appendable channel can have new chunks put into it,
+        //but the chunks themselves are shared, as the points which are already stored are never modified
+
+        int count = that.itemCount;
+
+        this.itemCount = count;
+        this.xChunks = Arrays.copyOf(that.xChunks, that.xChunks.length);
+        this.yChunks = Arrays.copyOf(that.yChunks, that.yChunks.length);
+        this.xQuantity = that.xQuantity;
+        this.yQuantity = that.yQuantity;
+        this.readOnly = true;
+
+        //the indices of extrema are read after the count, so if the snapshot is taken on another thread than the one which appends,
+        //they may already come from points appended later, which lie at or beyond the count of the snapshot,
+        //later appends only set the indices to their own positions, so an index below the count is the one valid for the snapshot,
+        //otherwise the extrema are found again among the points of the snapshot
+        int minimumIndex = that.yMinimumIndex;
+        int maximumIndex = that.yMaximumIndex;
+
+        if(minimumIndex < count && maximumIndex < count)
+        {
+            this.yMinimumIndex = minimumIndex;
+            this.yMaximumIndex = maximumIndex;
+        }
+        else
+        {
+            for(int i = 0; i < count; i++)
+            {
+                updateYExtrema(i, getY(i));
+            }
+        }
+    }
+
+    public static AppendableChannel1DData getInstance(Channel1DData channel)
+    {
+        AppendableChannel1DData appendableChannel = new AppendableChannel1DData(channel.getXQuantity(), channel.getYQuantity());
+
+        double[][] points = SortedArrayOrder.ASCENDING.equals(channel.getXOrder()) ? channel.getPoints() : SortedArrayOrder.ASCENDING.sortX(channel.getPointsCopy());
+        for(double[] p : points)
+        {
+            appendableChannel.append(p[0], p[1]);
+        }
+
+        return appendableChannel;
+    }
+
+    /**
+     * Returns a read-only view of the points that are stored in this channel at the moment of call. The view is not affected
+     * by the points appended later. Creating it does not copy the coordinates.
+     * */
+    public AppendableChannel1DData getSnapshot()
+    {
+        return readOnly ? this : new AppendableChannel1DData(this);
+    }
+
+    public boolean isReadOnly()
+    {
+        return readOnly;
+    }
+
+    /**
+     * Returns {@code true} if a point with the given x-coordinate can be appended without breaking the ascending order
+     * of x-coordinates
+     * */
+    public boolean canAppend(double x)
+    {
+        return !readOnly && (itemCount == 0 || x >= getX(itemCount - 1));
+    }
+
+    public void append(double x, double y)
+    {
+        ensureAppendable(x);
+
+        int n = itemCount;
+        int chunkIndex = n >>> CHUNK_SIZE_EXPONENT;
+        int indexInChunk = n & CHUNK_INDEX_MASK;
+
+        if(indexInChunk == 0)
+        {
+            addChunk(chunkIndex);
+        }
+
+        xChunks[chunkIndex][indexInChunk] = x;
+        yChunks[chunkIndex][indexInChunk] = y;
+
+        updateYExtrema(n, y);
+
+        //the volatile write makes the point visible to the readers only after it has been completely written
+        this.itemCount = n + 1;
+    }
+
+    //from inclusive, to exclusive
+    public void append(double[] xs, double[] ys, int from, int to)
+    {
+        if(xs.length != ys.length)
+        {
+            throw new IllegalArgumentException("The arrays xs and ys should be of equal length");
+        }
+
+        Validation.requireValueEqualToOrBetweenBounds(from, 0, xs.length, "from");
+        Validation.requireValueEqualToOrBetweenBounds(to, from, xs.length, "to");
+
+        if(from == to)
+        {
+            return;
+        }
+
+        ensureAppendable(xs[from]);
+
+        for(int i = from + 1; i < to; i++)
+        {
+            if(xs[i] < xs[i - 1])
+            {
+                throw new IllegalArgumentException("The x-coordinates of appended points should be in the ascending order");
+            }
+        }
+
+        int n = itemCount;
+        int sourceIndex = from;
+
+        while(sourceIndex < to)
+        {
+            int chunkIndex = n >>> CHUNK_SIZE_EXPONENT;
+            int indexInChunk = n & CHUNK_INDEX_MASK;
+
+            if(indexInChunk == 0)
+            {
+                addChunk(chunkIndex);
+            }
+
+            int copiedCount = Math.min(CHUNK_SIZE - indexInChunk, to - sourceIndex);
+
+            System.arraycopy(xs, sourceIndex, xChunks[chunkIndex], indexInChunk, copiedCount);
+            System.arraycopy(ys, sourceIndex, yChunks[chunkIndex], indexInChunk, copiedCount);
+
+            for(int i = 0; i < copiedCount; i++)
+            {
+                updateYExtrema(n + i, ys[sourceIndex + i]);
+            }
+
+            sourceIndex += copiedCount;
+            n += copiedCount;
+        }
+
+        this.itemCount = n;
+    }
+
+    private void ensureAppendable(double x)
+    {
+        if(readOnly)
+        {
+            throw new IllegalStateException("Points cannot be appended to a snapshot");
+        }
+        if(!canAppend(x))
+        {
+            throw new IllegalArgumentException("The x-coordinates of appended points should not be smaller than the x-coordinate of the last point");
+        }
+    }
+
+    private void addChunk(int chunkIndex)
+    {
+        if(chunkIndex == xChunks.length)
+        {
+            int tableLengthNew = 2*xChunks.length;
+            this.xChunks = Arrays.copyOf(xChunks, tableLengthNew);
+            this.yChunks = Arrays.copyOf(yChunks, tableLengthNew);
+        }
+
+        xChunks[chunkIndex] = new double[CHUNK_SIZE];
+        yChunks[chunkIndex] = new double[CHUNK_SIZE];
+    }
+
+    private void updateYExtrema(int index, double y)
+    {
+        if(Double.isNaN(y) || Double.isInfinite(y))
+        {
+            return;
+        }
+
+        if(yMinimumIndex < 0 || y < getY(yMinimumIndex))
+        {
+            this.yMinimumIndex = index;
+        }
+        if(yMaximumIndex < 0 || y > getY(yMaximumIndex))
+        {
+            this.yMaximumIndex = index;
+        }
+    }
+
+    @Override
+    public Quantity getXQuantity()
+    {
+        return xQuantity;
+    }
+
+    @Override
+    public Quantity getYQuantity()
+    {
+        return yQuantity;
+    }
+
+    @Override
+    public Channel1DData getCopy()
+    {
+        return new FlexibleFlatChannel1DData(getXCoordinates(), getYCoordinates(), xQuantity, yQuantity, SortedArrayOrder.ASCENDING);
+    }
+
+    @Override
+    public Channel1DData getCopy(double scale)
+    {
+        return getCopy(scale, this.yQuantity);
+    }
+
+    @Override
+    public Channel1DData getCopy(double scale, Quantity yQuantityNew)
+    {
+        return new FlexibleFlatChannel1DData(getXCoordinates(), MathUtilities.multiply(getYCoordinates(), scale), xQuantity, yQuantityNew, SortedArrayOrder.ASCENDING);
+    }
+
+    @Override
+    public double[][] getPoints()
+    {
+        return getPointsCopy(0, itemCount);
+    }
+
+    @Override
+    public double[][] getPointsCopy()
+    {
+        return getPointsCopy(0, itemCount);
+    }
+
+    @Override
+    public double[][] getPointsCopy(double scale)
+    {
+        int n = itemCount;
+        double[][] points = new double[n][];
+
+        for(int i = 0; i < n; i++)
+        {
+            points[i] = new double[] {getX(i), scale*getY(i)};
+        }
+
+        return points;
+    }
+
+    @Override
+    public double[][] getPointsCopy(int from, int to)
+    {
+        int n = itemCount;
+
+        Validation.requireValueEqualToOrBetweenBounds(from, 0, n, "from");
+        Validation.requireValueEqualToOrBetweenBounds(to, 0, n, "to");
+
+        double[][] points = new double[to - from][];
+
+        for(int i = from; i < to; i++)
+        {
+            points[i - from] = new double[] {getX(i), getY(i)};
+        }
+
+        return points;
+    }
+
+    @Override
+    public SortedArrayOrder getXOrder()
+    {
+        return SortedArrayOrder.ASCENDING;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return itemCount == 0;
+    }
+
+    @Override
+    public int getItemCount()
+    {
+        return itemCount;
+    }
+
+    @Override
+    public double getX(int item)
+    {
+        return xChunks[item >>> CHUNK_SIZE_EXPONENT][item & CHUNK_INDEX_MASK];
+    }
+
+    @Override
+    public double getY(int item)
+    {
+        return yChunks[item >>> CHUNK_SIZE_EXPONENT][item & CHUNK_INDEX_MASK];
+    }
+
+    @Override
+    public double getXMinimum()
+    {
+        return itemCount > 0 ? getX(0) : Double.NaN;
+    }
+
+    @Override
+    public double getXMaximum()
+    {
+        int n = itemCount;
+        return n > 0 ? getX(n - 1) : Double.NaN;
+    }
+
+    @Override
+    public Range getXRange()
+    {
+        int n = itemCount;
+
+        if(n == 0)
+        {
+            return null;
+        }
+
+        return new Range(getX(0), getX(n - 1));
+    }
+
+    @Override
+    public double getYMinimum()
+    {
+        return yMinimumIndex >= 0 ? getY(yMinimumIndex) : getYMinimum(0, itemCount);
+    }
+
+    @Override
+    public double getYMinimum(int from, int to)
+    {
+        int index = getYMinimumIndex(from, to);
+        return index >= 0 ? getY(index) : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public int getYMinimumIndex()
+    {
+        return yMinimumIndex >= 0 ? yMinimumIndex : getYMinimumIndex(0, itemCount);
+    }
+
+    @Override
+    public int getYMinimumIndex(int from, int to)
+    {
+        Validation.requireValueEqualToOrBetweenBounds(from, 0, itemCount, "from");
+        Validation.requireValueEqualToOrBetweenBounds(to, 0, itemCount, "to");
+
+        int minIndex = -1;
+        double min = Double.POSITIVE_INFINITY;
+
+        for(int i = from; i < to; i++)
+        {
+            double y = getY(i);
+            if(y < min || minIndex < 0)
+            {
+                min = y;
+                minIndex = i;
+            }
+        }
+
+        return minIndex;
+    }
+
+    @Override
+    public double getYMaximum()
+    {
+        return yMaximumIndex >= 0 ? getY(yMaximumIndex) : getYMaximum(0, itemCount);
+    }
+
+    @Override
+    public double getYMaximum(int from, int to)
+    {
+        int index = getYMaximumIndex(from, to);
+        return index >= 0 ? getY(index) : Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public int getYMaximumIndex()
+    {
+        return yMaximumIndex >= 0 ? yMaximumIndex : getYMaximumIndex(0, itemCount);
+    }
+
+    @Override
+    public int getYMaximumIndex(int from, int to)
+    {
+        Validation.requireValueEqualToOrBetweenBounds(from, 0, itemCount, "from");
+        Validation.requireValueEqualToOrBetweenBounds(to, 0, itemCount, "to");
+
+        int maxIndex = -1;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for(int i = from; i < to; i++)
+        {
+            double y = getY(i);
+            if(y > max || maxIndex < 0)
+            {
+                max = y;
+                maxIndex = i;
+            }
+        }
+
+        return maxIndex;
+    }
+
+    @Override
+    public OrderedIntegerPair getIndicesOfYExtrema()
+    {
+        return new OrderedIntegerPair(getYMinimumIndex(), getYMaximumIndex());
+    }
+
+    @Override
+    public OrderedIntegerPair getIndicesOfYExtrema(int from, int to)
+    {
+        return new OrderedIntegerPair(getYMinimumIndex(from, to), getYMaximumIndex(from, to));
+    }
+
+    @Override
+    public Range getYRange()
+    {
+        if(yMinimumIndex < 0)
+        {
+            return null;
+        }
+
+        return new Range(getY(yMinimumIndex), getY(yMaximumIndex));
+    }
+
+    @Override
+    public Range getYRange(Range xRange)
+    {
+        if(itemCount == 0)
+        {
+            return null;
+        }
+
+        IndexRange indexRange = getIndexRangeBoundedBy(xRange.getLowerBound(), xRange.getUpperBound());
+
+        return getBoundedYRange(indexRange.getMinIndex(), indexRange.getMaxIndex() + 1);
+    }
+
+    //from inclusive, to exclusive
+    private Range getBoundedYRange(int from, int to)
+    {
+        int legalFrom = Math.max(from, 0);
+        int legalTo = Math.min(to, itemCount);
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for(int i = legalFrom; i < legalTo; i++)
+        {
+            double y = getY(i);
+
+            if(Double.isNaN(y) || Double.isInfinite(y))
+            {
+                continue;
+            }
+            if(y < min)
+            {
+                min = y;
+            }
+            if(y > max)
+            {
+                max = y;
+            }
+        }
+
+        return min <= max ? new Range(min, max) : null;
+    }
+
+    //returns the first index such that getX(index) >= key, or n if all x-coordinates are smaller than key
+    private int binarySearchAscending(int n, double key)
+    {
+        int low = 0;
+        int hi = n - 1;
+
+        while (low <= hi)
+        {
+            int mid = (low + hi) >>> 1;
+            int r = Double.compare(getX(mid), key);
+            if (r < 0)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                hi = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Returns such an {@code index1} that {@code getX(index1) <=  upperBound} and for any other {@code index2}
+     * that satisfies  {@code getX(index2) <=  upperBound} it holds that {@code getIndex(index2) <= getIndex(index1)}
+     *
+     * If no point has an x coordinate smaller or equal to upperBound, then the method returns -1.
+     * */
+    @Override
+    public int getIndexOfGreatestXSmallerOrEqualTo(double upperBound)
+    {
+        int n = itemCount;
+
+        if(n == 0)
+        {
+            return -1;
+        }
+
+        if(upperBound == Double.POSITIVE_INFINITY)
+        {
+            return n - 1;
+        }
+
+        int indexOfFirstXLarger = binarySearchAscending(n, Math.nextUp(upperBound));
+
+        return indexOfFirstXLarger - 1;
+    }
+
+    /**
+     * Returns such an {@code index1} that {@code getX(index1) >=  lowerBound}  and for any other {@code index2}
+     * that satisfies  {@code getX(index2) >=  lowerBound} it holds that {@code getIndex(index2) >= getIndex(index1)}
+     *
+     * If no point has an x coordinate greater or equal to lowerBound, then the method returns {@code getItemCount()}.
+     * */
+    @Override
+    public int getIndexOfSmallestXGreaterOrEqualTo(double lowerBound)
+    {
+        int n = itemCount;
+
+        if(lowerBound == Double.NEGATIVE_INFINITY || n == 0)
+        {
+            return 0;
+        }
+
+        return binarySearchAscending(n, lowerBound);
+    }
+
+    @Override
+    public IndexRange getIndexRangeBoundedBy(double lowerBound, double upperBound)
+    {
+        int lowerBoundIndex = getIndexOfSmallestXGreaterOrEqualTo(lowerBound);
+        int upperBoundIndex = getIndexOfGreatestXSmallerOrEqualTo(upperBound);
+
+        return new IndexRange(lowerBoundIndex, upperBoundIndex);
+    }
+
+    //also includes points for which x == lowerBound or x == upperBound
+    @Override
+    public int getIndexCountBoundedBy(double lowerBound, double upperBound)
+    {
+        IndexRange range = getIndexRangeBoundedBy(lowerBound, upperBound);
+        return range.getLengthIncludingEdges();
+    }
+
+    @Override
+    public int getIndexWithinDataBoundsOfItemWithXClosestTo(double x)
+    {
+        int n = itemCount;
+
+        int indexOfGreaterOrEqualX = Math.min(n - 1, binarySearchAscending(n, x));
+        int indexOfClosestX = indexOfGreaterOrEqualX - 1 >= 0 && Math.abs(getX(indexOfGreaterOrEqualX) - x) >= Math.abs(getX(indexOfGreaterOrEqualX - 1) - x) ? indexOfGreaterOrEqualX - 1: indexOfGreaterOrEqualX;
+
+        return indexOfClosestX;
+    }
+
+    @Override
+    public double[] getPoint(int item)
+    {
+        return new double[] {getX(item), getY(item)};
+    }
+
+    @Override
+    public double[] getXCoordinates()
+    {
+        return getXCoordinates(0, itemCount);
+    }
+
+    @Override
+    public double[] getXCoordinates(int from, int to)
+    {
+        return copyColumn(xChunks, from, to);
+    }
+
+    @Override
+    public double[] getYCoordinates()
+    {
+        return getYCoordinates(0, itemCount);
+    }
+
+    //from inclusive, to exclusive
+    @Override
+    public double[] getYCoordinates(int from, int to)
+    {
+        return copyColumn(yChunks, from, to);
+    }
+
+    private double[] copyColumn(double[][] chunks, int from, int to)
+    {
+        Validation.requireValueEqualToOrBetweenBounds(from, 0, itemCount, "from");
+        Validation.requireValueEqualToOrBetweenBounds(to, from, itemCount, "to");
+
+        double[] column = new double[to - from];
+
+        int sourceIndex = from;
+        while(sourceIndex < to)
+        {
+            int indexInChunk = sourceIndex & CHUNK_INDEX_MASK;
+            int copiedCount = Math.min(CHUNK_SIZE - indexInChunk, to - sourceIndex);
+
+            System.arraycopy(chunks[sourceIndex >>> CHUNK_SIZE_EXPONENT], indexInChunk, column, sourceIndex - from, copiedCount);
+            sourceIndex += copiedCount;
+        }
+
+        return column;
+    }
+
+    @Override
+    public double[][] getXYView()
+    {
+        return getXYView(0, itemCount);
+    }
+
+    @Override
+    public double[][] getXYView(int from, int to)
+    {
+        return new double[][] {getXCoordinates(from, to), getYCoordinates(from, to)};
+    }
+}
@@ -0,0 +1,10 @@
+package atomicJ.data;
+
+//the values of a two dimensional array, which are not kept by the channel data, but obtained when they are needed,
+//e.g. read from a file and decoded
+//getValues() may return the same array many times, or a new array each time, so the returned array should not be modified,
+//and it should be contiguous
+public interface Array2DSource
+{
+    public FlatArray2D getValues();
+}
@@ -29,6 +29,7 @@ import java.util.Map.Entry;
 import org.jfree.data.Range;
 
 import atomicJ.curveProcessing.Channel1DDataTransformation;
+import atomicJ.data.units.Quantity;
 
 public class Channel1DCollection implements TransformableData1D<Channel1DCollection>
 {	
@@ -103,7 +104,7 @@ public class Channel1DCollection implements TransformableData1D<Channel1DCollect
         for(Entry<Object, Channel1D> entry : channels.entrySet())
         {
             Channel1D channel = entry.getValue();
-            transformed = transformed || channel.transform(tr);
+            transformed = channel.transform(tr) || transformed;
         }
 
         return transformed;
@@ -127,11 +128,32 @@ public class Channel1DCollection implements TransformableData1D<Channel1DCollect
         this.channels.put(channelIdentifier, new Channel1DStandard(channelData, channelIdentifier));         
     }
 
+    public void addAppendableChannel(Quantity xQuantity, Quantity yQuantity, String channelIdentifier)
+    {
+        addChannel(new AppendableChannel1DData(xQuantity, yQuantity), channelIdentifier);
+    }
+
     public Channel1D getChannel(String channelIdentifier)
     {
         return channels.get(channelIdentifier);
     }
 
+    //channels with AppendableChannel1DData are replaced by channels with their snapshots,
+    //so that the returned channels are not affected by subsequent appends
+    public List<Channel1D> getChannelSnapshots()
+    {
+        List<Channel1D> snapshots = new ArrayList<>();
+
+        for(Channel1D channel : channels.values())
+        {
+            Channel1DData channelData = channel.getChannelData();
+            Channel1D snapshot = (channelData instanceof AppendableChannel1DData) ? new Channel1DStandard(((AppendableChannel1DData)channelData).getSnapshot(), channel.getIdentifier(), channel.getName()) : channel;
+            snapshots.add(snapshot);
+        }
+
+        return snapshots;
+    }
+
     public boolean removeChannel(String channelIndentifier)
     {
         Channel1D removedChannel = this.channels.remove(channelIndentifier);
@@ -0,0 +1,195 @@
+package atomicJ.data;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+//minima and maxima of the y-values of a channel over blocks of consecutive points, at several resolutions,
+//the blocks of the first level have BASE_BLOCK_SIZE points, and the blocks of each following level join two blocks of the previous one
+//the extrema of any range of points are then found in time proportional to the logarithm of its length,
+//which lets renderers of very long channels draw the envelope of the points which fall into each pixel column,
+//at a cost which does not depend on the number of points
+//summaries are cached for the data objects, and extended when points are appended to the data, as in AppendableChannel1DData
+//NaN values are ignored
+public class Channel1DExtremaSummary
+{
+    private static final int BASE_BLOCK_SIZE = 64;
+
+    private static final Map<Channel1DData, SoftReference<Channel1DExtremaSummary>> SUMMARIES = new WeakHashMap<>();
+
+    //the summary does not reference the data, as it is a value of the weak map
+    private double[][] minima = new double[0][];
+    private double[][] maxima = new double[0][];
+    private int[] blockCounts = new int[0];
+    private int itemCount;
+
+    private Channel1DExtremaSummary()
+    {}
+
+    public static Channel1DExtremaSummary getSummary(Channel1DData data)
+    {
+        Channel1DExtremaSummary summary;
+
+        synchronized(SUMMARIES)
+        {
+            SoftReference<Channel1DExtremaSummary> reference = SUMMARIES.get(data);
+            summary = (reference != null) ? reference.get() : null;
+
+            if(summary == null)
+            {
+                summary = new Channel1DExtremaSummary();
+                SUMMARIES.put(data, new SoftReference<>(summary));
+            }
+        }
+
+        summary.update(data);
+
+        return summary;
+    }
+
+    //the minimum and maximum of y-values of points with indices from 'from' inclusive to 'to' exclusive,
+    //or NaNs, if there are no such points which are not NaN
+    public synchronized double[] getYExtrema(Channel1DData data, int from, int to)
+    {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        int index = from;
+
+        //the points before the first whole block
+        int firstBlockStart = Math.min(to, ((from + BASE_BLOCK_SIZE - 1)/BASE_BLOCK_SIZE)*BASE_BLOCK_SIZE);
+        for(; index < firstBlockStart; index++)
+        {
+            double y = data.getY(index);
+            if(y < min) {min = y;}
+            if(y > max) {max = y;}
+        }
+
+        int level = 0;
+        int blockSize = BASE_BLOCK_SIZE;
+
+        while(index + BASE_BLOCK_SIZE <= to && index + BASE_BLOCK_SIZE <= itemCount)
+        {
+            //the largest block which starts at the index and ends before 'to'
+            while(level + 1 < minima.length && index % (2*blockSize) == 0 && index + 2*blockSize <= Math.min(to, itemCount))
+            {
+                level++;
+                blockSize *= 2;
+            }
+            while(index + blockSize > Math.min(to, itemCount))
+            {
+                level--;
+                blockSize /= 2;
+            }
+
+            int block = index/blockSize;
+            if(minima[level][block] < min) {min = minima[level][block];}
+            if(maxima[level][block] > max) {max = maxima[level][block];}
+
+            index += blockSize;
+        }
+
+        //the points after the last whole block
+        for(; index < to; index++)
+        {
+            double y = data.getY(index);
+            if(y < min) {min = y;}
+            if(y > max) {max = y;}
+        }
+
+        return (min <= max) ? new double[] {min, max} : new double[] {Double.NaN, Double.NaN};
+    }
+
+    private synchronized void update(Channel1DData data)
+    {
+        int itemCountNew = data.getItemCount();
+
+        if(itemCountNew == itemCount)
+        {
+            return;
+        }
+
+        //the data of appendable channels only grow, other changes of the count mean that the summary should be built again
+        int firstChangedItem = (itemCountNew > itemCount) ? itemCount : 0;
+
+        this.itemCount = itemCountNew;
+
+        int levelCount = 0;
+        for(int count = getBlockCount(itemCountNew, BASE_BLOCK_SIZE); count > 0; count = (count > 1) ? (count + 1)/2 : 0)
+        {
+            levelCount++;
+        }
+
+        if(levelCount != minima.length)
+        {
+            this.minima = Arrays.copyOf(minima, levelCount);
+            this.maxima = Arrays.copyOf(maxima, levelCount);
+            this.blockCounts = Arrays.copyOf(blockCounts, levelCount);
+        }
+
+        int blockSize = BASE_BLOCK_SIZE;
+
+        for(int level = 0; level < levelCount; level++, blockSize *= 2)
+        {
+            int blockCount = getBlockCount(itemCountNew, blockSize);
+            //the last block of the previous update may have been incomplete, so it is calculated again
+            int firstChangedBlock = Math.min(firstChangedItem/blockSize, blockCounts[level]);
+
+            ensureCapacity(level, blockCount);
+
+            double[] levelMinima = minima[level];
+            double[] levelMaxima = maxima[level];
+
+            for(int block = firstChangedBlock; block < blockCount; block++)
+            {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+
+                if(level == 0)
+                {
+                    int end = Math.min(itemCountNew, (block + 1)*blockSize);
+                    for(int i = block*blockSize; i < end; i++)
+                    {
+                        double y = data.getY(i);
+                        if(y < min) {min = y;}
+                        if(y > max) {max = y;}
+                    }
+                }
+                else
+                {
+                    double[] previousMinima = minima[level - 1];
+                    double[] previousMaxima = maxima[level - 1];
+
+                    int end = Math.min(blockCounts[level - 1], 2*block + 2);
+                    for(int i = 2*block; i < end; i++)
+                    {
+                        if(previousMinima[i] < min) {min = previousMinima[i];}
+                        if(previousMaxima[i] > max) {max = previousMaxima[i];}
+                    }
+                }
+
+                levelMinima[block] = min;
+                levelMaxima[block] = max;
+            }
+
+            blockCounts[level] = blockCount;
+        }
+    }
+
+    private void ensureCapacity(int level, int blockCount)
+    {
+        if(minima[level] == null || minima[level].length < blockCount)
+        {
+            int capacity = Math.max(blockCount, (minima[level] != null) ? 2*minima[level].length : 0);
+
+            minima[level] = (minima[level] != null) ? Arrays.copyOf(minima[level], capacity) : new double[capacity];
+            maxima[level] = (maxima[level] != null) ? Arrays.copyOf(maxima[level], capacity) : new double[capacity];
+        }
+    }
+
+    private static int getBlockCount(int itemCount, int blockSize)
+    {
+        return (itemCount + blockSize - 1)/blockSize;
+    }
+}
@@ -0,0 +1,175 @@
+package atomicJ.data;
+
+import atomicJ.utilities.Validation;
+
+//a two dimensional array of doubles, stored in a single one dimensional array
+//the element (row, column) is stored at the index offset + row*rowStride + column*columnStride, so regions and the transposition
+//of an array can be represented as views, which share the values with the original array
+//new arrays store their rows one after another, such arrays are contiguous, and their values can be processed as a single block
+public class FlatArray2D
+{
+    private final double[] values;
+    private final int offset;
+    private final int rowCount;
+    private final int columnCount;
+    private final int rowStride;
+    private final int columnStride;
+
+    public FlatArray2D(int rowCount, int columnCount)
+    {
+        this(new double[Validation.requireNonNegativeParameterName(rowCount, "rowCount")*Validation.requireNonNegativeParameterName(columnCount, "columnCount")], rowCount, columnCount);
+    }
+
+    //the values are not copied
+    public FlatArray2D(double[] values, int rowCount, int columnCount)
+    {
+        this(values, 0, rowCount, columnCount, columnCount, 1);
+
+        if(values.length != rowCount*columnCount)
+        {
+            throw new IllegalArgumentException("The length of 'values' should be equal to rowCount*columnCount");
+        }
+    }
+
+    private FlatArray2D(double[] values, int offset, int rowCount, int columnCount, int rowStride, int columnStride)
+    {
+        this.values = Validation.requireNonNullParameterName(values, "values");
+        this.offset = offset;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowStride = rowStride;
+        this.columnStride = columnStride;
+    }
+
+    public static FlatArray2D fromRows(double[][] rows, int rowCount, int columnCount)
+    {
+        FlatArray2D array = new FlatArray2D(rowCount, columnCount);
+
+        for(int i = 0; i<rowCount; i++)
+        {
+            System.arraycopy(rows[i], 0, array.values, i*columnCount, columnCount);
+        }
+
+        return array;
+    }
+
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    public int getColumnCount()
+    {
+        return columnCount;
+    }
+
+    //the array which stores the values, shared by all views of this array
+    public double[] getValues()
+    {
+        return values;
+    }
+
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    public int getRowStride()
+    {
+        return rowStride;
+    }
+
+    public int getColumnStride()
+    {
+        return columnStride;
+    }
+
+    //returns true if the elements of this array occupy the whole array of values, row after row
+    public boolean isContiguous()
+    {
+        boolean contiguous = offset == 0 && columnStride == 1 && rowStride == columnCount && values.length == rowCount*columnCount;
+        return contiguous;
+    }
+
+    public int getIndex(int row, int column)
+    {
+        return offset + row*rowStride + column*columnStride;
+    }
+
+    public double get(int row, int column)
+    {
+        return values[offset + row*rowStride + column*columnStride];
+    }
+
+    public void set(int row, int column, double value)
+    {
+        values[offset + row*rowStride + column*columnStride] = value;
+    }
+
+    //the returned view shares the values with this array
+    public FlatArray2D getRegion(int minRow, int minColumn, int regionRowCount, int regionColumnCount)
+    {
+        if(minRow < 0 || minColumn < 0 || regionRowCount < 0 || regionColumnCount < 0
+                || minRow + regionRowCount > rowCount || minColumn + regionColumnCount > columnCount)
+        {
+            throw new IllegalArgumentException("The region is not contained in the array");
+        }
+
+        return new FlatArray2D(values, getIndex(minRow, minColumn), regionRowCount, regionColumnCount, rowStride, columnStride);
+    }
+
+    //the returned view shares the values with this array
+    public FlatArray2D getTransposed()
+    {
+        return new FlatArray2D(values, offset, columnCount, rowCount, columnStride, rowStride);
+    }
+
+    public void copyRow(int row, double[] destination, int destinationOffset)
+    {
+        int index = getIndex(row, 0);
+
+        if(columnStride == 1)
+        {
+            System.arraycopy(values, index, destination, destinationOffset, columnCount);
+            return;
+        }
+
+        for(int j = 0; j<columnCount; j++, index += columnStride)
+        {
+            destination[destinationOffset + j] = values[index];
+        }
+    }
+
+    public double[] getRowCopy(int row)
+    {
+        double[] rowCopy = new double[columnCount];
+        copyRow(row, rowCopy, 0);
+
+        return rowCopy;
+    }
+
+    public double[][] toRows()
+    {
+        double[][] rows = new double[rowCount][];
+
+        for(int i = 0; i<rowCount; i++)
+        {
+            rows[i] = getRowCopy(i);
+        }
+
+        return rows;
+    }
+
+    //returns a contiguous copy of this array
+    public FlatArray2D copy()
+    {
+        FlatArray2D copy = new FlatArray2D(rowCount, columnCount);
+
+        for(int i = 0; i<rowCount; i++)
+        {
+            copyRow(i, copy.values, i*columnCount);
+        }
+
+        return copy;
+    }
+}
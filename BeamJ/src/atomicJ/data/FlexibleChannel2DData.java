@@ -18,14 +18,12 @@
 
 package atomicJ.data;
 
-import edu.mines.jtk.interp.SibsonInterpolator2;
 import gnu.trove.list.TDoubleList;
 import gnu.trove.list.array.TDoubleArrayList;
 
 import java.awt.Shape;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.lang.ref.SoftReference;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -35,6 +33,7 @@ import java.util.Map;
 import org.jfree.data.Range;
 
 import atomicJ.analysis.InterpolationMethod2D;
+import atomicJ.analysis.SibsonInterpolatorCache;
 import atomicJ.data.units.Quantity;
 import atomicJ.gui.DistanceShapeFactors;
 import atomicJ.gui.rois.ROI;
@@ -58,8 +57,6 @@ public class FlexibleChannel2DData implements Channel2DData
     private final Range zRange;
     private final Range automaticRange;
 
-    private SoftReference<SibsonInterpolator2> sibsonInterpolator;
-
     /*
      * THE FIRST ROW IN DATA MATRIX SHOULD CONSIST OF X COORDINATES, THE SECOND OF Y CORDINATES, AND
      * THE THIRD OF Z COORDINATES*/
@@ -418,8 +415,7 @@ public class FlexibleChannel2DData implements Channel2DData
     @Override
     public double getValue(Point2D dataPoint)
     {
-        SibsonInterpolator2 interpolator = getSibsonInterpolator();
-        return interpolator.interpolate((float)dataPoint.getX(), (float)dataPoint.getY());
+        return InterpolationMethod2D.SIBSON.getValue(this, dataPoint.getX(), dataPoint.getY());
     }
 
 
@@ -489,7 +485,7 @@ public class FlexibleChannel2DData implements Channel2DData
 
         if(InterpolationMethod2D.SIBSON.equals(interpolationMethod))
         {
-            necessary = (sibsonInterpolator == null);
+            necessary = !SibsonInterpolatorCache.getInstance().isInterpolatorAvailable(this);
         }
 
         return necessary;
@@ -498,40 +494,10 @@ public class FlexibleChannel2DData implements Channel2DData
     @Override
     public void prepareForInterpolationIfNecessary(InterpolationMethod2D interpolation)
     {
-        if(InterpolationMethod2D.BICUBIC_SPLINE.equals(interpolation) && sibsonInterpolator == null)
-        {
-            buildSibsonInterpolator();
-        }
-    }
-
-    private void buildSibsonInterpolator() 
-    {         
-        float[] xCoords = ArrayUtilities.toFloat(data[0]);
-        float[] yCoords = ArrayUtilities.toFloat(data[1]);
-        float[] zCoords = ArrayUtilities.toFloat(data[2]);
-
-        SibsonInterpolator2 sibsonInterpolator = new SibsonInterpolator2(zCoords, xCoords, yCoords);
-
-        float xMin = (float) xRange.getLowerBound();
-        float yMin = (float) yRange.getLowerBound();        
-
-        float xMax = (float) xRange.getUpperBound();
-        float yMax = (float) yRange.getUpperBound();
-
-        sibsonInterpolator.setBounds(xMin, xMax, yMin, yMax);
-        sibsonInterpolator.setNullValue(Float.NaN);
-
-        this.sibsonInterpolator = new SoftReference<SibsonInterpolator2>(sibsonInterpolator);
-    }
-
-    private SibsonInterpolator2 getSibsonInterpolator() 
-    {
-        if(sibsonInterpolator == null)
+        if(InterpolationMethod2D.SIBSON.equals(interpolation))
         {
-            buildSibsonInterpolator();
+            SibsonInterpolatorCache.getInstance().prepareInterpolator(this);
         }
-
-        return sibsonInterpolator.get();
     }
 
     public static double calculateProbingDensityGeometryPoints(List<Point2D> points)
@@ -29,6 +29,16 @@ public class GridChannel2DData extends AbstractArrayChannel2DData<Grid2D> implem
         super(gridData, grid, zQuantity);
     }
 
+    public GridChannel2DData(FlatArray2D gridData, Grid2D grid, Quantity zQuantity)
+    {
+        super(gridData, grid, zQuantity);
+    }
+
+    public GridChannel2DData(Array2DSource lazySource, Grid2D grid, Quantity zQuantity)
+    {
+        super(lazySource, grid, zQuantity);
+    }
+
     public GridChannel2DData(GridChannel2DData that)
     {
         super(that);
@@ -0,0 +1,516 @@
+package atomicJ.data;
+
+import java.nio.DoubleBuffer;
+
+import org.jfree.data.Range;
+
+import atomicJ.analysis.SortedArrayOrder;
+import atomicJ.data.units.Quantity;
+import atomicJ.utilities.MathUtilities;
+import atomicJ.utilities.OrderedIntegerPair;
+import atomicJ.utilities.Validation;
+
+/**
+ * A read-only channel, whose coordinates are not copied into the heap, but are read on demand from two
+ * {@code DoubleBuffer}s, typically views of a memory-mapped file. The x-coordinates must be in the ascending order.
+ * Only the parts of the buffers that are actually accessed are read, so e.g. finding the points within a range of x
+ * touches only O(log n) pages of the x buffer and the pages of the y buffer that lie within this range.
+ *
+ * The extrema of y are found on the first request and then cached.
+ * */
+public class MappedChannel1DData implements Channel1DData
+{
+    private static final int EXTREMA_NOT_CALCULATED = -2;
+
+    private final DoubleBuffer xs;
+    private final DoubleBuffer ys;
+    private final int itemCount;
+
+    private final Quantity xQuantity;
+    private final Quantity yQuantity;
+
+    //indices of the extrema of y among points with finite y-coordinates, -1 if there is no such point
+    private volatile int yMinimumIndex = EXTREMA_NOT_CALCULATED;
+    private volatile int yMaximumIndex = EXTREMA_NOT_CALCULATED;
+
+    //the points are read from the indices 0 to itemCount - 1 of the buffers, regardless of their positions and limits,
+    //which are not changed
+    public MappedChannel1DData(DoubleBuffer xs, DoubleBuffer ys, int itemCount, Quantity xQuantity, Quantity yQuantity)
+    {
+        Validation.requireValueEqualToOrBetweenBounds(itemCount, 0, Math.min(xs.capacity(), ys.capacity()), "itemCount");
+
+        this.xs = xs.asReadOnlyBuffer();
+        this.xs.clear();
+        this.ys = ys.asReadOnlyBuffer();
+        this.ys.clear();
+        this.itemCount = itemCount;
+        this.xQuantity = xQuantity;
+        this.yQuantity = yQuantity;
+    }
+
+    @Override
+    public Quantity getXQuantity()
+    {
+        return xQuantity;
+    }
+
+    @Override
+    public Quantity getYQuantity()
+    {
+        return yQuantity;
+    }
+
+    //the copy is stored in the heap, so that it does not depend on the mapped file
+    @Override
+    public Channel1DData getCopy()
+    {
+        return new FlexibleFlatChannel1DData(getXCoordinates(), getYCoordinates(), xQuantity, yQuantity, SortedArrayOrder.ASCENDING);
+    }
+
+    @Override
+    public Channel1DData getCopy(double scale)
+    {
+        return getCopy(scale, this.yQuantity);
+    }
+
+    @Override
+    public Channel1DData getCopy(double scale, Quantity yQuantityNew)
+    {
+        return new FlexibleFlatChannel1DData(getXCoordinates(), MathUtilities.multiply(getYCoordinates(), scale), xQuantity, yQuantityNew, SortedArrayOrder.ASCENDING);
+    }
+
+    @Override
+    public double[][] getPoints()
+    {
+        return getPointsCopy(0, itemCount);
+    }
+
+    @Override
+    public double[][] getPointsCopy()
+    {
+        return getPointsCopy(0, itemCount);
+    }
+
+    @Override
+    public double[][] getPointsCopy(double scale)
+    {
+        double[][] points = new double[itemCount][];
+
+        for(int i = 0; i < itemCount; i++)
+        {
+            points[i] = new double[] {getX(i), scale*getY(i)};
+        }
+
+        return points;
+    }
+
+    @Override
+    public double[][] getPointsCopy(int from, int to)
+    {
+        Validation.requireValueEqualToOrBetweenBounds(from, 0, itemCount, "from");
+        Validation.requireValueEqualToOrBetweenBounds(to, 0, itemCount, "to");
+
+        double[][] points = new double[to - from][];
+
+        for(int i = from; i < to; i++)
+        {
+            points[i - from] = new double[] {getX(i), getY(i)};
+        }
+
+        return points;
+    }
+
+    @Override
+    public SortedArrayOrder getXOrder()
+    {
+        return SortedArrayOrder.ASCENDING;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return itemCount == 0;
+    }
+
+    @Override
+    public int getItemCount()
+    {
+        return itemCount;
+    }
+
+    @Override
+    public double getX(int item)
+    {
+        return xs.get(item);
+    }
+
+    @Override
+    public double getY(int item)
+    {
+        return ys.get(item);
+    }
+
+    @Override
+    public double getXMinimum()
+    {
+        return itemCount > 0 ? getX(0) : Double.NaN;
+    }
+
+    @Override
+    public double getXMaximum()
+    {
+        return itemCount > 0 ? getX(itemCount - 1) : Double.NaN;
+    }
+
+    @Override
+    public Range getXRange()
+    {
+        if(itemCount == 0)
+        {
+            return null;
+        }
+
+        return new Range(getX(0), getX(itemCount - 1));
+    }
+
+    private void ensureYExtremaCalculated()
+    {
+        if(yMaximumIndex != EXTREMA_NOT_CALCULATED)
+        {
+            return;
+        }
+
+        int minIndex = -1;
+        int maxIndex = -1;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for(int i = 0; i < itemCount; i++)
+        {
+            double y = getY(i);
+
+            if(Double.isNaN(y) || Double.isInfinite(y))
+            {
+                continue;
+            }
+            if(minIndex < 0 || y < min)
+            {
+                min = y;
+                minIndex = i;
+            }
+            if(maxIndex < 0 || y > max)
+            {
+                max = y;
+                maxIndex = i;
+            }
+        }
+
+        //yMaximumIndex is written last, as it is used to check whether the extrema are calculated
+        this.yMinimumIndex = minIndex;
+        this.yMaximumIndex = maxIndex;
+    }
+
+    @Override
+    public double getYMinimum()
+    {
+        ensureYExtremaCalculated();
+        return yMinimumIndex >= 0 ? getY(yMinimumIndex) : getYMinimum(0, itemCount);
+    }
+
+    @Override
+    public double getYMinimum(int from, int to)
+    {
+        int index = getYMinimumIndex(from, to);
+        return index >= 0 ? getY(index) : Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public int getYMinimumIndex()
+    {
+        ensureYExtremaCalculated();
+        return yMinimumIndex >= 0 ? yMinimumIndex : getYMinimumIndex(0, itemCount);
+    }
+
+    @Override
+    public int getYMinimumIndex(int from, int to)
+    {
+        Validation.requireValueEqualToOrBetweenBounds(from, 0, itemCount, "from");
+        Validation.requireValueEqualToOrBetweenBounds(to, 0, itemCount, "to");
+
+        int minIndex = -1;
+        double min = Double.POSITIVE_INFINITY;
+
+        for(int i = from; i < to; i++)
+        {
+            double y = getY(i);
+            if(y < min || minIndex < 0)
+            {
+                min = y;
+                minIndex = i;
+            }
+        }
+
+        return minIndex;
+    }
+
+    @Override
+    public double getYMaximum()
+    {
+        ensureYExtremaCalculated();
+        return yMaximumIndex >= 0 ? getY(yMaximumIndex) : getYMaximum(0, itemCount);
+    }
+
+    @Override
+    public double getYMaximum(int from, int to)
+    {
+        int index = getYMaximumIndex(from, to);
+        return index >= 0 ? getY(index) : Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public int getYMaximumIndex()
+    {
+        ensureYExtremaCalculated();
+        return yMaximumIndex >= 0 ? yMaximumIndex : getYMaximumIndex(0, itemCount);
+    }
+
+    @Override
+    public int getYMaximumIndex(int from, int to)
+    {
+        Validation.requireValueEqualToOrBetweenBounds(from, 0, itemCount, "from");
+        Validation.requireValueEqualToOrBetweenBounds(to, 0, itemCount, "to");
+
+        int maxIndex = -1;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for(int i = from; i < to; i++)
+        {
+            double y = getY(i);
+            if(y > max || maxIndex < 0)
+            {
+                max = y;
+                maxIndex = i;
+            }
+        }
+
+        return maxIndex;
+    }
+
+    @Override
+    public OrderedIntegerPair getIndicesOfYExtrema()
+    {
+        return new OrderedIntegerPair(getYMinimumIndex(), getYMaximumIndex());
+    }
+
+    @Override
+    public OrderedIntegerPair getIndicesOfYExtrema(int from, int to)
+    {
+        return new OrderedIntegerPair(getYMinimumIndex(from, to), getYMaximumIndex(from, to));
+    }
+
+    @Override
+    public Range getYRange()
+    {
+        ensureYExtremaCalculated();
+
+        if(yMinimumIndex < 0)
+        {
+            return null;
+        }
+
+        return new Range(getY(yMinimumIndex), getY(yMaximumIndex));
+    }
+
+    @Override
+    public Range getYRange(Range xRange)
+    {
+        if(itemCount == 0)
+        {
+            return null;
+        }
+
+        IndexRange indexRange = getIndexRangeBoundedBy(xRange.getLowerBound(), xRange.getUpperBound());
+
+        return getBoundedYRange(indexRange.getMinIndex(), indexRange.getMaxIndex() + 1);
+    }
+
+    //from inclusive, to exclusive
+    private Range getBoundedYRange(int from, int to)
+    {
+        int legalFrom = Math.max(from, 0);
+        int legalTo = Math.min(to, itemCount);
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        for(int i = legalFrom; i < legalTo; i++)
+        {
+            double y = getY(i);
+
+            if(Double.isNaN(y) || Double.isInfinite(y))
+            {
+                continue;
+            }
+            if(y < min)
+            {
+                min = y;
+            }
+            if(y > max)
+            {
+                max = y;
+            }
+        }
+
+        return min <= max ? new Range(min, max) : null;
+    }
+
+    //returns the first index such that getX(index) >= key, or itemCount if all x-coordinates are smaller than key
+    private int binarySearchAscending(double key)
+    {
+        int low = 0;
+        int hi = itemCount - 1;
+
+        while (low <= hi)
+        {
+            int mid = (low + hi) >>> 1;
+            int r = Double.compare(getX(mid), key);
+            if (r < 0)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                hi = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Returns such an {@code index1} that {@code getX(index1) <=  upperBound} and for any other {@code index2}
+     * that satisfies  {@code getX(index2) <=  upperBound} it holds that {@code getIndex(index2) <= getIndex(index1)}
+     *
+     * If no point has an x coordinate smaller or equal to upperBound, then the method returns -1.
+     * */
+    @Override
+    public int getIndexOfGreatestXSmallerOrEqualTo(double upperBound)
+    {
+        if(itemCount == 0)
+        {
+            return -1;
+        }
+
+        if(upperBound == Double.POSITIVE_INFINITY)
+        {
+            return itemCount - 1;
+        }
+
+        int indexOfFirstXLarger = binarySearchAscending(Math.nextUp(upperBound));
+
+        return indexOfFirstXLarger - 1;
+    }
+
+    /**
+     * Returns such an {@code index1} that {@code getX(index1) >=  lowerBound}  and for any other {@code index2}
+     * that satisfies  {@code getX(index2) >=  lowerBound} it holds that {@code getIndex(index2) >= getIndex(index1)}
+     *
+     * If no point has an x coordinate greater or equal to lowerBound, then the method returns {@code getItemCount()}.
+     * */
+    @Override
+    public int getIndexOfSmallestXGreaterOrEqualTo(double lowerBound)
+    {
+        if(lowerBound == Double.NEGATIVE_INFINITY || itemCount == 0)
+        {
+            return 0;
+        }
+
+        return binarySearchAscending(lowerBound);
+    }
+
+    @Override
+    public IndexRange getIndexRangeBoundedBy(double lowerBound, double upperBound)
+    {
+        int lowerBoundIndex = getIndexOfSmallestXGreaterOrEqualTo(lowerBound);
+        int upperBoundIndex = getIndexOfGreatestXSmallerOrEqualTo(upperBound);
+
+        return new IndexRange(lowerBoundIndex, upperBoundIndex);
+    }
+
+    //also includes points for which x == lowerBound or x == upperBound
+    @Override
+    public int getIndexCountBoundedBy(double lowerBound, double upperBound)
+    {
+        IndexRange range = getIndexRangeBoundedBy(lowerBound, upperBound);
+        return range.getLengthIncludingEdges();
+    }
+
+    @Override
+    public int getIndexWithinDataBoundsOfItemWithXClosestTo(double x)
+    {
+        int indexOfGreaterOrEqualX = Math.min(itemCount - 1, binarySearchAscending(x));
+        int indexOfClosestX = indexOfGreaterOrEqualX - 1 >= 0 && Math.abs(getX(indexOfGreaterOrEqualX) - x) >= Math.abs(getX(indexOfGreaterOrEqualX - 1) - x) ? indexOfGreaterOrEqualX - 1: indexOfGreaterOrEqualX;
+
+        return indexOfClosestX;
+    }
+
+    @Override
+    public double[] getPoint(int item)
+    {
+        return new double[] {getX(item), getY(item)};
+    }
+
+    @Override
+    public double[] getXCoordinates()
+    {
+        return getXCoordinates(0, itemCount);
+    }
+
+    @Override
+    public double[] getXCoordinates(int from, int to)
+    {
+        return copyColumn(xs, from, to);
+    }
+
+    @Override
+    public double[] getYCoordinates()
+    {
+        return getYCoordinates(0, itemCount);
+    }
+
+    //from inclusive, to exclusive
+    @Override
+    public double[] getYCoordinates(int from, int to)
+    {
+        return copyColumn(ys, from, to);
+    }
+
+    //a duplicate is used for the bulk copy, so that the position of the shared buffer is not changed
+    //and the channel can be read from several threads
+    private double[] copyColumn(DoubleBuffer buffer, int from, int to)
+    {
+        Validation.requireValueEqualToOrBetweenBounds(from, 0, itemCount, "from");
+        Validation.requireValueEqualToOrBetweenBounds(to, from, itemCount, "to");
+
+        double[] column = new double[to - from];
+
+        DoubleBuffer duplicate = buffer.duplicate();
+        duplicate.limit(to);
+        duplicate.position(from);
+        duplicate.get(column, 0, to - from);
+
+        return column;
+    }
+
+    @Override
+    public double[][] getXYView()
+    {
+        return getXYView(0, itemCount);
+    }
+
+    @Override
+    public double[][] getXYView(int from, int to)
+    {
+        return new double[][] {getXCoordinates(from, to), getYCoordinates(from, to)};
+    }
+}
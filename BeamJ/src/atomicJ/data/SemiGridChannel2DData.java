@@ -27,6 +27,11 @@ public class SemiGridChannel2DData extends AbstractArrayChannel2DData<ArraySuppo
         super(gridData, grid, zQuantity);
     }
 
+    public SemiGridChannel2DData(FlatArray2D gridData, ArraySupport2D grid, Quantity zQuantity)
+    {
+        super(gridData, grid, zQuantity);
+    }
+
     public SemiGridChannel2DData(SemiGridChannel2DData that)
     {
         super(that);
@@ -21,11 +21,13 @@ package atomicJ.gui;
 import java.io.Serializable;
 import java.util.List;
 
+import org.jfree.data.DomainOrder;
 import org.jfree.data.Range;
 import org.jfree.data.general.DatasetChangeEvent;
 import org.jfree.data.xy.AbstractXYDataset;
 import org.jfree.util.PublicCloneable;
 
+import atomicJ.analysis.SortedArrayOrder;
 import atomicJ.curveProcessing.Channel1DDataTransformation;
 import atomicJ.data.Channel1D;
 import atomicJ.data.Channel1DData;
@@ -102,6 +104,16 @@ ProcessableXYDataset<Channel1D>, PublicCloneable, Serializable
         return displayedChannel.getY(item);
     }
 
+    //the plot searches the visible items of sorted datasets by bisection, instead of checking the x-values of all items
+    @Override
+    public DomainOrder getDomainOrder()
+    {
+        SortedArrayOrder xOrder = displayedChannel.getChannelData().getXOrder();
+
+        DomainOrder order = SortedArrayOrder.ASCENDING.equals(xOrder) ? DomainOrder.ASCENDING : (SortedArrayOrder.DESCENDING.equals(xOrder) ? DomainOrder.DESCENDING : DomainOrder.NONE);
+        return order;
+    }
+
     public Range getXRange()
     {
         return displayedChannel.getXRange();
@@ -20,6 +20,7 @@ package atomicJ.gui;
 
 import java.awt.Graphics2D;
 import java.awt.Shape;
+import java.awt.geom.GeneralPath;
 import java.awt.geom.Rectangle2D;
 import java.util.prefs.Preferences;
 
@@ -34,8 +35,16 @@ import org.jfree.data.xy.XYDataset;
 import org.jfree.ui.Layer;
 import org.jfree.ui.RectangleEdge;
 
+import atomicJ.analysis.SortedArrayOrder;
+import atomicJ.data.Channel1DData;
+import atomicJ.data.Channel1DExtremaSummary;
+
 public abstract class Channel1DRenderer extends XYLineAndShapeRendererLightweight<Channel1DRendererData> implements ChannelRenderer
 {	
+    //lines of channels with more visible points than this number times the number of pixel columns are drawn as envelopes
+    private static final int DECIMATION_POINTS_PER_PIXEL = 4;
+
+    private boolean decimatedLinesEnabled = true;
     private String name;
     private final Object layerKey;
     private final StyleTag styleTag;
@@ -155,7 +164,11 @@ public abstract class Channel1DRenderer extends XYLineAndShapeRendererLightweigh
         boolean buildLineEntities = dataset.getItemCount(series) < 3;
 
         // first pass draws the background (lines, for instance)
-        if (baseLinesVisible && isLinePass(pass)) 
+        if (baseLinesVisible && isLinePass(pass) && isLineDecimated(plot, dataset, firstItem, lastItem, dataArea))
+        {
+            drawDecimatedLine((State)state, g2, plot, (Channel1DDataset)dataset, pass, series, firstItem, lastItem, domainAxis, rangeAxis, dataArea);
+        }
+        else if (baseLinesVisible && isLinePass(pass)) 
         {
             boolean drawSeriesLineAsPath = getDrawSeriesLineAsPath();
 
@@ -204,6 +217,134 @@ public abstract class Channel1DRenderer extends XYLineAndShapeRendererLightweigh
         }
     }
 
+    public boolean isDecimatedLinesEnabled()
+    {
+        return decimatedLinesEnabled;
+    }
+
+    //if enabled, the lines of long channels with ascending x-coordinates are drawn as the envelopes of the points in each pixel column,
+    //i.e. for each column, the first point, the minimum, the maximum and the last point are connected
+    //the lines look the same as if all points were connected, but their drawing does not depend on the number of points
+    public void setDecimatedLinesEnabled(boolean decimatedLinesEnabled)
+    {
+        this.decimatedLinesEnabled = decimatedLinesEnabled;
+    }
+
+    private boolean isLineDecimated(XYPlot<?, ?> plot, XYDataset dataset, int firstItem, int lastItem, Rectangle2D dataArea)
+    {
+        if(!decimatedLinesEnabled || !(dataset instanceof Channel1DDataset))
+        {
+            return false;
+        }
+
+        double pixelCount = PlotOrientation.VERTICAL.equals(plot.getOrientation()) ? dataArea.getWidth() : dataArea.getHeight();
+        if(lastItem - firstItem + 1 <= DECIMATION_POINTS_PER_PIXEL*pixelCount)
+        {
+            return false;
+        }
+
+        Channel1DData data = ((Channel1DDataset)dataset).getDisplayedChannel().getChannelData();
+        return SortedArrayOrder.ASCENDING.equals(data.getXOrder());
+    }
+
+    private void drawDecimatedLine(State state, Graphics2D g2, XYPlot<?, ?> plot, Channel1DDataset dataset, int pass, int series, int firstItem, int lastItem,
+            ValueAxis domainAxis, ValueAxis rangeAxis, Rectangle2D dataArea)
+    {
+        Channel1DData data = dataset.getDisplayedChannel().getChannelData();
+        Channel1DExtremaSummary summary = Channel1DExtremaSummary.getSummary(data);
+
+        RectangleEdge xAxisLocation = plot.getDomainAxisEdge();
+        RectangleEdge yAxisLocation = plot.getRangeAxisEdge();
+        boolean vertical = PlotOrientation.VERTICAL.equals(plot.getOrientation());
+
+        double pixelStart = vertical ? dataArea.getMinX() : dataArea.getMinY();
+        int pixelCount = (int)Math.ceil(vertical ? dataArea.getWidth() : dataArea.getHeight());
+
+        //the columns are visited in the order of ascending x, which is opposite to the order of pixels for inverted axes and for vertical domain axes
+        boolean pixelsAscending = domainAxis.java2DToValue(pixelStart, dataArea, xAxisLocation) < domainAxis.java2DToValue(pixelStart + pixelCount, dataArea, xAxisLocation);
+
+        GeneralPath path = state.seriesPath;
+        path.reset();
+        state.setLastPointGood(false);
+
+        int end = lastItem + 1;
+
+        //the points left of the data area, only the first and the last one affect the visible part of the line
+        double visibleMinimum = domainAxis.java2DToValue(pixelsAscending ? pixelStart : pixelStart + pixelCount, dataArea, xAxisLocation);
+        int item = Math.max(firstItem, Math.min(end, data.getIndexOfSmallestXGreaterOrEqualTo(visibleMinimum)));
+
+        if(item > firstItem)
+        {
+            addPointToPath(state, data, firstItem, vertical, domainAxis, rangeAxis, dataArea, xAxisLocation, yAxisLocation);
+            addPointToPath(state, data, item - 1, vertical, domainAxis, rangeAxis, dataArea, xAxisLocation, yAxisLocation);
+        }
+
+        for(int i = 0; i < pixelCount && item < end; i++)
+        {
+            int pixel = pixelsAscending ? i : pixelCount - 1 - i;
+            double columnMaximum = domainAxis.java2DToValue(pixelStart + (pixelsAscending ? pixel + 1 : pixel), dataArea, xAxisLocation);
+
+            int columnEnd = (i == pixelCount - 1) ? end : Math.max(item, Math.min(end, data.getIndexOfSmallestXGreaterOrEqualTo(columnMaximum)));
+
+            if(columnEnd - item <= DECIMATION_POINTS_PER_PIXEL)
+            {
+                for(int j = item; j < columnEnd; j++)
+                {
+                    addPointToPath(state, data, j, vertical, domainAxis, rangeAxis, dataArea, xAxisLocation, yAxisLocation);
+                }
+            }
+            else
+            {
+                addPointToPath(state, data, item, vertical, domainAxis, rangeAxis, dataArea, xAxisLocation, yAxisLocation);
+
+                double[] extrema = summary.getYExtrema(data, item + 1, columnEnd - 1);
+
+                if(!Double.isNaN(extrema[0]))
+                {
+                    double columnCenter = pixelStart + pixel + 0.5;
+                    boolean rising = data.getY(item) <= data.getY(columnEnd - 1);
+
+                    addTransformedPointToPath(state, vertical, columnCenter, rangeAxis.valueToJava2D(rising ? extrema[0] : extrema[1], dataArea, yAxisLocation));
+                    addTransformedPointToPath(state, vertical, columnCenter, rangeAxis.valueToJava2D(rising ? extrema[1] : extrema[0], dataArea, yAxisLocation));
+                }
+
+                addPointToPath(state, data, columnEnd - 1, vertical, domainAxis, rangeAxis, dataArea, xAxisLocation, yAxisLocation);
+            }
+
+            item = columnEnd;
+        }
+
+        drawFirstPassShape(g2, pass, series, lastItem, path);
+    }
+
+    private void addPointToPath(State state, Channel1DData data, int item, boolean vertical, ValueAxis domainAxis, ValueAxis rangeAxis,
+            Rectangle2D dataArea, RectangleEdge xAxisLocation, RectangleEdge yAxisLocation)
+    {
+        double transX = domainAxis.valueToJava2D(data.getX(item), dataArea, xAxisLocation);
+        double transY = rangeAxis.valueToJava2D(data.getY(item), dataArea, yAxisLocation);
+
+        addTransformedPointToPath(state, vertical, transX, transY);
+    }
+
+    private void addTransformedPointToPath(State state, boolean vertical, double transX, double transY)
+    {
+        if (Double.isNaN(transX) || Double.isNaN(transY)) {
+            state.setLastPointGood(false);
+            return;
+        }
+
+        float x = (float) (vertical ? transX : transY);
+        float y = (float) (vertical ? transY : transX);
+
+        if (state.isLastPointGood()) {
+            state.seriesPath.lineTo(x, y);
+        }
+        else {
+            state.seriesPath.moveTo(x, y);
+        }
+        state.setLastPointGood(true);
+    }
+
     public int getBaseMarkerIndex()
     {
         return getData().getBaseMarkerIndex();
@@ -0,0 +1,301 @@
+package atomicJ.gui;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.Timer;
+
+import org.jfree.chart.ChartRenderingInfo;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.xy.XYDataset;
+
+import atomicJ.analysis.SortedArrayOrder;
+import atomicJ.data.Channel1DData;
+
+//coalesces the changes of the data of a chart, which receives new points of live recordings, and refreshes the chart at most
+//a given number of times per second, instead of once for each batch of points
+//the changes should be reported on the event dispatch thread
+//if the points were only appended to the data of a channel since the last refresh, and they lie within the current ranges of the axes,
+//so that the axes would not change, only the part of the data area covered by the new points is drawn again,
+//without the dataset change event, which is fired for other changes and which makes the whole chart redraw
+//the partial refresh helps only if the domain axis has a fixed range, which covers the whole recording, e.g. its planned duration,
+//an automatically adjusted domain axis grows with each batch of appended points of a time series, and an axis with a fixed auto range
+//slides its window, so in both cases the whole chart changes and is redrawn, as it was before the coordinator was used
+public class ChartRefreshCoordinator
+{
+    public static final int DEFAULT_FRAME_RATE = 25;
+
+    //the redrawn region extends beyond the new points, so that the whole shapes and the joints of the lines are drawn again
+    private static final double REGION_MARGIN = 4;
+
+    private final CustomizableXYBaseChart<?> chart;
+    private final MultipleChartPanel<?> chartPanel;
+
+    private final Timer timer;
+    private int frameRate;
+    private long lastRefreshTime;
+
+    private final Set<Object> changedKeys = new LinkedHashSet<>();
+    private final Map<Object, DisplayedData> displayedData = new HashMap<>();
+
+    public ChartRefreshCoordinator(CustomizableXYBaseChart<?> chart, MultipleChartPanel<?> chartPanel)
+    {
+        this(chart, chartPanel, DEFAULT_FRAME_RATE);
+    }
+
+    public ChartRefreshCoordinator(CustomizableXYBaseChart<?> chart, MultipleChartPanel<?> chartPanel, int frameRate)
+    {
+        if(frameRate < 1)
+        {
+            throw new IllegalArgumentException("'frameRate' should be positive");
+        }
+
+        this.chart = chart;
+        this.chartPanel = chartPanel;
+        this.frameRate = frameRate;
+
+        this.timer = new Timer(getFrameInterval(), new ActionListener()
+        {
+            @Override
+            public void actionPerformed(ActionEvent evt)
+            {
+                refresh();
+            }
+        });
+        this.timer.setRepeats(false);
+    }
+
+    public int getFrameRate()
+    {
+        return frameRate;
+    }
+
+    public void setFrameRate(int frameRate)
+    {
+        if(frameRate < 1)
+        {
+            throw new IllegalArgumentException("'frameRate' should be positive");
+        }
+
+        this.frameRate = frameRate;
+    }
+
+    public void channelChanged(Object key)
+    {
+        changedKeys.add(key);
+
+        if(!timer.isRunning())
+        {
+            long timeSinceRefresh = System.currentTimeMillis() - lastRefreshTime;
+            int delay = (int)Math.max(0, Math.min(getFrameInterval(), getFrameInterval() - timeSinceRefresh));
+
+            timer.setInitialDelay(delay);
+            timer.start();
+        }
+    }
+
+    //refreshes the chart immediately, if any changes are pending
+    public void flush()
+    {
+        if(timer.isRunning())
+        {
+            timer.stop();
+            refresh();
+        }
+    }
+
+    //discards the pending changes, the chart is not refreshed afterwards
+    public void dispose()
+    {
+        timer.stop();
+        changedKeys.clear();
+        displayedData.clear();
+    }
+
+    private int getFrameInterval()
+    {
+        return Math.max(1, 1000/frameRate);
+    }
+
+    private void refresh()
+    {
+        this.lastRefreshTime = System.currentTimeMillis();
+
+        List<Object> keys = new ArrayList<>(changedKeys);
+        changedKeys.clear();
+
+        Rectangle2D appendedRegion = null;
+
+        for(Object key : keys)
+        {
+            Rectangle2D region = getAppendedRegion(key);
+
+            if(region != null)
+            {
+                appendedRegion = (appendedRegion != null) ? appendedRegion.createUnion(region) : region;
+            }
+            else
+            {
+                chart.notifyOfDataChange(key);
+            }
+
+            updateDisplayedData(key);
+        }
+
+        if(appendedRegion != null && !appendedRegion.isEmpty())
+        {
+            chartPanel.refreshChartRegion(appendedRegion);
+        }
+    }
+
+    //returns the region of the chart covered by the points appended to the channel since the last refresh, in the coordinates of the chart,
+    //or null if the channel changed otherwise, or the axes may change, in which case the whole chart should be refreshed
+    private Rectangle2D getAppendedRegion(Object key)
+    {
+        CustomizableXYBasePlot plot = chart.getCustomizablePlot();
+        int index = plot.getLayerIndex(key);
+
+        if(index < 0 || chartPanel.getSelectedChart() != chart || !PlotOrientation.VERTICAL.equals(plot.getOrientation()))
+        {
+            return null;
+        }
+
+        XYDataset dataset = plot.getDataset(index);
+        DisplayedData previous = displayedData.get(key);
+
+        if(!(dataset instanceof Channel1DDataset) || previous == null)
+        {
+            return null;
+        }
+
+        Channel1DData data = ((Channel1DDataset)dataset).getDisplayedChannel().getChannelData();
+        int itemCount = data.getItemCount();
+
+        if(data != previous.data || itemCount < previous.itemCount || !SortedArrayOrder.ASCENDING.equals(data.getXOrder()))
+        {
+            return null;
+        }
+
+        ChartRenderingInfo info = chartPanel.getChartRenderingInfo();
+        Rectangle2D dataArea = info.getPlotInfo().getDataArea();
+
+        if(itemCount == previous.itemCount || dataArea.isEmpty())
+        {
+            return new Rectangle2D.Double();
+        }
+
+        ValueAxis domainAxis = plot.getDomainAxisForDataset(index);
+        ValueAxis rangeAxis = plot.getRangeAxisForDataset(index);
+
+        //the line joins the new points with the last point drawn before
+        int firstItem = Math.max(0, previous.itemCount - 1);
+
+        double minX = data.getX(firstItem);
+        double maxX = data.getX(itemCount - 1);
+
+        if(!isWithinAxisRange(domainAxis, minX, maxX, previous.minX, previous.maxX))
+        {
+            return null;
+        }
+
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        for(int i = firstItem; i < itemCount; i++)
+        {
+            double y = data.getY(i);
+            if(y < minY) {minY = y;}
+            if(y > maxY) {maxY = y;}
+        }
+
+        if(minY <= maxY && !isWithinAxisRange(rangeAxis, minY, maxY, previous.minY, previous.maxY))
+        {
+            return null;
+        }
+
+        ((Channel1DDataset)dataset).notifyOfDataChange(false);
+
+        double x0 = domainAxis.valueToJava2D(minX, dataArea, plot.getDomainAxisEdge());
+        double x1 = domainAxis.valueToJava2D(maxX, dataArea, plot.getDomainAxisEdge());
+
+        Rectangle2D region = new Rectangle2D.Double(Math.min(x0, x1) - REGION_MARGIN, dataArea.getMinY() - REGION_MARGIN,
+                Math.abs(x1 - x0) + 2*REGION_MARGIN, dataArea.getHeight() + 2*REGION_MARGIN);
+
+        return region;
+    }
+
+    //if the axis adjusts its range automatically, the new values must not extend the values which were already displayed,
+    //as otherwise the range would change when the chart is drawn again, so for an automatically adjusted domain axis
+    //this holds only until the next points of the recording are appended, i.e. practically never
+    private static boolean isWithinAxisRange(ValueAxis axis, double min, double max, double displayedMin, double displayedMax)
+    {
+        boolean within = axis.isAutoRange() ? (displayedMin <= min && max <= displayedMax) : (axis.getLowerBound() <= min && max <= axis.getUpperBound());
+        return within;
+    }
+
+    private void updateDisplayedData(Object key)
+    {
+        CustomizableXYBasePlot plot = chart.getCustomizablePlot();
+        int index = plot.getLayerIndex(key);
+
+        XYDataset dataset = (index >= 0) ? plot.getDataset(index) : null;
+
+        if(!(dataset instanceof Channel1DDataset))
+        {
+            displayedData.remove(key);
+            return;
+        }
+
+        Channel1DData data = ((Channel1DDataset)dataset).getDisplayedChannel().getChannelData();
+        DisplayedData previous = displayedData.get(key);
+
+        int itemCount = data.getItemCount();
+        boolean appended = previous != null && previous.data == data && previous.itemCount <= itemCount;
+
+        DisplayedData current = appended ? previous : new DisplayedData(data);
+        current.extend(appended ? previous.itemCount : 0, itemCount);
+
+        displayedData.put(key, current);
+    }
+
+    //the data of a channel at the last refresh, with the bounds of the points which were displayed then
+    private static class DisplayedData
+    {
+        private final Channel1DData data;
+        private int itemCount;
+
+        private double minX = Double.POSITIVE_INFINITY;
+        private double maxX = Double.NEGATIVE_INFINITY;
+        private double minY = Double.POSITIVE_INFINITY;
+        private double maxY = Double.NEGATIVE_INFINITY;
+
+        private DisplayedData(Channel1DData data)
+        {
+            this.data = data;
+        }
+
+        private void extend(int from, int to)
+        {
+            for(int i = from; i < to; i++)
+            {
+                double x = data.getX(i);
+                double y = data.getY(i);
+
+                if(x < minX) {minX = x;}
+                if(x > maxX) {maxX = x;}
+                if(y < minY) {minY = y;}
+                if(y > maxY) {maxY = y;}
+            }
+
+            this.itemCount = to;
+        }
+    }
+}
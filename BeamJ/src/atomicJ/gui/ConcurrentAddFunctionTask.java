@@ -26,12 +26,12 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import atomicJ.analysis.MonitoredSwingWorker;
 import atomicJ.data.Grid2D;
 import atomicJ.functions.MultivariateFunction;
+import atomicJ.utilities.ComputeScheduler;
 
 
 public class ConcurrentAddFunctionTask extends MonitoredSwingWorker<Void, Void> 
@@ -71,7 +71,7 @@ public class ConcurrentAddFunctionTask extends MonitoredSwingWorker<Void, Void>
         int basicTaskSize = problemSize/taskNumber;
         int remainingFiles = problemSize%taskNumber;
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("Adding functions", ComputeScheduler.Priority.INTERACTIVE, taskNumber); 
 
         int currentIndex = 0;
 
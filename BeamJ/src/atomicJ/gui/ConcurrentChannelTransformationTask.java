@@ -27,12 +27,12 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import atomicJ.analysis.MonitoredSwingWorker;
 import atomicJ.data.Channel2DData;
 import atomicJ.imageProcessing.Channel2DDataTransformation;
+import atomicJ.utilities.ComputeScheduler;
 
 
 
@@ -69,7 +69,7 @@ public class ConcurrentChannelTransformationTask extends MonitoredSwingWorker<Vo
         int basicTaskSize = problemSize/taskNumber;
         int remainingFiles = problemSize%taskNumber;
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("Channel transformation", ComputeScheduler.Priority.BATCH, taskNumber); 
 
         int currentIndex = 0;
 
@@ -29,7 +29,6 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JOptionPane;
@@ -41,6 +40,7 @@ import atomicJ.gui.profile.CrossSectionsReceiver;
 import atomicJ.gui.profile.ProfileLine;
 import atomicJ.resources.CrossSectionResource;
 import atomicJ.sources.Channel2DSource;
+import atomicJ.utilities.ComputeScheduler;
 
 
 public class ConcurrentCrossSectionTask extends MonitoredSwingWorker<Void, Void> 
@@ -89,7 +89,7 @@ public class ConcurrentCrossSectionTask extends MonitoredSwingWorker<Void, Void>
         int basicTaskSize = problemSize/taskNumber;
         int remainingFiles = problemSize%taskNumber;
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("Cross sections", ComputeScheduler.Priority.INTERACTIVE, taskNumber); 
 
         int currentIndex = 0;
 
@@ -26,12 +26,12 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import atomicJ.analysis.InterpolationMethod2D;
 import atomicJ.analysis.MonitoredSwingWorker;
 import atomicJ.data.Channel2D;
+import atomicJ.utilities.ComputeScheduler;
 
 
 public class ConcurrentInterpolationFunctionTask extends MonitoredSwingWorker<Void, Void> 
@@ -60,7 +60,7 @@ public class ConcurrentInterpolationFunctionTask extends MonitoredSwingWorker<Vo
         int basicTaskSize = problemSize/taskNumber;
         int remainingFiles = problemSize%taskNumber;
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("Interpolation functions", ComputeScheduler.Priority.INTERACTIVE, taskNumber); 
 
         int currentIndex = 0;
 
@@ -26,11 +26,11 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import atomicJ.analysis.MonitoredSwingWorker;
 import atomicJ.sources.ChannelSource;
+import atomicJ.utilities.ComputeScheduler;
 
 public class ConcurrentPreviewTask <E extends ChannelSource> extends MonitoredSwingWorker<Void, Void> 
 {
@@ -60,7 +60,7 @@ public class ConcurrentPreviewTask <E extends ChannelSource> extends MonitoredSw
         int basicTaskSize = problemSize/taskNumber;
         int remainingFiles = problemSize%taskNumber;
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("Preview", ComputeScheduler.Priority.INTERACTIVE, taskNumber); 
 
         int currentIndex = 0;
 
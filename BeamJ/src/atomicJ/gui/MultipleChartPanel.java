@@ -327,6 +327,8 @@ MouseMotionListener, OverlayChangeListener, Printable, Serializable
 
     private boolean useBuffer;
     private boolean refreshBuffer;
+    //the region of the buffer, in the coordinates of the chart, which should be drawn again, while the rest of the buffer is up to date
+    private transient Rectangle2D bufferRegionToRefresh;
     private transient Image chartBuffer;
     private int chartBufferHeight;
     private int chartBufferWidth;
@@ -1373,6 +1375,7 @@ MouseMotionListener, OverlayChangeListener, Printable, Serializable
             if (this.refreshBuffer) 
             {
                 this.refreshBuffer = false; // clear the flag
+                this.bufferRegionToRefresh = null;
 
                 Rectangle2D bufferArea = new Rectangle2D.Double(0, 0, this.chartBufferWidth, this.chartBufferHeight);
 
@@ -1386,6 +1389,23 @@ MouseMotionListener, OverlayChangeListener, Printable, Serializable
 
                 this.chart.draw(bufferG2, bufferArea, this.anchor, this.info);               
             }
+            else if(this.bufferRegionToRefresh != null)
+            {
+                Rectangle2D bufferArea = new Rectangle2D.Double(0, 0, this.chartBufferWidth, this.chartBufferHeight);
+                Rectangle clip = this.bufferRegionToRefresh.getBounds().intersection(bufferArea.getBounds());
+                this.bufferRegionToRefresh = null;
+
+                //the chart is drawn as a whole, but only the pixels within the clip are changed
+                Graphics2D bufferG2 = (Graphics2D)this.chartBuffer.getGraphics();
+                bufferG2.clip(clip);
+                Composite savedComposite = bufferG2.getComposite();
+                bufferG2.setComposite(AlphaComposite.getInstance(AlphaComposite.CLEAR, 0.0f));
+                bufferG2.fill(clip);
+                bufferG2.setComposite(savedComposite);
+
+                this.chart.draw(bufferG2, bufferArea, this.anchor, this.info);
+                bufferG2.dispose();
+            }
 
             // zap the buffer onto the panel...
             g2.drawImage(this.chartBuffer, insets.left, insets.top, this);
@@ -1420,6 +1440,24 @@ MouseMotionListener, OverlayChangeListener, Printable, Serializable
         chartChanged();
     }
 
+    //draws again only the given region of the chart, in the coordinates of the chart, when the rest of the chart did not change,
+    //e.g. the part of the data area covered by points appended to a live recording
+    //if the buffer is not used, or the whole buffer has to be drawn again anyway, the whole chart is refreshed
+    public void refreshChartRegion(Rectangle2D region)
+    {
+        if(!this.useBuffer || this.chartBuffer == null || this.refreshBuffer)
+        {
+            chartChanged();
+            return;
+        }
+
+        this.bufferRegionToRefresh = (this.bufferRegionToRefresh != null) ? this.bufferRegionToRefresh.createUnion(region) : region.getBounds2D();
+
+        Insets insets = getInsets();
+        Rectangle bounds = region.getBounds();
+        repaint((int)Math.floor(insets.left + horizontalSpace) + bounds.x - 1, (int)Math.floor(insets.top + verticalSpace) + bounds.y - 1, bounds.width + 2, bounds.height + 2);
+    }
+
     public void chartChanged()
     {       
         this.refreshBuffer = true;
@@ -28,7 +28,6 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import atomicJ.analysis.MonitoredSwingWorker;
@@ -36,6 +35,7 @@ import atomicJ.analysis.Visualizable;
 import atomicJ.gui.ChannelChart;
 import atomicJ.gui.GeneralPreferences;
 import atomicJ.gui.UserCommunicableException;
+import atomicJ.utilities.ComputeScheduler;
 
 
 public class ConcurrentCurveVisualizationTask<E extends Visualizable> extends MonitoredSwingWorker<Map<E,Map<String, ChannelChart<?>>>, Void> 
@@ -69,7 +69,7 @@ public class ConcurrentCurveVisualizationTask<E extends Visualizable> extends Mo
         int basicTaskSize = problemSize/taskNumber;
         int remainingFiles = problemSize%taskNumber;
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("Curve visualization", ComputeScheduler.Priority.INTERACTIVE, taskNumber); 
 
         int currentIndex = 0;
 
@@ -25,7 +25,6 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JOptionPane;
@@ -37,6 +36,7 @@ import atomicJ.gui.UserCommunicableException;
 import atomicJ.gui.undo.UndoableCommand;
 import atomicJ.resources.ChannelResource;
 import atomicJ.resources.ResourceView;
+import atomicJ.utilities.ComputeScheduler;
 import atomicJ.utilities.MetaMap;
 
 public class ConcurrentTransformationTask <R extends ChannelResource<E, ?, ?>, E extends Channel> extends MonitoredSwingWorker<MetaMap<R, String, UndoableCommand>, Void> 
@@ -69,7 +69,7 @@ public class ConcurrentTransformationTask <R extends ChannelResource<E, ?, ?>, E
         int basicTaskSize = problemSize/taskNumber;
         int remainingFiles = problemSize%taskNumber;
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("Transformation", ComputeScheduler.Priority.BATCH, taskNumber); 
 
         int currentIndex = 0;
 
@@ -6,6 +6,7 @@ import java.util.Set;
 
 import atomicJ.data.Channel;
 import atomicJ.gui.undo.CommandIdentifier;
+import atomicJ.gui.undo.UndoSnapshot;
 import atomicJ.gui.undo.UndoableCommand;
 import atomicJ.resources.ChannelResource;
 import atomicJ.resources.ResourceView;
@@ -17,7 +18,7 @@ public abstract class UndoableBasicCommand <R extends ChannelResource<E, D, I>,
     private final R resource;
     private final String type;
 
-    private final Map<I, D> dataMap;
+    private final UndoSnapshot<I, D> snapshot;
     private final Set<I> identifiers;
 
     private final ResourceView<R, E, I> manager;
@@ -33,7 +34,7 @@ public abstract class UndoableBasicCommand <R extends ChannelResource<E, D, I>,
         this.manager = manager;
         this.resource = resource;
         this.type = type;
-        this.dataMap = resource.getChannelData(type);
+        this.snapshot = new UndoSnapshot<>(resource.getChannelData(type));
         this.compundCommandIdentifier = id;
         this.identifiers = (identifiers != null) ? Collections.unmodifiableSet(identifiers) : null;
     }
@@ -69,7 +70,7 @@ public abstract class UndoableBasicCommand <R extends ChannelResource<E, D, I>,
     {
         if(canBeUndone())
         {      
-            Map<I, E> changedChannels = resource.setChannelData(type, dataMap);
+            Map<I, E> changedChannels = resource.setChannelData(type, snapshot.getData());
             handleChangeOfData(changedChannels);
 
             this.undone = true;
@@ -80,11 +81,35 @@ public abstract class UndoableBasicCommand <R extends ChannelResource<E, D, I>,
     {
         if(canBeUndone())
         {      
-            resource.setChannelData(type, dataMap);
+            resource.setChannelData(type, snapshot.getData());
         }           
     }
 
 
+    @Override
+    public long getMemoryUsage()
+    {
+        return snapshot.getMemoryUsage();
+    }
+
+    @Override
+    public void compact()
+    {
+        snapshot.compact();
+    }
+
+    @Override
+    public void spill()
+    {
+        snapshot.spill();
+    }
+
+    @Override
+    public void dispose()
+    {
+        snapshot.dispose();
+    }
+
     @Override
     public boolean isExecuted()
     {
@@ -29,7 +29,6 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import atomicJ.analysis.MonitoredSwingWorker;
@@ -37,6 +36,7 @@ import atomicJ.data.Channel2D;
 import atomicJ.data.QuantitativeSample;
 import atomicJ.gui.GeneralPreferences;
 import atomicJ.gui.UserCommunicableException;
+import atomicJ.utilities.ComputeScheduler;
 
 
 
@@ -75,7 +75,7 @@ public class ConcurrentROISampleTask extends MonitoredSwingWorker<Map<String, Ma
         int basicTaskSize = problemSize/taskNumber;
         int remainingProblems = problemSize%taskNumber;		
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("ROI samples", ComputeScheduler.Priority.INTERACTIVE, taskNumber); 
 
         int currentIndex = 0;
 
@@ -11,13 +11,13 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.jfree.util.ShapeUtilities;
 
 import atomicJ.data.Grid2D;
 import atomicJ.gui.GeneralPreferences;
 import atomicJ.utilities.ArrayIndex;
+import atomicJ.utilities.ComputeScheduler;
 
 
 public class GridPositionCalculator2 
@@ -216,7 +216,7 @@ public class GridPositionCalculator2
         int basicTaskSize = cellRowCount/taskNumber;
         int remainingFiles = cellRowCount%taskNumber;
 
-        ExecutorService executor = Executors.newFixedThreadPool(taskNumber); 
+        ExecutorService executor = ComputeScheduler.getInstance().newTaskExecutor("ROI grid positions", ComputeScheduler.Priority.INTERACTIVE, taskNumber); 
 
         int currentIndex = 0;
 
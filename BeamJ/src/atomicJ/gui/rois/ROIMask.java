@@ -0,0 +1,422 @@
+package atomicJ.gui.rois;
+
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+
+import gnu.trove.list.array.TIntArrayList;
+
+//the pixels of a regular grid which lie inside a ROI, stored as spans of columns in each row
+//the spans of the row i are stored in spans[rowOffsets[i]] to spans[rowOffsets[i + 1] - 1], as pairs of the first column
+//of the span (inclusive) and the last column (exclusive)
+//the mask is rasterized once, by scanning the rows of the grid with the active edges of the flattened shape of the ROI,
+//and then it can be used by all operations, which need the points inside or outside the ROI,
+//instead of testing Shape.contains() for each pixel
+//a pixel (row, column) is inside the mask if the point (column, row) is inside the shape transformed to the coordinates of grid indices,
+//points on the boundary are inside if the region immediately to their right, or below them, is inside, as for java.awt.Shape
+public class ROIMask
+{
+    private final int rowCount;
+    private final int columnCount;
+
+    private final int[] rowOffsets;
+    private final int[] spans;
+    private final int insidePointCount;
+
+    private ROIMask(int rowCount, int columnCount, int[] rowOffsets, int[] spans)
+    {
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowOffsets = rowOffsets;
+        this.spans = spans;
+
+        int count = 0;
+        for(int k = 0; k < spans.length; k += 2)
+        {
+            count += spans[k + 1] - spans[k];
+        }
+
+        this.insidePointCount = count;
+    }
+
+    //types are the types of segments of the flattened path, as in PathIterator, and coords contain two coordinates
+    //for each segment of type SEG_MOVETO or SEG_LINETO
+    static ROIMask rasterize(int[] types, double[] coords, int windingRule, int rowCount, int columnCount)
+    {
+        EdgeTable edges = new EdgeTable(types, coords, rowCount);
+
+        int[] rowOffsets = new int[rowCount + 1];
+        TIntArrayList spans = new TIntArrayList();
+
+        //the active edges are kept in the order of their crossings with the previous row, which changes little from row to row,
+        //so insertion sort is cheap
+        int[] active = new int[edges.getEdgeCount()];
+        double[] crossings = new double[edges.getEdgeCount()];
+        int activeCount = 0;
+
+        boolean evenOdd = windingRule == PathIterator.WIND_EVEN_ODD;
+
+        for(int i = 0; i < rowCount; i++)
+        {
+            rowOffsets[i] = spans.size();
+
+            //removes the edges which end above the row
+            int remaining = 0;
+            for(int k = 0; k < activeCount; k++)
+            {
+                int edge = active[k];
+                if(edges.lastRows[edge] >= i)
+                {
+                    active[remaining++] = edge;
+                }
+            }
+            activeCount = remaining;
+
+            for(int edge = edges.rowStarts[i]; edge < edges.rowStarts[i + 1]; edge++)
+            {
+                active[activeCount++] = edges.order[edge];
+            }
+
+            for(int k = 0; k < activeCount; k++)
+            {
+                int edge = active[k];
+                double crossing = edges.x0s[edge] + (i - edges.y0s[edge])*edges.slopes[edge];
+
+                int l = k - 1;
+                while(l >= 0 && crossings[l] > crossing)
+                {
+                    crossings[l + 1] = crossings[l];
+                    active[l + 1] = active[l];
+                    l--;
+                }
+
+                crossings[l + 1] = crossing;
+                active[l + 1] = edge;
+            }
+
+            int winding = 0;
+            int spanStart = -1;
+
+            for(int k = 0; k < activeCount; k++)
+            {
+                boolean insideBefore = evenOdd ? (winding & 1) != 0 : winding != 0;
+                winding += edges.directions[active[k]];
+                boolean insideAfter = evenOdd ? (winding & 1) != 0 : winding != 0;
+
+                if(!insideBefore && insideAfter)
+                {
+                    spanStart = clipColumn(Math.ceil(crossings[k]), columnCount);
+                }
+                else if(insideBefore && !insideAfter)
+                {
+                    int spanEnd = clipColumn(Math.ceil(crossings[k]), columnCount);
+
+                    if(spanEnd > spanStart)
+                    {
+                        int size = spans.size();
+                        //joins spans which touch each other
+                        if(size > rowOffsets[i] && spans.get(size - 1) >= spanStart)
+                        {
+                            spans.set(size - 1, Math.max(spanEnd, spans.get(size - 1)));
+                        }
+                        else
+                        {
+                            spans.add(spanStart);
+                            spans.add(spanEnd);
+                        }
+                    }
+                }
+            }
+        }
+
+        rowOffsets[rowCount] = spans.size();
+
+        return new ROIMask(rowCount, columnCount, rowOffsets, spans.toArray());
+    }
+
+    private static int clipColumn(double column, int columnCount)
+    {
+        return (int)Math.max(0, Math.min(columnCount, column));
+    }
+
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    public int getColumnCount()
+    {
+        return columnCount;
+    }
+
+    public int getInsidePointCount()
+    {
+        return insidePointCount;
+    }
+
+    public int getOutsidePointCount()
+    {
+        return rowCount*columnCount - insidePointCount;
+    }
+
+    public boolean isInside(int row, int column)
+    {
+        if(row < 0 || row >= rowCount)
+        {
+            return false;
+        }
+
+        //the last span which starts at or before the column
+        int low = rowOffsets[row]/2;
+        int high = rowOffsets[row + 1]/2 - 1;
+
+        while(low <= high)
+        {
+            int middle = (low + high) >>> 1;
+
+            if(spans[2*middle] <= column)
+            {
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+
+        boolean inside = high >= rowOffsets[row]/2 && column < spans[2*high + 1];
+        return inside;
+    }
+
+    public void addPoints(ROIRelativePosition position, GridPointRecepient recepient)
+    {
+        if(ROIRelativePosition.INSIDE.equals(position))
+        {
+            addPointsInside(recepient);
+        }
+        else if(ROIRelativePosition.OUTSIDE.equals(position))
+        {
+            addPointsOutside(recepient);
+        }
+        else if(ROIRelativePosition.EVERYTHING.equals(position))
+        {
+            recepient.addBlock(0, rowCount, 0, columnCount);
+        }
+    }
+
+    public void addPointsInside(GridPointRecepient recepient)
+    {
+        for(int i = 0; i < rowCount; i++)
+        {
+            for(int k = rowOffsets[i]; k < rowOffsets[i + 1]; k += 2)
+            {
+                recepient.addBlock(i, i + 1, spans[k], spans[k + 1]);
+            }
+        }
+    }
+
+    public void addPointsOutside(GridPointRecepient recepient)
+    {
+        //consecutive rows without any point inside are added as one block
+        int emptyRowsStart = 0;
+
+        for(int i = 0; i < rowCount; i++)
+        {
+            if(rowOffsets[i] == rowOffsets[i + 1])
+            {
+                continue;
+            }
+
+            if(emptyRowsStart < i)
+            {
+                recepient.addBlock(emptyRowsStart, i, 0, columnCount);
+            }
+            emptyRowsStart = i + 1;
+
+            int outsideStart = 0;
+
+            for(int k = rowOffsets[i]; k < rowOffsets[i + 1]; k += 2)
+            {
+                if(spans[k] > outsideStart)
+                {
+                    recepient.addBlock(i, i + 1, outsideStart, spans[k]);
+                }
+                outsideStart = spans[k + 1];
+            }
+
+            if(outsideStart < columnCount)
+            {
+                recepient.addBlock(i, i + 1, outsideStart, columnCount);
+            }
+        }
+
+        if(emptyRowsStart < rowCount)
+        {
+            recepient.addBlock(emptyRowsStart, rowCount, 0, columnCount);
+        }
+    }
+
+    //imageMinRow, imageMaxRow, imageMinColumn and imageMaxColumn inclusive
+    public void dividePoints(int imageMinRow, int imageMaxRow, int imageMinColumn, int imageMaxColumn, GridBiPointRecepient recepient)
+    {
+        int minRow = Math.max(0, imageMinRow);
+        int maxRow = Math.min(rowCount - 1, imageMaxRow);
+        int minColumn = Math.max(0, imageMinColumn);
+        int maxColumn = Math.min(columnCount - 1, imageMaxColumn);
+
+        for(int i = minRow; i <= maxRow; i++)
+        {
+            int outsideStart = minColumn;
+
+            for(int k = rowOffsets[i]; k < rowOffsets[i + 1]; k += 2)
+            {
+                int spanStart = Math.max(minColumn, spans[k]);
+                int spanEnd = Math.min(maxColumn + 1, spans[k + 1]);
+
+                if(spanStart >= spanEnd)
+                {
+                    continue;
+                }
+
+                for(int j = outsideStart; j < spanStart; j++)
+                {
+                    recepient.addPointOutside(i, j);
+                }
+                for(int j = spanStart; j < spanEnd; j++)
+                {
+                    recepient.addPointInside(i, j);
+                }
+
+                outsideStart = spanEnd;
+            }
+
+            for(int j = outsideStart; j <= maxColumn; j++)
+            {
+                recepient.addPointOutside(i, j);
+            }
+        }
+    }
+
+    //the non-horizontal edges of a flattened path, sorted by the first row which they cross
+    private static class EdgeTable
+    {
+        private final double[] x0s;
+        private final double[] y0s;
+        private final double[] slopes;
+        private final int[] directions;
+        private final int[] lastRows;
+
+        //edges order[rowStarts[i]] to order[rowStarts[i + 1] - 1] become active in the row i
+        private final int[] rowStarts;
+        private final int[] order;
+
+        private int edgeCount;
+
+        private EdgeTable(int[] types, double[] coords, int rowCount)
+        {
+            //each segment gives at most one edge, and each subpath may be closed by one more edge
+            int capacity = types.length + 1;
+
+            this.x0s = new double[capacity];
+            this.y0s = new double[capacity];
+            this.slopes = new double[capacity];
+            this.directions = new int[capacity];
+            this.lastRows = new int[capacity];
+
+            int[] firstRows = new int[capacity];
+
+            double startX = 0;
+            double startY = 0;
+            double currentX = 0;
+            double currentY = 0;
+
+            int c = 0;
+
+            for(int type : types)
+            {
+                if(type == PathIterator.SEG_MOVETO)
+                {
+                    addEdge(currentX, currentY, startX, startY, rowCount, firstRows);
+
+                    startX = coords[c++];
+                    startY = coords[c++];
+                    currentX = startX;
+                    currentY = startY;
+                }
+                else if(type == PathIterator.SEG_LINETO)
+                {
+                    double x = coords[c++];
+                    double y = coords[c++];
+
+                    addEdge(currentX, currentY, x, y, rowCount, firstRows);
+
+                    currentX = x;
+                    currentY = y;
+                }
+                else if(type == PathIterator.SEG_CLOSE)
+                {
+                    addEdge(currentX, currentY, startX, startY, rowCount, firstRows);
+
+                    currentX = startX;
+                    currentY = startY;
+                }
+            }
+
+            //subpaths which are not closed explicitly are closed, as in filling
+            addEdge(currentX, currentY, startX, startY, rowCount, firstRows);
+
+            this.rowStarts = new int[rowCount + 1];
+            for(int e = 0; e < edgeCount; e++)
+            {
+                rowStarts[firstRows[e] + 1]++;
+            }
+            for(int i = 0; i < rowCount; i++)
+            {
+                rowStarts[i + 1] += rowStarts[i];
+            }
+
+            this.order = new int[edgeCount];
+            int[] positions = Arrays.copyOf(rowStarts, rowCount);
+            for(int e = 0; e < edgeCount; e++)
+            {
+                order[positions[firstRows[e]]++] = e;
+            }
+        }
+
+        //an edge is crossed by the rows i, for which minY <= i < maxY
+        private void addEdge(double x1, double y1, double x2, double y2, int rowCount, int[] firstRows)
+        {
+            if(y1 == y2 || Double.isNaN(y1) || Double.isNaN(y2))
+            {
+                return;
+            }
+
+            boolean downwards = y2 > y1;
+
+            double x0 = downwards ? x1 : x2;
+            double y0 = downwards ? y1 : y2;
+            double yEnd = downwards ? y2 : y1;
+
+            int firstRow = (int)Math.max(0, Math.ceil(y0));
+            int lastRow = (int)Math.min(rowCount - 1, Math.ceil(yEnd) - 1);
+
+            if(firstRow > lastRow)
+            {
+                return;
+            }
+
+            x0s[edgeCount] = x0;
+            y0s[edgeCount] = y0;
+            slopes[edgeCount] = (x2 - x1)/(y2 - y1);
+            directions[edgeCount] = downwards ? 1 : -1;
+            lastRows[edgeCount] = lastRow;
+            firstRows[edgeCount] = firstRow;
+
+            edgeCount++;
+        }
+
+        private int getEdgeCount()
+        {
+            return edgeCount;
+        }
+    }
+}
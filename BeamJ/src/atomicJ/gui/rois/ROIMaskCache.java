@@ -0,0 +1,152 @@
+package atomicJ.gui.rois;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TIntArrayList;
+
+import atomicJ.data.Grid2D;
+
+//masks of ROIs on regular grids, shared by filtering, sampling, statistics and all other operations restricted to ROIs
+//a mask is identified by the flattened shape of the ROI in the coordinates of grid indices, and by the size of the grid,
+//so it is found again as long as neither the geometry of the ROI nor the grid change, and a ROI which is moved or reshaped
+//simply gets a new mask, the masks which are not used for the longest time are discarded
+public class ROIMaskCache
+{
+    private static final ROIMaskCache INSTANCE = new ROIMaskCache();
+
+    private static final int MAXIMAL_MASK_COUNT = 64;
+    //the maximal distance between the flattened path and curves of the shape, in pixels
+    private static final double FLATNESS = 0.01;
+
+    private final Map<MaskKey, SoftReference<ROIMask>> masks = new LinkedHashMap<MaskKey, SoftReference<ROIMask>>(16, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<MaskKey, SoftReference<ROIMask>> eldest)
+        {
+            return size() > MAXIMAL_MASK_COUNT;
+        }
+    };
+
+    private ROIMaskCache()
+    {}
+
+    public static ROIMaskCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    public ROIMask getMask(Grid2D grid, Shape roiShape)
+    {
+        Shape transformedShape = GridPositionCalculator.getTransformedShape(grid, roiShape);
+        MaskKey key = new MaskKey(transformedShape, grid.getRowCount(), grid.getColumnCount());
+
+        synchronized(masks)
+        {
+            SoftReference<ROIMask> reference = masks.get(key);
+            ROIMask mask = (reference != null) ? reference.get() : null;
+
+            if(mask != null)
+            {
+                return mask;
+            }
+        }
+
+        //the mask is rasterized outside the lock, so that masks of different ROIs can be built at the same time
+        ROIMask mask = ROIMask.rasterize(key.types, key.coords, key.windingRule, key.rowCount, key.columnCount);
+
+        synchronized(masks)
+        {
+            masks.put(key, new SoftReference<>(mask));
+        }
+
+        return mask;
+    }
+
+    public void clear()
+    {
+        synchronized(masks)
+        {
+            masks.clear();
+        }
+    }
+
+    private static class MaskKey
+    {
+        private final int[] types;
+        private final double[] coords;
+        private final int windingRule;
+        private final int rowCount;
+        private final int columnCount;
+        private final int hashCode;
+
+        private MaskKey(Shape transformedShape, int rowCount, int columnCount)
+        {
+            TIntArrayList typeList = new TIntArrayList();
+            TDoubleArrayList coordList = new TDoubleArrayList();
+
+            PathIterator iterator = transformedShape.getPathIterator(null, FLATNESS);
+            double[] segment = new double[6];
+
+            for(; !iterator.isDone(); iterator.next())
+            {
+                int type = iterator.currentSegment(segment);
+                typeList.add(type);
+
+                if(type != PathIterator.SEG_CLOSE)
+                {
+                    coordList.add(segment[0]);
+                    coordList.add(segment[1]);
+                }
+            }
+
+            this.types = typeList.toArray();
+            this.coords = coordList.toArray();
+            this.windingRule = iterator.getWindingRule();
+            this.rowCount = rowCount;
+            this.columnCount = columnCount;
+
+            int result = 17;
+            result = 31*result + Arrays.hashCode(types);
+            result = 31*result + Arrays.hashCode(coords);
+            result = 31*result + windingRule;
+            result = 31*result + rowCount;
+            result = 31*result + columnCount;
+
+            this.hashCode = result;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if(this == other)
+            {
+                return true;
+            }
+            if(!(other instanceof MaskKey))
+            {
+                return false;
+            }
+
+            MaskKey that = (MaskKey)other;
+
+            boolean equal = this.hashCode == that.hashCode && this.windingRule == that.windingRule
+                    && this.rowCount == that.rowCount && this.columnCount == that.columnCount
+                    && Arrays.equals(this.types, that.types) && Arrays.equals(this.coords, that.coords);
+            return equal;
+        }
+    }
+}
@@ -610,6 +610,12 @@ public class ROIPolygon extends ROIDrawable implements Cloneable, PublicCloneabl
 
     public static void addPointsInside(Path2D roiShape, ArraySupport2D grid, GridPointRecepient recepient)
     {
+        if(grid instanceof Grid2D)
+        {
+            ROIMaskCache.getInstance().getMask((Grid2D)grid, roiShape).addPointsInside(recepient);
+            return;
+        }
+
         Rectangle2D bounds = roiShape.getBounds2D();
         int columnCount = grid.getColumnCount();
 
@@ -650,6 +656,12 @@ public class ROIPolygon extends ROIDrawable implements Cloneable, PublicCloneabl
 
     public static void addPointsOutside(Path2D roiShape, ArraySupport2D grid, GridPointRecepient recepient)
     {
+        if(grid instanceof Grid2D)
+        {
+            ROIMaskCache.getInstance().getMask((Grid2D)grid, roiShape).addPointsOutside(recepient);
+            return;
+        }
+
         Rectangle2D bounds = roiShape.getBounds2D();
 
         int rowCount = grid.getRowCount();
@@ -705,6 +717,12 @@ public class ROIPolygon extends ROIDrawable implements Cloneable, PublicCloneabl
     //imageMinRow, imageMaxRow, imageMinColumn and imageMaxColumn inclusive
     public static void dividePoints(Path2D roiShape, ArraySupport2D grid, int imageMinRow, int imageMaxRow, int imageMinColumn, int imageMaxColumn, GridBiPointRecepient recepient)
     {
+        if(grid instanceof Grid2D)
+        {
+            ROIMaskCache.getInstance().getMask((Grid2D)grid, roiShape).dividePoints(imageMinRow, imageMaxRow, imageMinColumn, imageMaxColumn, recepient);
+            return;
+        }
+
         Rectangle2D bounds = roiShape.getBounds2D();
 
         double minY = bounds.getMinY();
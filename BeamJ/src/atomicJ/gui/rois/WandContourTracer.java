@@ -3,15 +3,13 @@ package atomicJ.gui.rois;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Set;
 import atomicJ.data.Grid2D;
 import atomicJ.data.GridIndex;
 import atomicJ.data.ImageMatrix;
 import atomicJ.data.units.PrefixedUnit;
 import atomicJ.imageProcessing.MooreContourROIBoolean;
+import atomicJ.imageProcessing.PixelRegion;
+import atomicJ.imageProcessing.ScanlineFloodFill;
 
 public class WandContourTracer 
 {
@@ -83,45 +81,11 @@ public class WandContourTracer
             return new GeneralPath();
         }
 
-        Deque<GridIndex> queue = new LinkedList<>();    
-        queue.addFirst(item);
-
-        double initValue = gridData[item.getRow()][item.getColumn()];
-        Set<GridIndex> visitedPixels = new HashSet<>();
-
-        boolean[][] regionLabelArray = new boolean[rowCount][columnCount];
-
-        double convertedMinDifference = conversionFactor*minDifference;
-        double convertedMaxDifference = conversionFactor*maxDifference;
-
-        while(!queue.isEmpty())
-        {
-            GridIndex currentPixel = queue.removeLast();
-            int indexRow = currentPixel.getRow();
-            int indexColumn = currentPixel.getColumn();
-
-            if(indexRow >= 0 && indexRow < rowCount && 
-                    indexColumn >= 0 && indexColumn < columnCount 
-                    && !visitedPixels.contains(currentPixel))
-            {
-                double diff = gridData[indexRow][indexColumn] - initValue;
-
-                if(diff <= convertedMaxDifference && diff >= convertedMinDifference)
-                {
-                    regionLabelArray[indexRow][indexColumn] = true;
-
-                    queue.addFirst(new GridIndex(indexRow + 1, indexColumn));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn + 1));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn - 1));
-                    queue.addFirst(new GridIndex(indexRow - 1, indexColumn));
-
-                    visitedPixels.add(currentPixel);
-                }
-            }
-        }
+        ScanlineFloodFill floodFill = new ScanlineFloodFill(conversionFactor*minDifference, conversionFactor*maxDifference);
+        PixelRegion filledRegion = floodFill.fill(gridData, rowCount, columnCount, item.getRow(), item.getColumn());
 
         MooreContourROIBoolean contourTracer = new MooreContourROIBoolean();
-        Path2D contour = contourTracer.getContour(regionLabelArray, grid, true);
+        Path2D contour = contourTracer.getContour(filledRegion, grid);
         contour.closePath();
 
         return contour;
@@ -182,46 +146,11 @@ public class WandContourTracer
             return new GeneralPath();          
         }
 
-        Deque<GridIndex> queue = new LinkedList<>();    
-        queue.addFirst(item);
-
-        double initValue = gridData[item.getRow()][item.getColumn()];
-        Set<GridIndex> visitedPixels = new HashSet<>();
-
-        boolean[][] regionLabelArray = new boolean[rowCount][columnCount];
-
-        double convertedMinDifference = conversionFactor*minDifference;
-        double convertedMaxDifference = conversionFactor*maxDifference;
-
-        while(!queue.isEmpty())
-        {
-            GridIndex currentPixel = queue.removeLast();
-            int indexRow = currentPixel.getRow();
-            int indexColumn = currentPixel.getColumn();
-
-            if(indexRow >= 0 && indexRow < rowCount && 
-                    indexColumn >= 0 && indexColumn < columnCount 
-                    && positionArray[indexRow][indexColumn] && !visitedPixels.contains(currentPixel))
-            {
-                double diff = gridData[indexRow][indexColumn] - initValue;
-
-                if(diff <= convertedMaxDifference && diff >= convertedMinDifference)
-                {
-                    gridData[indexRow][indexColumn] = -2;
-                    regionLabelArray[indexRow][indexColumn] = true;
-
-                    queue.addFirst(new GridIndex(indexRow + 1, indexColumn));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn + 1));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn - 1));
-                    queue.addFirst(new GridIndex(indexRow - 1, indexColumn));
-
-                    visitedPixels.add(currentPixel);
-                }
-            }
-        }
+        ScanlineFloodFill floodFill = new ScanlineFloodFill(conversionFactor*minDifference, conversionFactor*maxDifference);
+        PixelRegion filledRegion = floodFill.fill(gridData, positionArray, rowCount, columnCount, item.getRow(), item.getColumn());
 
         MooreContourROIBoolean contourTracer = new MooreContourROIBoolean();
-        Path2D contour = contourTracer.getContour(regionLabelArray, grid, true);
+        Path2D contour = contourTracer.getContour(filledRegion, grid);
         contour.closePath();
 
         return contour;
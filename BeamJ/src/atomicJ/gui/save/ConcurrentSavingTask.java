@@ -25,13 +25,13 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.JOptionPane;
 
 import atomicJ.analysis.MonitoredSwingWorker;
 import atomicJ.gui.GeneralPreferences;
 import atomicJ.gui.UserCommunicableException;
+import atomicJ.utilities.ComputeScheduler;
 
 
 public class ConcurrentSavingTask extends  MonitoredSwingWorker<Void, Void> 
@@ -67,7 +67,7 @@ public class ConcurrentSavingTask extends  MonitoredSwingWorker<Void, Void>
         int basicTaskSize = problemSize/taskNumber;
         int remainingPacks = problemSize%taskNumber;
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("Saving", ComputeScheduler.Priority.BATCH, taskNumber); 
 
         int currentIndex = 0;
 
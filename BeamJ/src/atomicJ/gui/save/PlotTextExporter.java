@@ -20,62 +20,116 @@ package atomicJ.gui.save;
 
 
 import java.io.*;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
-import java.util.Locale;
 
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.data.xy.XYDataset;
 import org.jfree.data.xy.XYZDataset;
 
+import atomicJ.data.Channel1DData;
+import atomicJ.data.Channel2DData;
+import atomicJ.gui.Channel1DDataset;
+import atomicJ.gui.Channel2DDataset;
 import atomicJ.gui.Movie2DDataset;
+import atomicJ.utilities.NumericTextWriter;
 
 
+//the exporter keeps only the settings of the number format, and each export writes the numbers through its own NumericTextWriter,
+//so one exporter can be used by many saving tasks at the same time
 public class PlotTextExporter 
 {
     private final String fieldSeparator;
-    private final NumberFormat format;
+
+    private final int maximumFractionDigits;
+    private final int minimumFractionDigits;
+    private final char decimalSeparator;
+    private final boolean groupingUsed;
+    private final char groupingSeparator;
+    private final int groupingSize;
 
     public PlotTextExporter(String fieldSeparator) 
     {
-        this.fieldSeparator = fieldSeparator;
-        this.format = NumberFormat.getInstance(Locale.US);
+        this(fieldSeparator, 3, 0, '.', true, ',', 3);
+    }
+
+    //maximumFractionDigits may be NumericTextWriter.SHORTEST_ROUNDTRIP, and then the numbers are written with all the digits
+    //necessary to read them back exactly
+    public PlotTextExporter(String fieldSeparator, int maximumFractionDigits) 
+    {
+        this(fieldSeparator, maximumFractionDigits, 0, '.', false, ',', 3);
     }
 
     public PlotTextExporter(String fieldSeparator, NumberFormat format) 
     {
         this.fieldSeparator = fieldSeparator;
-        this.format = format;
+        this.maximumFractionDigits = format.getMaximumFractionDigits();
+        this.minimumFractionDigits = format.getMinimumFractionDigits();
+        this.groupingUsed = format.isGroupingUsed();
+
+        if(format instanceof DecimalFormat)
+        {
+            DecimalFormat decimalFormat = (DecimalFormat)format;
+            DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+
+            this.decimalSeparator = symbols.getDecimalSeparator();
+            this.groupingSeparator = symbols.getGroupingSeparator();
+            this.groupingSize = decimalFormat.getGroupingSize();
+        }
+        else
+        {
+            this.decimalSeparator = '.';
+            this.groupingSeparator = ',';
+            this.groupingSize = 3;
+        }
+    }
+
+    private PlotTextExporter(String fieldSeparator, int maximumFractionDigits, int minimumFractionDigits, char decimalSeparator, boolean groupingUsed, char groupingSeparator, int groupingSize) 
+    {
+        this.fieldSeparator = fieldSeparator;
+        this.maximumFractionDigits = maximumFractionDigits;
+        this.minimumFractionDigits = minimumFractionDigits;
+        this.decimalSeparator = decimalSeparator;
+        this.groupingUsed = groupingUsed;
+        this.groupingSeparator = groupingSeparator;
+        this.groupingSize = groupingSize;
+    }
+
+    private NumericTextWriter buildWriter(OutputStream out)
+    {
+        return new NumericTextWriter(out, maximumFractionDigits, minimumFractionDigits, decimalSeparator, groupingUsed, groupingSeparator, groupingSize);
     }
 
     public void export(XYPlot plot, File file) throws IOException 
     {
-        writeOrExport(plot, new PrintWriter(file), true);
+        writeOrExport(plot, buildWriter(new FileOutputStream(file)), true);
     }
 
     public void export(XYPlot plot, int frame, File file) throws IOException 
     {
-        writeOrExport(plot, frame, new PrintWriter(file), true);
+        writeOrExport(plot, frame, buildWriter(new FileOutputStream(file)), true);
     }
 
     public void writeToStream(XYPlot plot, OutputStream out,boolean close) throws IOException 
     {
-        writeOrExport(plot, new PrintWriter(out), close);
+        writeOrExport(plot, buildWriter(out), close);
     }
 
     public void writeToStream(XYPlot plot, int frame, OutputStream out,boolean close) throws IOException 
     {
-        writeOrExport(plot, frame, new PrintWriter(out), close);
+        writeOrExport(plot, frame, buildWriter(out), close);
     }
 
-    public void writeOrExport(XYPlot plot, PrintWriter out, boolean close) throws IOException 
+    private void writeOrExport(XYPlot plot, NumericTextWriter out, boolean close) throws IOException 
     {		
         String xLabel = plot.getDomainAxis().getLabel();
         String yLabel = plot.getRangeAxis().getLabel();
 
         try
         {					
-            out.println("X axis: " + xLabel.replace("μ", "u"));
-            out.println("Y axis: " + yLabel.replace("μ", "u"));
+            out.writeLine("X axis: " + xLabel.replace("μ", "u"));
+            out.writeLine("Y axis: " + yLabel.replace("μ", "u"));
 
 
             int n  = plot.getDatasetCount();
@@ -91,10 +145,14 @@ public class PlotTextExporter
             {
                 out.close();
             }
+            else
+            {
+                out.flush();
+            }
         }
     }
 
-    public void writeOrExport(XYPlot plot, int frame, PrintWriter out, boolean close) throws IOException 
+    private void writeOrExport(XYPlot plot, int frame, NumericTextWriter out, boolean close) throws IOException 
     {		
         String xLabel = plot.getDomainAxis().getLabel().replace("μ", "u");
         String yLabel = plot.getRangeAxis().getLabel().replace("μ", "u");
@@ -103,11 +161,11 @@ public class PlotTextExporter
 
         try
         {					
-            out.println("X axis: " + xLabel);
-            out.println("Y axis: " + yLabel);
+            out.writeLine("X axis: " + xLabel);
+            out.writeLine("Y axis: " + yLabel);
             if(zLabel != null)
             {
-                out.println("Z axis: " + zLabel);
+                out.writeLine("Z axis: " + zLabel);
             }
 
             int n  = plot.getDatasetCount();
@@ -128,13 +186,27 @@ public class PlotTextExporter
             {
                 out.close();
             }
+            else
+            {
+                out.flush();
+            }
         }
     }
 
-    private void writeDataset(XYDataset dataset, PrintWriter out)
+    //the values of channels are read directly from their data, other datasets are read item by item
+    private void writeDataset(XYDataset dataset, NumericTextWriter out) throws IOException
     {
-
-        if(dataset instanceof XYZDataset)
+        if(dataset instanceof Channel1DDataset)
+        {
+            writeSeriesKey(dataset.getSeriesKey(0), out);
+            writeChannelData(((Channel1DDataset)dataset).getDisplayedChannel().getChannelData(), out);
+        }
+        else if(dataset instanceof Channel2DDataset)
+        {
+            writeSeriesKey(dataset.getSeriesKey(0), out);
+            writeChannelData(((Channel2DDataset)dataset).getDisplayedChannel().getChannelData(), out);
+        }
+        else if(dataset instanceof XYZDataset)
         {
             writeXYZDataset((XYZDataset)dataset, out);
         }
@@ -144,41 +216,76 @@ public class PlotTextExporter
 
             for(int j=0; j < m; j++) 
             {
-                out.println("\n" + dataset.getSeriesKey(j) + "\n");
+                writeSeriesKey(dataset.getSeriesKey(j), out);
 
                 int r = dataset.getItemCount(j);
 
                 for(int k = 0; k < r; k++) 
                 {
-                    out.print(format.format(dataset.getXValue(j, k)));
-                    out.print(fieldSeparator);
-                    out.println(format.format(dataset.getYValue(j, k)));
+                    out.write(dataset.getXValue(j, k));
+                    out.write(fieldSeparator);
+                    out.write(dataset.getYValue(j, k));
+                    out.newLine();
                 }
             }
         }
-
     }
 
-    private void writeXYZDataset(XYZDataset dataset, PrintWriter out)
+    private void writeXYZDataset(XYZDataset dataset, NumericTextWriter out) throws IOException
     {
         int m = dataset.getSeriesCount();
 
         for(int j=0; j < m; j++) 
         {
-            out.println("\n" + dataset.getSeriesKey(j) + "\n");
+            writeSeriesKey(dataset.getSeriesKey(j), out);
 
             int r = dataset.getItemCount(j);
 
             for(int k = 0; k < r; k++) 
             {
-                out.print(format.format(dataset.getXValue(j, k)));
-                out.print(fieldSeparator);
-                out.print(format.format(dataset.getYValue(j, k)));
-                out.print(fieldSeparator);
-                out.println(format.format(dataset.getZValue(j, k)));
+                out.write(dataset.getXValue(j, k));
+                out.write(fieldSeparator);
+                out.write(dataset.getYValue(j, k));
+                out.write(fieldSeparator);
+                out.write(dataset.getZValue(j, k));
+                out.newLine();
             }
         }
     }
+
+    private void writeChannelData(Channel1DData data, NumericTextWriter out) throws IOException
+    {
+        int r = data.getItemCount();
+
+        for(int k = 0; k < r; k++) 
+        {
+            out.write(data.getX(k));
+            out.write(fieldSeparator);
+            out.write(data.getY(k));
+            out.newLine();
+        }
+    }
+
+    private void writeChannelData(Channel2DData data, NumericTextWriter out) throws IOException
+    {
+        int r = data.getItemCount();
+
+        for(int k = 0; k < r; k++) 
+        {
+            out.write(data.getX(k));
+            out.write(fieldSeparator);
+            out.write(data.getY(k));
+            out.write(fieldSeparator);
+            out.write(data.getZ(k));
+            out.newLine();
+        }
+    }
+
+    private void writeSeriesKey(Comparable<?> key, NumericTextWriter out) throws IOException
+    {
+        out.writeLine("\n" + key + "\n");
+    }
 }
 
 
+
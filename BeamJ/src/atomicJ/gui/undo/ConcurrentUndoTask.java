@@ -26,7 +26,6 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JOptionPane;
@@ -36,6 +35,7 @@ import atomicJ.gui.GeneralPreferences;
 import atomicJ.gui.UserCommunicableException;
 import atomicJ.resources.ChannelResource;
 import atomicJ.resources.ResourceView;
+import atomicJ.utilities.ComputeScheduler;
 import atomicJ.utilities.MultiMap;
 
 public class ConcurrentUndoTask extends MonitoredSwingWorker<Void, Void> 
@@ -86,7 +86,7 @@ public class ConcurrentUndoTask extends MonitoredSwingWorker<Void, Void>
         int basicTaskSize = problemSize/taskNumber;
         int remainingFiles = problemSize%taskNumber;
 
-        executor = Executors.newFixedThreadPool(taskNumber); 
+        executor = ComputeScheduler.getInstance().newTaskExecutor("Undo", ComputeScheduler.Priority.BATCH, taskNumber); 
 
         int currentIndex = 0;
 
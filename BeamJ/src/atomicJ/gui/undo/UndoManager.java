@@ -1,13 +1,20 @@
 package atomicJ.gui.undo;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-
+//the history of commands is bounded by the number of commands of each type, and the memory held by the commands
+//of all undo managers is bounded by the budget of the UndoMemoryAccountant, with which the commands are registered
 public class UndoManager 
 {
     private int sizeLimit;
     private final Map<String, UndoStack> stacks = new LinkedHashMap<>();
+    //commands of all types, from the oldest to the newest
+    private final List<UndoableCommand> history = new ArrayList<>();
 
     public UndoManager(int sizeLimit)
     {
@@ -29,9 +36,30 @@ public class UndoManager
         }
     }
 
+    //estimated number of bytes of the heap held by the commands in the history
+    public long getMemoryUsage()
+    {
+        long memoryUsage = 0;
+
+        for(UndoableCommand command : history)
+        {
+            memoryUsage += command.getMemoryUsage();
+        }
+
+        return memoryUsage;
+    }
+
     public void clear()
     {
+        for(UndoStack stack : stacks.values())
+        {
+            stack.dispose();
+        }
+
         stacks.clear();
+
+        UndoMemoryAccountant.getInstance().unregister(history);
+        history.clear();
     }
 
     public void push(String type, UndoableCommand command)
@@ -43,6 +71,32 @@ public class UndoManager
             stacks.put(type, stack);
         }
         stack.push(command);
+        history.add(command);
+
+        removeDisposedCommands();
+        UndoMemoryAccountant.getInstance().register(command);
+    }
+
+    //the commands removed from the stacks were disposed by them
+    private void removeDisposedCommands()
+    {
+        Set<UndoableCommand> commandsInStacks = new HashSet<>();
+        for(UndoStack stack : stacks.values())
+        {
+            commandsInStacks.addAll(stack.getCommands());
+        }
+
+        List<UndoableCommand> removedCommands = new ArrayList<>();
+        for(UndoableCommand command : history)
+        {
+            if(!commandsInStacks.contains(command))
+            {
+                removedCommands.add(command);
+            }
+        }
+
+        history.removeAll(removedCommands);
+        UndoMemoryAccountant.getInstance().unregister(removedCommands);
     }
 
     public boolean canBeRedone(String type)
@@ -0,0 +1,191 @@
+package atomicJ.gui.undo;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//keeps the memory held by the undo histories of all resources within a single budget, by default one eighth of the maximum heap
+//the commands are registered by the undo managers in the order in which they are pushed, so when the budget is exceeded,
+//the state held by the oldest commands of the whole application is compressed first, and if this is not enough,
+//the compressed state of the oldest commands is moved to the temporary spill file
+//compression and spilling are done on a background thread, so that pushing a command does not wait for them
+//the commands are referenced weakly, as resources can be closed without clearing their undo history
+public class UndoMemoryAccountant
+{
+    public static final long DEFAULT_MEMORY_BUDGET = Runtime.getRuntime().maxMemory()/8;
+
+    private static final UndoMemoryAccountant INSTANCE = new UndoMemoryAccountant();
+
+    private final Object lock = new Object();
+    //guarded by lock, from the oldest to the newest command
+    private final List<WeakReference<UndoableCommand>> commands = new ArrayList<>();
+    private volatile long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicBoolean enforcementScheduled = new AtomicBoolean();
+
+    private UndoMemoryAccountant()
+    {
+        this.executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                Thread thread = new Thread(r, "Undo history compaction");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static UndoMemoryAccountant getInstance()
+    {
+        return INSTANCE;
+    }
+
+    public long getMemoryBudget()
+    {
+        return memoryBudget;
+    }
+
+    public void setMemoryBudget(long memoryBudget)
+    {
+        if(memoryBudget < 0)
+        {
+            throw new IllegalArgumentException("'memoryBudget' cannot be negative");
+        }
+
+        this.memoryBudget = memoryBudget;
+        scheduleEnforcement();
+    }
+
+    //estimated number of bytes of the heap held by the undo histories of all resources
+    public long getMemoryUsage()
+    {
+        long memoryUsage = 0;
+
+        for(UndoableCommand command : getCommands())
+        {
+            memoryUsage += command.getMemoryUsage();
+        }
+
+        return memoryUsage;
+    }
+
+    public void register(UndoableCommand command)
+    {
+        synchronized(lock)
+        {
+            commands.add(new WeakReference<>(command));
+        }
+
+        scheduleEnforcement();
+    }
+
+    //should be called for the commands removed from the history, the memory they held is no longer counted
+    public void unregister(Collection<UndoableCommand> removedCommands)
+    {
+        if(removedCommands.isEmpty())
+        {
+            return;
+        }
+
+        synchronized(lock)
+        {
+            Iterator<WeakReference<UndoableCommand>> it = commands.iterator();
+            while(it.hasNext())
+            {
+                UndoableCommand command = it.next().get();
+
+                if(command == null || removedCommands.contains(command))
+                {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    //the live commands, from the oldest to the newest
+    private List<UndoableCommand> getCommands()
+    {
+        List<UndoableCommand> liveCommands = new ArrayList<>();
+
+        synchronized(lock)
+        {
+            Iterator<WeakReference<UndoableCommand>> it = commands.iterator();
+            while(it.hasNext())
+            {
+                UndoableCommand command = it.next().get();
+
+                if(command == null)
+                {
+                    it.remove();
+                }
+                else
+                {
+                    liveCommands.add(command);
+                }
+            }
+        }
+
+        return liveCommands;
+    }
+
+    //pushes of many commands in a row are handled by a single pass
+    private void scheduleEnforcement()
+    {
+        if(enforcementScheduled.compareAndSet(false, true))
+        {
+            executor.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    enforcementScheduled.set(false);
+                    enforceMemoryBudget();
+                }
+            });
+        }
+    }
+
+    //the commands synchronize their compaction and spilling with undoing, and ignore them once they are disposed
+    private void enforceMemoryBudget()
+    {
+        List<UndoableCommand> history = getCommands();
+
+        long budget = memoryBudget;
+        long memoryUsage = 0;
+
+        for(UndoableCommand command : history)
+        {
+            memoryUsage += command.getMemoryUsage();
+        }
+
+        for(int i = 0; i<history.size() && memoryUsage > budget; i++)
+        {
+            UndoableCommand command = history.get(i);
+            long commandMemoryUsage = command.getMemoryUsage();
+
+            command.compact();
+            memoryUsage += command.getMemoryUsage() - commandMemoryUsage;
+        }
+
+        for(int i = 0; i<history.size() && memoryUsage > budget; i++)
+        {
+            UndoableCommand command = history.get(i);
+            long commandMemoryUsage = command.getMemoryUsage();
+
+            command.spill();
+            memoryUsage += command.getMemoryUsage() - commandMemoryUsage;
+        }
+    }
+}
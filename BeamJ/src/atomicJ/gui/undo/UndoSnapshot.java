@@ -0,0 +1,453 @@
+package atomicJ.gui.undo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import atomicJ.data.ArraySupport2D;
+import atomicJ.data.Channel1DData;
+import atomicJ.data.Channel2DData;
+import atomicJ.data.FlatArray2D;
+import atomicJ.data.Grid1D;
+import atomicJ.data.Grid2D;
+import atomicJ.data.GridChannel1DData;
+import atomicJ.data.GridChannel2DData;
+import atomicJ.data.SemiGridChannel2DData;
+import atomicJ.data.units.Quantity;
+
+//the data of channels, which an undoable command restores when it is undone
+//to reduce the memory used by the undo history, the values of gridded data can be compacted into a single compressed block,
+//which can be moved further to the temporary spill file, and the data are rebuilt from the block when they are needed
+//data of other types are always kept in memory
+//before compression, each value is replaced by the XOR of its bits with the bits of the previous value,
+//and the bytes of equal significance are grouped together, as the sign, exponent and high mantissa bits of neighbouring points
+//of an image are often equal, which makes the grouped bytes much more compressible than the raw doubles
+public class UndoSnapshot<K, D>
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    //the restored data have the same order of keys as the original ones
+    private final List<K> keys;
+    //all data, when the snapshot is not compacted, and only the data which cannot be compacted otherwise
+    private Map<K, D> data;
+    //for each key of compacted data, rebuilds the data from the values stored in the block
+    private Map<K, Composer<D>> composers;
+    private int compactedValueCount;
+    //the compressed block is kept either in memory or in the spill file
+    private byte[] block;
+    private UndoSpillFile.Region spilledRegion;
+    //compaction and spilling are requested by a background thread, so they may come after the snapshot was disposed
+    private boolean disposed;
+
+    public UndoSnapshot(Map<K, D> data)
+    {
+        this.data = new LinkedHashMap<>(data);
+        this.keys = new ArrayList<>(data.keySet());
+    }
+
+    public synchronized Map<K, D> getData()
+    {
+        if(composers == null)
+        {
+            return new LinkedHashMap<>(data);
+        }
+
+        double[] values = decompress(loadBlock(), compactedValueCount);
+
+        Map<K, D> composedData = new HashMap<>();
+
+        int offset = 0;
+        for(Entry<K, Composer<D>> entry : composers.entrySet())
+        {
+            Composer<D> composer = entry.getValue();
+            int valueCount = composer.getValueCount();
+
+            double[] entryValues = new double[valueCount];
+            System.arraycopy(values, offset, entryValues, 0, valueCount);
+            offset += valueCount;
+
+            composedData.put(entry.getKey(), composer.compose(entryValues));
+        }
+
+        Map<K, D> restoredData = new LinkedHashMap<>();
+
+        for(K key : keys)
+        {
+            restoredData.put(key, composedData.containsKey(key) ? composedData.get(key) : data.get(key));
+        }
+
+        return restoredData;
+    }
+
+    public synchronized boolean isCompacted()
+    {
+        return composers != null;
+    }
+
+    public synchronized boolean isSpilled()
+    {
+        return spilledRegion != null;
+    }
+
+    //estimated number of bytes of the heap, which are used only by this snapshot
+    public synchronized long getMemoryUsage()
+    {
+        long memoryUsage = (block != null) ? block.length : 0;
+
+        for(D d : data.values())
+        {
+            memoryUsage += estimateMemoryUsage(d);
+        }
+
+        return memoryUsage;
+    }
+
+    public synchronized void compact()
+    {
+        if(composers != null || disposed)
+        {
+            return;
+        }
+
+        Map<K, Composer<D>> compactedComposers = new LinkedHashMap<>();
+        Map<K, double[]> compactedValues = new LinkedHashMap<>();
+        Map<K, D> remainingData = new LinkedHashMap<>();
+
+        int valueCount = 0;
+
+        for(Entry<K, D> entry : data.entrySet())
+        {
+            K key = entry.getKey();
+            D d = entry.getValue();
+
+            Composer<D> composer = getComposer(d);
+
+            if(composer != null)
+            {
+                compactedComposers.put(key, composer);
+
+                double[] values = getValues(d);
+                compactedValues.put(key, values);
+                valueCount += values.length;
+            }
+            else
+            {
+                remainingData.put(key, d);
+            }
+        }
+
+        if(compactedComposers.isEmpty())
+        {
+            return;
+        }
+
+        this.block = compress(compactedValues.values().toArray(new double[compactedValues.size()][]), valueCount);
+        this.compactedValueCount = valueCount;
+        this.composers = compactedComposers;
+        this.data = remainingData;
+    }
+
+    //compacts the snapshot, if necessary, and moves the compressed block to the spill file
+    public synchronized void spill()
+    {
+        compact();
+
+        if(block == null || disposed)
+        {
+            return;
+        }
+
+        UndoSpillFile.Region region = UndoSpillFile.getInstance().write(block);
+
+        //if the block could not be written, it stays in memory
+        if(region != null)
+        {
+            this.spilledRegion = region;
+            this.block = null;
+        }
+    }
+
+    //releases the space of the spill file, the snapshot should not be used afterwards
+    public synchronized void dispose()
+    {
+        this.disposed = true;
+
+        if(spilledRegion != null)
+        {
+            UndoSpillFile.getInstance().release(spilledRegion);
+            this.spilledRegion = null;
+        }
+
+        this.block = null;
+    }
+
+    private byte[] loadBlock()
+    {
+        if(block != null)
+        {
+            return block;
+        }
+
+        try
+        {
+            return UndoSpillFile.getInstance().read(spilledRegion);
+        }
+        catch(IOException e)
+        {
+            throw new IllegalStateException("The undo snapshot could not be read from the temporary file", e);
+        }
+    }
+
+    private static byte[] compress(double[][] arrays, int valueCount)
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(32, valueCount));
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+        try(OutputStream out = new DeflaterOutputStream(bytes, deflater, BUFFER_SIZE))
+        {
+            byte[] buffer = new byte[BUFFER_SIZE];
+
+            //one pass for each byte of the XORed bits, starting from the most significant one
+            for(int shift = 56; shift >= 0; shift -= 8)
+            {
+                int count = 0;
+                long previousBits = 0;
+
+                for(double[] values : arrays)
+                {
+                    for(double value : values)
+                    {
+                        long bits = Double.doubleToRawLongBits(value);
+
+                        buffer[count++] = (byte)((bits ^ previousBits) >>> shift);
+                        previousBits = bits;
+
+                        if(count == BUFFER_SIZE)
+                        {
+                            out.write(buffer, 0, count);
+                            count = 0;
+                        }
+                    }
+                }
+
+                out.write(buffer, 0, count);
+            }
+        }
+        catch(IOException e)
+        {
+            //a ByteArrayOutputStream does not throw IOExceptions
+            throw new IllegalStateException(e);
+        }
+        finally
+        {
+            deflater.end();
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static double[] decompress(byte[] block, int valueCount)
+    {
+        long[] xoredBits = new long[valueCount];
+        Inflater inflater = new Inflater();
+
+        try(InputStream in = new InflaterInputStream(new ByteArrayInputStream(block), inflater, BUFFER_SIZE))
+        {
+            byte[] buffer = new byte[BUFFER_SIZE];
+
+            for(int shift = 56; shift >= 0; shift -= 8)
+            {
+                int index = 0;
+
+                while(index < valueCount)
+                {
+                    int count = in.read(buffer, 0, Math.min(BUFFER_SIZE, valueCount - index));
+
+                    if(count < 0)
+                    {
+                        throw new IllegalStateException("The undo snapshot is truncated");
+                    }
+
+                    for(int i = 0; i<count; i++, index++)
+                    {
+                        xoredBits[index] |= (buffer[i] & 0xFFL) << shift;
+                    }
+                }
+            }
+        }
+        catch(IOException e)
+        {
+            throw new IllegalStateException("The undo snapshot could not be decompressed", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+
+        double[] values = new double[valueCount];
+        long previousBits = 0;
+
+        for(int i = 0; i<valueCount; i++)
+        {
+            long bits = xoredBits[i] ^ previousBits;
+            values[i] = Double.longBitsToDouble(bits);
+            previousBits = bits;
+        }
+
+        return values;
+    }
+
+    private static long estimateMemoryUsage(Object d)
+    {
+        long memoryUsage = 0;
+
+        if(d instanceof GridChannel2DData || d instanceof SemiGridChannel2DData || d instanceof GridChannel1DData)
+        {
+            memoryUsage = 8L*getItemCount(d);
+        }
+        else if(d instanceof Channel2DData)
+        {
+            memoryUsage = 24L*((Channel2DData)d).getItemCount();
+        }
+        else if(d instanceof Channel1DData)
+        {
+            memoryUsage = 16L*((Channel1DData)d).getItemCount();
+        }
+
+        return memoryUsage;
+    }
+
+    private static int getItemCount(Object d)
+    {
+        return (d instanceof Channel2DData) ? ((Channel2DData)d).getItemCount() : ((Channel1DData)d).getItemCount();
+    }
+
+    //only data of these exact classes are compacted, as subclasses could hold more state than their values and grids
+    private static double[] getValues(Object d)
+    {
+        if(d instanceof GridChannel1DData)
+        {
+            return ((GridChannel1DData)d).getData();
+        }
+
+        //the flat storage is contiguous, so its values are the values of the data in row-major order
+        FlatArray2D flatData = (d instanceof GridChannel2DData) ? ((GridChannel2DData)d).getFlatData() : ((SemiGridChannel2DData)d).getFlatData();
+        return flatData.getValues();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <D> Composer<D> getComposer(D d)
+    {
+        Composer<?> composer = null;
+
+        if(d != null && d.getClass() == GridChannel2DData.class)
+        {
+            GridChannel2DData gridData = (GridChannel2DData)d;
+            composer = new Grid2DComposer(gridData.getGrid(), gridData.getZQuantity());
+        }
+        else if(d != null && d.getClass() == SemiGridChannel2DData.class)
+        {
+            SemiGridChannel2DData semiGridData = (SemiGridChannel2DData)d;
+            composer = new SemiGrid2DComposer(semiGridData.getGrid(), semiGridData.getZQuantity());
+        }
+        else if(d != null && d.getClass() == GridChannel1DData.class)
+        {
+            GridChannel1DData gridData = (GridChannel1DData)d;
+            composer = new Grid1DComposer(gridData.getGrid(), gridData.getYQuantity(), gridData.getData().length);
+        }
+
+        return (Composer<D>)composer;
+    }
+
+    private static interface Composer<D>
+    {
+        public int getValueCount();
+        public D compose(double[] values);
+    }
+
+    private static class Grid2DComposer implements Composer<GridChannel2DData>
+    {
+        private final Grid2D grid;
+        private final Quantity zQuantity;
+
+        private Grid2DComposer(Grid2D grid, Quantity zQuantity)
+        {
+            this.grid = grid;
+            this.zQuantity = zQuantity;
+        }
+
+        @Override
+        public int getValueCount()
+        {
+            return grid.getRowCount()*grid.getColumnCount();
+        }
+
+        @Override
+        public GridChannel2DData compose(double[] values)
+        {
+            return new GridChannel2DData(new FlatArray2D(values, grid.getRowCount(), grid.getColumnCount()), grid, zQuantity);
+        }
+    }
+
+    private static class SemiGrid2DComposer implements Composer<SemiGridChannel2DData>
+    {
+        private final ArraySupport2D grid;
+        private final Quantity zQuantity;
+
+        private SemiGrid2DComposer(ArraySupport2D grid, Quantity zQuantity)
+        {
+            this.grid = grid;
+            this.zQuantity = zQuantity;
+        }
+
+        @Override
+        public int getValueCount()
+        {
+            return grid.getRowCount()*grid.getColumnCount();
+        }
+
+        @Override
+        public SemiGridChannel2DData compose(double[] values)
+        {
+            return new SemiGridChannel2DData(new FlatArray2D(values, grid.getRowCount(), grid.getColumnCount()), grid, zQuantity);
+        }
+    }
+
+    private static class Grid1DComposer implements Composer<GridChannel1DData>
+    {
+        private final Grid1D grid;
+        private final Quantity yQuantity;
+        private final int valueCount;
+
+        private Grid1DComposer(Grid1D grid, Quantity yQuantity, int valueCount)
+        {
+            this.grid = grid;
+            this.yQuantity = yQuantity;
+            this.valueCount = valueCount;
+        }
+
+        @Override
+        public int getValueCount()
+        {
+            return valueCount;
+        }
+
+        @Override
+        public GridChannel1DData compose(double[] values)
+        {
+            return new GridChannel1DData(values, grid, yQuantity);
+        }
+    }
+}
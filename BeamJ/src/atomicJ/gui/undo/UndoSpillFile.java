@@ -0,0 +1,268 @@
+package atomicJ.gui.undo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//a temporary file, to which compressed undo snapshots are moved when the undo history exceeds its memory budget
+//the space of released blocks is reused by the blocks written later, adjacent free extents are merged,
+//and the file is truncated when the extent at its end is released
+//the space of blocks whose regions became unreachable without being released, e.g. because their resource was closed, is reclaimed as well
+//the file is created when the first block is written, and closed and deleted by a shutdown hook,
+//as deleteOnExit() fails on Windows for a file which is still open
+public class UndoSpillFile
+{
+    private static final UndoSpillFile INSTANCE = new UndoSpillFile();
+
+    private File file;
+    private RandomAccessFile access;
+    private boolean closed;
+    private long length;
+    private long liveByteCount;
+
+    //the positions and lengths of free extents before the end of the file
+    private final TreeMap<Long, Long> freeExtents = new TreeMap<>();
+
+    private final ReferenceQueue<Region> collectedRegions = new ReferenceQueue<>();
+    private final Set<RegionTracker> trackers = new HashSet<>();
+
+    private UndoSpillFile()
+    {}
+
+    public static UndoSpillFile getInstance()
+    {
+        return INSTANCE;
+    }
+
+    //returns null if the block could not be written, in which case it should be kept in memory
+    public synchronized Region write(byte[] block)
+    {
+        reclaimCollectedRegions();
+
+        try
+        {
+            ensureOpen();
+
+            long position = allocate(block.length);
+
+            access.seek(position);
+            access.write(block);
+
+            liveByteCount += block.length;
+
+            Region region = new Region(position, block.length);
+            region.tracker = new RegionTracker(region, collectedRegions);
+            trackers.add(region.tracker);
+
+            return region;
+        }
+        catch(IOException e)
+        {
+            Logger.getLogger("").log(Level.WARNING, "The undo snapshot could not be written to the temporary file", e);
+            return null;
+        }
+    }
+
+    public synchronized byte[] read(Region region) throws IOException
+    {
+        if(access == null)
+        {
+            throw new IOException("The temporary file of undo snapshots is not open");
+        }
+
+        byte[] block = new byte[region.length];
+
+        access.seek(region.position);
+        access.readFully(block);
+
+        return block;
+    }
+
+    public synchronized void release(Region region)
+    {
+        if(trackers.remove(region.tracker))
+        {
+            region.tracker.clear();
+            free(region.position, region.length);
+        }
+
+        reclaimCollectedRegions();
+    }
+
+    //the number of bytes of the blocks which were written and have not been released yet
+    public synchronized long getLiveByteCount()
+    {
+        return liveByteCount;
+    }
+
+    //the number of bytes of the file, including the free extents which were not reused yet
+    public synchronized long getLength()
+    {
+        return length;
+    }
+
+    //the first free extent which is long enough is used, so that the blocks are kept near the start of the file
+    private long allocate(int blockLength)
+    {
+        for(Map.Entry<Long, Long> extent : freeExtents.entrySet())
+        {
+            long extentPosition = extent.getKey();
+            long extentLength = extent.getValue();
+
+            if(extentLength >= blockLength)
+            {
+                freeExtents.remove(extentPosition);
+
+                if(extentLength > blockLength)
+                {
+                    freeExtents.put(extentPosition + blockLength, extentLength - blockLength);
+                }
+
+                return extentPosition;
+            }
+        }
+
+        long position = length;
+        length += blockLength;
+
+        return position;
+    }
+
+    private void free(long position, long extentLength)
+    {
+        liveByteCount -= extentLength;
+
+        Map.Entry<Long, Long> previous = freeExtents.floorEntry(position);
+        if(previous != null && previous.getKey() + previous.getValue() == position)
+        {
+            freeExtents.remove(previous.getKey());
+            position = previous.getKey();
+            extentLength += previous.getValue();
+        }
+
+        Long next = freeExtents.get(position + extentLength);
+        if(next != null)
+        {
+            freeExtents.remove(position + extentLength);
+            extentLength += next;
+        }
+
+        if(position + extentLength < length)
+        {
+            freeExtents.put(position, extentLength);
+            return;
+        }
+
+        length = position;
+
+        if(access != null && !closed)
+        {
+            try
+            {
+                access.setLength(length);
+            }
+            catch(IOException e)
+            {
+                Logger.getLogger("").log(Level.WARNING, "The temporary file of undo snapshots could not be truncated", e);
+            }
+        }
+    }
+
+    private void reclaimCollectedRegions()
+    {
+        Reference<? extends Region> reference;
+
+        while((reference = collectedRegions.poll()) != null)
+        {
+            RegionTracker tracker = (RegionTracker)reference;
+
+            if(trackers.remove(tracker))
+            {
+                free(tracker.position, tracker.length);
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException
+    {
+        if(closed)
+        {
+            throw new IOException("The temporary file of undo snapshots was closed, as the application exits");
+        }
+
+        if(access == null)
+        {
+            this.file = File.createTempFile("atomicJUndo", ".tmp");
+            this.access = new RandomAccessFile(file, "rw");
+
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    close();
+                }
+            }, "Undo spill file deletion"));
+        }
+    }
+
+    private synchronized void close()
+    {
+        this.closed = true;
+
+        try
+        {
+            access.close();
+        }
+        catch(IOException e)
+        {
+            Logger.getLogger("").log(Level.WARNING, "The temporary file of undo snapshots could not be closed", e);
+        }
+
+        if(!file.delete())
+        {
+            Logger.getLogger("").log(Level.WARNING, "The temporary file of undo snapshots could not be deleted: " + file);
+        }
+    }
+
+    //is put into the queue of collected regions, when the snapshot which held the region becomes unreachable without releasing it
+    private static class RegionTracker extends WeakReference<Region>
+    {
+        private final long position;
+        private final int length;
+
+        private RegionTracker(Region region, ReferenceQueue<Region> queue)
+        {
+            super(region, queue);
+            this.position = region.position;
+            this.length = region.length;
+        }
+    }
+
+    public static class Region
+    {
+        private final long position;
+        private final int length;
+        private RegionTracker tracker;
+
+        private Region(long position, int length)
+        {
+            this.position = position;
+            this.length = length;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+    }
+}
@@ -29,7 +29,7 @@ public class UndoStack
 
         if(stack.size() > sizeLimit)
         {
-            stack.remove(0);
+            stack.remove(0).dispose();
         }
         else
         {
@@ -43,7 +43,7 @@ public class UndoStack
 
         for(int i = n - 1; i > top; i--)
         {
-            stack.remove(i);
+            stack.remove(i).dispose();
         }
     }
 
@@ -116,6 +116,23 @@ public class UndoStack
         return id;
     }
 
+    //from the oldest to the newest command, including the undone ones
+    public List<UndoableCommand> getCommands()
+    {
+        return new ArrayList<>(stack);
+    }
+
+    public void dispose()
+    {
+        for(UndoableCommand command : stack)
+        {
+            command.dispose();
+        }
+
+        stack.clear();
+        this.top = -1;
+    }
+
     public int sizeLimit()
     {
         return sizeLimit;
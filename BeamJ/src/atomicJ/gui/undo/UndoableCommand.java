@@ -13,4 +13,13 @@ public interface UndoableCommand
     public boolean canBeRedone();
 
     public CommandIdentifier getCompundCommandIdentifier();
+
+    //estimated number of bytes of the heap, which are held only by this command to undo or redo it
+    public long getMemoryUsage();
+    //stores the state held to undo the command in a compressed form
+    public void compact();
+    //moves the compressed state to the temporary spill file
+    public void spill();
+    //called when the command is removed from the history, it should not be used afterwards
+    public void dispose();
 }
\ No newline at end of file
@@ -2,16 +2,11 @@ package atomicJ.imageProcessing;
 
 import java.awt.Color;
 import java.awt.geom.Path2D;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Set;
 import java.util.prefs.Preferences;
 
 import atomicJ.data.Channel2DData;
 import atomicJ.data.Grid2D;
 import atomicJ.data.GridChannel2DData;
-import atomicJ.data.GridIndex;
 import atomicJ.data.units.Quantity;
 import atomicJ.gui.rois.GridPointRecepient;
 import atomicJ.gui.rois.ROI;
@@ -65,42 +60,12 @@ public class FloodFillSolidTransformation implements Channel2DDataInROITransform
         final double[][] transformed = ArrayUtilities.deepCopy(gridData);
 
 
-        Deque<GridIndex> queue = new LinkedList<>();    
-        queue.addFirst(new GridIndex(initRow, initColumn));
-
-        double initValue = gridData[initRow][initColumn];
-        Set<GridIndex> visitedPixels = new HashSet<>();
-
-        boolean[][] regionLabelArray = new boolean[rowCount][columnCount];
-
-        while(!queue.isEmpty())
-        {
-            GridIndex currentPixel = queue.removeLast();
-            int indexRow = currentPixel.getRow();
-            int indexColumn = currentPixel.getColumn();
-
-            if(indexRow >= 0 && indexRow < rowCount && 
-                    indexColumn >= 0 && indexColumn < columnCount && !visitedPixels.contains(currentPixel))
-            {
-                double diff = gridData[indexRow][indexColumn] - initValue;
-
-                if(diff <= maxDifference && diff >= minDifference)
-                {
-                    transformed[indexRow][indexColumn] = fillValue;
-                    regionLabelArray[indexRow][indexColumn] = true;
-
-                    queue.addFirst(new GridIndex(indexRow + 1, indexColumn));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn + 1));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn - 1));
-                    queue.addFirst(new GridIndex(indexRow - 1, indexColumn));
-
-                    visitedPixels.add(currentPixel);
-                }
-            }
-        }
+        ScanlineFloodFill floodFill = new ScanlineFloodFill(minDifference, maxDifference);
+        PixelRegion filledRegion = floodFill.fill(gridData, rowCount, columnCount, initRow, initColumn);
+        filledRegion.setValues(transformed, fillValue);
 
         MooreContourROIBoolean contourTracer = new MooreContourROIBoolean();
-        Path2D contour = contourTracer.getContour(regionLabelArray, grid, true);
+        Path2D contour = contourTracer.getContour(filledRegion, grid);
 
         ROI roi = new ROIPolygon(contour, 0, "Contour", new ROIStyle(Preferences.userRoot(), Color.red));
 
@@ -172,37 +137,9 @@ public class FloodFillSolidTransformation implements Channel2DDataInROITransform
 
         final double[][] transformed = ArrayUtilities.deepCopy(gridData);
 
-        Deque<GridIndex> queue = new LinkedList<>();    
-        queue.addFirst(new GridIndex(initRow, initColumn));
-
-        double initValue = gridData[initRow][initColumn];
-        Set<GridIndex> visitedPixels = new HashSet<>();
-
-        while(!queue.isEmpty())
-        {
-            GridIndex currentPixel = queue.removeLast();
-            int indexRow = currentPixel.getRow();
-            int indexColumn = currentPixel.getColumn();
-
-            if(indexRow >= 0 && indexRow < rowCount && 
-                    indexColumn >= 0 && indexColumn < columnCount && 
-                    positionArray[indexRow][indexColumn] && !visitedPixels.contains(currentPixel))
-            {
-                double diff = gridData[indexRow][indexColumn] - initValue;
-
-                if(diff <= maxDifference && diff >= minDifference)
-                {
-                    transformed[indexRow][indexColumn] = fillValue;
-
-                    queue.addFirst(new GridIndex(indexRow + 1, indexColumn));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn + 1));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn - 1));
-                    queue.addFirst(new GridIndex(indexRow - 1, indexColumn));
-
-                    visitedPixels.add(currentPixel);
-                }
-            }
-        }
+        ScanlineFloodFill floodFill = new ScanlineFloodFill(minDifference, maxDifference);
+        PixelRegion filledRegion = floodFill.fill(gridData, positionArray, rowCount, columnCount, initRow, initColumn);
+        filledRegion.setValues(transformed, fillValue);
 
         MooreContourROIBoolean contourTracer = new MooreContourROIBoolean();
         Path2D contour = contourTracer.getContour(positionArray, grid, true);
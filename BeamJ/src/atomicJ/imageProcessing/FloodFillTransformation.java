@@ -1,14 +1,8 @@
 package atomicJ.imageProcessing;
 
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Set;
-
 import atomicJ.data.Channel2DData;
 import atomicJ.data.Grid2D;
 import atomicJ.data.GridChannel2DData;
-import atomicJ.data.GridIndex;
 import atomicJ.data.units.Quantity;
 import atomicJ.gui.rois.ROI;
 import atomicJ.gui.rois.ROIRelativePosition;
@@ -57,36 +51,9 @@ public class FloodFillTransformation implements Channel2DDataInROITransformation
 
         double[][] transformed = ArrayUtilities.deepCopy(original);
 
-        Deque<GridIndex> queue = new LinkedList<>();    
-        queue.addFirst(new GridIndex(initRow, initColumn));
-
-        double initValue = original[initRow][initColumn];
-        Set<GridIndex> visitedPixels = new HashSet<>();
-
-        while(!queue.isEmpty())
-        {
-            GridIndex currentPixel = queue.removeLast();
-            int indexRow = currentPixel.getRow();
-            int indexColumn = currentPixel.getColumn();
-
-            if(indexRow >= 0 && indexRow < rowCount && 
-                    indexColumn >= 0 && indexColumn < columnCount && !visitedPixels.contains(currentPixel))
-            {
-                double diff = original[indexRow][indexColumn] - initValue;
-
-                if(diff <= maxDifference && diff >= minDifference)
-                {
-                    transformed[indexRow][indexColumn] = fillValue;
-
-                    queue.addFirst(new GridIndex(indexRow + 1, indexColumn));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn + 1));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn - 1));
-                    queue.addFirst(new GridIndex(indexRow - 1, indexColumn));
-
-                    visitedPixels.add(currentPixel);
-                }
-            }
-        }
+        ScanlineFloodFill floodFill = new ScanlineFloodFill(minDifference, maxDifference);
+        PixelRegion filledRegion = floodFill.fill(original, rowCount, columnCount, initRow, initColumn);
+        filledRegion.setValues(transformed, fillValue);
 
         GridChannel2DData transformedChannelData = new GridChannel2DData(transformed, grid, zQuantity);
 
@@ -127,37 +94,9 @@ public class FloodFillTransformation implements Channel2DDataInROITransformation
 
         double[][] transformed = ArrayUtilities.deepCopy(gridData);
 
-        Deque<GridIndex> queue = new LinkedList<>();    
-        queue.addFirst(new GridIndex(initRow, initColumn));
-
-        double initValue = gridData[initRow][initColumn];
-        Set<GridIndex> visitedPixels = new HashSet<>();
-
-        while(!queue.isEmpty())
-        {
-            GridIndex currentPixel = queue.removeLast();
-            int indexRow = currentPixel.getRow();
-            int indexColumn = currentPixel.getColumn();
-
-            if(indexRow >= 0 && indexRow < rowCount && 
-                    indexColumn >= 0 && indexColumn < columnCount && 
-                    positionArray[indexRow][indexColumn] && !visitedPixels.contains(currentPixel))
-            {
-                double diff = gridData[indexRow][indexColumn] - initValue;
-
-                if(diff <= maxDifference && diff >= minDifference)
-                {
-                    transformed[indexRow][indexColumn] = fillValue;
-
-                    queue.addFirst(new GridIndex(indexRow + 1, indexColumn));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn + 1));
-                    queue.addFirst(new GridIndex(indexRow, indexColumn - 1));
-                    queue.addFirst(new GridIndex(indexRow - 1, indexColumn));
-
-                    visitedPixels.add(currentPixel);
-                }
-            }
-        }
+        ScanlineFloodFill floodFill = new ScanlineFloodFill(minDifference, maxDifference);
+        PixelRegion filledRegion = floodFill.fill(gridData, positionArray, rowCount, columnCount, initRow, initColumn);
+        filledRegion.setValues(transformed, fillValue);
 
         GridChannel2DData transformedChannelData = new GridChannel2DData(transformed, grid, zQuantity);
         return transformedChannelData;
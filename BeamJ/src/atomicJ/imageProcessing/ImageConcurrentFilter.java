@@ -1,8 +1,5 @@
 package atomicJ.imageProcessing;
 
-import java.awt.Shape;
-import java.awt.geom.Point2D;
-import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -10,7 +7,6 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import atomicJ.data.Channel2DData;
 import atomicJ.data.Grid2D;
@@ -20,7 +16,10 @@ import atomicJ.data.units.Quantity;
 import atomicJ.gui.GeneralPreferences;
 import atomicJ.gui.UserCommunicableException;
 import atomicJ.gui.rois.ROI;
+import atomicJ.gui.rois.ROIMask;
+import atomicJ.gui.rois.ROIMaskCache;
 import atomicJ.gui.rois.ROIRelativePosition;
+import atomicJ.utilities.ComputeScheduler;
 
 
 public abstract class ImageConcurrentFilter implements Channel2DDataInROITransformation
@@ -57,70 +56,68 @@ public abstract class ImageConcurrentFilter implements Channel2DDataInROITransfo
         int rowCount = grid.getRowCount();
         int columnCount = grid.getColumnCount();
 
-        Shape shape = roi.getROIShape();
-        Rectangle2D bounds = shape.getBounds2D();
-
-        int minColumn = Math.max(0, grid.getColumn(bounds.getMinX()) - 1);
-        int maxColumn = Math.min(grid.getColumnCount(),
-                grid.getColumn(bounds.getMaxX()) + 1);
-        int minRow = Math.max(0, grid.getRow(bounds.getMinY()) - 1);
-        int maxRow = Math.min(grid.getRowCount(),
-                grid.getRow(bounds.getMaxY()) + 1);
-
-
-        double[][] transformed = new double[rowCount][columnCount];
+        boolean filteredInside;
 
         if(ROIRelativePosition.INSIDE.equals(position))
         {
-            for (int i = 0; i < rowCount; i++)
-            {
-                for (int j = 0; j < columnCount; j++) 
-                {       
-
-                    boolean insideBounds = i>= minRow && i < maxRow && j>= minColumn && j<maxColumn;
-                    boolean transform =  false;
-                    if(insideBounds)
-                    {
-                        Point2D point = grid.getPoint(i, j);
-                        transform = shape.contains(point);
-                    }
-
-                    transformed[i][j] = transform ? 
-                            filter(i, j, matrix, columnCount, rowCount) : matrix[i][j];
-                }
-            }
+            filteredInside = true;
         }
         else if(ROIRelativePosition.OUTSIDE.equals(position))
         {
-            for (int i = 0; i < rowCount; i++)
-            {
-                for (int j = 0; j < columnCount; j++) 
-                {       
-
-                    boolean insideBounds = i>= minRow && i < maxRow && j>= minColumn && j<maxColumn;
-                    boolean transform =  true;
-                    if(insideBounds)
-                    {
-                        Point2D point = grid.getPoint(i, j);
-                        transform = !shape.contains(point);
-                    }
-
-                    transformed[i][j] = transform ? 
-                            filter(i, j, matrix, columnCount, rowCount) : matrix[i][j];
-                }
-            }
+            filteredInside = false;
         }
         else 
         {
             throw new IllegalArgumentException("Unknown ROIRelativePosition " + position);
         }
 
+        ROIMask mask = ROIMaskCache.getInstance().getMask(grid, roi.getROIShape());
+
+        double[][] transformed = new double[rowCount][columnCount];
+
+        for (int i = 0; i < rowCount; i++)
+        {
+            for (int j = 0; j < columnCount; j++) 
+            {       
+                boolean transform = (mask.isInside(i, j) == filteredInside);
+
+                transformed[i][j] = transform ? 
+                        filter(i, j, matrix, columnCount, rowCount) : matrix[i][j];
+            }
+        }
+
         GridChannel2DData channelDataTransformed = new GridChannel2DData(transformed, grid, zQuantity);
         return channelDataTransformed;
     }
 
     protected abstract double filter(int i, int j, double[][] matrix, int columnCount, int rowCount);
 
+    //filters whole rows, from minRow inclusive to maxRow exclusive, each subtask calls it once for its stripe of rows
+    //filters which can reuse calculations made for the previous point of a row should override it,
+    //and call checkInterruption() before each row, so that a cancelled task stops within a row
+    protected void filterRows(int minRow, int maxRow, double[][] matrix, int columnCount, int rowCount, double[][] filtered) throws InterruptedException
+    {
+        for(int i = minRow; i < maxRow; i++)
+        {
+            checkInterruption();
+
+            double[] filteredRow = filtered[i];
+
+            for(int j = 0; j<columnCount; j++)
+            {             
+                filteredRow[j] = filter(i, j, matrix, columnCount, rowCount);
+            }
+        }
+    }
+
+    protected static void checkInterruption() throws InterruptedException
+    {
+        if(Thread.interrupted())
+        {
+            throw new InterruptedException();
+        }
+    }
+
     protected double getPixel(int row, int column, double[][] pixels, int width, int height)
     { 
         if (column<=0) column = 0; 
@@ -169,7 +166,7 @@ public abstract class ImageConcurrentFilter implements Channel2DDataInROITransfo
             int basicTaskSize = problemSize/taskNumber;
             int remainingFiles = problemSize%taskNumber;
 
-            executor = Executors.newFixedThreadPool(taskNumber); 
+            executor = ComputeScheduler.getInstance().newTaskExecutor("Image filtering", ComputeScheduler.Priority.BATCH, taskNumber); 
 
             int currentIndex = 0;
 
@@ -201,7 +198,13 @@ public abstract class ImageConcurrentFilter implements Channel2DDataInROITransfo
                 }
 
             } 
-            catch (InterruptedException | ExecutionException e) 
+            catch (InterruptedException e) 
+            {
+                //interrupts the running subtasks, which stop before their next row
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }   
+            catch (ExecutionException e) 
             {
                 e.printStackTrace();
             }   
@@ -226,28 +229,19 @@ public abstract class ImageConcurrentFilter implements Channel2DDataInROITransfo
             @Override
             public Void call() throws InterruptedException
             {
-                Thread currentThread = Thread.currentThread();
-
-                for(int i = minRow; i < maxRow;i++)
+                try
+                {       
+                    filterRows(minRow, maxRow, originalArray, columnCount, rowCount, filteredArray);
+                }
+                catch(InterruptedException e)
+                {
+                    throw e;
+                }
+                catch(Exception e)
                 {
-                    if(currentThread.isInterrupted())
-                    {
-                        throw new InterruptedException();
-                    }
-
-                    try
-                    {       
-                        for(int j = 0; j<columnCount; j++)
-                        {             
-                            filteredArray[i][j] = filter(i, j, originalArray, columnCount, rowCount);
-                        }
-                    }
-                    catch(Exception e)
-                    {
-                        e.printStackTrace();
-                    }
-
-                }   
+                    e.printStackTrace();
+                }
+
                 return null;
             }
         }
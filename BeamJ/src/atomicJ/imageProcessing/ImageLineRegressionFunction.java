@@ -3,6 +3,8 @@ package atomicJ.imageProcessing;
 import java.util.List;
 import org.apache.commons.math3.analysis.UnivariateFunction;
 
+import atomicJ.data.FlatArray2D;
+
 public class ImageLineRegressionFunction implements SampleFunctional
 {
     private final LineFitRegressionStrategy strategy;
@@ -50,6 +52,18 @@ public class ImageLineRegressionFunction implements SampleFunctional
         return functions;
     }
 
+    @Override
+    public UnivariateFunction[] getValues(FlatArray2D lines)
+    {
+        if(lines.getColumnCount() < deg + 1)
+        {
+            return null;
+        }
+
+        UnivariateFunction[] functions = strategy.performRegressionsOnEquispacedLines(lines, deg);
+        return functions;
+    }
+
     @Override
     public UnivariateFunction getValue(List<double[]> line) 
     {
@@ -1,5 +1,8 @@
 package atomicJ.imageProcessing;
 
+import java.util.Arrays;
+
+import atomicJ.data.FlatArray2D;
 import atomicJ.utilities.ArrayUtilities;
 import Jama.Matrix;
 import Jama.SingularValueDecomposition;
@@ -327,6 +330,64 @@ public class Kernel2D
         return transformed;
     }    
 
+    //convolves the image into a new contiguous array, the image is extended beyond its edges by repeating the edge values,
+    //as in convolve(double[][], int, int), and the results are the same
+    public FlatArray2D convolve(FlatArray2D image)
+    {
+        int imageRowCount = image.getRowCount();
+        int imageColumnCount = image.getColumnCount();
+
+        double[] imageValues = image.getValues();
+        int imageColumnStride = image.getColumnStride();
+
+        FlatArray2D transformed = new FlatArray2D(imageRowCount, imageColumnCount);
+        double[] transformedValues = transformed.getValues();
+
+        for(int i = 0, index = 0; i<imageRowCount; i++)
+        {
+            int imageMinRow = i - centerRow;
+            boolean rowInside = imageMinRow >= 0 && imageMinRow + rowCount <= imageRowCount;
+
+            for(int j = 0; j<imageColumnCount; j++, index++)
+            {
+                int imageMinColumn = j - centerColumn;
+                boolean inside = rowInside && imageMinColumn >= 0 && imageMinColumn + columnCount <= imageColumnCount;
+
+                double value = 0;
+
+                for(int k = 0; k<rowCount; k++)
+                {
+                    double[] kernelRow = matrixReverse[k];
+
+                    if(inside)
+                    {
+                        int imageIndex = image.getIndex(imageMinRow + k, imageMinColumn);
+
+                        for(int l = 0; l<columnCount; l++, imageIndex += imageColumnStride)
+                        {
+                            value = value + imageValues[imageIndex]*kernelRow[l];
+                        }
+                    }
+                    else
+                    {
+                        int row = Math.min(Math.max(imageMinRow + k, 0), imageRowCount - 1);
+                        int rowIndex = image.getIndex(row, 0);
+
+                        for(int l = 0; l<columnCount; l++)
+                        {
+                            int column = Math.min(Math.max(imageMinColumn + l, 0), imageColumnCount - 1);
+                            value = value + imageValues[rowIndex + column*imageColumnStride]*kernelRow[l];
+                        }
+                    }
+                }
+
+                transformedValues[index] = value;
+            }
+        }
+
+        return transformed;
+    }
+
     protected double getValue(int row, int column, double[][] matrix, int width, int height)
     { 
         if (column < 0 ) column = 0; 
@@ -386,4 +447,29 @@ public class Kernel2D
 
         return separation;
     }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 17;
+
+        result = 31*result + Arrays.deepHashCode(matrix);
+
+        return result;
+    }
+
+    //kernels of different subclasses are not equal, even if they have the same coefficients
+    @Override
+    public boolean equals(Object that)
+    {
+        if(that != null && this.getClass().equals(that.getClass()))
+        {
+            Kernel2D thatKernel = (Kernel2D)that;
+
+            boolean equal = Arrays.deepEquals(this.matrix, thatKernel.matrix);
+            return equal;
+        }
+
+        return false;
+    }
 }
@@ -1,20 +1,31 @@
 package atomicJ.imageProcessing;
 
+import java.awt.geom.Rectangle2D;
+
 import atomicJ.data.Channel2DData;
+import atomicJ.data.Grid2D;
 import atomicJ.gui.rois.ROI;
 import atomicJ.gui.rois.ROIRelativePosition;
 
+//chooses between direct convolution, convolution with the two one-dimensional factors of a separable kernel,
+//and convolution by the Fourier transform, by comparing the numbers of operations each of them needs for the transformed image
 public class KernelConvolution implements Channel2DDataInROITransformation
 {   
+    //the cost of one multiplication of complex numbers during the Fourier transforms, relative to one multiplication
+    //and addition in the direct convolution, which also accounts for the less regular memory access of the transforms
+    private static final double FFT_OPERATION_COST = 6;
+
     private final Kernel2D kernel;
-    private final Channel2DDataInROITransformation transformation;
+    private final Channel2DDataInROITransformation spatialTransformation;
+    private final Channel2DDataInROITransformation fftTransformation;
 
     public KernelConvolution(Kernel2D kernel)
     {
         this.kernel = kernel;
 
         boolean separable = kernel.isSeparable();
-        this.transformation = separable ? new KernelConvolutionSequence(kernel.getSeparableFilters()) : new KernelSimpleConvolution(kernel);
+        this.spatialTransformation = separable ? new KernelConvolutionSequence(kernel.getSeparableFilters()) : new KernelSimpleConvolution(kernel);
+        this.fftTransformation = new KernelFFTConvolution(kernel);
     }
 
     public Kernel2D getKernel()
@@ -25,14 +36,47 @@ public class KernelConvolution implements Channel2DDataInROITransformation
     @Override
     public Channel2DData transform(Channel2DData channelData) 
     {
-        return transformation.transform(channelData);
+        Grid2D grid = channelData.getDefaultGriddingGrid();
+        long convolvedPointCount = (long)grid.getRowCount()*grid.getColumnCount();
+
+        return selectTransformation(grid, convolvedPointCount).transform(channelData);
     }
 
     @Override
     public Channel2DData transform(Channel2DData channelData, ROI roi, ROIRelativePosition position) 
     {        
-        Channel2DData matrix = transformation.transform(channelData, roi, position);        
+        Grid2D grid = channelData.getDefaultGriddingGrid();
+        long convolvedPointCount = (long)grid.getRowCount()*grid.getColumnCount();
+
+        //the spatial convolutions transform only the bounding box of the ROI, while the Fourier transform is always calculated for the whole image
+        if(ROIRelativePosition.INSIDE.equals(position))
+        {
+            Rectangle2D bounds = roi.getROIShape().getBounds2D();
+
+            long boundedRowCount = Math.max(0, Math.min(grid.getRowCount(), grid.getRow(bounds.getMaxY()) + 1) - Math.max(0, grid.getRow(bounds.getMinY())));
+            long boundedColumnCount = Math.max(0, Math.min(grid.getColumnCount(), grid.getColumn(bounds.getMaxX()) + 1) - Math.max(0, grid.getColumn(bounds.getMinX())));
+
+            convolvedPointCount = boundedRowCount*boundedColumnCount;
+        }
+
+        Channel2DData matrix = selectTransformation(grid, convolvedPointCount).transform(channelData, roi, position);        
 
         return matrix;
     }
+
+    private Channel2DDataInROITransformation selectTransformation(Grid2D grid, long convolvedPointCount)
+    {
+        int kernelRowCount = kernel.getRowCount();
+        int kernelColumnCount = kernel.getColumnCount();
+
+        double spatialCost = kernel.isSeparable() ? convolvedPointCount*(kernelRowCount + kernelColumnCount) : (double)convolvedPointCount*kernelRowCount*kernelColumnCount;
+
+        //two transforms are calculated for each image, the transform of the kernel is usually cached
+        double fftElementCount = (double)KernelFFTConvolution.getTransformLength(grid.getRowCount(), kernel.getYRadius())
+                *KernelFFTConvolution.getTransformLength(grid.getColumnCount(), kernel.getXRadius());
+        double fftCost = FFT_OPERATION_COST*fftElementCount*(Math.log(fftElementCount)/Math.log(2));
+
+        Channel2DDataInROITransformation transformation = fftCost < spatialCost ? fftTransformation : spatialTransformation;
+        return transformation;
+    }
 }
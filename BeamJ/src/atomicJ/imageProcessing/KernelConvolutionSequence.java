@@ -4,6 +4,7 @@ import java.awt.Shape;
 import java.awt.geom.Rectangle2D;
 
 import atomicJ.data.Channel2DData;
+import atomicJ.data.FlatArray2D;
 import atomicJ.data.Grid2D;
 import atomicJ.data.GridChannel2DData;
 import atomicJ.data.units.Quantity;
@@ -30,14 +31,15 @@ public class KernelConvolutionSequence implements Channel2DDataInROITransformati
         Grid2D grid = griddedChannel.getGrid();
         Quantity zQuantity = griddedChannel.getZQuantity();
 
-        double[][] matrix = griddedChannel.getData();
+        FlatArray2D matrix = griddedChannel.getFlatData();
 
         Kernel2D initialKernel = kernel.getInitialKernel();
         Kernel2D finalKernel = kernel.getFinalKernel();
 
-        double[][] preTransformed = preTransform(initialKernel, matrix, grid);
+        FlatArray2D preTransformed = initialKernel.convolve(matrix);
+        FlatArray2D transformed = finalKernel.convolve(preTransformed);
 
-        GridChannel2DData channelDataTransformed = finalTransformation(finalKernel, grid, zQuantity, matrix, preTransformed);
+        GridChannel2DData channelDataTransformed = new GridChannel2DData(transformed, grid, zQuantity);
         return channelDataTransformed;
     }
 
@@ -0,0 +1,463 @@
+package atomicJ.imageProcessing;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import atomicJ.data.Channel2DData;
+import atomicJ.data.FlatArray2D;
+import atomicJ.data.Grid2D;
+import atomicJ.data.GridChannel2DData;
+import atomicJ.data.units.Quantity;
+import atomicJ.gui.GeneralPreferences;
+import atomicJ.gui.rois.GridPointRecepient;
+import atomicJ.gui.rois.ROI;
+import atomicJ.gui.rois.ROIRelativePosition;
+import atomicJ.utilities.ComputeScheduler;
+
+//convolves images with kernels by multiplication of their Fourier transforms, which for large kernels
+//needs much fewer operations than convolution in the spatial domain
+//the image is extended beyond its edges by repeating the edge values, as in Kernel2D.convolve(), so the results are the same as those
+//of the spatial convolution, up to the rounding errors of the transforms, which are of the order of 1e-12 of the sum of absolute values of the kernel elements
+//multiplied by the largest absolute value in the image
+//the transforms of kernels are cached, so that filtering of many images of the same size transforms the kernel only once
+public class KernelFFTConvolution implements Channel2DDataInROITransformation
+{
+    private static final int MAXIMAL_CACHED_SPECTRUM_COUNT = 4;
+    //the minimal number of transformed elements for which the transforms are calculated concurrently
+    private static final int MINIMAL_CONCURRENT_ELEMENT_COUNT = 1 << 16;
+
+    private static final Map<SpectrumKey, SoftReference<double[][][]>> KERNEL_SPECTRA = new LinkedHashMap<SpectrumKey, SoftReference<double[][][]>>(16, 0.75f, true)
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SpectrumKey, SoftReference<double[][][]>> eldest)
+        {
+            return size() > MAXIMAL_CACHED_SPECTRUM_COUNT;
+        }
+    };
+
+    private final Kernel2D kernel;
+
+    public KernelFFTConvolution(Kernel2D kernel)
+    {
+        this.kernel = kernel;
+    }
+
+    @Override
+    public GridChannel2DData transform(Channel2DData channelData)
+    {
+        GridChannel2DData griddedChannelData = channelData.getDefaultGridding();
+        Grid2D grid = griddedChannelData.getGrid();
+        Quantity zQuantity = griddedChannelData.getZQuantity();
+        FlatArray2D matrix = griddedChannelData.getFlatData();
+
+        FlatArray2D transformed = convolve(kernel, matrix);
+
+        GridChannel2DData channelDataTransformed = new GridChannel2DData(transformed, grid, zQuantity);
+        return channelDataTransformed;
+    }
+
+    //the whole image is convolved, and then the values at the points in the required position relative to the ROI are copied
+    @Override
+    public GridChannel2DData transform(Channel2DData channelData, ROI roi, ROIRelativePosition position)
+    {
+        if(ROIRelativePosition.EVERYTHING.equals(position))
+        {
+            return transform(channelData);
+        }
+
+        GridChannel2DData griddedChannelData = channelData.getDefaultGridding();
+        Grid2D grid = griddedChannelData.getGrid();
+        Quantity zQuantity = griddedChannelData.getZQuantity();
+        FlatArray2D matrix = griddedChannelData.getFlatData();
+
+        final FlatArray2D convolved = convolve(kernel, matrix);
+        final FlatArray2D transformed = matrix.copy();
+
+        final double[] convolvedValues = convolved.getValues();
+        final double[] transformedValues = transformed.getValues();
+
+        roi.addPoints(grid, position, new GridPointRecepient()
+        {
+            @Override
+            public void addPoint(int row, int column)
+            {
+                int index = transformed.getIndex(row, column);
+                transformedValues[index] = convolvedValues[index];
+            }
+
+            @Override
+            public void addBlock(int rowFrom, int rowTo, int columnFrom, int columnTo)
+            {
+                for(int i = rowFrom; i<rowTo; i++)
+                {
+                    int index = transformed.getIndex(i, columnFrom);
+                    System.arraycopy(convolvedValues, index, transformedValues, index, columnTo - columnFrom);
+                }
+            }
+        });
+
+        GridChannel2DData channelDataTransformed = new GridChannel2DData(transformed, grid, zQuantity);
+        return channelDataTransformed;
+    }
+
+    public static int getTransformLength(int imageLength, int kernelRadius)
+    {
+        return Integer.highestOneBit(Math.max(1, imageLength + 2*kernelRadius - 1)) << 1;
+    }
+
+    public static FlatArray2D convolve(Kernel2D kernel, FlatArray2D image)
+    {
+        int imageRowCount = image.getRowCount();
+        int imageColumnCount = image.getColumnCount();
+
+        final int yRadius = kernel.getYRadius();
+        final int xRadius = kernel.getXRadius();
+
+        int fftRowCount = getTransformLength(imageRowCount, yRadius);
+        int fftColumnCount = getTransformLength(imageColumnCount, xRadius);
+
+        //the image is padded with its edge values on each side, so that the circular convolution
+        //does not mix the values of opposite edges at the points of the image
+        final double[][] re = new double[fftRowCount][fftColumnCount];
+        final double[][] im = new double[fftRowCount][fftColumnCount];
+
+        int paddedRowCount = imageRowCount + 2*yRadius;
+        int paddedColumnCount = imageColumnCount + 2*xRadius;
+
+        for(int p = 0; p<paddedRowCount; p++)
+        {
+            int imageRow = clamp(p - yRadius, imageRowCount);
+            double[] paddedRow = re[p];
+
+            for(int q = 0; q<paddedColumnCount; q++)
+            {
+                paddedRow[q] = image.get(imageRow, clamp(q - xRadius, imageColumnCount));
+            }
+        }
+
+        transform(re, im, false);
+
+        double[][][] kernelSpectrum = getKernelSpectrum(kernel, fftRowCount, fftColumnCount);
+        final double[][] kernelRe = kernelSpectrum[0];
+        final double[][] kernelIm = kernelSpectrum[1];
+
+        runConcurrently(fftRowCount, fftColumnCount, new RowRangeTask()
+        {
+            @Override
+            public void run(int rowFrom, int rowTo)
+            {
+                for(int i = rowFrom; i<rowTo; i++)
+                {
+                    double[] rowRe = re[i];
+                    double[] rowIm = im[i];
+                    double[] kernelRowRe = kernelRe[i];
+                    double[] kernelRowIm = kernelIm[i];
+
+                    int n = rowRe.length;
+
+                    for(int j = 0; j<n; j++)
+                    {
+                        double a = rowRe[j];
+                        double b = rowIm[j];
+                        double c = kernelRowRe[j];
+                        double d = kernelRowIm[j];
+
+                        rowRe[j] = a*c - b*d;
+                        rowIm[j] = a*d + b*c;
+                    }
+                }
+            }
+        });
+
+        transform(re, im, true);
+
+        //the point (i, j) of the image corresponds to the point (i + 2*yRadius, j + 2*xRadius) of the convolution of the padded image
+        double factor = 1./((double)fftRowCount*fftColumnCount);
+        FlatArray2D convolved = new FlatArray2D(imageRowCount, imageColumnCount);
+        double[] convolvedValues = convolved.getValues();
+
+        for(int i = 0, index = 0; i<imageRowCount; i++)
+        {
+            double[] transformedRow = re[i + 2*yRadius];
+
+            for(int j = 0; j<imageColumnCount; j++, index++)
+            {
+                convolvedValues[index] = factor*transformedRow[j + 2*xRadius];
+            }
+        }
+
+        return convolved;
+    }
+
+    private static int clamp(int index, int length)
+    {
+        return index < 0 ? 0 : (index >= length ? length - 1 : index);
+    }
+
+    private static double[][][] getKernelSpectrum(Kernel2D kernel, int fftRowCount, int fftColumnCount)
+    {
+        SpectrumKey key = new SpectrumKey(kernel, fftRowCount, fftColumnCount);
+
+        synchronized(KERNEL_SPECTRA)
+        {
+            SoftReference<double[][][]> reference = KERNEL_SPECTRA.get(key);
+            double[][][] spectrum = reference != null ? reference.get() : null;
+
+            if(spectrum != null)
+            {
+                return spectrum;
+            }
+        }
+
+        double[][] kernelArray = kernel.getArray();
+
+        double[][] re = new double[fftRowCount][fftColumnCount];
+        double[][] im = new double[fftRowCount][fftColumnCount];
+
+        for(int i = 0; i<kernelArray.length; i++)
+        {
+            System.arraycopy(kernelArray[i], 0, re[i], 0, kernelArray[i].length);
+        }
+
+        transform(re, im, false);
+
+        double[][][] spectrum = new double[][][] {re, im};
+
+        synchronized(KERNEL_SPECTRA)
+        {
+            KERNEL_SPECTRA.put(key, new SoftReference<>(spectrum));
+        }
+
+        return spectrum;
+    }
+
+    //two dimensional discrete Fourier transform, calculated in place, the inverse transform is not scaled
+    private static void transform(final double[][] re, final double[][] im, final boolean inverse)
+    {
+        final int rowCount = re.length;
+        final int columnCount = re[0].length;
+
+        final double[][] columnTwiddles = getTwiddleFactors(columnCount);
+        final double[][] rowTwiddles = getTwiddleFactors(rowCount);
+
+        runConcurrently(rowCount, columnCount, new RowRangeTask()
+        {
+            @Override
+            public void run(int rowFrom, int rowTo)
+            {
+                for(int i = rowFrom; i<rowTo; i++)
+                {
+                    transform(re[i], im[i], columnTwiddles, inverse);
+                }
+            }
+        });
+
+        //the columns are divided in the same way as the rows, each task copies its columns into separate arrays
+        runConcurrently(columnCount, rowCount, new RowRangeTask()
+        {
+            @Override
+            public void run(int columnFrom, int columnTo)
+            {
+                double[] columnRe = new double[rowCount];
+                double[] columnIm = new double[rowCount];
+
+                for(int j = columnFrom; j<columnTo; j++)
+                {
+                    for(int i = 0; i<rowCount; i++)
+                    {
+                        columnRe[i] = re[i][j];
+                        columnIm[i] = im[i][j];
+                    }
+
+                    transform(columnRe, columnIm, rowTwiddles, inverse);
+
+                    for(int i = 0; i<rowCount; i++)
+                    {
+                        re[i][j] = columnRe[i];
+                        im[i][j] = columnIm[i];
+                    }
+                }
+            }
+        });
+    }
+
+    private static double[][] getTwiddleFactors(int n)
+    {
+        int half = n/2;
+
+        double[] cos = new double[half];
+        double[] sin = new double[half];
+
+        for(int k = 0; k<half; k++)
+        {
+            double angle = 2*Math.PI*k/n;
+            cos[k] = Math.cos(angle);
+            sin[k] = Math.sin(angle);
+        }
+
+        return new double[][] {cos, sin};
+    }
+
+    //iterative radix-2 transform, the length of the arrays must be a power of two
+    private static void transform(double[] re, double[] im, double[][] twiddles, boolean inverse)
+    {
+        int n = re.length;
+
+        double[] cos = twiddles[0];
+        double[] sin = twiddles[1];
+
+        for(int i = 1, j = 0; i<n; i++)
+        {
+            int bit = n >> 1;
+            for(; (j & bit) != 0; bit >>= 1)
+            {
+                j ^= bit;
+            }
+            j ^= bit;
+
+            if(i < j)
+            {
+                double tempRe = re[i];
+                re[i] = re[j];
+                re[j] = tempRe;
+
+                double tempIm = im[i];
+                im[i] = im[j];
+                im[j] = tempIm;
+            }
+        }
+
+        double sign = inverse ? 1 : -1;
+
+        for(int length = 2; length <= n; length <<= 1)
+        {
+            int half = length >> 1;
+            int step = n/length;
+
+            for(int start = 0; start<n; start += length)
+            {
+                for(int k = 0; k<half; k++)
+                {
+                    double wRe = cos[k*step];
+                    double wIm = sign*sin[k*step];
+
+                    int a = start + k;
+                    int b = a + half;
+
+                    double xRe = re[b]*wRe - im[b]*wIm;
+                    double xIm = re[b]*wIm + im[b]*wRe;
+
+                    re[b] = re[a] - xRe;
+                    im[b] = im[a] - xIm;
+                    re[a] += xRe;
+                    im[a] += xIm;
+                }
+            }
+        }
+    }
+
+    private static void runConcurrently(int rowCount, int columnCount, final RowRangeTask task)
+    {
+        int maxTaskNumber = GeneralPreferences.GENERAL_PREFERENCES.getTaskNumber();
+        int taskNumber = Math.min(Math.max((int)((long)rowCount*columnCount/MINIMAL_CONCURRENT_ELEMENT_COUNT), 1), Math.min(maxTaskNumber, rowCount));
+
+        if(taskNumber == 1)
+        {
+            task.run(0, rowCount);
+            return;
+        }
+
+        int basicTaskSize = rowCount/taskNumber;
+        int remainingRows = rowCount%taskNumber;
+
+        ExecutorService executor = ComputeScheduler.getInstance().newTaskExecutor("FFT convolution", ComputeScheduler.Priority.BATCH, taskNumber);
+        List<Future<?>> futures = new ArrayList<>();
+
+        int currentIndex = 0;
+
+        for(int i = 0; i < taskNumber; i++)
+        {
+            final int rowFrom = currentIndex;
+            final int rowTo = currentIndex + (i < remainingRows ? basicTaskSize + 1 : basicTaskSize);
+
+            futures.add(executor.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    task.run(rowFrom, rowTo);
+                }
+            }));
+
+            currentIndex = rowTo;
+        }
+
+        executor.shutdown();
+
+        try
+        {
+            for(Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            executor.shutdownNow();
+            throw new IllegalStateException("Convolution was not completed", e);
+        }
+    }
+
+    private static interface RowRangeTask
+    {
+        public void run(int rowFrom, int rowTo);
+    }
+
+    private static class SpectrumKey
+    {
+        private final Kernel2D kernel;
+        private final int rowCount;
+        private final int columnCount;
+
+        private SpectrumKey(Kernel2D kernel, int rowCount, int columnCount)
+        {
+            this.kernel = kernel;
+            this.rowCount = rowCount;
+            this.columnCount = columnCount;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = 17;
+
+            result = 31*result + kernel.hashCode();
+            result = 31*result + rowCount;
+            result = 31*result + columnCount;
+
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object that)
+        {
+            if(that instanceof SpectrumKey)
+            {
+                SpectrumKey thatKey = (SpectrumKey)that;
+
+                boolean equal = this.rowCount == thatKey.rowCount && this.columnCount == thatKey.columnCount && this.kernel.equals(thatKey.kernel);
+                return equal;
+            }
+
+            return false;
+        }
+    }
+}
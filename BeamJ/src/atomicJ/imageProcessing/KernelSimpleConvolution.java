@@ -1,6 +1,7 @@
 package atomicJ.imageProcessing;
 
 import atomicJ.data.Channel2DData;
+import atomicJ.data.FlatArray2D;
 import atomicJ.data.Grid2D;
 import atomicJ.data.GridChannel2DData;
 import atomicJ.data.units.Quantity;
@@ -24,9 +25,10 @@ public class KernelSimpleConvolution implements Channel2DDataInROITransformation
         GridChannel2DData griddedChannelData = channelData.getDefaultGridding();
         Grid2D grid = griddedChannelData.getGrid();
         Quantity zQuantity = griddedChannelData.getZQuantity();
-        double[][] matrix = griddedChannelData.getData();
 
-        GridChannel2DData channelDataTransformed = finalTransformation(kernel, grid, zQuantity, matrix, matrix);
+        FlatArray2D transformed = kernel.convolve(griddedChannelData.getFlatData());
+
+        GridChannel2DData channelDataTransformed = new GridChannel2DData(transformed, grid, zQuantity);
         return channelDataTransformed;
     }
 
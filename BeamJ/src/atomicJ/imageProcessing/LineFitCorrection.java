@@ -6,6 +6,7 @@ import java.util.List;
 import org.apache.commons.math3.analysis.UnivariateFunction;
 
 import atomicJ.data.Channel2DData;
+import atomicJ.data.FlatArray2D;
 import atomicJ.data.Grid2D;
 import atomicJ.data.GridChannel2DData;
 import atomicJ.data.units.Quantity;
@@ -42,23 +43,46 @@ public class LineFitCorrection implements Channel2DDataInROITransformation
     {        
         Grid2D grid = channelData.getGrid();
         Quantity zQuantity = channelData.getZQuantity();
-        double[][] matrix = channelData.getData();
 
         int rowCount = grid.getRowCount();
         int columnCount = grid.getColumnCount();
 
-        UnivariateFunction[] fits = getFitsToEquispacedLines(matrix);
+        FlatArray2D transformed = new FlatArray2D(rowCount, columnCount);
+        double[] transformedValues = transformed.getValues();
 
-        double[][] transformed = new double[rowCount][columnCount];
+        //flat data are fitted in place, through their strides, the rows of other data are used directly, without converting the data
+        if(channelData.hasFlatStorage())
+        {
+            FlatArray2D matrix = channelData.getFlatData();
+            UnivariateFunction[] fits = getFitsToEquispacedLines(matrix);
 
-        for(int i = 0; i<rowCount; i++)
+            double[] matrixValues = matrix.getValues();
+            int columnStride = matrix.getColumnStride();
+
+            for(int i = 0, index = 0; i<rowCount; i++)
+            {
+                UnivariateFunction f = fits[i];
+
+                for(int j = 0, matrixIndex = matrix.getIndex(i, 0); j<columnCount; j++, index++, matrixIndex += columnStride)
+                {
+                    transformedValues[index] = matrixValues[matrixIndex] - f.value(j);
+                }
+            }
+        }
+        else
         {
-            UnivariateFunction f = fits[i];
+            double[][] rows = channelData.getData();
+            UnivariateFunction[] fits = getFitsToEquispacedLines(rows);
 
-            double[] matrixRow = matrix[i];
-            for(int j = 0; j<columnCount; j++)
+            for(int i = 0, index = 0; i<rowCount; i++)
             {
-                transformed[i][j] = matrixRow[j] - f.value(j);
+                UnivariateFunction f = fits[i];
+
+                double[] matrixRow = rows[i];
+                for(int j = 0; j<columnCount; j++, index++)
+                {
+                    transformedValues[index] = matrixRow[j] - f.value(j);
+                }
             }
         }
 
@@ -71,24 +95,56 @@ public class LineFitCorrection implements Channel2DDataInROITransformation
     {
         Grid2D grid = channelData.getGrid();
         Quantity zQuantity = channelData.getZQuantity();
-        double[][] matrix = channelData.getData();
 
         int rowCount = grid.getRowCount();
         int columnCount = grid.getColumnCount();
 
+        FlatArray2D transformed = new FlatArray2D(rowCount, columnCount);
+
+        //flat data are fitted in place, through the transposed view, whose rows are the columns of the image
+        if(channelData.hasFlatStorage())
+        {
+            FlatArray2D matrix = channelData.getFlatData();
+            UnivariateFunction[] fits = getFitsToEquispacedLines(matrix.getTransposed());
 
-        double[][] transposedMatrix = ArrayUtilities.transpose(matrix, rowCount, columnCount);
-        UnivariateFunction[] fits = getFitsToEquispacedLines(transposedMatrix);
+            //the fitted function of each column is evaluated once per row, and the image is traversed row by row,
+            //so that both the read and the written values are accessed sequentially for contiguous data
+            double[] fittedColumnValues = new double[columnCount];
+            double[] transformedValues = transformed.getValues();
+            double[] matrixValues = matrix.getValues();
+            int columnStride = matrix.getColumnStride();
 
-        double[][] transformed = new double[rowCount][columnCount];
+            for(int i = 0, index = 0; i<rowCount; i++)
+            {
+                for(int j = 0; j<columnCount; j++)
+                {
+                    fittedColumnValues[j] = fits[j].value(i);
+                }
 
-        for(int j = 0; j<columnCount; j++)
+                for(int j = 0, matrixIndex = matrix.getIndex(i, 0); j<columnCount; j++, index++, matrixIndex += columnStride)
+                {
+                    transformedValues[index] = matrixValues[matrixIndex] - fittedColumnValues[j];
+                }
+            }
+        }
+        else
         {
-            UnivariateFunction f = fits[j];
+            double[][] transposedMatrix = ArrayUtilities.transpose(channelData.getData(), rowCount, columnCount);
+            UnivariateFunction[] fits = getFitsToEquispacedLines(transposedMatrix);
 
-            for(int i = 0; i<rowCount; i++)
+            //the columns are traversed in the transposed matrix and the results are written through the transposed view,
+            //so that the values are read sequentially
+            FlatArray2D transformedTransposed = transformed.getTransposed();
+
+            for(int j = 0; j<columnCount; j++)
             {
-                transformed[i][j] = matrix[i][j] - f.value(i);           
+                UnivariateFunction f = fits[j];
+                double[] matrixColumn = transposedMatrix[j];
+
+                for(int i = 0; i<rowCount; i++)
+                {
+                    transformedTransposed.set(j, i, matrixColumn[i] - f.value(i));           
+                }
             }
         }
 
@@ -216,6 +272,11 @@ public class LineFitCorrection implements Channel2DDataInROITransformation
         return fits;
     }
 
+    //fits the rows of the array, reading them through its strides
+    private UnivariateFunction[] getFitsToEquispacedLines(FlatArray2D lines)
+    {        
+        return functional.getValues(lines);
+    }
 
     protected UnivariateFunction[] getRowFits(Grid2D grid, final double[][] matrix, ROI roi, ROIRelativePosition position) 
     {
@@ -20,6 +20,7 @@ package atomicJ.imageProcessing;
 
 import org.apache.commons.math3.analysis.UnivariateFunction;
 
+import atomicJ.data.FlatArray2D;
 import atomicJ.statistics.L1Regression;
 import atomicJ.statistics.L2Regression;
 
@@ -45,6 +46,12 @@ public enum LineFitRegressionStrategy
         {
             return L2Regression.performRegressionsOnEquispacedLines(dataSets, columnCount, deg);
         }
+
+        @Override
+        public UnivariateFunction[] performRegressionsOnEquispacedLines(FlatArray2D lines, int deg) 
+        {
+            return L2Regression.performRegressionsOnEquispacedLines(lines, deg);
+        }
     },
     CLASSICAL_L1("Least absolute deviations")
     {   
@@ -74,6 +81,24 @@ public enum LineFitRegressionStrategy
 
             return functions;
         }
+
+        @Override
+        public UnivariateFunction[] performRegressionsOnEquispacedLines(FlatArray2D lines, int deg) 
+        {
+            int n = lines.getRowCount();
+            UnivariateFunction[] functions = new UnivariateFunction[n];
+
+            //the regression model copies the observations, so a single buffer can be reused for all lines
+            double[] line = new double[lines.getColumnCount()];
+
+            for(int i = 0; i<n; i++)
+            {
+                lines.copyRow(i, line, 0);
+                functions[i] = L1Regression.findFitedFunction(line, deg, true);
+            }
+
+            return functions;
+        }
     };
 
     private final String name;
@@ -114,6 +139,8 @@ public enum LineFitRegressionStrategy
 
     public abstract UnivariateFunction[] performRegressionsOnEquispacedLines(double[][] dataSets, int columnCount, int deg);
 
+    public abstract UnivariateFunction[] performRegressionsOnEquispacedLines(FlatArray2D lines, int deg);
+
     public abstract UnivariateFunction performRegression(double[][] data, int deg);
 
     public String getIdentifier()
@@ -1,9 +1,11 @@
 package atomicJ.imageProcessing;
 
 import atomicJ.statistics.DescriptiveStatistics;
+import atomicJ.statistics.SlidingWindowMedian;
 
-
-public class MedianFilter2D extends ImageFilter
+//whole rows are filtered with a sliding window, when the window moves to the next column,
+//only the values of the column which leaves the window are replaced with the values of the column which enters it
+public class MedianFilter2D extends ImageConcurrentFilter
 {    
     private final int kernelColumnCount;
     private final int kernelRowCount;
@@ -41,4 +43,45 @@ public class MedianFilter2D extends ImageFilter
 
         return DescriptiveStatistics.median(values);
     }
+
+    //the values of the window column l are kept in the slots from l*kernelRowCount to (l + 1)*kernelRowCount - 1,
+    //the column which enters the window takes the slots of the column which leaves it
+    @Override
+    protected void filterRows(int minRow, int maxRow, double[][] matrix, int columnCount, int rowCount, double[][] filtered) throws InterruptedException
+    {
+        SlidingWindowMedian window = new SlidingWindowMedian(kernelRowCount*kernelColumnCount);
+
+        for(int i = minRow; i < maxRow; i++)
+        {
+            checkInterruption();
+
+            double[] filteredRow = filtered[i];
+
+            window.clear();
+
+            for(int l = 0; l<kernelColumnCount; l++)
+            {
+                setWindowColumn(window, l, i, l - kernelCenterColumn, matrix, columnCount, rowCount);
+            }
+
+            filteredRow[0] = window.getMedian();
+
+            for(int j = 1; j<columnCount; j++)
+            {
+                setWindowColumn(window, (j - 1) % kernelColumnCount, i, j + kernelCenterColumn, matrix, columnCount, rowCount);
+                filteredRow[j] = window.getMedian();
+            }
+        }
+    }
+
+    private void setWindowColumn(SlidingWindowMedian window, int windowColumn, int i, int column, double[][] matrix, int columnCount, int rowCount)
+    {
+        int firstSlot = windowColumn*kernelRowCount;
+
+        for(int k = 0; k<kernelRowCount; k++)
+        {
+            int row = i + k - kernelCenterRow;
+            window.set(firstSlot + k, getPixel(row, column, matrix, columnCount, rowCount));
+        }
+    }
 }
@@ -1,10 +1,12 @@
 package atomicJ.imageProcessing;
 
 import atomicJ.statistics.DescriptiveStatistics;
+import atomicJ.statistics.SlidingWindowMedian;
 import atomicJ.utilities.ArrayUtilities;
 
-
-public class MedianWeightedFilter2D extends ImageFilter
+//the weight of a value depends on its position in the window, so the window cannot be updated by replacing
+//the values of a single column, instead, each subtask reuses one buffer for all points of its rows
+public class MedianWeightedFilter2D extends ImageConcurrentFilter
 {    
     private final double[][] kernel;
     private final int weightCount;
@@ -32,6 +34,32 @@ public class MedianWeightedFilter2D extends ImageFilter
     {    
         double[] values = new double[weightCount];
 
+        fillWindow(i, j, matrix, columnCount, rowCount, values);
+
+        return DescriptiveStatistics.median(values);
+    }
+
+    @Override
+    protected void filterRows(int minRow, int maxRow, double[][] matrix, int columnCount, int rowCount, double[][] filtered) throws InterruptedException
+    {
+        double[] values = new double[weightCount];
+
+        for(int i = minRow; i < maxRow; i++)
+        {
+            checkInterruption();
+
+            double[] filteredRow = filtered[i];
+
+            for(int j = 0; j<columnCount; j++)
+            {
+                int valueCount = fillWindow(i, j, matrix, columnCount, rowCount, values);
+                filteredRow[j] = SlidingWindowMedian.median(values, valueCount);
+            }
+        }
+    }
+
+    private int fillWindow(int i, int j, double[][] matrix, int columnCount, int rowCount, double[] values)
+    {
         int index = 0;
 
         for(int k = 0; k<kernelRowCount; k++)
@@ -52,6 +80,6 @@ public class MedianWeightedFilter2D extends ImageFilter
             }
         }
 
-        return DescriptiveStatistics.median(values);
+        return index;
     }
 }
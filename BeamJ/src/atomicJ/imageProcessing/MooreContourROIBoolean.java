@@ -6,11 +6,8 @@ import gnu.trove.list.array.TDoubleArrayList;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
-import java.util.ArrayList;
-import java.util.List;
 
 import atomicJ.data.Grid2D;
-import atomicJ.data.GridIndex;
 
 public class MooreContourROIBoolean 
 {
@@ -18,43 +15,34 @@ public class MooreContourROIBoolean
     private static int[] entranceDirs = new int[] {6, 6, 0, 0, 2, 2, 4, 4};
 
     public Path2D getContour(boolean[][] gridData, Grid2D grid, boolean foreground)
+    {
+        return getContour(PixelRegion.getInstance(gridData, grid.getRowCount(), grid.getColumnCount(), foreground), grid);
+    }
+
+    public Path2D getContour(PixelRegion region, Grid2D grid)
     {
         TDoubleList xs = new TDoubleArrayList();
         TDoubleList ys = new TDoubleArrayList();
 
-        List<GridIndex> contour = new ArrayList<>();
-
-        int rowCount = grid.getRowCount();
-        int columnCount = grid.getColumnCount();
-
-
-        int[] contourPixelData = getInitialBorderPixel(gridData, grid, foreground);
-
-        GridIndex startT = new GridIndex(contourPixelData[0], contourPixelData[1]);
-
-        //if the starting pixel is outside bounds, then there are no foreground pixels in the image
+        //if the region is empty, then there are no foreground pixels in the image
         //the whole image is just empty background
-        if(startT.isWithinBounds(rowCount, columnCount))
+        if(!region.isEmpty())
         {
-            contour.add(startT);                
+            int[] contourPixelData = getInitialBorderPixel(region);
 
+            int startRow = contourPixelData[0];
+            int startColumn = contourPixelData[1];
 
-            Point2D initCorner = grid.getCornerPoint(startT.getRow(), startT.getColumn(), 3);
+            Point2D initCorner = grid.getCornerPoint(startRow, startColumn, 3);
 
             xs.add(initCorner.getX());
             ys.add(initCorner.getY());
 
-            getNextBlackPixel(grid, gridData, contourPixelData, xs, ys, foreground);         
-            GridIndex currentT = new GridIndex(contourPixelData[0], contourPixelData[1]);
-
-            while(!startT.equals(currentT))
+            do
             {
-                contour.add(currentT);   
-
-                getNextBlackPixel(grid, gridData, contourPixelData, xs, ys, foreground);         
-
-                currentT = new GridIndex(contourPixelData[0], contourPixelData[1]);
-            }            
+                getNextBlackPixel(grid, region, contourPixelData, xs, ys);         
+            }
+            while(contourPixelData[0] != startRow || contourPixelData[1] != startColumn);
         }   
 
         Path2D path = new GeneralPath();
@@ -77,16 +65,13 @@ public class MooreContourROIBoolean
     }
 
 
-    private void getNextBlackPixel(Grid2D grid, boolean[][] gridData, int[] currentTracePixelData,TDoubleList xs, TDoubleList ys, boolean foreground)
+    private void getNextBlackPixel(Grid2D grid, PixelRegion region, int[] currentTracePixelData, TDoubleList xs, TDoubleList ys)
     {
         Point2D cornerA = grid.getCornerPoint(currentTracePixelData[0], currentTracePixelData[1],
                 currentTracePixelData[2]/2);
         xs.add(cornerA.getX());
         ys.add(cornerA.getY());
 
-        int rowCount = grid.getRowCount();
-        int columnCount = grid.getColumnCount();
-
         for(int i = 0; i < 8 ; i++)
         {
             int dirIndex = (currentTracePixelData[2] + 1 + i)%8;
@@ -95,8 +80,7 @@ public class MooreContourROIBoolean
             int rowNeighbour = currentTracePixelData[0] + deltas[0];
             int columnNeighbour = currentTracePixelData[1] + deltas[1];
 
-            if(GridIndex.isWithinBounds(rowNeighbour, columnNeighbour, rowCount, columnCount)
-                    && gridData[rowNeighbour][columnNeighbour] == foreground)
+            if(region.contains(rowNeighbour, columnNeighbour))
             {
                 currentTracePixelData[0] = rowNeighbour;
                 currentTracePixelData[1] = columnNeighbour;
@@ -119,22 +103,17 @@ public class MooreContourROIBoolean
         }
     }
 
-    private int[] getInitialBorderPixel(boolean[][] gridData, Grid2D grid, boolean foreground)
+    //the first pixel of the bottom row of the region
+    private int[] getInitialBorderPixel(PixelRegion region)
     {        
-        int rowCount = grid.getRowCount();
-        int columnCount = grid.getColumnCount();
+        int row = region.getMaxRow();
 
-        for(int i = rowCount - 1; i>= 0; i--)
+        for(int j = region.getMinColumn(); j <= region.getMaxColumn(); j++)
         {
-            boolean[] row = gridData[i];
-
-            for(int j = 0; j<columnCount; j++)
+            if(region.contains(row, j))
             {
-                if(row[j] == foreground)
-                {
-                    return new int[] {i, j, 0};
-                }
-            }        
+                return new int[] {row, j, 0};
+            }
         }
 
         return new int[] {-1, -1, 0};
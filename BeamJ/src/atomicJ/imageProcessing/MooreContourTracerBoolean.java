@@ -13,33 +13,38 @@ public class MooreContourTracerBoolean
 
     public Contour getContour(boolean[][] gridData, Grid2D grid, boolean foreground)
     {
-        List<GridIndex> tracePixels = new ArrayList<>();
+        return getContour(PixelRegion.getInstance(gridData, grid.getRowCount(), grid.getColumnCount(), foreground));
+    }
 
-        int rowCount = grid.getRowCount();
-        int columnCount= grid.getColumnCount();
+    public Contour getContour(PixelRegion region)
+    {
+        List<GridIndex> tracePixels = new ArrayList<>();
 
+        int minRow = -1;       
+        int maxRow = -1;
 
-        int[] currentTracePixelData = getInitialBorderPixel(gridData, grid, foreground);
+        //if the region is empty, then there are no foreground pixels in the image
+        //the whole image is just empty background
+        if(!region.isEmpty())
+        {
+            int[] currentTracePixelData = getInitialBorderPixel(region);
 
-        int minRow =  currentTracePixelData[0];       
-        int maxRow = minRow;
+            int startRow = currentTracePixelData[0];
+            int startColumn = currentTracePixelData[1];
 
-        GridIndex startT = new GridIndex(currentTracePixelData[0], currentTracePixelData[1]);
+            minRow = startRow;
+            maxRow = startRow;
 
-        //if the starting pixel is outside bounds, then there are no foreground pixels in the image
-        //the whole image is just empty background
-        if(startT.isWithinBounds(rowCount, columnCount))
-        {
-            tracePixels.add(startT);                
+            tracePixels.add(new GridIndex(startRow, startColumn));                
 
-            getNextBlackPixel(gridData, currentTracePixelData, rowCount, columnCount, foreground);         
-            GridIndex currentT = new GridIndex(currentTracePixelData[0], currentTracePixelData[1]);
+            getNextBlackPixel(region, currentTracePixelData);         
 
-            while(!startT.equals(currentT))
+            while(currentTracePixelData[0] != startRow || currentTracePixelData[1] != startColumn)
             {
-                tracePixels.add(currentT);
-
                 int row = currentTracePixelData[0];
+
+                tracePixels.add(new GridIndex(row, currentTracePixelData[1]));
+
                 if(row < minRow)
                 {
                     minRow = row;
@@ -49,9 +54,7 @@ public class MooreContourTracerBoolean
                     maxRow = row;
                 }
 
-                getNextBlackPixel(gridData, currentTracePixelData, rowCount, columnCount, foreground);         
-
-                currentT = new GridIndex(currentTracePixelData[0], currentTracePixelData[1]);
+                getNextBlackPixel(region, currentTracePixelData);         
             }
         }   
 
@@ -60,7 +63,7 @@ public class MooreContourTracerBoolean
     }
 
 
-    private void getNextBlackPixel(boolean[][] gridData, int[] currentTracePixelData, int rowCount, int columnCount, boolean foreground)
+    private void getNextBlackPixel(PixelRegion region, int[] currentTracePixelData)
     {
         for(int i = 0; i < 8 ; i++)
         {
@@ -70,8 +73,7 @@ public class MooreContourTracerBoolean
             int rowNeighbour = currentTracePixelData[0] + deltas[0];
             int columnNeighbour = currentTracePixelData[1] + deltas[1];
 
-            if(GridIndex.isWithinBounds(rowNeighbour, columnNeighbour, rowCount, columnCount)
-                    && gridData[rowNeighbour][columnNeighbour] == foreground)
+            if(region.contains(rowNeighbour, columnNeighbour))
             {
                 currentTracePixelData[0] = rowNeighbour;
                 currentTracePixelData[1] = columnNeighbour;
@@ -85,22 +87,17 @@ public class MooreContourTracerBoolean
         }
     }
 
-    private int[] getInitialBorderPixel(boolean[][] gridData, Grid2D grid, boolean foreground)
+    //the first pixel of the bottom row of the region
+    private int[] getInitialBorderPixel(PixelRegion region)
     {        
-        int rowCount = grid.getRowCount();
-        int columnCount = grid.getColumnCount();
+        int row = region.getMaxRow();
 
-        for(int i = rowCount - 1; i>= 0; i--)
+        for(int j = region.getMinColumn(); j <= region.getMaxColumn(); j++)
         {
-            boolean[] row = gridData[i];
-
-            for(int j = 0; j<columnCount; j++)
+            if(region.contains(row, j))
             {
-                if(row[j] == foreground)
-                {
-                    return new int[] {i, j, 0};
-                }
-            }        
+                return new int[] {row, j, 0};
+            }
         }
 
         return new int[] {-1, -1, 0};
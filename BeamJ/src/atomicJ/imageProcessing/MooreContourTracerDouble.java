@@ -15,29 +15,25 @@ public class MooreContourTracerDouble
     {
         List<GridIndex> contour = new ArrayList<>();
 
-        int rowCount = grid.getRowCount();
-        int columnCount= grid.getColumnCount();
+        PixelRegion region = PixelRegion.getInstance(gridData, grid.getRowCount(), grid.getColumnCount(), foreground);
 
-
-        int[] currentTracePixelData = getInitialBorderPixel(gridData, grid, foreground);
-
-        GridIndex startT = new GridIndex(currentTracePixelData[0], currentTracePixelData[1]);
-
-        //if the starting pixel is outside bounds, then there are no foreground pixels in the image
+        //if the region is empty, then there are no foreground pixels in the image
         //the whole image is just empty background
-        if(startT.isWithinBounds(rowCount, columnCount))
+        if(!region.isEmpty())
         {
-            contour.add(startT);                
+            int[] currentTracePixelData = getInitialBorderPixel(region);
 
-            getNextBlackPixel(gridData, currentTracePixelData, rowCount, columnCount, foreground);         
-            GridIndex currentT = new GridIndex(currentTracePixelData[0], currentTracePixelData[1]);
+            int startRow = currentTracePixelData[0];
+            int startColumn = currentTracePixelData[1];
 
-            while(!startT.equals(currentT))
-            {
-                contour.add(currentT);                
-                getNextBlackPixel(gridData, currentTracePixelData, rowCount, columnCount, foreground);         
+            contour.add(new GridIndex(startRow, startColumn));                
 
-                currentT = new GridIndex(currentTracePixelData[0], currentTracePixelData[1]);
+            getNextBlackPixel(region, currentTracePixelData);         
+
+            while(currentTracePixelData[0] != startRow || currentTracePixelData[1] != startColumn)
+            {
+                contour.add(new GridIndex(currentTracePixelData[0], currentTracePixelData[1]));                
+                getNextBlackPixel(region, currentTracePixelData);         
             }
         }   
 
@@ -53,7 +49,7 @@ public class MooreContourTracerDouble
         }
     }
 
-    private void getNextBlackPixel(double[][] gridData, int[] currentTracePixelData, int rowCount, int columnCount, double foreground)
+    private void getNextBlackPixel(PixelRegion region, int[] currentTracePixelData)
     {
         for(int i = 0; i < 8 ; i++)
         {
@@ -63,8 +59,7 @@ public class MooreContourTracerDouble
             int rowNeighbour = currentTracePixelData[0] + deltas[0];
             int columnNeighbour = currentTracePixelData[1] + deltas[1];
 
-            if(GridIndex.isWithinBounds(rowNeighbour, columnNeighbour, rowCount, columnCount)
-                    && gridData[rowNeighbour][columnNeighbour] == foreground)
+            if(region.contains(rowNeighbour, columnNeighbour))
             {
                 currentTracePixelData[0] = rowNeighbour;
                 currentTracePixelData[1] = columnNeighbour;
@@ -78,22 +73,17 @@ public class MooreContourTracerDouble
         }
     }
 
-    private int[] getInitialBorderPixel(double[][] gridData, Grid2D grid, double foreground)
+    //the first pixel of the bottom row of the region
+    private int[] getInitialBorderPixel(PixelRegion region)
     {        
-        int rowCount = grid.getRowCount();
-        int columnCount = grid.getColumnCount();
+        int row = region.getMaxRow();
 
-        for(int i = rowCount - 1; i>= 0; i--)
+        for(int j = region.getMinColumn(); j <= region.getMaxColumn(); j++)
         {
-            double[] row = gridData[i];
-
-            for(int j = 0; j<columnCount; j++)
+            if(region.contains(row, j))
             {
-                if(row[j] == foreground)
-                {
-                    return new int[] {i, j, 0};
-                }
-            }        
+                return new int[] {row, j, 0};
+            }
         }
 
         return new int[] {-1, -1, 0};
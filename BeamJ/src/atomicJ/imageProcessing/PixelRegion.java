@@ -0,0 +1,209 @@
+package atomicJ.imageProcessing;
+
+//a set of pixels of an image, stored as a bitset, in which the pixel (row, column) has the index row*columnCount + column
+//the region also keeps its bounding box, so that the pixels outside it need not be scanned
+public class PixelRegion
+{
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private final int rowCount;
+    private final int columnCount;
+    private final long[] words;
+
+    private int pixelCount;
+    private int minRow = Integer.MAX_VALUE;
+    private int maxRow = -1;
+    private int minColumn = Integer.MAX_VALUE;
+    private int maxColumn = -1;
+
+    public PixelRegion(int rowCount, int columnCount)
+    {
+        if(rowCount < 0 || columnCount < 0)
+        {
+            throw new IllegalArgumentException("'rowCount' and 'columnCount' should be non-negative");
+        }
+
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.words = new long[(int)(((long)rowCount*columnCount + 63) >>> ADDRESS_BITS_PER_WORD)];
+    }
+
+    public static PixelRegion getInstance(boolean[][] array, int rowCount, int columnCount, boolean foreground)
+    {
+        PixelRegion region = new PixelRegion(rowCount, columnCount);
+
+        for(int i = 0; i<rowCount; i++)
+        {
+            boolean[] row = array[i];
+
+            for(int j = 0; j<columnCount; j++)
+            {
+                if(row[j] == foreground)
+                {
+                    region.add(i, j);
+                }
+            }
+        }
+
+        return region;
+    }
+
+    public static PixelRegion getInstance(double[][] array, int rowCount, int columnCount, double foreground)
+    {
+        PixelRegion region = new PixelRegion(rowCount, columnCount);
+
+        for(int i = 0; i<rowCount; i++)
+        {
+            double[] row = array[i];
+
+            for(int j = 0; j<columnCount; j++)
+            {
+                if(row[j] == foreground)
+                {
+                    region.add(i, j);
+                }
+            }
+        }
+
+        return region;
+    }
+
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    public int getColumnCount()
+    {
+        return columnCount;
+    }
+
+    public int getPixelCount()
+    {
+        return pixelCount;
+    }
+
+    public boolean isEmpty()
+    {
+        return pixelCount == 0;
+    }
+
+    //the bounds are -1 or Integer.MAX_VALUE if the region is empty
+    public int getMinRow()
+    {
+        return minRow;
+    }
+
+    public int getMaxRow()
+    {
+        return maxRow;
+    }
+
+    public int getMinColumn()
+    {
+        return minColumn;
+    }
+
+    public int getMaxColumn()
+    {
+        return maxColumn;
+    }
+
+    //returns false for pixels outside the image
+    public boolean contains(int row, int column)
+    {
+        if(row < 0 || row >= rowCount || column < 0 || column >= columnCount)
+        {
+            return false;
+        }
+
+        long index = (long)row*columnCount + column;
+        return (words[(int)(index >>> ADDRESS_BITS_PER_WORD)] & (1L << index)) != 0;
+    }
+
+    public void add(int row, int column)
+    {
+        long index = (long)row*columnCount + column;
+        int wordIndex = (int)(index >>> ADDRESS_BITS_PER_WORD);
+        long mask = 1L << index;
+
+        if((words[wordIndex] & mask) == 0)
+        {
+            words[wordIndex] |= mask;
+            pixelCount++;
+            updateBounds(row, column, column);
+        }
+    }
+
+    //adds the pixels of the row from columnFrom to columnTo, both inclusive, none of which may belong to the region already
+    void addNewSpan(int row, int columnFrom, int columnTo)
+    {
+        long from = (long)row*columnCount + columnFrom;
+        long to = (long)row*columnCount + columnTo + 1;
+
+        int firstWord = (int)(from >>> ADDRESS_BITS_PER_WORD);
+        int lastWord = (int)((to - 1) >>> ADDRESS_BITS_PER_WORD);
+
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        if(firstWord == lastWord)
+        {
+            words[firstWord] |= (firstMask & lastMask);
+        }
+        else
+        {
+            words[firstWord] |= firstMask;
+            for(int w = firstWord + 1; w < lastWord; w++)
+            {
+                words[w] = -1L;
+            }
+            words[lastWord] |= lastMask;
+        }
+
+        pixelCount += columnTo - columnFrom + 1;
+        updateBounds(row, columnFrom, columnTo);
+    }
+
+    private void updateBounds(int row, int columnFrom, int columnTo)
+    {
+        if(row < minRow) {minRow = row;}
+        if(row > maxRow) {maxRow = row;}
+        if(columnFrom < minColumn) {minColumn = columnFrom;}
+        if(columnTo > maxColumn) {maxColumn = columnTo;}
+    }
+
+    //sets the values of the pixels of the region in the array to the given value
+    public void setValues(double[][] array, double value)
+    {
+        for(int i = Math.max(0, minRow); i <= maxRow; i++)
+        {
+            double[] row = array[i];
+
+            for(int j = minColumn; j <= maxColumn; j++)
+            {
+                if(contains(i, j))
+                {
+                    row[j] = value;
+                }
+            }
+        }
+    }
+
+    public boolean[][] toBooleanArray()
+    {
+        boolean[][] array = new boolean[rowCount][columnCount];
+
+        for(int i = Math.max(0, minRow); i <= maxRow; i++)
+        {
+            boolean[] row = array[i];
+
+            for(int j = minColumn; j <= maxColumn; j++)
+            {
+                row[j] = contains(i, j);
+            }
+        }
+
+        return array;
+    }
+}
@@ -3,10 +3,14 @@ package atomicJ.imageProcessing;
 import java.util.List;
 import org.apache.commons.math3.analysis.UnivariateFunction;
 
+import atomicJ.data.FlatArray2D;
+
 public interface SampleFunctional 
 {
     public UnivariateFunction getValue(double[] line);
     public UnivariateFunction getValue(double[][] line);
     public UnivariateFunction[] getValues(double[][] lines, int lineLength);
+    //each row of the array is an equispaced line, so columns can be fitted by passing the transposed view
+    public UnivariateFunction[] getValues(FlatArray2D lines);
     public UnivariateFunction getValue(List<double[]> line);
 }
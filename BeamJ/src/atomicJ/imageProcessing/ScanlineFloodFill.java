@@ -0,0 +1,117 @@
+package atomicJ.imageProcessing;
+
+import gnu.trove.list.array.TIntArrayList;
+
+//finds the region of pixels, which are connected with the seed pixel by their sides, and whose values differ from the value of the seed
+//by an amount from minDifference to maxDifference
+//the region grows by whole spans of pixels in a row, and only the first pixel of each span in the neighbouring rows is put on the stack,
+//so the stack holds primitive indices of a small fraction of the pixels, instead of an object for each visited pixel and its neighbours
+public class ScanlineFloodFill
+{
+    private final double minDifference;
+    private final double maxDifference;
+
+    public ScanlineFloodFill(double minDifference, double maxDifference)
+    {
+        this.minDifference = minDifference;
+        this.maxDifference = maxDifference;
+    }
+
+    public PixelRegion fill(double[][] data, int rowCount, int columnCount, int seedRow, int seedColumn)
+    {
+        return fill(data, null, rowCount, columnCount, seedRow, seedColumn);
+    }
+
+    //if the mask is not null, only the pixels for which it is true can belong to the region
+    public PixelRegion fill(double[][] data, boolean[][] mask, int rowCount, int columnCount, int seedRow, int seedColumn)
+    {
+        PixelRegion region = new PixelRegion(rowCount, columnCount);
+
+        if(seedRow < 0 || seedRow >= rowCount || seedColumn < 0 || seedColumn >= columnCount)
+        {
+            return region;
+        }
+
+        double seedValue = data[seedRow][seedColumn];
+
+        if(!isAccepted(data, mask, seedRow, seedColumn, seedValue))
+        {
+            return region;
+        }
+
+        //the rows and columns of the seeds of spans are kept separately, as row*columnCount + column may not fit into an int for large images
+        TIntArrayList seedRows = new TIntArrayList();
+        TIntArrayList seedColumns = new TIntArrayList();
+
+        seedRows.add(seedRow);
+        seedColumns.add(seedColumn);
+
+        while(!seedRows.isEmpty())
+        {
+            int last = seedRows.size() - 1;
+            int row = seedRows.removeAt(last);
+            int column = seedColumns.removeAt(last);
+
+            if(region.contains(row, column))
+            {
+                continue;
+            }
+
+            int spanStart = column;
+            while(spanStart > 0 && !region.contains(row, spanStart - 1) && isAccepted(data, mask, row, spanStart - 1, seedValue))
+            {
+                spanStart--;
+            }
+
+            int spanEnd = column;
+            while(spanEnd < columnCount - 1 && !region.contains(row, spanEnd + 1) && isAccepted(data, mask, row, spanEnd + 1, seedValue))
+            {
+                spanEnd++;
+            }
+
+            region.addNewSpan(row, spanStart, spanEnd);
+
+            if(row > 0)
+            {
+                pushSpanSeeds(data, mask, region, row - 1, spanStart, spanEnd, seedValue, seedRows, seedColumns);
+            }
+            if(row < rowCount - 1)
+            {
+                pushSpanSeeds(data, mask, region, row + 1, spanStart, spanEnd, seedValue, seedRows, seedColumns);
+            }
+        }
+
+        return region;
+    }
+
+    //pushes the first pixel of each run of accepted pixels of the row, which lies below or above the span and does not belong to the region yet
+    private void pushSpanSeeds(double[][] data, boolean[][] mask, PixelRegion region, int row, int spanStart, int spanEnd, double seedValue,
+            TIntArrayList seedRows, TIntArrayList seedColumns)
+    {
+        boolean inRun = false;
+
+        for(int j = spanStart; j <= spanEnd; j++)
+        {
+            boolean accepted = !region.contains(row, j) && isAccepted(data, mask, row, j, seedValue);
+
+            if(accepted && !inRun)
+            {
+                seedRows.add(row);
+                seedColumns.add(j);
+            }
+
+            inRun = accepted;
+        }
+    }
+
+    private boolean isAccepted(double[][] data, boolean[][] mask, int row, int column, double seedValue)
+    {
+        if(mask != null && !mask[row][column])
+        {
+            return false;
+        }
+
+        double diff = data[row][column] - seedValue;
+        return diff <= maxDifference && diff >= minDifference;
+    }
+}
@@ -0,0 +1,288 @@
+package atomicJ.readers;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+//checks that the bulk reads of DoubleArrayReaderType and IntArrayReaderType, used by DataStorageDirection and by ArrayStorageType.COLUMN_BY_COLUMN,
+//return the same values as the reads value by value, for each type, byte order and direction, and then times both
+//the bytes are random, so the floating point types are checked with NaNs and infinities as well, and the reads start at an odd position of the buffer,
+//so that the typed views of the bulk reads are not aligned
+//the types whose reads value by value are not implemented, e.g. FLOAT80, are skipped
+//arguments: the number of values read by each timed read (by default 1048576) and the number of timed rounds (by default 10),
+//which follow the same number of warm-up rounds
+//run with the main method, it throws IllegalStateException if a check fails
+class ArrayReaderTypeBenchmark
+{
+    private static final int DEFAULT_VALUE_COUNT = 1 << 20;
+    private static final int DEFAULT_ROUND_COUNT = 10;
+
+    //lengths shorter than, equal to and longer than the block of bulk reads, and not divisible by it
+    private static final int[] CHECKED_LENGTHS = {0, 1, 7, 4095, 4096, 4097, 10001};
+    //pairs of the row and column counts of arrays read column by column, which are transposed in tiles of 64 x 64 values
+    private static final int[] CHECKED_SHAPES = {1, 1,  3, 5,  64, 64,  70, 130};
+    private static final int BUFFER_POSITION = 3;
+
+    private static final double SCALE = 0.37;
+    private static final double OFFSET = -2.5;
+
+    private static final ByteOrder[] BYTE_ORDERS = {ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN};
+
+    private static final Random RANDOM = new Random(17);
+
+    public static void main(String[] args) throws Exception
+    {
+        int valueCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_VALUE_COUNT;
+        int roundCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUND_COUNT;
+
+        List<DoubleArrayReaderType> doubleReaderTypes = new ArrayList<>();
+        for(DoubleArrayReaderType readerType : DoubleArrayReaderType.values())
+        {
+            if(isSupported(readerType))
+            {
+                doubleReaderTypes.add(readerType);
+            }
+        }
+
+        for(DoubleArrayReaderType readerType : doubleReaderTypes)
+        {
+            checkDoubleReads(readerType);
+        }
+
+        for(IntArrayReaderType readerType : IntArrayReaderType.values())
+        {
+            checkIntReads(readerType);
+        }
+
+        System.out.println("The bulk reads return the same values as the reads value by value");
+        System.out.println(String.format(Locale.US, "%d values, %d rounds, times in nanoseconds per value", valueCount, roundCount));
+        System.out.println(String.format(Locale.US, "%-14s %-14s %14s %14s %10s", "type", "byte order", "value by value", "bulk", "speedup"));
+
+        for(DoubleArrayReaderType readerType : doubleReaderTypes)
+        {
+            for(ByteOrder byteOrder : BYTE_ORDERS)
+            {
+                ByteBuffer buffer = buildBuffer(valueCount, readerType.getByteSize(), byteOrder);
+
+                double elementTime = time(roundCount, () -> readerType.readIn1DArray(valueCount, SCALE, OFFSET, rewind(buffer)));
+                double bulkTime = time(roundCount, () -> DataStorageDirection.STRAIGHT.readIn1DDoubleArray(readerType, valueCount, SCALE, OFFSET, rewind(buffer)));
+
+                report("double " + readerType, byteOrder, valueCount, elementTime, bulkTime);
+            }
+        }
+
+        for(IntArrayReaderType readerType : IntArrayReaderType.values())
+        {
+            for(ByteOrder byteOrder : BYTE_ORDERS)
+            {
+                ByteBuffer buffer = buildBuffer(valueCount, readerType.getByteSize(), byteOrder);
+
+                double elementTime = time(roundCount, () -> readerType.readIn1DArray(valueCount, rewind(buffer)));
+                double bulkTime = time(roundCount, () -> DataStorageDirection.STRAIGHT.readIn1DIntArray(readerType, valueCount, rewind(buffer)));
+
+                report("int " + readerType, byteOrder, valueCount, elementTime, bulkTime);
+            }
+        }
+    }
+
+    private static boolean isSupported(DoubleArrayReaderType readerType)
+    {
+        try
+        {
+            readerType.readIn1DArray(1, SCALE, OFFSET, buildBuffer(1, readerType.getByteSize(), ByteOrder.BIG_ENDIAN));
+            return true;
+        }
+        catch(UnsupportedOperationException e)
+        {
+            System.out.println(readerType + " is skipped, as its reads value by value are not implemented");
+            return false;
+        }
+    }
+
+    private static void checkDoubleReads(DoubleArrayReaderType readerType)
+    {
+        for(ByteOrder byteOrder : BYTE_ORDERS)
+        {
+            for(int length : CHECKED_LENGTHS)
+            {
+                ByteBuffer buffer = buildBuffer(length, readerType.getByteSize(), byteOrder);
+                String description = readerType + ", " + byteOrder + ", " + length + " values";
+
+                double[] expected = readerType.readIn1DArray(length, SCALE, OFFSET, rewind(buffer));
+                int expectedPosition = buffer.position();
+                double[] actual = DataStorageDirection.STRAIGHT.readIn1DDoubleArray(readerType, length, SCALE, OFFSET, rewind(buffer));
+
+                check(Arrays.equals(expected, actual), "The straight bulk read differs for " + description);
+                check(buffer.position() == expectedPosition, "The straight bulk read leaves the buffer at a wrong position for " + description);
+
+                expected = readerType.readIn1DArrayReversed(length, SCALE, OFFSET, rewind(buffer));
+                actual = DataStorageDirection.REVERSED.readIn1DDoubleArray(readerType, length, SCALE, OFFSET, rewind(buffer));
+
+                check(Arrays.equals(expected, actual), "The reversed bulk read differs for " + description);
+                check(buffer.position() == expectedPosition, "The reversed bulk read leaves the buffer at a wrong position for " + description);
+            }
+
+            for(int k = 0; k < CHECKED_SHAPES.length; k += 2)
+            {
+                int rowCount = CHECKED_SHAPES[k];
+                int columnCount = CHECKED_SHAPES[k + 1];
+                ByteBuffer buffer = buildBuffer(rowCount*columnCount, readerType.getByteSize(), byteOrder);
+
+                for(DataStorageDirection betweenVectorDirection : DataStorageDirection.values())
+                {
+                    for(DataStorageDirection insideVectorDirection : DataStorageDirection.values())
+                    {
+                        String description = readerType + ", " + byteOrder + ", " + rowCount + " x " + columnCount + ", " + betweenVectorDirection + " " + insideVectorDirection;
+
+                        double[][] expected = readColumnByColumn(readerType, betweenVectorDirection, insideVectorDirection, rowCount, columnCount, rewind(buffer));
+                        double[][] actual = ArrayStorageType.COLUMN_BY_COLUMN.readIn2DArray(readerType, betweenVectorDirection, insideVectorDirection, rowCount, columnCount, SCALE, OFFSET, rewind(buffer));
+
+                        check(Arrays.deepEquals(expected, actual), "The bulk read column by column differs for " + description);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void checkIntReads(IntArrayReaderType readerType)
+    {
+        for(ByteOrder byteOrder : BYTE_ORDERS)
+        {
+            for(int length : CHECKED_LENGTHS)
+            {
+                ByteBuffer buffer = buildBuffer(length, readerType.getByteSize(), byteOrder);
+                String description = readerType + ", " + byteOrder + ", " + length + " values";
+
+                int[] expected = readerType.readIn1DArray(length, rewind(buffer));
+                int expectedPosition = buffer.position();
+                int[] actual = DataStorageDirection.STRAIGHT.readIn1DIntArray(readerType, length, rewind(buffer));
+
+                check(Arrays.equals(expected, actual), "The straight bulk read differs for " + description);
+                check(buffer.position() == expectedPosition, "The straight bulk read leaves the buffer at a wrong position for " + description);
+
+                expected = readerType.readIn1DArrayReversed(length, rewind(buffer));
+                actual = DataStorageDirection.REVERSED.readIn1DIntArray(readerType, length, rewind(buffer));
+
+                check(Arrays.equals(expected, actual), "The reversed bulk read differs for " + description);
+                check(buffer.position() == expectedPosition, "The reversed bulk read leaves the buffer at a wrong position for " + description);
+            }
+
+            for(int k = 0; k < CHECKED_SHAPES.length; k += 2)
+            {
+                int rowCount = CHECKED_SHAPES[k];
+                int columnCount = CHECKED_SHAPES[k + 1];
+                ByteBuffer buffer = buildBuffer(rowCount*columnCount, readerType.getByteSize(), byteOrder);
+
+                for(DataStorageDirection betweenVectorDirection : DataStorageDirection.values())
+                {
+                    for(DataStorageDirection insideVectorDirection : DataStorageDirection.values())
+                    {
+                        String description = readerType + ", " + byteOrder + ", " + rowCount + " x " + columnCount + ", " + betweenVectorDirection + " " + insideVectorDirection;
+
+                        int[][] expected = readColumnByColumn(readerType, betweenVectorDirection, insideVectorDirection, rowCount, columnCount, rewind(buffer));
+                        int[][] actual = ArrayStorageType.COLUMN_BY_COLUMN.readIn2DArray(readerType, betweenVectorDirection, insideVectorDirection, rowCount, columnCount, rewind(buffer));
+
+                        check(Arrays.deepEquals(expected, actual), "The bulk read column by column differs for " + description);
+                    }
+                }
+            }
+        }
+    }
+
+    //the expected result of ArrayStorageType.COLUMN_BY_COLUMN, built from the whole block read value by value, in the order in which it is stored
+    //the block is read at once, not column by column, as the values of INT2 are packed into bytes without a gap between the columns
+    private static double[][] readColumnByColumn(DoubleArrayReaderType readerType, DataStorageDirection betweenVectorDirection, DataStorageDirection insideVectorDirection,
+            int rowCount, int columnCount, ByteBuffer buffer)
+    {
+        double[] values = readerType.readIn1DArray(rowCount*columnCount, SCALE, OFFSET, buffer);
+        double[][] data = new double[rowCount][columnCount];
+
+        for(int j = 0; j < columnCount; j++)
+        {
+            for(int i = 0; i < rowCount; i++)
+            {
+                data[getIndex(insideVectorDirection, i, rowCount)][getIndex(betweenVectorDirection, j, columnCount)] = values[j*rowCount + i];
+            }
+        }
+
+        return data;
+    }
+
+    private static int[][] readColumnByColumn(IntArrayReaderType readerType, DataStorageDirection betweenVectorDirection, DataStorageDirection insideVectorDirection,
+            int rowCount, int columnCount, ByteBuffer buffer)
+    {
+        int[] values = readerType.readIn1DArray(rowCount*columnCount, buffer);
+        int[][] data = new int[rowCount][columnCount];
+
+        for(int j = 0; j < columnCount; j++)
+        {
+            for(int i = 0; i < rowCount; i++)
+            {
+                data[getIndex(insideVectorDirection, i, rowCount)][getIndex(betweenVectorDirection, j, columnCount)] = values[j*rowCount + i];
+            }
+        }
+
+        return data;
+    }
+
+    private static int getIndex(DataStorageDirection direction, int storedIndex, int count)
+    {
+        return DataStorageDirection.STRAIGHT.equals(direction) ? storedIndex : count - 1 - storedIndex;
+    }
+
+    //the values start at BUFFER_POSITION, and the types of byte size 0, which pack several values into a byte, get a whole byte per value
+    private static ByteBuffer buildBuffer(int valueCount, int byteSize, ByteOrder byteOrder)
+    {
+        byte[] bytes = new byte[BUFFER_POSITION + valueCount*Math.max(1, byteSize)];
+        RANDOM.nextBytes(bytes);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.order(byteOrder);
+
+        return rewind(buffer);
+    }
+
+    private static ByteBuffer rewind(ByteBuffer buffer)
+    {
+        buffer.position(BUFFER_POSITION);
+        return buffer;
+    }
+
+    //returns the shortest time of a round, in seconds, after as many warm-up rounds as there are timed rounds
+    private static double time(int roundCount, Callable<Object> round) throws Exception
+    {
+        for(int i = 0; i < roundCount; i++)
+        {
+            round.call();
+        }
+
+        double shortestTime = Double.POSITIVE_INFINITY;
+
+        for(int i = 0; i < roundCount; i++)
+        {
+            long start = System.nanoTime();
+            round.call();
+            shortestTime = Math.min(shortestTime, (System.nanoTime() - start)/1e9);
+        }
+
+        return shortestTime;
+    }
+
+    private static void report(String name, ByteOrder byteOrder, int valueCount, double elementTimeInSeconds, double bulkTimeInSeconds)
+    {
+        System.out.println(String.format(Locale.US, "%-14s %-14s %14.2f %14.2f %9.1fx", name, byteOrder, 1e9*elementTimeInSeconds/valueCount, 1e9*bulkTimeInSeconds/valueCount, elementTimeInSeconds/bulkTimeInSeconds));
+    }
+
+    private static void check(boolean condition, String message)
+    {
+        if(!condition)
+        {
+            throw new IllegalStateException(message);
+        }
+    }
+}
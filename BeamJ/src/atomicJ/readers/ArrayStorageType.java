@@ -123,31 +123,42 @@ public enum ArrayStorageType
     },
     COLUMN_BY_COLUMN 
     {
+        //the whole block is decoded at once, in the order in which it is stored, and then copied to rows
+        //tile by tile, so that both the decoded values and the rows are accessed almost sequentially
         @Override
         public double[][] readIn2DArray(DoubleArrayReaderType readerType, DataStorageDirection betweenVectorDirection, 
                 DataStorageDirection insideVectorDirection, int rowCount, int columnCount, double scale, double offset,
                 ByteBuffer dataBuffer) 
         {
+            double[] values = new double[rowCount*columnCount];
+            readerType.readInto(values, 0, 1, values.length, scale, offset, dataBuffer);
+
             double[][] data = new double[rowCount][columnCount];
 
-            if(DataStorageDirection.STRAIGHT.equals(betweenVectorDirection))
-            {
-                for(int i = 0; i<columnCount; i++)
-                {
-                    insideVectorDirection.readInAndFill2DDoubleColumn(readerType, data, rowCount, i, scale, offset, dataBuffer);
-                }
-            }
-            else if(DataStorageDirection.REVERSED.equals(betweenVectorDirection))
+            int columnFrom = betweenVectorDirection.getOffset(columnCount);
+            int columnStep = betweenVectorDirection.getStep();
+            int rowFrom = insideVectorDirection.getOffset(rowCount);
+            int rowStep = insideVectorDirection.getStep();
+
+            for(int tileColumn = 0; tileColumn < columnCount; tileColumn += TRANSPOSITION_TILE_SIZE)
             {
-                for(int i = rowCount - 1; i >= 0; i--)
+                int tileColumnEnd = Math.min(columnCount, tileColumn + TRANSPOSITION_TILE_SIZE);
+
+                for(int tileRow = 0; tileRow < rowCount; tileRow += TRANSPOSITION_TILE_SIZE)
                 {
-                    insideVectorDirection.readInAndFill2DDoubleColumn(readerType, data, rowCount, i, scale, offset, dataBuffer);
+                    int tileRowEnd = Math.min(rowCount, tileRow + TRANSPOSITION_TILE_SIZE);
+
+                    for(int i = tileRow; i < tileRowEnd; i++)
+                    {
+                        double[] row = data[rowFrom + rowStep*i];
+
+                        for(int j = tileColumn; j < tileColumnEnd; j++)
+                        {
+                            row[columnFrom + columnStep*j] = values[j*rowCount + i];
+                        }
+                    }
                 }
             }
-            else 
-            {
-                throw new IllegalArgumentException("The enum " + betweenVectorDirection + " is not recognized");
-            }
 
             return data;
         }
@@ -156,31 +167,39 @@ public enum ArrayStorageType
         public int[][] readIn2DArray(IntArrayReaderType readerType, DataStorageDirection betweenVectorDirection, 
                 DataStorageDirection insideVectorDirection, int rowCount, int columnCount, ByteBuffer dataBuffer) 
         {
+            int[] values = new int[rowCount*columnCount];
+            readerType.readInto(values, 0, 1, values.length, dataBuffer);
+
             int[][] data = new int[rowCount][columnCount];
 
-            if(DataStorageDirection.STRAIGHT.equals(betweenVectorDirection))
-            {
-                for(int i = 0; i<columnCount; i++)
-                {
-                    insideVectorDirection.readInAndFill2DIntColumn(readerType, data, rowCount, i, dataBuffer);
-                }
-            }
-            else if(DataStorageDirection.REVERSED.equals(betweenVectorDirection))
+            int columnFrom = betweenVectorDirection.getOffset(columnCount);
+            int columnStep = betweenVectorDirection.getStep();
+            int rowFrom = insideVectorDirection.getOffset(rowCount);
+            int rowStep = insideVectorDirection.getStep();
+
+            for(int tileColumn = 0; tileColumn < columnCount; tileColumn += TRANSPOSITION_TILE_SIZE)
             {
-                for(int i = rowCount - 1; i >= 0; i--)
+                int tileColumnEnd = Math.min(columnCount, tileColumn + TRANSPOSITION_TILE_SIZE);
+
+                for(int tileRow = 0; tileRow < rowCount; tileRow += TRANSPOSITION_TILE_SIZE)
                 {
-                    insideVectorDirection.readInAndFill2DIntColumn(readerType, data, rowCount, i,  dataBuffer);
+                    int tileRowEnd = Math.min(rowCount, tileRow + TRANSPOSITION_TILE_SIZE);
+
+                    for(int i = tileRow; i < tileRowEnd; i++)
+                    {
+                        int[] row = data[rowFrom + rowStep*i];
+
+                        for(int j = tileColumn; j < tileColumnEnd; j++)
+                        {
+                            row[columnFrom + columnStep*j] = values[j*rowCount + i];
+                        }
+                    }
                 }
             }
-            else 
-            {
-                throw new IllegalArgumentException("The enum " + betweenVectorDirection + " is not recognized");
-            }
 
             return data;
         }
 
-
         @Override
         public double[][] readIn2DArray(DoubleArrayReaderType readerType,DataStorageDirection betweenVectorDirection,
                 DataStorageDirection insideVectorDirection, int skipBytesStep,
@@ -240,6 +259,9 @@ public enum ArrayStorageType
         }
     };
 
+    //the size of square tiles in which values stored column by column are copied to rows
+    private static final int TRANSPOSITION_TILE_SIZE = 64;
+
     public abstract double[][] readIn2DArray(DoubleArrayReaderType readerType, DataStorageDirection betweenVectorDirection, DataStorageDirection insideVectorDirection,
             int rowCount, int columnCount, double scale, double offset, ByteBuffer dataBuffer);
 
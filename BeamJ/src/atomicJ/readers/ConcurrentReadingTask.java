@@ -29,7 +29,6 @@ import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import atomicJ.analysis.MonitoredSwingWorker;
@@ -37,6 +36,7 @@ import atomicJ.data.ChannelFilter;
 import atomicJ.data.PermissiveChannelFilter;
 import atomicJ.gui.UserCommunicableException;
 import atomicJ.sources.ChannelSource;
+import atomicJ.utilities.ComputeScheduler;
 
 public class ConcurrentReadingTask<E extends ChannelSource> extends MonitoredSwingWorker<List<E>, Void> 
 {
@@ -86,28 +86,19 @@ public class ConcurrentReadingTask<E extends ChannelSource> extends MonitoredSwi
 
         List<E> allSources = new ArrayList<>();
 
-        int taskNumber = Math.min(Math.max(problemSize/20, 1), maxTaskNumber);
-        int basicTaskSize = problemSize/taskNumber;
-        int remainingFiles = problemSize%taskNumber;
+        //files are not divided into fixed sublists, each subtask takes the next unread file, so that a few large files
+        //do not leave the other threads idle; sources are collected per file, to keep the order of the files
+        int taskNumber = Math.min(problemSize, maxTaskNumber);
+        List<List<E>> sourcesByFile = new ArrayList<>(Collections.nCopies(problemSize, Collections.<E>emptyList()));
+        AtomicInteger nextFileIndex = new AtomicInteger();
 
-        this.executor = Executors.newFixedThreadPool(taskNumber); 
-
-        int currentIndex = 0;
+        this.executor = ComputeScheduler.getInstance().newTaskExecutor("Reading", ComputeScheduler.Priority.BATCH, taskNumber); 
 
         List<Subtask> tasks = new ArrayList<>();
 
         for( int i = 0; i <taskNumber; i++ ) 
         {
-            int currentTaskSize = basicTaskSize;
-            if(i<remainingFiles)
-            {
-                currentTaskSize++;
-            }
-            List<File> fileSublist = new ArrayList<>(files.subList(currentIndex, currentIndex + currentTaskSize));
-
-            Subtask task = new Subtask(fileSublist);
-            tasks.add(task);
-            currentIndex = currentIndex + currentTaskSize;
+            tasks.add(new Subtask(nextFileIndex, sourcesByFile));
         }
 
         try 
@@ -124,9 +115,9 @@ public class ConcurrentReadingTask<E extends ChannelSource> extends MonitoredSwi
                 completionService.take().get();
             }
 
-            for(Subtask subtask: tasks)
+            for(List<E> sources : sourcesByFile)
             {
-                allSources.addAll(subtask.getConstructedSources());
+                allSources.addAll(sources);
             }
         } 
         catch (InterruptedException | ExecutionException e) 
@@ -165,17 +156,13 @@ public class ConcurrentReadingTask<E extends ChannelSource> extends MonitoredSwi
 
     private class Subtask implements Callable<Void>
     {
-        private final List<File> files;
-        private final List<E> constructedSources = new ArrayList<>();
+        private final AtomicInteger nextFileIndex;
+        private final List<List<E>> sourcesByFile;
 
-        public Subtask(List<File> files)
+        public Subtask(AtomicInteger nextFileIndex, List<List<E>> sourcesByFile)
         {
-            this.files = files;
-        }
-
-        private List<E> getConstructedSources()
-        {
-            return constructedSources;
+            this.nextFileIndex = nextFileIndex;
+            this.sourcesByFile = sourcesByFile;
         }
 
         @Override
@@ -183,9 +170,8 @@ public class ConcurrentReadingTask<E extends ChannelSource> extends MonitoredSwi
         {
             Thread currentThread = Thread.currentThread();
 
-            int n = files.size();
-
-            for(int i = 0; i < n;i++)
+            int i;
+            while((i = nextFileIndex.getAndIncrement()) < problemSize)
             {
                 if(currentThread.isInterrupted())
                 {                    
@@ -195,8 +181,8 @@ public class ConcurrentReadingTask<E extends ChannelSource> extends MonitoredSwi
                 File file = files.get(i);
                 try
                 {
-                    List<E> sources = reader.readSources(file, readingDirectives);
-                    constructedSources.addAll(sources);
+                    //each index is taken by only one subtask, and the lists are read after all subtasks complete
+                    sourcesByFile.set(i, reader.readSources(file, readingDirectives));
                 }
                 catch(IllegalImageException e)
                 {
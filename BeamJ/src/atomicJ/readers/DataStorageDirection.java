@@ -8,7 +8,10 @@ public enum DataStorageDirection
         @Override
         public double[] readIn1DDoubleArray(DoubleArrayReaderType readerType, int length,double scale, double offset, ByteBuffer dataBuffer) 
         {
-            return readerType.readIn1DArray(length, scale, offset, dataBuffer);
+            double[] data = new double[length];
+            readerType.readInto(data, 0, 1, length, scale, offset, dataBuffer);
+
+            return data;
         }
 
         @Override
@@ -22,7 +25,10 @@ public enum DataStorageDirection
         @Override
         public int[] readIn1DIntArray(IntArrayReaderType readerType, int length, ByteBuffer dataBuffer) 
         {
-            return readerType.readIn1DArray(length, dataBuffer);
+            int[] data = new int[length];
+            readerType.readInto(data, 0, 1, length, dataBuffer);
+
+            return data;
         }
 
         @Override
@@ -111,7 +117,10 @@ public enum DataStorageDirection
         @Override
         public double[] readIn1DDoubleArray(DoubleArrayReaderType readerType, int length,double scale, double offset, ByteBuffer dataBuffer)
         {
-            return readerType.readIn1DArrayReversed(length, scale, offset, dataBuffer);
+            double[] data = new double[length];
+            readerType.readInto(data, length - 1, -1, length, scale, offset, dataBuffer);
+
+            return data;
         }
 
         @Override
@@ -123,7 +132,10 @@ public enum DataStorageDirection
         @Override
         public int[] readIn1DIntArray(IntArrayReaderType readerType, int length, ByteBuffer dataBuffer)
         {
-            return readerType.readIn1DArrayReversed(length, dataBuffer);
+            int[] data = new int[length];
+            readerType.readInto(data, length - 1, -1, length, dataBuffer);
+
+            return data;
         }
 
         @Override
@@ -4,6 +4,11 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -168,6 +173,28 @@ public enum DoubleArrayReaderType
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
 
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            byte[] block = new byte[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                dataBuffer.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*block[k] + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+        }
     }, UINT8(1, true) {
         @Override
         public double[] readIn1DArray(int length, double scale,
@@ -322,6 +349,29 @@ public enum DoubleArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            byte[] block = new byte[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                dataBuffer.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*(block[k] & 0x000000ff) + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+        }
     }, 
     INT16(2, false) 
     {
@@ -479,6 +529,32 @@ public enum DoubleArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            ShortBuffer view = dataBuffer.asShortBuffer();
+            short[] block = new short[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*block[k] + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     }, 
     UINT16(2, true)
     {
@@ -640,6 +716,32 @@ public enum DoubleArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            ShortBuffer view = dataBuffer.asShortBuffer();
+            short[] block = new short[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*(block[k] & 0x0000ffff) + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     }, 
     INT32(4, false) {
         @Override
@@ -797,6 +899,32 @@ public enum DoubleArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            IntBuffer view = dataBuffer.asIntBuffer();
+            int[] block = new int[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*block[k] + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     },
     UINT32(4, true)
     {
@@ -952,6 +1080,32 @@ public enum DoubleArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(),initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            IntBuffer view = dataBuffer.asIntBuffer();
+            int[] block = new int[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*(block[k] & 0x00000000ffffffffL) + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     },
     INT64(8, false) {
         @Override
@@ -1111,6 +1265,32 @@ public enum DoubleArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(),initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            LongBuffer view = dataBuffer.asLongBuffer();
+            long[] block = new long[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*block[k] + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     }, 
     UINT64(8, true) {
         @Override
@@ -1526,6 +1706,32 @@ public enum DoubleArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(),initPosition + (rowToFillCount)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            ShortBuffer view = dataBuffer.asShortBuffer();
+            short[] block = new short[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*NumberUtilities.halfFloatToFloat(block[k] & 0x0000ffff) + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     },
 
     FLOAT32(4, false) 
@@ -1682,6 +1888,32 @@ public enum DoubleArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(),initPosition + (rowToFillCount)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            FloatBuffer view = dataBuffer.asFloatBuffer();
+            float[] block = new float[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*block[k] + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     }, 
 
     FLOAT48(6, false) {
@@ -1915,6 +2147,32 @@ public enum DoubleArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(),initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+        {
+            DoubleBuffer view = dataBuffer.asDoubleBuffer();
+            double[] block = new double[Math.min(length, BULK_BLOCK_LENGTH)];
+            double[] converted = new double[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                double[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = scale*block[k] + offset;
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     },
     FLOAT80(10, false) {
         @Override
@@ -1985,6 +2243,9 @@ public enum DoubleArrayReaderType
     },
     ;
 
+    //the number of values decoded at once by bulk reads
+    private static final int BULK_BLOCK_LENGTH = 4096;
+
     private final int byteSize;
     private final boolean unsigned;
 
@@ -2032,6 +2293,38 @@ public enum DoubleArrayReaderType
         return byteSize;
     }
 
+    //reads length values and writes them to destination[destinationFrom], destination[destinationFrom + destinationStep], ...
+    //the integer and floating point types of standard sizes override this method, and copy the values in blocks
+    //from a typed view of the buffer, so that the byte order is handled by the view, not value by value
+    public void readInto(double[] destination, int destinationFrom, int destinationStep, int length, double scale, double offset, ByteBuffer dataBuffer)
+    {
+        double[] values = readIn1DArray(length, scale, offset, dataBuffer);
+
+        for(int k = 0, index = destinationFrom; k < length; k++, index += destinationStep)
+        {
+            destination[index] = values[k];
+        }
+    }
+
+    //when the step of the destination is 1, the values of a block are converted directly into the destination, in a loop which the compiler can vectorize,
+    //otherwise, e.g. for reversed reads, they are converted into the array converted, from which this method copies them with the step
+    //returns the index of the destination at which the next block starts
+    private static int moveBlock(double[] converted, int blockLength, double[] destination, int destinationFrom, int destinationStep)
+    {
+        if(destinationStep == 1)
+        {
+            return destinationFrom + blockLength;
+        }
+
+        int index = destinationFrom;
+        for(int k = 0; k < blockLength; k++, index += destinationStep)
+        {
+            destination[index] = converted[k];
+        }
+
+        return index;
+    }
+
     public abstract double[] readIn1DArray(int length, double scale, ByteBuffer dataBuffer);
     public abstract double[] readIn1DArray(int length, double scale, double offset, ByteBuffer dataBuffer);
     public abstract double[] readIn1DArrayReversed(int length, double scale, double offset, ByteBuffer dataBuffer);
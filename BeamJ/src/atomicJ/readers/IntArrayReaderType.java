@@ -1,6 +1,9 @@
 package atomicJ.readers;
 
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
 import java.util.Collection;
 
 import atomicJ.utilities.NumberUtilities;
@@ -174,6 +177,33 @@ public enum IntArrayReaderType
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(readInStep + skipBytesStep)));
         }
 
+        //the bits are unpacked directly into the destination, as in readIn1DArray(), without an intermediate array,
+        //a byte at a time, and the step of the destination is not used when it is 1, as the loop is then faster
+        @Override
+        public void readInto(int[] destination, int destinationFrom, int destinationStep, int length, ByteBuffer dataBuffer)
+        {
+            for(int start = 0, index = destinationFrom; start < length; start += 8)
+            {
+                byte currentByte = dataBuffer.get();
+                int bitCount = Math.min(8, length - start);
+
+                if(destinationStep == 1)
+                {
+                    for(int k = 0; k < bitCount; k++)
+                    {
+                        destination[index + k] = (currentByte >> k) & 1;
+                    }
+                    index += bitCount;
+                }
+                else
+                {
+                    for(int k = 0; k < bitCount; k++, index += destinationStep)
+                    {
+                        destination[index] = (currentByte >> k) & 1;
+                    }
+                }
+            }
+        }
     },
 
     INT8(1, false)
@@ -317,6 +347,28 @@ public enum IntArrayReaderType
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
 
+        @Override
+        public void readInto(int[] destination, int destinationFrom, int destinationStep, int length, ByteBuffer dataBuffer)
+        {
+            byte[] block = new byte[Math.min(length, BULK_BLOCK_LENGTH)];
+            int[] converted = new int[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                dataBuffer.get(block, 0, blockLength);
+
+                int[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = block[k];
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+        }
     },
 
     UINT8(1, true) {
@@ -457,6 +509,29 @@ public enum IntArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(int[] destination, int destinationFrom, int destinationStep, int length, ByteBuffer dataBuffer)
+        {
+            byte[] block = new byte[Math.min(length, BULK_BLOCK_LENGTH)];
+            int[] converted = new int[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                dataBuffer.get(block, 0, blockLength);
+
+                int[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = (block[k] & 0x000000ff);
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+        }
     }, 
 
     INT16(2, false) 
@@ -599,6 +674,32 @@ public enum IntArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(int[] destination, int destinationFrom, int destinationStep, int length, ByteBuffer dataBuffer)
+        {
+            ShortBuffer view = dataBuffer.asShortBuffer();
+            short[] block = new short[Math.min(length, BULK_BLOCK_LENGTH)];
+            int[] converted = new int[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                int[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = block[k];
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     }, 
     UINT16(2, true)
     {
@@ -743,6 +844,32 @@ public enum IntArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(int[] destination, int destinationFrom, int destinationStep, int length, ByteBuffer dataBuffer)
+        {
+            ShortBuffer view = dataBuffer.asShortBuffer();
+            short[] block = new short[Math.min(length, BULK_BLOCK_LENGTH)];
+            int[] converted = new int[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                int[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = (block[k] & 0x0000ffff);
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     }, 
 
     INT32(4, false) 
@@ -888,6 +1015,32 @@ public enum IntArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(int[] destination, int destinationFrom, int destinationStep, int length, ByteBuffer dataBuffer)
+        {
+            IntBuffer view = dataBuffer.asIntBuffer();
+            int[] block = new int[Math.min(length, BULK_BLOCK_LENGTH)];
+            int[] converted = new int[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                int[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = block[k];
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     },
 
     UINT32(4, true) 
@@ -1033,6 +1186,32 @@ public enum IntArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(int[] destination, int destinationFrom, int destinationStep, int length, ByteBuffer dataBuffer)
+        {
+            IntBuffer view = dataBuffer.asIntBuffer();
+            int[] block = new int[Math.min(length, BULK_BLOCK_LENGTH)];
+            int[] converted = new int[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                int[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = NumberUtilities.saturatedCast(block[k] & 0x00000000ffffffffL);
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     },
 
     INT64(8, false) 
@@ -1178,9 +1357,38 @@ public enum IntArrayReaderType
 
             dataBuffer.position(Math.min(dataBuffer.limit(), initPosition + (length)*(byteSize + skipBytesStep)));
         }
+
+        @Override
+        public void readInto(int[] destination, int destinationFrom, int destinationStep, int length, ByteBuffer dataBuffer)
+        {
+            LongBuffer view = dataBuffer.asLongBuffer();
+            long[] block = new long[Math.min(length, BULK_BLOCK_LENGTH)];
+            int[] converted = new int[block.length];
+
+            for(int start = 0, index = destinationFrom; start < length; start += block.length)
+            {
+                int blockLength = Math.min(block.length, length - start);
+                view.get(block, 0, blockLength);
+
+                int[] target = destinationStep == 1 ? destination : converted;
+                int targetFrom = destinationStep == 1 ? index : 0;
+
+                for(int k = 0; k < blockLength; k++)
+                {
+                    target[targetFrom + k] = NumberUtilities.saturatedCast(block[k]);
+                }
+
+                index = moveBlock(converted, blockLength, destination, index, destinationStep);
+            }
+
+            dataBuffer.position(dataBuffer.position() + length*getByteSize());
+        }
     }
     ;
 
+    //the number of values decoded at once by bulk reads
+    private static final int BULK_BLOCK_LENGTH = 4096;
+
     private final int byteSize;
     private final boolean unsigned;
 
@@ -1213,6 +1421,36 @@ public enum IntArrayReaderType
         throw new IllegalArgumentException("No reader known for numbers with byteSize " + byteSize + " which are " + (unsigned ? "unisgned" : "signed"));
     }
 
+    //reads length values and writes them to destination[destinationFrom], destination[destinationFrom + destinationStep], ...
+    //the types of standard sizes override this method, and copy the values in blocks from a typed view of the buffer, and INT2 unpacks the bits without an intermediate array
+    public void readInto(int[] destination, int destinationFrom, int destinationStep, int length, ByteBuffer dataBuffer)
+    {
+        int[] values = readIn1DArray(length, dataBuffer);
+
+        for(int k = 0, index = destinationFrom; k < length; k++, index += destinationStep)
+        {
+            destination[index] = values[k];
+        }
+    }
+
+    //the values of a block are converted directly into the destination when its step is 1, otherwise they are copied from converted, as in DoubleArrayReaderType
+    //returns the index of the destination at which the next block starts
+    private static int moveBlock(int[] converted, int blockLength, int[] destination, int destinationFrom, int destinationStep)
+    {
+        if(destinationStep == 1)
+        {
+            return destinationFrom + blockLength;
+        }
+
+        int index = destinationFrom;
+        for(int k = 0; k < blockLength; k++, index += destinationStep)
+        {
+            destination[index] = converted[k];
+        }
+
+        return index;
+    }
+
     public abstract int[] readIn1DArray(int length, ByteBuffer dataBuffer);
     public abstract int[] readIn1DArrayReversed(int length, ByteBuffer dataBuffer);
     public abstract int[] readIn1DArray(int length, int skipBytesStep, ByteBuffer dataBuffer);
@@ -0,0 +1,277 @@
+package atomicJ.readers.regularImage;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import atomicJ.data.FlatArray2D;
+
+//decoded planes of the files, whose planes are read on demand, shared by all channels which obtain their values from these planes
+//when the total size of the decoded planes exceeds the memory budget, the planes which were not used for the longest time are discarded,
+//and they are read again from the file when they are needed
+//after a plane is requested, the planes of the neighbouring frames are decoded in the background, so that browsing through a series of frames
+//does not wait for the file
+public class DecodedPlaneCache
+{
+    private static final DecodedPlaneCache INSTANCE = new DecodedPlaneCache(Runtime.getRuntime().maxMemory()/4);
+
+    //the number of the following and the preceding frames which are prefetched
+    private static final int FORWARD_PREFETCH_COUNT = 2;
+    private static final int BACKWARD_PREFETCH_COUNT = 1;
+
+    private final Object lock = new Object();
+
+    //guarded by lock
+    private final Map<PlaneKey, FlatArray2D[]> planes = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<PlaneKey> scheduledPrefetches = new HashSet<>();
+    private long memoryBudget;
+    private long usedMemory;
+
+    //reading of files is not a computation, so the planes are prefetched by their own thread instead of the shared computation threads
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() 
+    {
+        @Override
+        public Thread newThread(Runnable target)
+        {
+            Thread thread = new Thread(target, "Plane prefetching thread");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+
+            return thread;
+        }
+    });
+
+    private DecodedPlaneCache(long memoryBudget)
+    {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public static DecodedPlaneCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    //in bytes
+    public long getMemoryBudget()
+    {
+        synchronized(lock)
+        {
+            return memoryBudget;
+        }
+    }
+
+    //in bytes
+    public void setMemoryBudget(long memoryBudget)
+    {
+        if(memoryBudget < 0)
+        {
+            throw new IllegalArgumentException("The memory budget cannot be negative");
+        }
+
+        synchronized(lock)
+        {
+            this.memoryBudget = memoryBudget;
+            discardLeastRecentlyUsed();
+        }
+    }
+
+    public long getUsedMemory()
+    {
+        synchronized(lock)
+        {
+            return usedMemory;
+        }
+    }
+
+    public void clear()
+    {
+        synchronized(lock)
+        {
+            planes.clear();
+            usedMemory = 0;
+        }
+    }
+
+    //frameStride is the difference between the indices of the planes of consecutive frames
+    public FlatArray2D[] getPlane(LazyPlaneSet planeSet, int planeIndex, int frameStride) throws IOException
+    {
+        FlatArray2D[] plane = getOrReadPlane(planeSet, planeIndex);
+        prefetchNeighbours(planeSet, planeIndex, frameStride, getSize(plane));
+
+        return plane;
+    }
+
+    private FlatArray2D[] getOrReadPlane(LazyPlaneSet planeSet, int planeIndex) throws IOException
+    {
+        PlaneKey key = new PlaneKey(planeSet, planeIndex);
+
+        FlatArray2D[] plane = getCachedPlane(key);
+
+        if(plane != null)
+        {
+            return plane;
+        }
+
+        //the planes of a set are read one at a time, so a plane which is just being prefetched is not read once more
+        synchronized(planeSet)
+        {
+            plane = getCachedPlane(key);
+
+            if(plane == null)
+            {
+                plane = planeSet.readPlane(planeIndex);
+                putPlane(key, plane);
+            }
+        }
+
+        return plane;
+    }
+
+    private FlatArray2D[] getCachedPlane(PlaneKey key)
+    {
+        synchronized(lock)
+        {
+            return planes.get(key);
+        }
+    }
+
+    private void putPlane(PlaneKey key, FlatArray2D[] plane)
+    {
+        long size = getSize(plane);
+
+        synchronized(lock)
+        {
+            FlatArray2D[] planeOld = planes.put(key, plane);
+            if(planeOld != null)
+            {
+                usedMemory -= getSize(planeOld);
+            }
+
+            usedMemory += size;
+            discardLeastRecentlyUsed();
+        }
+    }
+
+    //the plane used most recently is kept even if it alone exceeds the budget, as it is needed at the moment
+    private void discardLeastRecentlyUsed()
+    {
+        Iterator<FlatArray2D[]> it = planes.values().iterator();
+
+        while(usedMemory > memoryBudget && planes.size() > 1 && it.hasNext())
+        {
+            usedMemory -= getSize(it.next());
+            it.remove();
+        }
+    }
+
+    private void prefetchNeighbours(LazyPlaneSet planeSet, int planeIndex, int frameStride, long planeSize)
+    {
+        //the neighbours are not prefetched if they could push the requested plane out of the cache
+        long prefetchedFramesSize = (1 + FORWARD_PREFETCH_COUNT + BACKWARD_PREFETCH_COUNT)*planeSize;
+
+        if(frameStride <= 0 || prefetchedFramesSize > getMemoryBudget())
+        {
+            return;
+        }
+
+        int planeCount = planeSet.getPlaneCount();
+
+        for(int k = 1; k <= Math.max(FORWARD_PREFETCH_COUNT, BACKWARD_PREFETCH_COUNT); k++)
+        {
+            int nextIndex = planeIndex + k*frameStride;
+            if(k <= FORWARD_PREFETCH_COUNT && nextIndex < planeCount)
+            {
+                schedulePrefetch(new PlaneKey(planeSet, nextIndex));
+            }
+
+            int previousIndex = planeIndex - k*frameStride;
+            if(k <= BACKWARD_PREFETCH_COUNT && previousIndex >= 0)
+            {
+                schedulePrefetch(new PlaneKey(planeSet, previousIndex));
+            }
+        }
+    }
+
+    private void schedulePrefetch(final PlaneKey key)
+    {
+        synchronized(lock)
+        {
+            //containsKey() does not change the order of use of the planes
+            if(planes.containsKey(key) || !scheduledPrefetches.add(key))
+            {
+                return;
+            }
+        }
+
+        prefetchExecutor.execute(new Runnable() 
+        {
+            @Override
+            public void run() 
+            {
+                try
+                {
+                    getOrReadPlane(key.planeSet, key.planeIndex);
+                } 
+                catch (IOException e) 
+                {
+                    e.printStackTrace();
+                }
+                finally
+                {
+                    synchronized(lock)
+                    {
+                        scheduledPrefetches.remove(key);
+                    }
+                }
+            }
+        });
+    }
+
+    private static long getSize(FlatArray2D[] plane)
+    {
+        long size = 0;
+
+        for(FlatArray2D channel : plane)
+        {
+            size += 8L*channel.getValues().length;
+        }
+
+        return size;
+    }
+
+    private static class PlaneKey
+    {
+        private final LazyPlaneSet planeSet;
+        private final int planeIndex;
+
+        private PlaneKey(LazyPlaneSet planeSet, int planeIndex)
+        {
+            this.planeSet = planeSet;
+            this.planeIndex = planeIndex;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31*System.identityHashCode(planeSet) + planeIndex;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if(!(other instanceof PlaneKey))
+            {
+                return false;
+            }
+
+            PlaneKey that = (PlaneKey)other;
+            return this.planeSet == that.planeSet && this.planeIndex == that.planeIndex;
+        }
+    }
+}
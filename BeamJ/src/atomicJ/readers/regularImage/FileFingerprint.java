@@ -0,0 +1,34 @@
+package atomicJ.readers.regularImage;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+//the length and the time of the last modification of a file, recorded when the file is opened,
+//so that the planes read on demand are not decoded from a file that was replaced or modified since then
+public class FileFingerprint
+{
+    private final File file;
+    private final long length;
+    private final long lastModified;
+
+    public FileFingerprint(File file)
+    {
+        this.file = file;
+        this.length = file.length();
+        this.lastModified = file.lastModified();
+    }
+
+    public void validate() throws IOException
+    {
+        if(!file.isFile())
+        {
+            throw new FileNotFoundException("The file " + file + " no longer exists");
+        }
+
+        if(file.length() != length || file.lastModified() != lastModified)
+        {
+            throw new IOException("The file " + file + " was modified after it was opened");
+        }
+    }
+}
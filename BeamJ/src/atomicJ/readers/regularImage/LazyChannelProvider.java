@@ -0,0 +1,229 @@
+package atomicJ.readers.regularImage;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+import atomicJ.data.Array2DSource;
+import atomicJ.data.Coordinate4D;
+import atomicJ.data.FlatArray2D;
+import atomicJ.data.units.UnitExpression;
+import atomicJ.gui.AtomicJ;
+
+//provides the channels of an image, which consists of consecutive planes of a LazyPlaneSet
+//the channel sources obtain the values from the DecodedPlaneCache, so the planes are read from the file
+//only when the channels are displayed or processed, and the images of a long series do not have to fit into memory at the same time
+public class LazyChannelProvider implements ChannelProvider
+{
+    private final LazyPlaneSet planeSet;
+    private final int firstPlaneIndex;
+    private final int planeCount;
+    private final int channelsPerPlane;
+
+    private final int rowCount;
+    private final int columnCount;
+
+    private final String colorSpaceName;
+    private final List<String> channelNames;
+
+    private final UnitExpression xLength;
+    private final UnitExpression yLength;
+
+    private final PlaneSetMetadata planeMetadata;
+    private final Channel2DSourceMetadata imageMetadata;
+
+    //the user is told only about the first failure, as the channels of an image usually fail all at once
+    private final AtomicBoolean readingFailureReported = new AtomicBoolean();
+
+    //the image consists of planeCount planes, starting from the plane firstPlaneIndex, and the images of consecutive frames
+    //are stored one after another in the plane set
+    public LazyChannelProvider(LazyPlaneSet planeSet, int firstPlaneIndex, int planeCount, int channelsPerPlane, String colorSpaceName, List<String> channelNames,
+            PlaneSetMetadata planeMetadata, int rowCount, int columnCount, UnitExpression xLength, UnitExpression yLength, Channel2DSourceMetadata imageMetadata)
+    {
+        this.planeSet = planeSet;
+        this.firstPlaneIndex = firstPlaneIndex;
+        this.planeCount = planeCount;
+        this.channelsPerPlane = channelsPerPlane;
+
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+
+        this.colorSpaceName = colorSpaceName;
+        this.channelNames = channelNames;
+
+        this.planeMetadata = planeMetadata;
+
+        this.xLength = xLength;
+        this.yLength = yLength;
+
+        this.imageMetadata = imageMetadata;
+    }
+
+    @Override
+    public Channel2DSourceMetadata getImageMetadata()
+    {
+        return imageMetadata;
+    }
+
+    @Override
+    public Coordinate4D getChannelCoordinates(int channelIndex)
+    {
+        int planeIndex = channelIndex/channelsPerPlane;
+        return planeMetadata.getCoordinate(planeIndex);
+    }
+
+    @Override
+    public Coordinate4D getCombinedChannelCoordinates()
+    {
+        return planeMetadata.getCombinedCoordinate();
+    }
+
+    @Override
+    public UnitExpression getXLength()
+    {
+        return xLength;
+    }
+
+    @Override
+    public UnitExpression getYLength()
+    {
+        return yLength;
+    }
+
+    public Array2DSource[] getChannelSources(ImageInterpretationModel model)
+    {
+        if(model.isCombineChannels())
+        {
+            return new Array2DSource[] {new CombinedChannelSource(model.getCombinationCoefficients())};
+        }
+
+        int channelCount = planeCount*channelsPerPlane;
+        Array2DSource[] sources = new Array2DSource[channelCount];
+
+        for(int i = 0; i < channelCount; i++)
+        {
+            sources[i] = new PlaneChannelSource(firstPlaneIndex + i/channelsPerPlane, i % channelsPerPlane);
+        }
+
+        return sources;
+    }
+
+    //reads in all channels at once
+    @Override
+    public double[][][] getChannelData(ImageInterpretationModel model)
+    {
+        Array2DSource[] sources = getChannelSources(model);
+        double[][][] channels = new double[sources.length][][];
+
+        for(int i = 0; i < sources.length; i++)
+        {
+            channels[i] = sources[i].getValues().toRows();
+        }
+
+        return channels;
+    }
+
+    private FlatArray2D getChannelValues(int planeIndex, int channelIndex)
+    {
+        try
+        {
+            return DecodedPlaneCache.getInstance().getPlane(planeSet, planeIndex, planeCount)[channelIndex];
+        } 
+        catch (IOException e) 
+        {
+            //the file could have been moved or changed since it was opened, the values which cannot be read are not known
+            e.printStackTrace();
+            reportReadingFailure(e);
+
+            double[] values = new double[rowCount*columnCount];
+            Arrays.fill(values, Double.NaN);
+
+            return new FlatArray2D(values, rowCount, columnCount);
+        }
+    }
+
+    //the values are requested by the channel data, which cannot throw a checked exception, so the failure is shown in a dialog
+    private void reportReadingFailure(IOException e)
+    {
+        if(readingFailureReported.compareAndSet(false, true))
+        {
+            String message = "The image could not be read from the file, its values are shown as missing. Please open the file again\n" + e.getMessage();
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(AtomicJ.currentFrame, message, "AtomicJ", JOptionPane.ERROR_MESSAGE));
+        }
+    }
+
+    @Override
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount()
+    {
+        return columnCount;
+    }
+
+    @Override
+    public String getColorSpaceName() 
+    {
+        return colorSpaceName;
+    }
+
+    @Override
+    public List<String> getChannelNames()
+    { 
+        return channelNames;
+    }
+
+    private class PlaneChannelSource implements Array2DSource
+    {
+        private final int planeIndex;
+        private final int channelIndex;
+
+        private PlaneChannelSource(int planeIndex, int channelIndex)
+        {
+            this.planeIndex = planeIndex;
+            this.channelIndex = channelIndex;
+        }
+
+        @Override
+        public FlatArray2D getValues()
+        {
+            return getChannelValues(planeIndex, channelIndex);
+        }
+    }
+
+    private class CombinedChannelSource implements Array2DSource
+    {
+        private final double[] coefficients;
+
+        private CombinedChannelSource(double[] coefficients)
+        {
+            this.coefficients = coefficients;
+        }
+
+        @Override
+        public FlatArray2D getValues()
+        {
+            double[] combined = new double[rowCount*columnCount];
+
+            for(int k = 0; k < planeCount*channelsPerPlane; k++)
+            {
+                double coefficient = coefficients[k];
+                double[] values = getChannelValues(firstPlaneIndex + k/channelsPerPlane, k % channelsPerPlane).getValues();
+
+                for(int i = 0; i < combined.length; i++)
+                {
+                    combined[i] += coefficient*values[i];
+                }
+            }
+
+            return new FlatArray2D(combined, rowCount, columnCount);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package atomicJ.readers.regularImage;
+
+import java.io.IOException;
+
+import atomicJ.data.FlatArray2D;
+
+//the planes of a file, whose positions in the file are recorded when the file is opened,
+//but which are read and decoded only when their values are needed
+//each plane consists of one or more channels, and readPlane() returns one contiguous array for each of them
+public interface LazyPlaneSet
+{
+    public int getPlaneCount();
+    public FlatArray2D[] readPlane(int planeIndex) throws IOException;
+}
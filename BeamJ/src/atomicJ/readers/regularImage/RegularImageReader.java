@@ -25,10 +25,12 @@ import java.util.*;
 
 import javax.swing.SwingUtilities;
 
+import atomicJ.data.Array2DSource;
 import atomicJ.data.ChannelMetadata;
 import atomicJ.data.Coordinate4D;
 import atomicJ.data.Quantities;
 import atomicJ.data.Grid2D;
+import atomicJ.data.GridChannel2DData;
 import atomicJ.data.ImageChannel;
 import atomicJ.data.StandardChannelMetadata;
 import atomicJ.data.units.Quantity;
@@ -143,7 +145,10 @@ public abstract class RegularImageReader extends AbstractSourceReader<ImageSourc
         String shortName = f.getName() + suffix;
 
 
-        double[][][] bands = channelProvider.getChannelData(model);
+        //the channels of lazily read images obtain their values from the file only when they are needed
+        Array2DSource[] lazySources = (channelProvider instanceof LazyChannelProvider) ? ((LazyChannelProvider)channelProvider).getChannelSources(model) : null;
+        double[][][] bands = (lazySources == null) ? channelProvider.getChannelData(model) : null;
+        int bandCount = (lazySources != null) ? lazySources.length : bands.length;
 
         List<String> channelNames = model.getChannelNames();
 
@@ -153,7 +158,7 @@ public abstract class RegularImageReader extends AbstractSourceReader<ImageSourc
         Channel2DSourceMetadata metadata = channelProvider.getImageMetadata();    
         metadata.setUseReadInROIs(model.isReadInROIs());
 
-        for(int i = 0; i<bands.length; i++)
+        for(int i = 0; i<bandCount; i++)
         {
             String channelName = channelNames.get(i);
 
@@ -161,7 +166,8 @@ public abstract class RegularImageReader extends AbstractSourceReader<ImageSourc
             metadata.registerChannelCoordinates(channelName, coordinates);
 
             ChannelMetadata channelMetadata = new StandardChannelMetadata(coordinates);
-            ImageChannel channel = new ImageChannel(bands[i], grid, zQuantities.get(i), channelName, false, channelMetadata);
+            ImageChannel channel = (lazySources != null) ? new ImageChannel(new GridChannel2DData(lazySources[i], grid, zQuantities.get(i)), channelName, "", false, channelMetadata)
+                    : new ImageChannel(bands[i], grid, zQuantities.get(i), channelName, false, channelMetadata);
 
             imageChannels.add(channel);
         }
@@ -30,6 +30,7 @@ import loci.formats.tiff.IFD;
 import loci.formats.tiff.IFDList;
 import loci.formats.tiff.PhotoInterp;
 import loci.formats.tiff.TiffParser;
+import atomicJ.data.FlatArray2D;
 import atomicJ.data.units.UnitExpression;
 import atomicJ.data.units.Units;
 import atomicJ.gui.UserCommunicableException;
@@ -88,6 +89,9 @@ public class TIFFImageReader extends RegularImageReader
 
             ChannelProvider[] img = new ChannelProvider[imageCount];
 
+            //the samples of images other than indexed are read only when they are needed, so that long series of images do not have to fit into memory
+            TIFFPlaneSet planeSet = new TIFFPlaneSet(f, imageCount);
+
             for(int i = 0; i < imageCount; i++)
             {
                 IFD ifd = ifds.get(i);
@@ -145,10 +149,10 @@ public class TIFFImageReader extends RegularImageReader
                         sampleReaders.add(TIFFSampleType.get(bytesPerSample[sampleIndex], bitFormat).getDoubleReader());
                     }
 
-                    int imageByteCount = width*height*DoubleArrayReaderType.countBytes(sampleReaders);                              
-                    byte[] imageBytes = parser.getSamples(ifd, new byte[imageByteCount]);
+                    planeSet.registerPlane(i, ifd, byteOrder, sampleReaders, height, width);
 
-                    img[i] = new WrappedBytesChannelProvider(imageBytes, byteOrder, false, sampleReaders, photometricInterpretation.getColorSpaceAsReadByBioFormats(), channelNames, height, width, xLength, yLength);
+                    img[i] = new LazyChannelProvider(planeSet, i, 1, sampleCount, photometricInterpretation.getColorSpaceAsReadByBioFormats(), channelNames,
+                            PlaneSetMetadata.getNullInstance(), height, width, xLength, yLength, DummyDensityMetadata.getInstance());
 
                 }
             } 
@@ -219,5 +223,85 @@ public class TIFFImageReader extends RegularImageReader
         }
         return table;
     }
+
+    //the IFDs of a file, each IFD is one plane, whose samples are read from the file when they are needed
+    private static class TIFFPlaneSet implements LazyPlaneSet
+    {
+        private final String path;
+        private final FileFingerprint fingerprint;
+
+        private final IFD[] ifds;
+        private final ByteOrder[] byteOrders;
+        private final List<List<DoubleArrayReaderType>> sampleReaders;
+        private final int[] rowCounts;
+        private final int[] columnCounts;
+
+        private TIFFPlaneSet(File f, int planeCount)
+        {
+            this.path = f.getAbsolutePath();
+            this.fingerprint = new FileFingerprint(f);
+            this.ifds = new IFD[planeCount];
+            this.byteOrders = new ByteOrder[planeCount];
+            this.sampleReaders = new ArrayList<>(Collections.<List<DoubleArrayReaderType>>nCopies(planeCount, null));
+            this.rowCounts = new int[planeCount];
+            this.columnCounts = new int[planeCount];
+        }
+
+        //the IFD records the offsets of the strips or tiles of the plane in the file
+        private synchronized void registerPlane(int planeIndex, IFD ifd, ByteOrder byteOrder, List<DoubleArrayReaderType> planeSampleReaders, int rowCount, int columnCount)
+        {
+            ifds[planeIndex] = ifd;
+            byteOrders[planeIndex] = byteOrder;
+            sampleReaders.set(planeIndex, planeSampleReaders);
+            rowCounts[planeIndex] = rowCount;
+            columnCounts[planeIndex] = columnCount;
+        }
+
+        @Override
+        public int getPlaneCount()
+        {
+            return ifds.length;
+        }
+
+        @Override
+        public synchronized FlatArray2D[] readPlane(int planeIndex) throws IOException 
+        {
+            IFD ifd = ifds[planeIndex];
+
+            if(ifd == null)
+            {
+                throw new IllegalArgumentException("The plane " + planeIndex + " is not read lazily");
+            }
+
+            List<DoubleArrayReaderType> planeSampleReaders = sampleReaders.get(planeIndex);
+            int rowCount = rowCounts[planeIndex];
+            int columnCount = columnCounts[planeIndex];
+
+            //the offsets in the IFD are valid only for the file that was opened
+            fingerprint.validate();
+
+            try(RandomAccessInputStream in = new RandomAccessInputStream(path))
+            {
+                TiffParser parser = new TiffParser(in);
+
+                int planeByteCount = rowCount*columnCount*DoubleArrayReaderType.countBytes(planeSampleReaders);
+                byte[] planeBytes = parser.getSamples(ifd, new byte[planeByteCount]);
+
+                double[][][] channels = WrappedBytesChannelProvider.decodePlane(planeBytes, byteOrders[planeIndex], false, planeSampleReaders, rowCount, columnCount);
+
+                FlatArray2D[] plane = new FlatArray2D[channels.length];
+                for(int i = 0; i < channels.length; i++)
+                {
+                    plane[i] = FlatArray2D.fromRows(channels[i], rowCount, columnCount);
+                }
+
+                return plane;
+            }
+            catch(FormatException e)
+            {
+                throw new IOException(e);
+            }
+        }
+    }
 }
 
@@ -101,32 +101,12 @@ public class WrappedBytesChannelProvider implements ChannelProvider
 
         for(int planeIndex = 0, currentChannelIndex = 0; planeIndex < planeBytes.length; planeIndex++)
         {   
-            ByteBuffer buffer = ByteBuffer.wrap(planeBytes[planeIndex]).order(byteOrder);
             List<DoubleArrayReaderType> planeSampleReaders = sampleReaders.subList(planeIndex*channelsPerPlane, (planeIndex + 1)*channelsPerPlane);
-            if(interleaved)
-            {
-                for(int i = 0; i < channelsPerPlane; i++)
-                {
-                    List<DoubleArrayReaderType> precedingSamplesReaders = planeSampleReaders.subList(0, i);
-                    List<DoubleArrayReaderType> followingSamplesReaders = planeSampleReaders.subList(i + 1, channelsPerPlane);
-
-                    int readFrom = DoubleArrayReaderType.countBytes(precedingSamplesReaders);
-                    int skipBytesStep = DoubleArrayReaderType.countBytes(followingSamplesReaders);
-
-                    buffer.position(readFrom);
+            double[][][] planeChannels = decodePlane(planeBytes[planeIndex], byteOrder, interleaved, planeSampleReaders, rowCount, columnCount);
 
-                    DoubleArrayReaderType reader = planeSampleReaders.get(i);
-                    channels[currentChannelIndex++] = ArrayStorageType.ROW_BY_ROW.readIn2DArray(reader,DataStorageDirection.REVERSED, DataStorageDirection.STRAIGHT, skipBytesStep, rowCount, columnCount, 1, 0, buffer);
-                }
-            }
-            else
+            for(double[][] channel : planeChannels)
             {
-                for(int i = 0; i < channelsPerPlane; i++)
-                {
-                    DoubleArrayReaderType reader = planeSampleReaders.get(i);
-
-                    channels[currentChannelIndex++] = ArrayStorageType.ROW_BY_ROW.readIn2DArray(reader,DataStorageDirection.REVERSED, DataStorageDirection.STRAIGHT, rowCount, columnCount, 1, 0, buffer);               
-                }
+                channels[currentChannelIndex++] = channel;
             }
         }
 
@@ -158,6 +138,43 @@ public class WrappedBytesChannelProvider implements ChannelProvider
         else return channels;
     }
 
+    //decodes the channels of a single plane, the plane has one channel for each of the planeSampleReaders
+    static double[][][] decodePlane(byte[] bytes, ByteOrder byteOrder, boolean interleaved, List<DoubleArrayReaderType> planeSampleReaders, int rowCount, int columnCount)
+    {
+        int channelsPerPlane = planeSampleReaders.size();
+        double[][][] channels = new double[channelsPerPlane][][];
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(byteOrder);
+
+        if(interleaved)
+        {
+            for(int i = 0; i < channelsPerPlane; i++)
+            {
+                List<DoubleArrayReaderType> precedingSamplesReaders = planeSampleReaders.subList(0, i);
+                List<DoubleArrayReaderType> followingSamplesReaders = planeSampleReaders.subList(i + 1, channelsPerPlane);
+
+                int readFrom = DoubleArrayReaderType.countBytes(precedingSamplesReaders);
+                int skipBytesStep = DoubleArrayReaderType.countBytes(followingSamplesReaders);
+
+                buffer.position(readFrom);
+
+                DoubleArrayReaderType reader = planeSampleReaders.get(i);
+                channels[i] = ArrayStorageType.ROW_BY_ROW.readIn2DArray(reader,DataStorageDirection.REVERSED, DataStorageDirection.STRAIGHT, skipBytesStep, rowCount, columnCount, 1, 0, buffer);
+            }
+        }
+        else
+        {
+            for(int i = 0; i < channelsPerPlane; i++)
+            {
+                DoubleArrayReaderType reader = planeSampleReaders.get(i);
+
+                channels[i] = ArrayStorageType.ROW_BY_ROW.readIn2DArray(reader,DataStorageDirection.REVERSED, DataStorageDirection.STRAIGHT, rowCount, columnCount, 1, 0, buffer);               
+            }
+        }
+
+        return channels;
+    }
+
     @Override
     public int getRowCount()
     {
@@ -33,6 +33,7 @@ import ome.xml.meta.MetadataRetrieve;
 
 import loci.formats.FormatException;
 import atomicJ.data.Coordinate4D;
+import atomicJ.data.FlatArray2D;
 import atomicJ.data.units.LociQuantityType;
 import atomicJ.data.units.UnitExpression;
 import atomicJ.data.units.Units;
@@ -104,8 +105,6 @@ public class ZeissImageReader extends RegularImageReader
                 double[][] palette = LociPixelType.UNIT8.equals(pixelType) ? ArrayUtilities.convertUInt8ToDouble(zeissReader.get8BitLookupTable()) : ArrayUtilities.convertUInt16ToDouble(zeissReader.get16BitLookupTable());
             }
 
-            List<DoubleArrayReaderType> sampleReaders = Collections.nCopies(channelCount, pixelType.getDoubleArrayReader());
-
             List<ROIProxy> roiProxies = new ArrayList<>();
 
             for(int i = 0; i<metadata.getROICount(); i++)
@@ -131,13 +130,15 @@ public class ZeissImageReader extends RegularImageReader
 
             ChannelProvider[] channelProviders = new ChannelProvider[separateImageCount];
 
+            //the planes are read only when they are needed, so that long series of images do not have to fit into memory
+            LSMPlaneSet planeSet = new LSMPlaneSet(f, zeissReader, byteOrder, interleaved, Collections.nCopies(channelsPerPlane, pixelType.getDoubleArrayReader()), 
+                    planeCountPerImage*separateImageCount, rowCount, columnCount);
+
             for(int i = 0; i<separateImageCount; i++)
             {
                 StandardDensityMetadata imageMetadata = new StandardDensityMetadata();
                 imageMetadata.setReadInROIs(roiProxies);
 
-                byte[][] planeBytes = new byte[planeCountPerImage][];
-
                 List<Coordinate4D> planeCoordinates = new ArrayList<>();
                 for(int j = 0; j<planeCountPerImage; j++)
                 {
@@ -149,15 +150,14 @@ public class ZeissImageReader extends RegularImageReader
                     UnitExpression zCoordinate = LociQuantityType.convertToUnitExpression(metadata.getPlanePositionZ(0, planeIndex));
 
                     planeCoordinates.add(new Coordinate4D(tCoordinate, xCoordinate, yCoordinate, zCoordinate));
-
-                    planeBytes[j] = zeissReader.openBytes(planeIndex, new byte[channelsPerPlane*rowCount*columnCount*pixelType.getDoubleArrayReader().getByteSize()],0,0, columnCount, rowCount);
                 }                    
 
                 PlaneSetMetadata planeMetadata = new PlaneSetMetadata(planeCoordinates);
 
-                channelProviders[i] = new WrappedBytesChannelProvider(planeBytes, channelsPerPlane, byteOrder, interleaved, sampleReaders, "Channels", channelNames, planeMetadata, rowCount, columnCount, xLength, yLength, imageMetadata);
+                channelProviders[i] = new LazyChannelProvider(planeSet, planeCountPerImage*i, planeCountPerImage, channelsPerPlane, "Channels", channelNames, planeMetadata, rowCount, columnCount, xLength, yLength, imageMetadata);
             }
 
+            //closes only the file, the reader keeps the positions of the planes
             zeissReader.close(true);
 
             return readImages(f, readingDirectives, channelProviders);
@@ -168,6 +168,63 @@ public class ZeissImageReader extends RegularImageReader
         }
     }
 
+    //the planes of an LSM file, read by a reader whose file is closed, and which reopens it for each plane
+    private static class LSMPlaneSet implements LazyPlaneSet
+    {
+        private final atomicJ.utilities.ZeissLSMReader zeissReader;
+        private final FileFingerprint fingerprint;
+        private final ByteOrder byteOrder;
+        private final boolean interleaved;
+        private final List<DoubleArrayReaderType> planeSampleReaders;
+        private final int planeCount;
+        private final int rowCount;
+        private final int columnCount;
+
+        private LSMPlaneSet(File f, atomicJ.utilities.ZeissLSMReader zeissReader, ByteOrder byteOrder, boolean interleaved, List<DoubleArrayReaderType> planeSampleReaders,
+                int planeCount, int rowCount, int columnCount)
+        {
+            this.zeissReader = zeissReader;
+            this.fingerprint = new FileFingerprint(f);
+            this.byteOrder = byteOrder;
+            this.interleaved = interleaved;
+            this.planeSampleReaders = planeSampleReaders;
+            this.planeCount = planeCount;
+            this.rowCount = rowCount;
+            this.columnCount = columnCount;
+        }
+
+        @Override
+        public int getPlaneCount()
+        {
+            return planeCount;
+        }
+
+        @Override
+        public synchronized FlatArray2D[] readPlane(int planeIndex) throws IOException
+        {
+            //the positions of the planes kept by the reader are valid only for the file that was opened
+            fingerprint.validate();
+
+            try
+            {
+                byte[] planeBytes = zeissReader.openBytesFromReopenedFile(planeIndex, new byte[rowCount*columnCount*DoubleArrayReaderType.countBytes(planeSampleReaders)]);
+                double[][][] channels = WrappedBytesChannelProvider.decodePlane(planeBytes, byteOrder, interleaved, planeSampleReaders, rowCount, columnCount);
+
+                FlatArray2D[] plane = new FlatArray2D[channels.length];
+                for(int i = 0; i < channels.length; i++)
+                {
+                    plane[i] = FlatArray2D.fromRows(channels[i], rowCount, columnCount);
+                }
+
+                return plane;
+            }
+            catch(FormatException e)
+            {
+                throw new IOException(e);
+            }
+        }
+    }
+
     public static enum LociROIType
     {
         RECTANGLE("Rectangle")
@@ -427,6 +427,12 @@ public abstract class Channel1DProcessedResource <E extends Channel1DSource<?>>
         undoManager.setSizeLimit(sizeLimit);
     }
 
+    @Override
+    public long getUndoMemoryUsage()
+    {
+        return undoManager.getMemoryUsage();
+    }
+
     @Override
     public void pushCommand(String type, UndoableCommand command)
     {
@@ -34,5 +34,7 @@ public interface ChannelResource<E extends Channel, D, I> extends DataModelResou
     public boolean canBeUndone(String type);
     public void pushCommand(String type, UndoableCommand command);
     public void setUndoSizeLimit(int sizeLimit);
+    //estimated number of bytes of the heap held by the undo history of this resource
+    public long getUndoMemoryUsage();
     public ROI getROIUnion();
 }
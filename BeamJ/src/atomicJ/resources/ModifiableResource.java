@@ -23,6 +23,8 @@ public interface ModifiableResource<E, D, I> extends Resource
     public Map<I, D> getChannelData(String type);
     public Map<I, E> setChannelData(String type, Map<I, D> dataMap);
     public void setUndoSizeLimit(int sizeLimit);
+    //estimated number of bytes of the heap held by the undo history of this resource
+    public long getUndoMemoryUsage();
     public void undo(String type);
     public void redo(String type);
     public CommandIdentifier getCommandToRedoCompundIdentifier(String type);
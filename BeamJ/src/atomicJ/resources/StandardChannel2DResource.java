@@ -382,6 +382,12 @@ public class StandardChannel2DResource extends AbstractResource implements Chann
         undoManager.setSizeLimit(sizeLimit);
     }
 
+    @Override
+    public long getUndoMemoryUsage()
+    {
+        return undoManager.getMemoryUsage();
+    }
+
     @Override
     public void pushCommand(String type, UndoableCommand command)
     {
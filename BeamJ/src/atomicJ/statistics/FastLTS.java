@@ -0,0 +1,826 @@
+package atomicJ.statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import atomicJ.utilities.ComputeScheduler;
+
+import Jama.CholeskyDecomposition;
+import Jama.LUDecomposition;
+import Jama.Matrix;
+
+//least trimmed squares fit of a model linear in its parameters, y = sum of coefficients[k]*x^exponents[k], found by the FAST-LTS algorithm
+//of Rousseeuw and Van Driessen
+//each random start is an exact fit to p points, which is improved by concentration steps (C-steps): the coverage points with the smallest
+//squared residuals are selected and the model is fitted to them by least squares, which never increases the trimmed sum of squares,
+//so a few hundred starts give a stable fit
+//the starts are improved by two C-steps only, and a start whose criterion after the first C-step is much larger than the criterion
+//of the candidates kept so far is abandoned, only the best candidates are iterated until convergence
+//for large data sets the starts are made on disjoint random subsets, their best candidates are improved on the union of the subsets,
+//and only the best of them on the whole data set (split and merge)
+//support points, if any, are always covered and their squared residuals are added to the criterion
+//the starts are run in chunks of a fixed size on the threads of the ComputeScheduler, each chunk with its own SplittableRandom split
+//from the random generator seeded with the given seed in a fixed order, so the fit is reproducible and does not depend on the number of processors
+public class FastLTS
+{
+    public static final long DEFAULT_SEED = 1;
+
+    private static final int INITIAL_CSTEP_COUNT = 2;
+    private static final int MAXIMAL_CSTEP_COUNT = 100;
+    private static final double CONVERGENCE_TOLERANCE = 1e-12;
+    private static final int KEPT_CANDIDATE_COUNT = 10;
+    //a start is abandoned after its first C-step if its criterion exceeds the criterion of the worst kept candidate by this factor
+    private static final double ABANDONMENT_RATIO = 2;
+    private static final int MAXIMAL_ELEMENTAL_ATTEMPTS = 10;
+
+    private static final int SUBSET_SIZE = 300;
+    private static final int MAXIMAL_SUBSET_COUNT = 5;
+
+    private static final int STARTS_PER_CHUNK = 25;
+    //the starts are run by the calling thread if they evaluate fewer residuals than this
+    private static final long MINIMAL_CONCURRENT_WORK = 500000;
+
+    private final double[] coefficients;
+    private final double lowestCriterion;
+    private final int coverage;
+
+    private FastLTS(double[] coefficients, double lowestCriterion, int coverage)
+    {
+        this.coefficients = coefficients;
+        this.lowestCriterion = lowestCriterion;
+        this.coverage = coverage;
+    }
+
+    public static FastLTS findFit(double[][] data, double[] exponents, int coverage, int nstarts)
+    {
+        return findFit(data, new double[][] {}, exponents, coverage, nstarts, DEFAULT_SEED);
+    }
+
+    public static FastLTS findFit(double[][] data, double[][] support, double[] exponents, int coverage, int nstarts)
+    {
+        return findFit(data, support, exponents, coverage, nstarts, DEFAULT_SEED);
+    }
+
+    //coverage is the number of points of data, which are covered by the fit, support points are always covered
+    public static FastLTS findFit(double[][] data, double[][] support, double[] exponents, int coverage, int nstarts, long seed)
+    {
+        if(exponents.length == 0)
+        {
+            throw new IllegalArgumentException("The model should have at least one parameter");
+        }
+
+        Problem problem = new Problem(data, support, exponents);
+
+        int n = problem.optionalCount;
+        int c = Math.max(0, Math.min(n, coverage));
+
+        if(problem.optionalCount + problem.supportCount < problem.parameterCount)
+        {
+            return new FastLTS(new double[exponents.length], Double.POSITIVE_INFINITY, c);
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+
+        Sample fullSample = new Sample(rangeIndices(0, n), rangeIndices(n, problem.supportCount), c);
+
+        int subsetCount = Math.min(MAXIMAL_SUBSET_COUNT, n/SUBSET_SIZE);
+        boolean split = subsetCount >= 2;
+
+        List<Sample> samples = split ? buildSubsets(problem, c, subsetCount, random) : Arrays.asList(fullSample);
+        int startsPerSample = (int)Math.ceil(Math.max(1, nstarts)/(double)samples.size());
+
+        List<List<Candidate>> sampleCandidates = runStarts(problem, samples, startsPerSample, random);
+
+        List<Candidate> candidates = new ArrayList<>();
+
+        if(split)
+        {
+            Sample mergedSample = mergeSubsets(samples, fullSample, c, n);
+            Concentrator concentrator = new Concentrator(problem, mergedSample.optional.length);
+
+            List<Candidate> mergedCandidates = new ArrayList<>();
+            for(List<Candidate> subsetCandidates : sampleCandidates)
+            {
+                for(Candidate candidate : subsetCandidates)
+                {
+                    Candidate improved = concentrator.concentrate(mergedSample, candidate.coefficients, INITIAL_CSTEP_COUNT, Double.POSITIVE_INFINITY);
+                    if(improved != null)
+                    {
+                        mergedCandidates.add(improved);
+                    }
+                }
+            }
+
+            candidates.addAll(selectBest(mergedCandidates));
+        }
+        else
+        {
+            candidates.addAll(sampleCandidates.get(0));
+        }
+
+        Concentrator concentrator = new Concentrator(problem, n);
+        Candidate best = null;
+
+        for(Candidate candidate : candidates)
+        {
+            Candidate converged = concentrator.concentrate(fullSample, candidate.coefficients, MAXIMAL_CSTEP_COUNT, Double.POSITIVE_INFINITY);
+
+            if(converged != null && (best == null || converged.criterion < best.criterion))
+            {
+                best = converged;
+            }
+        }
+
+        if(best == null)
+        {
+            return new FastLTS(new double[exponents.length], Double.POSITIVE_INFINITY, c);
+        }
+
+        return new FastLTS(problem.unscale(best.coefficients), best.criterion, c);
+    }
+
+    public double[] getCoefficients()
+    {
+        return Arrays.copyOf(coefficients, coefficients.length);
+    }
+
+    public double getCoefficient(int k)
+    {
+        return coefficients[k];
+    }
+
+    public double getObjectiveFunctionMinimum()
+    {
+        return lowestCriterion;
+    }
+
+    public int getCoverage()
+    {
+        return coverage;
+    }
+
+    private static int[] rangeIndices(int start, int count)
+    {
+        int[] indices = new int[count];
+        for(int i = 0; i<count; i++)
+        {
+            indices[i] = start + i;
+        }
+        return indices;
+    }
+
+    //disjoint random subsets of the points of data, of SUBSET_SIZE points each
+    private static List<Sample> buildSubsets(Problem problem, int coverage, int subsetCount, SplittableRandom random)
+    {
+        int n = problem.optionalCount;
+        int[] permutation = rangeIndices(0, n);
+
+        int selectedCount = subsetCount*SUBSET_SIZE;
+        for(int i = 0; i<selectedCount; i++)
+        {
+            int j = i + random.nextInt(n - i);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+
+        int[] support = rangeIndices(n, problem.supportCount);
+        int subsetCoverage = getProportionalCoverage(coverage, n, SUBSET_SIZE);
+
+        List<Sample> subsets = new ArrayList<>();
+        for(int k = 0; k<subsetCount; k++)
+        {
+            int[] optional = Arrays.copyOfRange(permutation, k*SUBSET_SIZE, (k + 1)*SUBSET_SIZE);
+            subsets.add(new Sample(optional, support, subsetCoverage));
+        }
+
+        return subsets;
+    }
+
+    private static Sample mergeSubsets(List<Sample> subsets, Sample fullSample, int coverage, int n)
+    {
+        int mergedSize = subsets.size()*SUBSET_SIZE;
+        int[] optional = new int[mergedSize];
+
+        int position = 0;
+        for(Sample subset : subsets)
+        {
+            System.arraycopy(subset.optional, 0, optional, position, subset.optional.length);
+            position += subset.optional.length;
+        }
+
+        return new Sample(optional, fullSample.support, getProportionalCoverage(coverage, n, mergedSize));
+    }
+
+    private static int getProportionalCoverage(int coverage, int n, int sampleSize)
+    {
+        return (int)Math.min(sampleSize, Math.ceil(coverage*(double)sampleSize/n));
+    }
+
+    //returns the best candidates of each sample, in the order of samples
+    private static List<List<Candidate>> runStarts(Problem problem, List<Sample> samples, int startsPerSample, SplittableRandom random)
+    {
+        List<StartChunk> chunks = new ArrayList<>();
+
+        long work = 0;
+        for(int k = 0; k<samples.size(); k++)
+        {
+            Sample sample = samples.get(k);
+
+            for(int start = 0; start < startsPerSample; start += STARTS_PER_CHUNK)
+            {
+                int startCount = Math.min(STARTS_PER_CHUNK, startsPerSample - start);
+                chunks.add(new StartChunk(problem, sample, k, startCount, random.split()));
+            }
+
+            work += (long)startsPerSample*(INITIAL_CSTEP_COUNT + 1)*(sample.optional.length + sample.support.length);
+        }
+
+        List<List<Candidate>> chunkCandidates = new ArrayList<>();
+
+        if(chunks.size() < 2 || work < MINIMAL_CONCURRENT_WORK)
+        {
+            for(StartChunk chunk : chunks)
+            {
+                chunkCandidates.add(chunk.call());
+            }
+        }
+        else
+        {
+            int taskNumber = Math.min(chunks.size(), ComputeScheduler.getInstance().getThreadCount());
+            ExecutorService executor = ComputeScheduler.getInstance().newTaskExecutor("LTS fit", ComputeScheduler.Priority.BATCH, taskNumber);
+
+            try
+            {
+                List<Future<List<Candidate>>> futures = new ArrayList<>();
+                for(StartChunk chunk : chunks)
+                {
+                    futures.add(executor.submit(chunk));
+                }
+
+                //the candidates are collected in the order of chunks, not in the order of completion, so that the result is reproducible
+                for(Future<List<Candidate>> future : futures)
+                {
+                    chunkCandidates.add(future.get());
+                }
+            }
+            //a fit made from the starts which happened to complete would be returned as if it were the best one,
+            //so the failure or cancellation is passed to the caller instead
+            catch(InterruptedException e)
+            {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+
+                CancellationException cancellation = new CancellationException("The LTS fit was interrupted");
+                cancellation.initCause(e);
+                throw cancellation;
+            }
+            catch(ExecutionException e)
+            {
+                executor.shutdownNow();
+
+                Throwable cause = e.getCause();
+                if(cause instanceof RuntimeException)
+                {
+                    throw (RuntimeException)cause;
+                }
+                if(cause instanceof Error)
+                {
+                    throw (Error)cause;
+                }
+
+                throw new IllegalStateException("The LTS fit failed", cause);
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+        }
+
+        List<List<Candidate>> sampleCandidates = new ArrayList<>();
+        for(int k = 0; k<samples.size(); k++)
+        {
+            List<Candidate> candidates = new ArrayList<>();
+
+            for(int i = 0; i<chunkCandidates.size(); i++)
+            {
+                if(chunks.get(i).sampleIndex == k)
+                {
+                    candidates.addAll(chunkCandidates.get(i));
+                }
+            }
+
+            sampleCandidates.add(selectBest(candidates));
+        }
+
+        return sampleCandidates;
+    }
+
+    private static List<Candidate> selectBest(List<Candidate> candidates)
+    {
+        KeptCandidates kept = new KeptCandidates();
+        for(Candidate candidate : candidates)
+        {
+            kept.add(candidate);
+        }
+        return kept.candidates;
+    }
+
+    //the points of the problem, with the values of the basis functions precomputed
+    //the abscissae are scaled by their largest absolute value, so that the normal equations of polynomials of higher degrees
+    //are not ill-conditioned
+    private static class Problem
+    {
+        private final int optionalCount;
+        private final int supportCount;
+        private final int parameterCount;
+
+        private final double[] exponents;
+        private final double scale;
+
+        //the optional points are followed by the support points
+        private final double[][] basis;
+        private final double[] ordinates;
+
+        private Problem(double[][] data, double[][] support, double[] exponents)
+        {
+            this.optionalCount = data.length;
+            this.supportCount = support.length;
+            this.parameterCount = exponents.length;
+            this.exponents = Arrays.copyOf(exponents, exponents.length);
+
+            int t = optionalCount + supportCount;
+
+            double maxAbsX = 0;
+            for(int i = 0; i<t; i++)
+            {
+                double x = Math.abs(getPoint(data, support, i)[0]);
+                if(x > maxAbsX && !Double.isInfinite(x))
+                {
+                    maxAbsX = x;
+                }
+            }
+
+            this.scale = maxAbsX > 0 ? maxAbsX : 1;
+
+            this.basis = new double[t][parameterCount];
+            this.ordinates = new double[t];
+
+            for(int i = 0; i<t; i++)
+            {
+                double[] p = getPoint(data, support, i);
+                double x = p[0]/scale;
+
+                ordinates[i] = p[1];
+
+                double[] row = basis[i];
+                for(int k = 0; k<parameterCount; k++)
+                {
+                    row[k] = power(x, exponents[k]);
+                }
+            }
+        }
+
+        private static double[] getPoint(double[][] data, double[][] support, int i)
+        {
+            return i < data.length ? data[i] : support[i - data.length];
+        }
+
+        private static double power(double x, double exponent)
+        {
+            if(exponent == 0)
+            {
+                return 1;
+            }
+            if(exponent == 1)
+            {
+                return x;
+            }
+            if(exponent == 2)
+            {
+                return x*x;
+            }
+            return Math.pow(x, exponent);
+        }
+
+        private double getSquaredResidual(int i, double[] coefficients)
+        {
+            double[] row = basis[i];
+
+            double value = 0;
+            for(int k = 0; k<parameterCount; k++)
+            {
+                value += coefficients[k]*row[k];
+            }
+
+            double r = ordinates[i] - value;
+            double r2 = r*r;
+
+            //points at which the model is not defined are never covered
+            return Double.isNaN(r2) ? Double.POSITIVE_INFINITY : r2;
+        }
+
+        //coefficients of the model in the original, not scaled, abscissae
+        private double[] unscale(double[] coefficients)
+        {
+            double[] unscaled = new double[parameterCount];
+            for(int k = 0; k<parameterCount; k++)
+            {
+                unscaled[k] = coefficients[k]/power(scale, exponents[k]);
+            }
+            return unscaled;
+        }
+    }
+
+    //points of the problem, among which starts are made and candidates are concentrated
+    private static class Sample
+    {
+        private final int[] optional;
+        private final int[] support;
+        private final int coverage;
+
+        private Sample(int[] optional, int[] support, int coverage)
+        {
+            this.optional = optional;
+            this.support = support;
+            this.coverage = coverage;
+        }
+
+        private int getPoint(int position)
+        {
+            return position < optional.length ? optional[position] : support[position - optional.length];
+        }
+    }
+
+    private static class Candidate
+    {
+        private final double[] coefficients;
+        private final double criterion;
+
+        private Candidate(double[] coefficients, double criterion)
+        {
+            this.coefficients = coefficients;
+            this.criterion = criterion;
+        }
+    }
+
+    //KEPT_CANDIDATE_COUNT candidates with the lowest criteria, ordered by criterion
+    private static class KeptCandidates
+    {
+        private final List<Candidate> candidates = new ArrayList<>();
+
+        private void add(Candidate candidate)
+        {
+            int position = candidates.size();
+            while(position > 0 && candidates.get(position - 1).criterion > candidate.criterion)
+            {
+                position--;
+            }
+
+            if(position < KEPT_CANDIDATE_COUNT)
+            {
+                candidates.add(position, candidate);
+
+                if(candidates.size() > KEPT_CANDIDATE_COUNT)
+                {
+                    candidates.remove(candidates.size() - 1);
+                }
+            }
+        }
+
+        private double getAbandonmentBound()
+        {
+            boolean full = candidates.size() == KEPT_CANDIDATE_COUNT;
+            return full ? ABANDONMENT_RATIO*candidates.get(KEPT_CANDIDATE_COUNT - 1).criterion : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private static class StartChunk implements Callable<List<Candidate>>
+    {
+        private final Problem problem;
+        private final Sample sample;
+        private final int sampleIndex;
+        private final int startCount;
+        private final SplittableRandom random;
+
+        private StartChunk(Problem problem, Sample sample, int sampleIndex, int startCount, SplittableRandom random)
+        {
+            this.problem = problem;
+            this.sample = sample;
+            this.sampleIndex = sampleIndex;
+            this.startCount = startCount;
+            this.random = random;
+        }
+
+        @Override
+        public List<Candidate> call()
+        {
+            Concentrator concentrator = new Concentrator(problem, sample.optional.length);
+            KeptCandidates kept = new KeptCandidates();
+
+            for(int i = 0; i<startCount; i++)
+            {
+                double[] elementalFit = concentrator.findElementalFit(sample, random);
+
+                if(elementalFit != null)
+                {
+                    Candidate candidate = concentrator.concentrate(sample, elementalFit, INITIAL_CSTEP_COUNT, kept.getAbandonmentBound());
+                    if(candidate != null)
+                    {
+                        kept.add(candidate);
+                    }
+                }
+            }
+
+            return kept.candidates;
+        }
+    }
+
+    //performs C-steps, it holds working arrays, so each thread uses its own concentrator
+    private static class Concentrator
+    {
+        private final Problem problem;
+        private final int p;
+
+        private final double[] squaredResiduals;
+        //positions of the optional points of the sample, the covered ones come first after evaluate()
+        private final int[] order;
+
+        private final double[][] normalMatrix;
+        private final double[] normalOrdinates;
+        private final double[][] elementalMatrix;
+        private final double[] elementalOrdinates;
+        private final int[] elementalPositions;
+
+        private Concentrator(Problem problem, int maximalSampleSize)
+        {
+            this.problem = problem;
+            this.p = problem.parameterCount;
+
+            this.squaredResiduals = new double[maximalSampleSize];
+            this.order = new int[maximalSampleSize];
+
+            this.normalMatrix = new double[p][p];
+            this.normalOrdinates = new double[p];
+            this.elementalMatrix = new double[p][p];
+            this.elementalOrdinates = new double[p];
+            this.elementalPositions = new int[p];
+        }
+
+        //exact fit to p distinct random points of the sample, or null if all the drawn sets of points were singular
+        private double[] findElementalFit(Sample sample, SplittableRandom random)
+        {
+            int pointCount = sample.optional.length + sample.support.length;
+
+            if(pointCount < p)
+            {
+                return null;
+            }
+
+            for(int attempt = 0; attempt < MAXIMAL_ELEMENTAL_ATTEMPTS; attempt++)
+            {
+                for(int j = 0; j<p; j++)
+                {
+                    int position;
+                    boolean repeated;
+                    do
+                    {
+                        position = random.nextInt(pointCount);
+                        repeated = false;
+                        for(int l = 0; l<j; l++)
+                        {
+                            repeated = repeated || elementalPositions[l] == position;
+                        }
+                    }
+                    while(repeated);
+
+                    elementalPositions[j] = position;
+
+                    int point = sample.getPoint(position);
+                    System.arraycopy(problem.basis[point], 0, elementalMatrix[j], 0, p);
+                    elementalOrdinates[j] = problem.ordinates[point];
+                }
+
+                LUDecomposition decomposition = new LUDecomposition(new Matrix(elementalMatrix, p, p));
+                if(decomposition.isNonsingular())
+                {
+                    double[] coefficients = decomposition.solve(new Matrix(elementalOrdinates, p)).getRowPackedCopy();
+                    if(isFinite(coefficients))
+                    {
+                        return coefficients;
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        //performs at most stepCount C-steps and returns the improved candidate,
+        //or null if the criterion after the first C-step exceeds abandonmentBound
+        private Candidate concentrate(Sample sample, double[] coefficients, int stepCount, double abandonmentBound)
+        {
+            double[] current = coefficients;
+            double criterion = evaluate(sample, current);
+
+            for(int step = 0; step < stepCount; step++)
+            {
+                double[] next = new double[p];
+                if(!fitCovered(sample, next))
+                {
+                    break;
+                }
+
+                double nextCriterion = evaluate(sample, next);
+                boolean converged = nextCriterion >= criterion*(1 - CONVERGENCE_TOLERANCE);
+
+                if(nextCriterion <= criterion)
+                {
+                    current = next;
+                    criterion = nextCriterion;
+                }
+
+                if(step == 0 && criterion > abandonmentBound)
+                {
+                    return null;
+                }
+
+                if(converged)
+                {
+                    break;
+                }
+            }
+
+            return new Candidate(current, criterion);
+        }
+
+        //computes the squared residuals of the optional points of the sample, moves the covered ones to the beginning of order,
+        //and returns the trimmed sum of squares, including the support points
+        private double evaluate(Sample sample, double[] coefficients)
+        {
+            int m = sample.optional.length;
+
+            for(int i = 0; i<m; i++)
+            {
+                squaredResiduals[i] = problem.getSquaredResidual(sample.optional[i], coefficients);
+                order[i] = i;
+            }
+
+            selectSmallest(order, squaredResiduals, m, sample.coverage);
+
+            double criterion = 0;
+            for(int i = 0; i<sample.coverage; i++)
+            {
+                criterion += squaredResiduals[order[i]];
+            }
+            for(int point : sample.support)
+            {
+                criterion += problem.getSquaredResidual(point, coefficients);
+            }
+
+            return criterion;
+        }
+
+        //least squares fit to the covered points, as selected by the last call to evaluate()
+        private boolean fitCovered(Sample sample, double[] result)
+        {
+            for(int k = 0; k<p; k++)
+            {
+                Arrays.fill(normalMatrix[k], 0);
+            }
+            Arrays.fill(normalOrdinates, 0);
+
+            for(int i = 0; i<sample.coverage; i++)
+            {
+                addToNormalEquations(sample.optional[order[i]]);
+            }
+            for(int point : sample.support)
+            {
+                addToNormalEquations(point);
+            }
+
+            for(int k = 0; k<p; k++)
+            {
+                for(int l = 0; l<k; l++)
+                {
+                    normalMatrix[l][k] = normalMatrix[k][l];
+                }
+            }
+
+            CholeskyDecomposition decomposition = new CholeskyDecomposition(new Matrix(normalMatrix, p, p));
+            if(!decomposition.isSPD())
+            {
+                return false;
+            }
+
+            double[] coefficients = decomposition.solve(new Matrix(normalOrdinates, p)).getRowPackedCopy();
+            if(!isFinite(coefficients))
+            {
+                return false;
+            }
+
+            System.arraycopy(coefficients, 0, result, 0, p);
+            return true;
+        }
+
+        private void addToNormalEquations(int point)
+        {
+            double[] row = problem.basis[point];
+            double y = problem.ordinates[point];
+
+            if(Double.isNaN(y) || !isFinite(row))
+            {
+                return;
+            }
+
+            for(int k = 0; k<p; k++)
+            {
+                double[] normalRow = normalMatrix[k];
+                double bk = row[k];
+
+                for(int l = 0; l<=k; l++)
+                {
+                    normalRow[l] += bk*row[l];
+                }
+
+                normalOrdinates[k] += bk*y;
+            }
+        }
+
+        private static boolean isFinite(double[] values)
+        {
+            for(double v : values)
+            {
+                if(Double.isNaN(v) || Double.isInfinite(v))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    //rearranges the first length elements of order, so that the first k of them are the indices of the k smallest keys
+    private static void selectSmallest(int[] order, double[] keys, int length, int k)
+    {
+        if(k <= 0 || k >= length)
+        {
+            return;
+        }
+
+        int target = k - 1;
+        int left = 0;
+        int right = length - 1;
+
+        while(right > left)
+        {
+            double pivot = medianOfThree(keys[order[left]], keys[order[(left + right) >>> 1]], keys[order[right]]);
+
+            int i = left;
+            int j = right;
+
+            while(i <= j)
+            {
+                while(keys[order[i]] < pivot) {i++;}
+                while(keys[order[j]] > pivot) {j--;}
+
+                if(i <= j)
+                {
+                    int swap = order[i];
+                    order[i] = order[j];
+                    order[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+
+            if(target <= j)
+            {
+                right = j;
+            }
+            else if(target >= i)
+            {
+                left = i;
+            }
+            else
+            {
+                break;
+            }
+        }
+    }
+
+    private static double medianOfThree(double a, double b, double c)
+    {
+        if(a < b)
+        {
+            return b < c ? b : (a < c ? c : a);
+        }
+        return a < c ? a : (b < c ? c : b);
+    }
+}
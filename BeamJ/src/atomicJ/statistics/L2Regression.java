@@ -22,6 +22,7 @@ import org.apache.commons.math3.analysis.UnivariateFunction;
 import org.jblas.DoubleMatrix;
 import org.jblas.Solve;
 
+import atomicJ.data.FlatArray2D;
 import atomicJ.functions.IntegerPowerFunction;
 import atomicJ.functions.Line;
 import atomicJ.functions.Polynomial;
@@ -202,6 +203,47 @@ public class L2Regression implements LinearRegressionEsimator
         return functions;
     }
 
+    //fits each row of the array, reading the values in place with the strides of the array, so that rows
+    //and columns of flat images (the latter through the transposed view) are fitted without copying them
+    public static UnivariateFunction[] performRegressionsOnEquispacedLines(FlatArray2D lines, int deg) 
+    {
+        int n = lines.getRowCount();
+        int columnCount = lines.getColumnCount();
+
+        double[] values = lines.getValues();
+        int columnStride = lines.getColumnStride();
+
+        UnivariateFunction[] functions = new UnivariateFunction[n];
+
+        double[][] coeffs = SavitzkyGolay.getCoefficients(0, columnCount - 1, deg);
+
+        int p = deg + 1;
+
+        for(int i = 0; i<n;i++)
+        {
+            double[] parameters = new double[p];
+
+            int rowIndex = lines.getIndex(i, 0);
+
+            for(int j = 0; j<p; j++)
+            {
+                double par = 0;
+                double[] coeffsForDeg = coeffs[j];
+
+                for(int k = 0, index = rowIndex; k<columnCount; k++, index += columnStride)
+                {
+                    par += values[index]*coeffsForDeg[k];
+                }
+
+                parameters[j] = par;
+            }
+
+            functions[i] = getPolynomialFunction(parameters, deg, true);
+        }
+
+        return functions;
+    }
+
     public static L2Regression findFitNative(double[][] data,int deg, boolean constant)
     {
         return findFitNative(data, RegressionUtilities.getModel(deg, constant));     
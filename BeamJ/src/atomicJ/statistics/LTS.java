@@ -25,12 +25,11 @@ import org.jfree.data.Range;
 import atomicJ.functions.*;
 import atomicJ.utilities.*;
 
-import Jama.LUDecomposition;
-import Jama.Matrix;
-
 public class LTS implements HighBreakdownEstimator
 {
-    private static final double TOLERANCE = 1e-14; 
+    private static final double[] CONSTANT = new double[] {0};
+    private static final double[] BARE_QUADRATIC = new double[] {2};
+    private static final double[] SESQUILINEAR = new double[] {1.5};
     private static final double[] LINEAR = new double[] {0,1};
     private static final double[] LINEAR_INTERCEPTLESS = new double[] {1};
     private static final double[] QUADRATIC = new double[] {0,1,2};
@@ -103,73 +102,25 @@ public class LTS implements HighBreakdownEstimator
         this.coveredCount = c;
     }
 
+    //all the models are linear in their parameters, so the fits are found by FastLTS, and only the type of the fitted function differs
+
     private static LTS findLinearFit(double[][] data, boolean constant, double h, int nstarts)
     {
         int n = data.length;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        FittedLinearUnivariateFunction bestFit = null;
-        Random random = new Random();
-        double bestIntercept = 0;
-        double bestSlope = 0;
-
         if(constant)
         {
-            for(int i = 0;i<nstarts;i++)
-            {
-                double x0,x1,y0,y1;
-
-                double[] p = data[random.nextInt(n)];
-                x0 = p[0];y0 = p[1];            
-                p = data[random.nextInt(n)];
-                x1 = p[0];y1 = p[1];            
-                double denomin = (x0 - x1);
-                if(Math.abs(denomin)>TOLERANCE)
-                {
-                    double a = (x0*y1 - x1*y0)/denomin;
-                    double b = (y0 - y1)/denomin;
-                    Line exactFit = new Line(a,b);
-                    double crit = exactFit.trimmedSquares(data,residualsSqrt, c);
-
-                    if(crit<lowestCriterion)
-                    {
-                        lowestCriterion = crit;
-                        bestIntercept = a;
-                        bestSlope = b;
-                    };
-                }       
-            }
-            bestFit = new Line(bestIntercept,bestSlope);
-        }
-        else
-        {
-            for(int i = 0;i<nstarts;i++)
-            {
-                double[] p = data[random.nextInt(n)];
+            FastLTS fastFit = FastLTS.findFit(data, LINEAR, c, nstarts);
+            FittedLinearUnivariateFunction bestFit = new Line(fastFit.getCoefficient(0), fastFit.getCoefficient(1));
 
-                double x0 = p[0];
-                double y0 = p[1]; 
+            return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), c);
+        }
 
-                if(Math.abs(x0)>TOLERANCE)
-                {
-                    double a = y0/x0;
-                    InterceptlessLine exactFit = new InterceptlessLine(a);
-                    double crit = exactFit.trimmedSquares(data,residualsSqrt, c);
-
-                    if(crit<lowestCriterion)
-                    {
-                        lowestCriterion = crit;
-                        bestSlope = a;
-                    };
-                }
+        FastLTS fastFit = FastLTS.findFit(data, LINEAR_INTERCEPTLESS, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new InterceptlessLine(fastFit.getCoefficient(0));
 
-            }
-            bestFit = new InterceptlessLine(bestSlope);
-        }
-        LTS fit = new LTS(data, bestFit, lowestCriterion,c);
-        return fit;
+        return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), c);
     }
 
     public static LTS findConstantFit(double[][] data, double h, int nstarts)
@@ -177,34 +128,10 @@ public class LTS implements HighBreakdownEstimator
         int n = data.length;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        Random random = new Random();
-        double bestA = 0;
+        FastLTS fastFit = FastLTS.findFit(data, CONSTANT, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new Constant(fastFit.getCoefficient(0));
 
-        for(int i = 0;i<nstarts;i++)
-        {
-            double x0,y0;
-
-            double[] p = data[random.nextInt(n)];
-            x0 = p[0];y0 = p[1];            
-            if(Math.abs(x0)>TOLERANCE)
-            {
-                double a = y0/(x0*x0);
-                Constant exactFit = new Constant(a);
-                double crit = exactFit.trimmedSquares(data,residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestA = a;
-                };
-            }
-
-        }
-        FittedLinearUnivariateFunction bestFit = new Constant(bestA);
-        LTS fit = new LTS(data, bestFit, lowestCriterion, c);
-        return fit;
+        return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), c);
     }
 
     private static LTS findBareQuadraticFit(double[][] data, double h, int nstarts)
@@ -212,34 +139,10 @@ public class LTS implements HighBreakdownEstimator
         int n = data.length;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        Random random = new Random();
-        double bestA = 0;
-
-        for(int i = 0;i<nstarts;i++)
-        {
-            double x0,y0;
+        FastLTS fastFit = FastLTS.findFit(data, BARE_QUADRATIC, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new BareQuadratic(fastFit.getCoefficient(0));
 
-            double[] p = data[random.nextInt(n)];
-            x0 = p[0];y0 = p[1];            
-            if(Math.abs(x0)>TOLERANCE)
-            {
-                double a = y0/(x0*x0);
-                BareQuadratic exactFit = new BareQuadratic(a);
-                double crit = exactFit.trimmedSquares(data,residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestA = a;
-                };
-            }
-
-        }
-        FittedLinearUnivariateFunction bestFit = new BareQuadratic(bestA);
-        LTS fit = new LTS(data, bestFit, lowestCriterion, c);
-        return fit;
+        return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), c);
     }
 
     private static LTS findSesquiFit(double[][] data, double h, int nstarts)
@@ -247,34 +150,10 @@ public class LTS implements HighBreakdownEstimator
         int n = data.length;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        Random random = new Random();
-        double bestA = 0;
-
-        for(int i = 0;i<nstarts;i++)
-        {
-            double x0,y0;
-
-            double[] p = data[random.nextInt(n)];
-            x0 = p[0];y0 = p[1];            
-            if(Math.abs(x0) > TOLERANCE)
-            {
-                double a = y0/(x0*Math.sqrt(x0));
-                Sesquilinear exactFit = new Sesquilinear(a);
-                double crit = exactFit.trimmedSquares(data,residualsSqrt, c);
+        FastLTS fastFit = FastLTS.findFit(data, SESQUILINEAR, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new Sesquilinear(fastFit.getCoefficient(0));
 
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestA = a;
-                };
-            }
-
-        }
-        FittedLinearUnivariateFunction bestFit = new Sesquilinear(bestA);
-        LTS fit = new LTS(data, bestFit, lowestCriterion, c);
-        return fit;
+        return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), c);
     }
 
     private static LTS findPowerFit(double[][] data, double exp, double h, int nstarts)
@@ -282,34 +161,10 @@ public class LTS implements HighBreakdownEstimator
         int n = data.length;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        Random random = new Random();
-        double bestA = 0;
-
-        for(int i = 0;i<nstarts;i++)
-        {
-            double x0,y0;
-
-            double[] p = data[random.nextInt(n)];
-            x0 = p[0];y0 = p[1];            
-            if(Math.abs(x0)>TOLERANCE)
-            {
-                double a = y0/Math.pow(x0,exp);
-                PowerFunction exactFit = new PowerFunction(a,exp);
-                double crit = exactFit.trimmedSquares(data,residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestA = a;
-                };
-            }
+        FastLTS fastFit = FastLTS.findFit(data, new double[] {exp}, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new PowerFunction(fastFit.getCoefficient(0), exp);
 
-        }
-        FittedLinearUnivariateFunction bestFit = new PowerFunction(bestA,exp);
-        LTS fit = new LTS(data, bestFit, lowestCriterion, c);
-        return fit;
+        return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), c);
     }
 
     //Constructs an LTS object, which represent quadratic fit, i.e. quadratic function with an intercept is fitted
@@ -318,97 +173,18 @@ public class LTS implements HighBreakdownEstimator
         int n = data.length;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        FittedLinearUnivariateFunction bestFit = null;
-        Random random = new Random();
-
         if(constant)
         {
-            double[][] vandermondData = new double[3][3];
-            double[] ordinates = new double[3];
-            double[] bestFitCoeff = null;
-            double[][] elementalSet = new double[3][2]; 
-
-            for(int i = 0;i<nstarts;i++)
-            {
-                for(int j = 0;j<3;j++)
-                {
-                    int k = random.nextInt(n);
-                    elementalSet[j] = data[k];
-                }
-
-                double[] coeff;
-
-                for(int j = 0;j<3;j++)
-                {
-                    double[] point = elementalSet[j];
-                    double x = point[0];
-                    double y = point[1];
-
-                    double[] row = vandermondData[j];
-                    row[0] = 1;
-                    row[1] = x;
-                    row[2] = x*x;
+            FastLTS fastFit = FastLTS.findFit(data, QUADRATIC, c, nstarts);
+            FittedLinearUnivariateFunction bestFit = new Polynomial(fastFit.getCoefficients());
 
-                    ordinates[j] = y;
-                }
-
-                Matrix vandermondMatrix = new Matrix(vandermondData, 3, 3);
-
-                LUDecomposition decomp = new LUDecomposition(vandermondMatrix);
-                if(decomp.isNonsingular())
-                {
-                    Matrix coeffMatrix = decomp.solve(new Matrix(ordinates,3));
-                    coeff = coeffMatrix.getRowPackedCopy();
-
-                    Quadratic exactFit = new Quadratic(coeff[0],coeff[1],coeff[2]);
-                    double crit = exactFit.trimmedSquares(data, residualsSqrt, c);
-
-                    if(crit<lowestCriterion)
-                    {
-                        lowestCriterion = crit;
-                        bestFitCoeff = coeff;
-                    }
-                }
-
-            }
-            bestFit = new Polynomial(bestFitCoeff);
+            return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), c);
         }
-        else
-        {
-            double bestA = 0;
-            double bestB = 0;
 
-            for(int i = 0;i<nstarts;i++)
-            {
-                double x0,x1,y0,y1;
-
-                double[] p = data[random.nextInt(n)];
-                x0 = p[0];y0 = p[1];            
-                p = data[random.nextInt(n)];
-                x1 = p[0];y1 = p[1];            
-                double denomin = (x0*(x0 - x1)*x1);
-                if(Math.abs(denomin)>TOLERANCE)
-                {
-                    double a = (-x1*x1*y0 + x0*x0*y1)/denomin;
-                    double b = ((x1*y0 - x0*y1)/denomin);
-                    InterceptlessQuadratic exactFit = new InterceptlessQuadratic(a,b);
-                    double crit = exactFit.trimmedSquares(data,residualsSqrt, c);
-
-                    if(crit<lowestCriterion)
-                    {
-                        lowestCriterion = crit;
-                        bestA = a;
-                        bestB = b;
-                    };
-                }
+        FastLTS fastFit = FastLTS.findFit(data, QUADRATIC_INTERCEPTLESS, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new Polynomial(new double[] {0, fastFit.getCoefficient(0), fastFit.getCoefficient(1)});
 
-            }
-            bestFit = new Polynomial(new double[] {0, bestA,bestB});
-        }
-        LTS fit = new LTS(data, bestFit, lowestCriterion, c);
-        return fit;
+        return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), c);
     }
 
     private static LTS findPolynomialFit(double[][] data,int p, double h, int nstarts)
@@ -416,131 +192,27 @@ public class LTS implements HighBreakdownEstimator
         int n = data.length;
         int c = (int)Math.min(n, h*n);
 
-        Random random = new Random();
-
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] ordinates = new double[p];
-        double[] bestFitCoeff = null;
-        double[] residualsSqrt = new double[n];
-        double[][] elementalSet = new double[p][2];
-        double[][] vandermondData = new double[p][p];
-
-
-        for(int i = 0;i<nstarts;i++)
+        double[] model = new double[p];
+        for(int k = 0; k<p; k++)
         {
-            for(int j = 0;j<p;j++)
-            {
-                int k = random.nextInt(n);
-                elementalSet[j] = data[k];
-            }
-
-            double[] coeff;
-
-            for(int j = 0;j<p;j++)
-            {
-                double[] point = elementalSet[j];
-                double x = point[0];
-                double y = point[1];
-
-                ordinates[j] = y;
-
-                double[] row = vandermondData[j];
-                row[0] = 1;
-                row[1] = x;
-                for(int k = 2;k<p;k++)
-                {
-                    row[k] = x*row[k - 1];
-                }
-            }
-            Matrix vandermondMatrix = new Matrix(vandermondData, p, p);
-            LUDecomposition decomp = new LUDecomposition(vandermondMatrix);
-            if(decomp.isNonsingular())
-            {
-                Matrix coeffMatrix = decomp.solve(new Matrix(ordinates,p));
-                coeff = coeffMatrix.getRowPackedCopy();
-
-                double crit =  Polynomial.trimmedSquares(data,coeff, p-1,residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestFitCoeff = coeff;
-                }
-            }
-
+            model[k] = k;
         }
-        FittedLinearUnivariateFunction bestFit = new Polynomial(bestFitCoeff);;
 
-        LTS fit = new LTS(data, bestFit, lowestCriterion, c);
-        return fit;
+        FastLTS fastFit = FastLTS.findFit(data, model, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new Polynomial(fastFit.getCoefficients());
+
+        return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), c);
     }
 
     private static LTS findPowerFunctionsCombinationFit(double[][] data, double[] model, double h, int nstarts)
     {
-
         int n = data.length;
-        int p = model.length;
         int coverage = (int)Math.min(n, h*n);
 
-        List<double[]> points = Arrays.asList(data);        
-
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        PowerFunctionCombination bestFit = null;
-        Random random = new Random();
-
-        for(int i = 0;i<nstarts;i++)
-        {
-
-            for(int j = 0;j<p;j++)
-            {
-                int k = random.nextInt(n);
-                Collections.swap(points, j, k);
-            }
-
-            List<double[]> elementalSet = points.subList(0, p);         
-
-            double[][] matrixData1 = new double[p][p];
-            double[] matrixData2 = new double[p];
-            double[] coeff;
-
-            for(int j = 0;j<p;j++)
-            {
-                double[] point = elementalSet.get(j);
-                double x = point[0];
-                double y = point[1];
-
-                matrixData2[j] = y;
+        FastLTS fastFit = FastLTS.findFit(data, model, coverage, nstarts);
+        FittedLinearUnivariateFunction bestFit = new PowerFunctionCombination(model, fastFit.getCoefficients());
 
-                for(int k = 0;k<p;k++)
-                {
-                    double e = model[k];
-                    matrixData1[j][k] = Math.pow(x, e);
-                }
-            }
-            Matrix matrixTest = new Matrix(matrixData1, p, p);
-            LUDecomposition decomp = new LUDecomposition(matrixTest);
-            if(decomp.isNonsingular())
-            {
-                Matrix coeffMatrix = decomp.solve(new Matrix(matrixData2,p));
-                coeff = coeffMatrix.getRowPackedCopy();
-                PowerFunctionCombination elementalFit = new PowerFunctionCombination(model, coeff);;
-                Collections.sort(points,new ResidualsComparator(elementalFit));
-                double crit = 0;
-                for(int j = 0;j<coverage;j++)
-                {
-                    double r = elementalFit.residual(points.get(j));
-                    double r2 = r*r;
-                    crit = crit + r2;
-                }
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestFit = elementalFit;
-                }
-            }       
-        }   
-        LTS fit = new LTS(data, bestFit, lowestCriterion, coverage);
-        return fit; 
+        return new LTS(data, bestFit, fastFit.getObjectiveFunctionMinimum(), coverage);
     }
 
 
@@ -1,14 +1,36 @@
 package atomicJ.statistics;
 
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 
 import atomicJ.data.IndexRange;
 import atomicJ.utilities.ArrayUtilities;
+import atomicJ.utilities.ComputeScheduler;
 import atomicJ.utilities.MathUtilities;
 
+//the local polynomial of each window is fitted by solving the (degree + 1) x (degree + 1) normal equations built from weighted moments
+//of the abscissae, centered at the point and scaled by the window radius, instead of a weighted least squares problem of the whole window
+//if the abscissae are equally spaced and the robustness weights are all equal, as in the first iteration, the fitted value is
+//a convolution of the ordinates with a kernel, which depends only on the position of the point in its window, so the kernels are computed
+//once for each such position and reused by all windows, as in SavitzkyGolay1DKernel
+//the windows are fitted in blocks of indices, which run in parallel for long data
 public class LocalRegression
 {
+    //the fits are run by the calling thread if they involve fewer points of windows than this
+    private static final long MINIMAL_CONCURRENT_WORK = 1 << 18;
+    private static final int MINIMAL_BLOCK_SIZE = 1024;
+    //the relative tolerance of the spacing of abscissae, within which they are treated as equally spaced
+    private static final double SPACING_TOLERANCE = 1e-6;
+
     public static double[][] smooth(double[][] data, SpanGeometry spanGeometry, int windowWidthInPoints, int robustnessIters, double accuracy, int degree, LocalRegressionWeightFunction weightFunction)
     {
         int n = data.length;
@@ -17,101 +39,40 @@ public class LocalRegression
             return data;
         }
 
-        double[][] smoothed = new double[n][2];
-
-        double[] absResiduals = new double[n];
+        double[] xs = ArrayUtilities.getColumn(data, 0);
+        double[] ys = ArrayUtilities.getColumn(data, 1);
 
-        double[] robustnessWeights = new double[n];
-        Arrays.fill(robustnessWeights, 1);
+        int[] lefts = new int[n];
+        int[] rights = new int[n];
 
-        double[] weights = new double[windowWidthInPoints];        
+        int ileft = 0;
+        int iright = windowWidthInPoints - 1;
 
-        for (int iter = 0; iter <= robustnessIters; iter++)
+        for (int i = 0; i < n; ++i)
         {
-            int ileft = 0;
-            int iright = windowWidthInPoints - 1;
-
-            for (int i = 0; i < n; ++i)
-            {
-                double[] currentPoint = data[i];
-
-                double x = currentPoint[0];
-                double y = currentPoint[1];
-
-                //updates fitting range
-
-                IndexRange indexRangeNew = spanGeometry.getNextRange(data, n, i, ileft, iright, windowWidthInPoints);
-                ileft = indexRangeNew.getMinIndex();
-                iright = indexRangeNew.getMaxIndex();
-
-                double leftDistance = Math.abs(x - data[ileft][0]);
-                double rightDistance = Math.abs(data[iright][0] - x);
-
-                double maxDistance = Math.max(leftDistance,rightDistance);
-
-                boolean maxDistanceNonZero = !MathUtilities.equalWithinTolerance(0, maxDistance, 1e-15);
-
-                if(maxDistanceNonZero && (iright - ileft + 1) > degree)
-                {
-                    for (int k = ileft, w = 0; k <= iright; ++k, ++w) //loop over whole bandwith
-                    {
-                        double dist = Math.abs(x - data[k][0]); //absolute value of distance from center x to the current point of the bandwidth                
-
-                        weights[w] = weightFunction.value(dist/maxDistance) * robustnessWeights[k]; // weight
-                    }
-                }
-                else
-                {
-                    weights = Arrays.copyOf(robustnessWeights, robustnessWeights.length);                  
-                }
-
-                //there must be one more points then the degree, because there is always a point with weight 0
-                int fitDegree = maxDistanceNonZero && (iright - ileft + 1) > degree + 1 ? degree : 0;
-
-                //                containsAtLeastNNonZero(weights, fitDegree + 1, 1e-9)
-                double fittedValue = y;
-                try
-                {
-                    fittedValue = L2Regression.findFitedFunction(data, ileft, iright + 1, weights, fitDegree).value(x); 
-
-                    if(Double.isNaN(fittedValue))
-                    {
-                        fittedValue = y;
-                    }
-                }
-                catch(Exception e) //happens when the rank of design matrix is too small, but I don't want to calculate it beforehand for performance reasons
-                {
-                }
-
-                smoothed[i][0] = x;
-                smoothed[i][1] = fittedValue;
-
-                absResiduals[i] = Math.abs(y - fittedValue);
-            }
+            //updates fitting range
 
-            if (iter == robustnessIters) {
-                break;
-            }
+            IndexRange indexRangeNew = spanGeometry.getNextRange(data, n, i, ileft, iright, windowWidthInPoints);
+            ileft = indexRangeNew.getMinIndex();
+            iright = indexRangeNew.getMaxIndex();
 
-            double medianAbsResidual = DescriptiveStatistics.median(absResiduals);
+            lefts[i] = ileft;
+            rights[i] = iright;
+        }
 
-            if (medianAbsResidual < accuracy) {
-                break;
-            }
+        double[] fitted = smooth(xs, ys, lefts, rights, robustnessIters, accuracy, degree, weightFunction);
 
-            for (int i = 0; i < n; i++)
-            {
-                double arg = absResiduals[i] / (6 * medianAbsResidual);
-                robustnessWeights[i] = LocalRegressionWeightFunction.BISQUARE.value(arg);
-            }
+        double[][] smoothed = new double[n][];
+        for(int i = 0; i < n; i++)
+        {
+            smoothed[i] = new double[] {xs[i], fitted[i]};
         }
 
         return smoothed;
     }
 
-
     public static double[][] smooth(double[][] data, SpanGeometry spanGeometry, int bandwidthInPoints, int degree, int derivative, LocalRegressionWeightFunction weightFunction)
-    {        
+    {
         int n = data.length;
         if(n == 0)
         {
@@ -123,59 +84,38 @@ public class LocalRegression
             throw new IllegalArgumentException("The polynomial degree should be equal or greater the derivative");
         }
 
-        if (Math.min(n, bandwidthInPoints) <= derivative) 
+        if (Math.min(n, bandwidthInPoints) <= derivative)
         {
             throw new IllegalArgumentException("Too few points available in bandwidth to calculate derivative");
         }
 
-        double[][] smoothed = new double[n][2];
+        double[] xs = ArrayUtilities.getColumn(data, 0);
+        double[] ys = ArrayUtilities.getColumn(data, 1);
 
-        double[] weights = new double[bandwidthInPoints];        
+        int[] lefts = new int[n];
+        int[] rights = new int[n];
 
         int ileft = 0;
         int iright = bandwidthInPoints - 1;
 
         for (int i = 0; i < n; ++i)
         {
-            double[] currentPoint = data[i];
-
-            double x = currentPoint[0];
-            double y = currentPoint[1];
-
-            //updates fitting range
-
             IndexRange indexRangeNew = spanGeometry.getNextRange(data, n, i, ileft, iright, bandwidthInPoints);
             ileft = indexRangeNew.getMinIndex();
             iright = indexRangeNew.getMaxIndex();
 
-            double leftDistance = Math.abs(x - data[ileft][0]);
-            double rightDistance = Math.abs(data[iright][0] - x);
-
-            double maxDistance = Math.max(leftDistance,rightDistance);
-
-            boolean maxDistanceNonZero = !MathUtilities.equalWithinTolerance(0, maxDistance, 1e-15);
-
-            if(maxDistanceNonZero)
-            {
-                for (int k = ileft, w = 0; k <= iright; ++k, ++w) //loop over whole bandwith
-                {
-                    double dist = Math.abs(x - data[k][0]); //absolute value of distance from center x to the current point of the bandwidth                
-                    weights[w] = weightFunction.value(dist/maxDistance); // weight
-                }
-            }
-
-            int fitDegree = maxDistanceNonZero ? degree : 0;
+            lefts[i] = ileft;
+            rights[i] = iright;
+        }
 
-            double derValue = y;
-            try
-            {
-                derValue = L2Regression.findFitedFunction(data, ileft, iright + 1, weights, fitDegree).getDerivative(derivative).value(x);
-            }
-            catch(Exception e) //happens when the rank of design matrix is too small, but I don't want to calculate it beforehand for performance reasons
-            {}
+        double[] derivatives = fitAll(xs, ys, lefts, rights, null, degree, derivative, weightFunction);
 
-            smoothed[i][0] = x;
-            smoothed[i][1] = derValue;
+        double[][] smoothed = new double[n][];
+        for(int i = 0; i < n; i++)
+        {
+            //the ordinate is returned if the fit cannot be found, as the rank of the design matrix is too small
+            double derValue = Double.isNaN(derivatives[i]) ? ys[i] : derivatives[i];
+            smoothed[i] = new double[] {xs[i], derValue};
         }
 
         return smoothed;
@@ -183,7 +123,7 @@ public class LocalRegression
 
 
     public static double[] getDerivative(double[][] data, int index, SpanGeometry spanGeometry, int bandwidthInPoints, int degree, int derivative, LocalRegressionWeightFunction weightFunction)
-    {        
+    {
         IndexRange indexRange = spanGeometry.getRange(data, data.length, index, bandwidthInPoints);
 
         int ileft = indexRange.getMinIndex();
@@ -193,7 +133,7 @@ public class LocalRegression
     }
 
     public static double[] getDerivative(double[][] data, int index, int ileft, int iright, int degree, int derivative, LocalRegressionWeightFunction weightFunction)
-    {        
+    {
         int n = data.length;
         if(n == 0)
         {
@@ -207,7 +147,7 @@ public class LocalRegression
             throw new IllegalArgumentException("The polynomial degree should be equal or greater the derivative");
         }
 
-        if (Math.min(n, bandwidthInPoints) <= derivative) 
+        if (Math.min(n, bandwidthInPoints) <= derivative)
         {
             throw new IllegalArgumentException("Too few points available in bandwidth to calculate derivative");
         }
@@ -222,25 +162,16 @@ public class LocalRegression
 
         boolean maxDistanceNonZero = !MathUtilities.equalWithinTolerance(0, maxDistance, 1e-15);
 
-        double[] weights = new double[bandwidthInPoints];        
-
         if(maxDistanceNonZero)
         {
-            for (int k = ileft, w = 0; k <= iright; ++k, ++w) //loop over whole bandwidth
-            {
-                double dist = Math.abs(x - data[k][0]); //absolute value of distance from center x to the current point of the bandwidth                
-                weights[w] = weightFunction.value(dist/maxDistance); // weight
-            }
+            //only the points of the window are copied, so that the cost does not depend on the length of data
+            double[][] window = Arrays.copyOfRange(data, ileft, iright + 1);
 
-            int fitDegree = maxDistanceNonZero ? degree : 0;
+            WindowFitter fitter = new WindowFitter(ArrayUtilities.getColumn(window, 0), ArrayUtilities.getColumn(window, 1), degree, derivative, weightFunction, Double.NaN);
+            double fittedValue = fitter.fit(index - ileft, 0, iright - ileft, null);
 
-            double derValue = derivative > 0 ? Double.NaN : y; // defaults, used when fitted funcion cannot be found, i.e. there is an exception thrown below
-            try
-            {
-                derValue = L2Regression.findFitedFunction(data, ileft, iright + 1, weights, fitDegree).getDerivative(derivative).value(x);
-            }
-            catch(Exception e) //happens when the rank of design matrix is too small, but I don't want to calculate it beforehand for performance reasons
-            {}
+            // defaults, used when fitted funcion cannot be found
+            double derValue = Double.isNaN(fittedValue) ? (derivative > 0 ? Double.NaN : y) : fittedValue;
 
             return new double[] {x, derValue};
         }
@@ -263,47 +194,52 @@ public class LocalRegression
             return data;
         }
 
-        double[] smoothed = new double[n];
-
-        double[] absResiduals = new double[n];
+        //the abscissae are the indices, h would cancel out in the weights
+        double[] xs = new double[n];
+        for(int i = 0; i < n; i++)
+        {
+            xs[i] = i;
+        }
 
-        double[] robustnessWeights = new double[n];
-        Arrays.fill(robustnessWeights, 1);
+        int[] lefts = new int[n];
+        int[] rights = new int[n];
 
-        double[] weights = new double[bandwidthInPoints];        
+        int ileft = 0;
+        int iright = bandwidthInPoints - 1;
 
-        for (int iter = 0; iter <= robustnessIters; iter++)
+        for (int i = 0; i < n; ++i)
         {
-            int ileft = 0;
-            int iright = bandwidthInPoints - 1;
-
-            for (int i = 0; i < n; ++i)
-            {
-                double y = data[i];
+            IndexRange indexRangeNew = spanGeometry.getNextRange(data, n, i, ileft, iright, bandwidthInPoints);
+            ileft = indexRangeNew.getMinIndex();
+            iright = indexRangeNew.getMaxIndex();
 
-                //updates fitting range
+            lefts[i] = ileft;
+            rights[i] = iright;
+        }
 
-                IndexRange indexRangeNew = spanGeometry.getNextRange(data, n, i, ileft, iright, bandwidthInPoints);
-                ileft = indexRangeNew.getMinIndex();
-                iright = indexRangeNew.getMaxIndex();
+        return smooth(xs, data, lefts, rights, robustnessIters, accuracy, degree, weightFunction);
+    }
 
-                double leftDistance = Math.abs(i - ileft); //it is really h times greater, but we will skip h in denom and dist variables, ad there would cancel out in weightFunction.value()
-                double rightDistance = Math.abs(i - iright);
+    private static double[] smooth(double[] xs, double[] ys, int[] lefts, int[] rights, int robustnessIters, double accuracy, int degree, LocalRegressionWeightFunction weightFunction)
+    {
+        int n = ys.length;
 
-                double denom = 1./Math.max(leftDistance,rightDistance);
+        double[] smoothed = new double[n];
+        double[] absResiduals = new double[n];
 
-                for (int k = ileft, w = 0; k <= iright; ++k, ++w) //loop over whole bandwith
-                {
-                    double dist = Math.abs(i - k); //absolute value of distance from center x to the current point of the bandwidth                
+        //null as long as all the robustness weights are equal to 1
+        double[] robustnessWeights = null;
 
-                    double weight = weightFunction.value(dist * denom) * robustnessWeights[k]; // waga                    
-                    weights[w] = weight;
-                }
+        for (int iter = 0; iter <= robustnessIters; iter++)
+        {
+            double[] fitted = fitAll(xs, ys, lefts, rights, robustnessWeights, degree, 0, weightFunction);
 
-                double fittedValue = ArrayUtilities.containsAtLeastNNonZero(weights, degree + 1, 1e-9)  ? L2Regression.findFitedFunction(data, ileft, iright + 1, weights, degree).value(i) : y;
+            for (int i = 0; i < n; i++)
+            {
+                double y = ys[i];
+                double fittedValue = Double.isNaN(fitted[i]) ? y : fitted[i];
 
                 smoothed[i] = fittedValue;
-
                 absResiduals[i] = Math.abs(y - fittedValue);
             }
 
@@ -317,6 +253,7 @@ public class LocalRegression
                 break;
             }
 
+            robustnessWeights = new double[n];
             for (int i = 0; i < n; i++)
             {
                 double arg = absResiduals[i] / (6 * medianAbsResidual);
@@ -326,4 +263,395 @@ public class LocalRegression
 
         return smoothed;
     }
+
+    //returns the values of the derivative of the local polynomials at the points, or NaN where the fit cannot be found
+    private static double[] fitAll(double[] xs, double[] ys, int[] lefts, int[] rights, double[] robustnessWeights, int degree, int derivative, LocalRegressionWeightFunction weightFunction)
+    {
+        int n = ys.length;
+        double[] fitted = new double[n];
+
+        double increment = (robustnessWeights == null) ? getIncrement(xs) : Double.NaN;
+
+        long work = 0;
+        for(int i = 0; i < n; i++)
+        {
+            work += rights[i] - lefts[i] + 1;
+        }
+
+        int maxTaskNumber = ComputeScheduler.getInstance().getThreadCount();
+        int taskNumber = Math.min(maxTaskNumber, Math.max(1, n/MINIMAL_BLOCK_SIZE));
+
+        if(taskNumber < 2 || work < MINIMAL_CONCURRENT_WORK)
+        {
+            new FitBlock(xs, ys, lefts, rights, robustnessWeights, degree, derivative, weightFunction, increment, 0, n, fitted).call();
+            return fitted;
+        }
+
+        ExecutorService executor = ComputeScheduler.getInstance().newTaskExecutor("Local regression", ComputeScheduler.Priority.BATCH, taskNumber);
+
+        List<FitBlock> blocks = new ArrayList<>();
+
+        int basicBlockSize = n/taskNumber;
+        int remainder = n%taskNumber;
+        int currentIndex = 0;
+
+        for(int k = 0; k < taskNumber; k++)
+        {
+            int blockSize = (k < remainder) ? basicBlockSize + 1 : basicBlockSize;
+            blocks.add(new FitBlock(xs, ys, lefts, rights, robustnessWeights, degree, derivative, weightFunction, increment, currentIndex, currentIndex + blockSize, fitted));
+            currentIndex += blockSize;
+        }
+
+        try
+        {
+            CompletionService<Void> completionService = new ExecutorCompletionService<>(executor);
+
+            for(FitBlock block : blocks)
+            {
+                completionService.submit(block);
+            }
+            for(int k = 0; k < blocks.size(); k++)
+            {
+                completionService.take().get();
+            }
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            e.printStackTrace();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        return fitted;
+    }
+
+    //returns the increment of the abscissae, if they are equally spaced, or NaN otherwise
+    private static double getIncrement(double[] xs)
+    {
+        int n = xs.length;
+
+        if(n < 2)
+        {
+            return Double.NaN;
+        }
+
+        double increment = (xs[n - 1] - xs[0])/(n - 1);
+
+        if(increment == 0 || Double.isNaN(increment) || Double.isInfinite(increment))
+        {
+            return Double.NaN;
+        }
+
+        double tolerance = SPACING_TOLERANCE*Math.abs(increment);
+
+        for(int i = 1; i < n; i++)
+        {
+            if(Math.abs(xs[i] - xs[i - 1] - increment) > tolerance)
+            {
+                return Double.NaN;
+            }
+        }
+
+        return increment;
+    }
+
+    private static double factorial(int k)
+    {
+        double factorial = 1;
+        for(int i = 2; i <= k; i++)
+        {
+            factorial *= i;
+        }
+        return factorial;
+    }
+
+    private static class FitBlock implements Callable<Void>
+    {
+        private final int[] lefts;
+        private final int[] rights;
+        private final double[] robustnessWeights;
+        private final int minIndex;
+        private final int maxIndex;
+        private final double[] fitted;
+
+        private final WindowFitter fitter;
+
+        private FitBlock(double[] xs, double[] ys, int[] lefts, int[] rights, double[] robustnessWeights, int degree, int derivative,
+                LocalRegressionWeightFunction weightFunction, double increment, int minIndex, int maxIndex, double[] fitted)
+        {
+            this.lefts = lefts;
+            this.rights = rights;
+            this.robustnessWeights = robustnessWeights;
+            this.minIndex = minIndex;
+            this.maxIndex = maxIndex;
+            this.fitted = fitted;
+
+            this.fitter = new WindowFitter(xs, ys, degree, derivative, weightFunction, increment);
+        }
+
+        @Override
+        public Void call()
+        {
+            for(int i = minIndex; i < maxIndex; i++)
+            {
+                fitted[i] = fitter.fit(i, lefts[i], rights[i], robustnessWeights);
+            }
+
+            return null;
+        }
+    }
+
+    //fits local polynomials to windows of the points, each thread uses its own fitter, as it holds working arrays and the cache of kernels
+    private static class WindowFitter
+    {
+        private final double[] xs;
+        private final double[] ys;
+        private final int degree;
+        private final int derivative;
+        private final LocalRegressionWeightFunction weightFunction;
+        //NaN if the abscissae are not equally spaced
+        private final double increment;
+
+        //kernels are identified by the numbers of points to the left and to the right of the fitted point, an empty kernel means singular fit
+        private final Map<Long, double[]> kernels = new HashMap<>();
+
+        private final double[] moments;
+        private final double[] momentOrdinates;
+        private final double[][] normalMatrix;
+        private final double[] solution;
+
+        private WindowFitter(double[] xs, double[] ys, int degree, int derivative, LocalRegressionWeightFunction weightFunction, double increment)
+        {
+            this.xs = xs;
+            this.ys = ys;
+            this.degree = degree;
+            this.derivative = derivative;
+            this.weightFunction = weightFunction;
+            this.increment = increment;
+
+            int p = degree + 1;
+            this.moments = new double[2*p - 1];
+            this.momentOrdinates = new double[p];
+            this.normalMatrix = new double[p][p + 1];
+            this.solution = new double[p];
+        }
+
+        //the window is from ileft to iright inclusive, robustnessWeights may be null if they are all equal to 1
+        private double fit(int i, int ileft, int iright, double[] robustnessWeights)
+        {
+            double x = xs[i];
+            double maxDistance = Math.max(Math.abs(x - xs[ileft]), Math.abs(xs[iright] - x));
+
+            boolean maxDistanceNonZero = !MathUtilities.equalWithinTolerance(0, maxDistance, 1e-15);
+
+            //windows with too few points are averaged with equal weights
+            boolean weighted = maxDistanceNonZero && (iright - ileft + 1) > degree;
+
+            //there must be one more points then the degree, because there is always a point with weight 0
+            int fitDegree = maxDistanceNonZero && (iright - ileft + 1) > degree + 1 ? degree : 0;
+
+            //the derivative of the local constant
+            if(fitDegree < derivative)
+            {
+                return 0;
+            }
+
+            if(robustnessWeights == null && !Double.isNaN(increment) && weighted)
+            {
+                double[] kernel = getKernel(i - ileft, iright - i, fitDegree);
+
+                if(kernel.length == 0)
+                {
+                    return Double.NaN;
+                }
+
+                double value = 0;
+                for(int k = ileft, w = 0; k <= iright; k++, w++)
+                {
+                    value += kernel[w]*ys[k];
+                }
+
+                return value;
+            }
+
+            double scale = maxDistanceNonZero ? maxDistance : 1;
+
+            Arrays.fill(moments, 0);
+            Arrays.fill(momentOrdinates, 0);
+
+            int nonZeroCount = 0;
+
+            for(int k = ileft; k <= iright; k++)
+            {
+                double t = (xs[k] - x)/scale;
+
+                double weight = weighted ? weightFunction.value(Math.abs(t)) : 1;
+                if(robustnessWeights != null)
+                {
+                    weight *= robustnessWeights[k];
+                }
+
+                if(weight > 1e-9)
+                {
+                    nonZeroCount++;
+                }
+
+                addToMoments(t, weight, ys[k], fitDegree);
+            }
+
+            if(nonZeroCount <= fitDegree || !solveNormalEquations(fitDegree, derivative))
+            {
+                return Double.NaN;
+            }
+
+            return factorial(derivative)*solution[derivative]/MathUtilities.intPow(scale, derivative);
+        }
+
+        private void addToMoments(double t, double weight, double y, int fitDegree)
+        {
+            double power = weight;
+            for(int a = 0; a <= 2*fitDegree; a++)
+            {
+                moments[a] += power;
+                if(a <= fitDegree)
+                {
+                    momentOrdinates[a] += power*y;
+                }
+                power *= t;
+            }
+        }
+
+        //the kernel, whose scalar product with the ordinates of the window gives the derivative of the local polynomial
+        private double[] getKernel(int leftCount, int rightCount, int fitDegree)
+        {
+            //the point may lie outside its window, so the counts may be negative
+            Long key = (((long)leftCount) << 32) | (rightCount & 0xffffffffL);
+            double[] kernel = kernels.get(key);
+
+            if(kernel != null)
+            {
+                return kernel;
+            }
+
+            int maxCount = Math.max(leftCount, rightCount);
+            int length = leftCount + rightCount + 1;
+            double[] ts = new double[length];
+            double[] weights = new double[length];
+
+            Arrays.fill(moments, 0);
+
+            for(int w = 0; w < length; w++)
+            {
+                double t = Math.signum(increment)*(w - leftCount)/maxCount;
+                ts[w] = t;
+                weights[w] = weightFunction.value(Math.abs(t));
+
+                double power = weights[w];
+                for(int a = 0; a <= 2*fitDegree; a++)
+                {
+                    moments[a] += power;
+                    power *= t;
+                }
+            }
+
+            //the row of the inverse of the moment matrix, which gives the coefficient of t^derivative
+            Arrays.fill(momentOrdinates, 0);
+            momentOrdinates[derivative] = 1;
+
+            if(!solveNormalEquations(fitDegree, -1))
+            {
+                kernel = new double[0];
+            }
+            else
+            {
+                double scale = maxCount*Math.abs(increment);
+                double factor = factorial(derivative)/MathUtilities.intPow(scale, derivative);
+
+                kernel = new double[length];
+                for(int w = 0; w < length; w++)
+                {
+                    double value = 0;
+                    double power = 1;
+                    for(int a = 0; a <= fitDegree; a++)
+                    {
+                        value += solution[a]*power;
+                        power *= ts[w];
+                    }
+
+                    kernel[w] = factor*weights[w]*value;
+                }
+            }
+
+            kernels.put(key, kernel);
+
+            return kernel;
+        }
+
+        //solves the equations with the Hankel matrix of moments and the right hand side momentOrdinates by Gaussian elimination with partial pivoting,
+        //returns false if the matrix is singular
+        private boolean solveNormalEquations(int fitDegree, int requiredCoefficient)
+        {
+            int p = fitDegree + 1;
+
+            for(int r = 0; r < p; r++)
+            {
+                double[] row = normalMatrix[r];
+                for(int c = 0; c < p; c++)
+                {
+                    row[c] = moments[r + c];
+                }
+                row[p] = momentOrdinates[r];
+            }
+
+            double tolerance = 1e-13*Math.abs(moments[0]);
+
+            for(int c = 0; c < p; c++)
+            {
+                int pivot = c;
+                for(int r = c + 1; r < p; r++)
+                {
+                    if(Math.abs(normalMatrix[r][c]) > Math.abs(normalMatrix[pivot][c]))
+                    {
+                        pivot = r;
+                    }
+                }
+
+                if(!(Math.abs(normalMatrix[pivot][c]) > tolerance))
+                {
+                    return false;
+                }
+
+                double[] swap = normalMatrix[c];
+                normalMatrix[c] = normalMatrix[pivot];
+                normalMatrix[pivot] = swap;
+
+                double[] pivotRow = normalMatrix[c];
+                for(int r = c + 1; r < p; r++)
+                {
+                    double[] row = normalMatrix[r];
+                    double factor = row[c]/pivotRow[c];
+                    for(int k = c; k <= p; k++)
+                    {
+                        row[k] -= factor*pivotRow[k];
+                    }
+                }
+            }
+
+            for(int r = p - 1; r >= 0; r--)
+            {
+                double[] row = normalMatrix[r];
+                double value = row[p];
+                for(int k = r + 1; k < p; k++)
+                {
+                    value -= row[k]*solution[k];
+                }
+                solution[r] = value/row[r];
+            }
+
+            boolean finite = requiredCoefficient < 0 || !(Double.isNaN(solution[requiredCoefficient]) || Double.isInfinite(solution[requiredCoefficient]));
+            return finite;
+        }
+    }
 }
@@ -0,0 +1,379 @@
+package atomicJ.statistics;
+
+import java.util.Arrays;
+
+//keeps the median of a window of values, in which single values are replaced while the window slides over the data
+//the values are stored in slots, and replacing the value of a slot takes O(log n) time, where n is the size of the window,
+//instead of the O(n) time needed to select the median of the whole window again
+//the lower half of the values is kept in a max-heap, the upper half in a min-heap, and each slot knows its position in its heap
+//NaN values are ordered after all other values, as in Double.compare()
+//the median of an even number of values is the mean of the two middle values, as in DescriptiveStatistics.median()
+public class SlidingWindowMedian
+{
+    private static final int EMPTY = -1;
+
+    private final double[] values;
+    //for each slot, the position in the lower heap, or -(position + 2) in the upper heap, or EMPTY
+    private final int[] heapPositions;
+
+    private final int[] lowerHeap;
+    private final int[] upperHeap;
+    private int lowerSize;
+    private int upperSize;
+
+    public SlidingWindowMedian(int windowSize)
+    {
+        if(windowSize < 1)
+        {
+            throw new IllegalArgumentException("'windowSize' should be positive");
+        }
+
+        this.values = new double[windowSize];
+        this.heapPositions = new int[windowSize];
+        //during insertion, a heap can hold one value more than half of the window, before the heaps are balanced
+        this.lowerHeap = new int[windowSize/2 + 1];
+        this.upperHeap = new int[windowSize/2 + 1];
+
+        clear();
+    }
+
+    public int getWindowSize()
+    {
+        return values.length;
+    }
+
+    public int getValueCount()
+    {
+        return lowerSize + upperSize;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(heapPositions, EMPTY);
+        lowerSize = 0;
+        upperSize = 0;
+    }
+
+    public double getMedian()
+    {
+        if(lowerSize == 0)
+        {
+            return Double.NaN;
+        }
+
+        double median = (lowerSize > upperSize) ? values[lowerHeap[0]] : 0.5*(values[lowerHeap[0]] + values[upperHeap[0]]);
+        return median;
+    }
+
+    //puts the value into the slot, replacing the value which the slot held before, if any
+    public void set(int slot, double value)
+    {
+        int position = heapPositions[slot];
+
+        values[slot] = value;
+
+        if(position == EMPTY)
+        {
+            insert(slot);
+        }
+        else if(position >= 0)
+        {
+            siftUpLower(position);
+            siftDownLower(heapPositions[slot]);
+        }
+        else
+        {
+            int upperPosition = -position - 2;
+
+            siftUpUpper(upperPosition);
+            siftDownUpper(-heapPositions[slot] - 2);
+        }
+
+        //only one value was changed, so exchanging the tops of the heaps is enough to restore their order
+        if(upperSize > 0 && Double.compare(values[lowerHeap[0]], values[upperHeap[0]]) > 0)
+        {
+            int lowerTop = lowerHeap[0];
+            int upperTop = upperHeap[0];
+
+            lowerHeap[0] = upperTop;
+            heapPositions[upperTop] = 0;
+            upperHeap[0] = lowerTop;
+            heapPositions[lowerTop] = -2;
+
+            siftDownLower(0);
+            siftDownUpper(0);
+        }
+    }
+
+    private void insert(int slot)
+    {
+        double value = values[slot];
+
+        if(lowerSize == 0 || Double.compare(value, values[lowerHeap[0]]) <= 0)
+        {
+            lowerHeap[lowerSize] = slot;
+            heapPositions[slot] = lowerSize;
+            siftUpLower(lowerSize++);
+        }
+        else
+        {
+            upperHeap[upperSize] = slot;
+            heapPositions[slot] = -upperSize - 2;
+            siftUpUpper(upperSize++);
+        }
+
+        //the lower heap holds as many values as the upper one, or one more
+        if(lowerSize > upperSize + 1)
+        {
+            int moved = removeLowerTop();
+            upperHeap[upperSize] = moved;
+            heapPositions[moved] = -upperSize - 2;
+            siftUpUpper(upperSize++);
+        }
+        else if(upperSize > lowerSize)
+        {
+            int moved = removeUpperTop();
+            lowerHeap[lowerSize] = moved;
+            heapPositions[moved] = lowerSize;
+            siftUpLower(lowerSize++);
+        }
+    }
+
+    private int removeLowerTop()
+    {
+        int top = lowerHeap[0];
+
+        lowerSize--;
+        if(lowerSize > 0)
+        {
+            lowerHeap[0] = lowerHeap[lowerSize];
+            heapPositions[lowerHeap[0]] = 0;
+            siftDownLower(0);
+        }
+
+        return top;
+    }
+
+    private int removeUpperTop()
+    {
+        int top = upperHeap[0];
+
+        upperSize--;
+        if(upperSize > 0)
+        {
+            upperHeap[0] = upperHeap[upperSize];
+            heapPositions[upperHeap[0]] = -2;
+            siftDownUpper(0);
+        }
+
+        return top;
+    }
+
+    private void siftUpLower(int position)
+    {
+        int slot = lowerHeap[position];
+        double value = values[slot];
+
+        while(position > 0)
+        {
+            int parent = (position - 1) >> 1;
+            int parentSlot = lowerHeap[parent];
+
+            if(Double.compare(values[parentSlot], value) >= 0)
+            {
+                break;
+            }
+
+            lowerHeap[position] = parentSlot;
+            heapPositions[parentSlot] = position;
+            position = parent;
+        }
+
+        lowerHeap[position] = slot;
+        heapPositions[slot] = position;
+    }
+
+    private void siftDownLower(int position)
+    {
+        int slot = lowerHeap[position];
+        double value = values[slot];
+
+        while(true)
+        {
+            int child = 2*position + 1;
+            if(child >= lowerSize)
+            {
+                break;
+            }
+
+            if(child + 1 < lowerSize && Double.compare(values[lowerHeap[child + 1]], values[lowerHeap[child]]) > 0)
+            {
+                child++;
+            }
+
+            int childSlot = lowerHeap[child];
+            if(Double.compare(values[childSlot], value) <= 0)
+            {
+                break;
+            }
+
+            lowerHeap[position] = childSlot;
+            heapPositions[childSlot] = position;
+            position = child;
+        }
+
+        lowerHeap[position] = slot;
+        heapPositions[slot] = position;
+    }
+
+    private void siftUpUpper(int position)
+    {
+        int slot = upperHeap[position];
+        double value = values[slot];
+
+        while(position > 0)
+        {
+            int parent = (position - 1) >> 1;
+            int parentSlot = upperHeap[parent];
+
+            if(Double.compare(values[parentSlot], value) <= 0)
+            {
+                break;
+            }
+
+            upperHeap[position] = parentSlot;
+            heapPositions[parentSlot] = -position - 2;
+            position = parent;
+        }
+
+        upperHeap[position] = slot;
+        heapPositions[slot] = -position - 2;
+    }
+
+    private void siftDownUpper(int position)
+    {
+        int slot = upperHeap[position];
+        double value = values[slot];
+
+        while(true)
+        {
+            int child = 2*position + 1;
+            if(child >= upperSize)
+            {
+                break;
+            }
+
+            if(child + 1 < upperSize && Double.compare(values[upperHeap[child + 1]], values[upperHeap[child]]) < 0)
+            {
+                child++;
+            }
+
+            int childSlot = upperHeap[child];
+            if(Double.compare(values[childSlot], value) >= 0)
+            {
+                break;
+            }
+
+            upperHeap[position] = childSlot;
+            heapPositions[childSlot] = -position - 2;
+            position = child;
+        }
+
+        upperHeap[position] = slot;
+        heapPositions[slot] = -position - 2;
+    }
+
+    //returns the median of the first count elements of the array, which are reordered,
+    //so that filters which cannot update the window incrementally can reuse one buffer instead of copying the values for each point
+    public static double median(double[] buffer, int count)
+    {
+        if(count == 0)
+        {
+            return Double.NaN;
+        }
+
+        int upperMiddle = count/2;
+        double upper = select(buffer, 0, count - 1, upperMiddle);
+
+        if(count % 2 == 1)
+        {
+            return upper;
+        }
+
+        //after the selection, the elements before upperMiddle are not greater than it, so the lower middle element is their maximum
+        double lower = buffer[0];
+        for(int i = 1; i<upperMiddle; i++)
+        {
+            if(Double.compare(buffer[i], lower) > 0)
+            {
+                lower = buffer[i];
+            }
+        }
+
+        return 0.5*(lower + upper);
+    }
+
+    private static double select(double[] buffer, int left, int right, int k)
+    {
+        while(right > left)
+        {
+            //median of three pivot
+            int middle = (left + right) >>> 1;
+            if(Double.compare(buffer[middle], buffer[left]) < 0)
+            {
+                swap(buffer, middle, left);
+            }
+            if(Double.compare(buffer[right], buffer[left]) < 0)
+            {
+                swap(buffer, right, left);
+            }
+            if(Double.compare(buffer[right], buffer[middle]) < 0)
+            {
+                swap(buffer, right, middle);
+            }
+
+            double pivot = buffer[middle];
+
+            int i = left;
+            int j = right;
+
+            while(i <= j)
+            {
+                while(Double.compare(buffer[i], pivot) < 0)
+                {
+                    i++;
+                }
+                while(Double.compare(buffer[j], pivot) > 0)
+                {
+                    j--;
+                }
+                if(i <= j)
+                {
+                    swap(buffer, i++, j--);
+                }
+            }
+
+            if(k <= j)
+            {
+                right = j;
+            }
+            else if(k >= i)
+            {
+                left = i;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        return buffer[k];
+    }
+
+    private static void swap(double[] buffer, int i, int j)
+    {
+        double temp = buffer[i];
+        buffer[i] = buffer[j];
+        buffer[j] = temp;
+    }
+}
@@ -23,12 +23,11 @@ import java.util.*;
 import atomicJ.functions.*;
 import atomicJ.utilities.*;
 
-import Jama.LUDecomposition;
-import Jama.Matrix;
-
 public class SupportedLTS implements LinearRegressionEsimator
 {
-    private static final double TOLERANCE = 1e-14; 
+    private static final double[] BARE_QUADRATIC = new double[] {2};
+    private static final double[] SESQUILINEAR = new double[] {1.5};
+    private static final double[] SESQUILINEAR_INTERCEPT = new double[] {1.5, 0};
     private static final double[] LINEAR = new double[] {0,1};
     private static final double[] LINEAR_INTERCEPTLESS = new double[] {1};
     private static final double[] QUADRATIC = new double[] {0,1,2};
@@ -117,579 +116,135 @@ public class SupportedLTS implements LinearRegressionEsimator
         this.lowestCriterion = lowestCriterion;
     }	
 
+    //all the models are linear in their parameters, so the fits are found by FastLTS, and only the type of the fitted function differs
+
     private static SupportedLTS findLinearFit(double[][] optional, double[][] support, boolean constant, double h, int nstarts)
     {        
-        double[][] allPoints = ArrayUtilities.join(optional, support);	
         int n = optional.length;
-        int s = support.length;
-        int t = n + s;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        FittedLinearUnivariateFunction bestFit = null;
-        Random random = new Random();
-        double bestIntercept = 0;
-        double bestSlope = 0;
-
         if(constant)
         {
-            for(int i = 0;i<nstarts;i++)
-            {
-                double x0,x1,y0,y1;
-
-                double[] p = allPoints[random.nextInt(t)];
-                x0 = p[0];y0 = p[1];			
-                p = allPoints[random.nextInt(t)];
-                x1 = p[0];y1 = p[1];			
-                double denomin = (x0 - x1);
-                if(Math.abs(denomin)>TOLERANCE)
-                {
-                    double a = (x0*y1 - x1*y0)/denomin;
-                    double b = (-y0 + y1)/denomin;
-                    Line exactFit = new Line(a,b);
-                    double crit = exactFit.trimmedSquares(optional, support,residualsSqrt, c);
-
-                    if(crit<lowestCriterion)
-                    {
-                        lowestCriterion = crit;
-                        bestIntercept = a;
-                        bestSlope = b;
-                    };
-                }
-
-            }
-            bestFit = new Line(bestIntercept,bestSlope);
-        }
-        else
-        {
-            for(int i = 0;i<nstarts;i++)
-            {
-                double x0,y0;
-
-                double[] p = allPoints[random.nextInt(t)];
-                x0 = p[0];y0 = p[1];						
-                if(Math.abs(x0)>TOLERANCE)
-                {
-                    double a = y0/x0;
-                    InterceptlessLine exactFit = new InterceptlessLine(a);
-                    double crit = exactFit.trimmedSquares(optional, support, residualsSqrt, c);
-
-                    if(crit<lowestCriterion)
-                    {
-                        lowestCriterion = crit;
-                        bestSlope = a;
-                    };
-                }
-
-            }
-            bestFit = new InterceptlessLine(bestSlope);
-        }
+            FastLTS fastFit = FastLTS.findFit(optional, support, LINEAR, c, nstarts);
+            FittedLinearUnivariateFunction bestFit = new Line(fastFit.getCoefficient(0), fastFit.getCoefficient(1));
 
-        double[] residualValues = new double[t];
-        for(int i = 0;i<t;i++)
-        {
-            residualValues[i] = bestFit.residual(allPoints[i]);
+            return buildFit(optional, support, bestFit, fastFit.getObjectiveFunctionMinimum());
         }
-        ResidualVector residuals = new ResidualVector(residualValues);
-        SupportedLTS fit = new SupportedLTS(bestFit,residuals,lowestCriterion);
-        return fit;
+
+        FastLTS fastFit = FastLTS.findFit(optional, support, LINEAR_INTERCEPTLESS, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new InterceptlessLine(fastFit.getCoefficient(0));
+
+        return buildFit(optional, support, bestFit, fastFit.getObjectiveFunctionMinimum());
     }
 
     private static SupportedLTS findBareQuadraticFit(double[][] data, double[][] support, double h, int nstarts)
     {
-        double[][] allPoints = ArrayUtilities.join(data, support);	
         int n = data.length;
-        int s = support.length;
-        int t = n + s;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        Random random = new Random();
-        double bestA = 0;
+        FastLTS fastFit = FastLTS.findFit(data, support, BARE_QUADRATIC, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new BareQuadratic(fastFit.getCoefficient(0));
 
-        for(int i = 0;i<nstarts;i++)
-        {
-            double x0,y0;
-
-            double[] p = allPoints[random.nextInt(t)];
-            x0 = p[0];
-            y0 = p[1];			
-            if(Math.abs(x0)>TOLERANCE)
-            {
-                double a = y0/(x0*x0);
-                BareQuadratic exactFit = new BareQuadratic(a);
-                double crit = exactFit.trimmedSquares(data,support, residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestA = a;
-                };
-            }
-
-        }
-        FittedLinearUnivariateFunction bestFit = new BareQuadratic(bestA);
-
-        double[] residualsdata = new double[t];
-        for(int i = 0;i<t;i++)
-        {
-            residualsdata[i] = bestFit.residual(allPoints[i]);
-        }
-        ResidualVector residuals = new ResidualVector(residualsdata);
-        SupportedLTS fit = new SupportedLTS(bestFit,residuals,lowestCriterion);
-        return fit;
+        return buildFit(data, support, bestFit, fastFit.getObjectiveFunctionMinimum());
     }
 
     private static SupportedLTS findSesquiFit(double[][] data, double[][] support, double h, int nstarts)
     {
-        double[][] allPoints = ArrayUtilities.join(data, support);	
         int n = data.length;
-        int s = support.length;
-        int t = n + s;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        Random random = new Random();
-        double bestA = 0;
-
-        for(int i = 0;i<nstarts;i++)
-        {
-            double x0,y0;
-
-            double[] p = allPoints[random.nextInt(t)];
+        FastLTS fastFit = FastLTS.findFit(data, support, SESQUILINEAR, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new Sesquilinear(fastFit.getCoefficient(0));
 
-            x0 = p[0];y0 = p[1];			
-            if(Math.abs(x0)>TOLERANCE)
-            {
-                double a = y0/(x0*Math.sqrt(x0));
-                Sesquilinear exactFit = new Sesquilinear(a);
-                double crit = exactFit.trimmedSquares(data,support, residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestA = a;
-                };
-            }
-
-        }
-        FittedLinearUnivariateFunction bestFit = new Sesquilinear(bestA);
-
-        double[] residualsdata = new double[t];
-        for(int i = 0;i<t;i++)
-        {
-            residualsdata[i] = bestFit.residual(allPoints[i]);
-        }
-        ResidualVector residuals = new ResidualVector(residualsdata);
-        SupportedLTS fit = new SupportedLTS(bestFit,residuals,lowestCriterion);
-        return fit;
+        return buildFit(data, support, bestFit, fastFit.getObjectiveFunctionMinimum());
     }
 
     private static SupportedLTS findSesquiInterceptFit(double[][] data, double[][] support, double h, int nstarts)
     {
-        double[][] allPoints = ArrayUtilities.join(data, support);  
         int n = data.length;
-        int s = support.length;
-        int t = n + s;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        Random random = new Random();
-        double bestA = 0;
-        double bestB = 0;
-
-        for(int i = 0;i<nstarts;i++)
-        {
-            double x0,y0,x1,y1;
-
-            double[] p0 = allPoints[random.nextInt(t)];
-            double[] p1 = allPoints[random.nextInt(t)];
-
-            x0 = p0[0];
-            y0 = p0[1];
-            x1 = p1[0];
-            y1 = p1[1]; 
-
-            if(Math.abs(x0)>TOLERANCE)
-            {
-                double sqrtX0 = Math.sqrt(x0); 
-                double sqrtX1 = Math.sqrt(x1);
-                double a = (y0 - y1)/(x0*sqrtX0 - x1*sqrtX1);
-                double b = y0 - a*x0*sqrtX0;
-
-                SesquilinearIntercept exactFit = new SesquilinearIntercept(a,b);
-                double crit = exactFit.trimmedSquares(data,support, residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestA = a;
-                    bestB = b;
-                };
-            }
-
-        }
-        FittedLinearUnivariateFunction bestFit = new SesquilinearIntercept(bestA, bestB);
+        FastLTS fastFit = FastLTS.findFit(data, support, SESQUILINEAR_INTERCEPT, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new SesquilinearIntercept(fastFit.getCoefficient(0), fastFit.getCoefficient(1));
 
-        double[] residualsdata = new double[t];
-        for(int i = 0;i<t;i++)
-        {
-            residualsdata[i] = bestFit.residual(allPoints[i]);
-        }
-        ResidualVector residuals = new ResidualVector(residualsdata);
-        SupportedLTS fit = new SupportedLTS(bestFit,residuals,lowestCriterion);
-        return fit;
+        return buildFit(data, support, bestFit, fastFit.getObjectiveFunctionMinimum());
     }
 
     public static SupportedLTS findPowerFit(double[][] data, double[][] support, double exp, double h, int nstarts)
     {        
-        double[][] allPoints = ArrayUtilities.join(data, support);	
         int n = data.length;
-        int s = support.length;
-        int t = n + s;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        Random random = new Random();
-        double bestA = 0;
-
-        for(int i = 0;i<nstarts;i++)
-        {
-            double x0,y0;
-
-            double[] p = allPoints[random.nextInt(t)];
-            x0 = p[0];y0 = p[1];			
-            if(Math.abs(x0)>TOLERANCE)
-            {
-                double a = y0/Math.pow(x0,exp);
-                PowerFunction exactFit = new PowerFunction(a,exp);
-                double crit = exactFit.trimmedSquares(data, support, residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestA = a;
-                };
-            }
-
-        }
-        FittedLinearUnivariateFunction bestFit = new PowerFunction(bestA,exp);
+        FastLTS fastFit = FastLTS.findFit(data, support, new double[] {exp}, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new PowerFunction(fastFit.getCoefficient(0), exp);
 
-        double[] residualsdata = new double[t];
-        for(int i = 0;i<t;i++)
-        {
-            residualsdata[i] = bestFit.residual(allPoints[i]);
-        }
-        ResidualVector residuals = new ResidualVector(residualsdata);
-        SupportedLTS fit = new SupportedLTS(bestFit,residuals,lowestCriterion);
-        return fit;
+        return buildFit(data, support, bestFit, fastFit.getObjectiveFunctionMinimum());
     }
 
     public static SupportedLTS findPowerInterceptFit(double[][] data, double[][] support, double exp, double h, int nstarts)
     {
-        double[][] allPoints = ArrayUtilities.join(data, support);  
         int n = data.length;
-        int s = support.length;
-        int t = n + s;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        Random random = new Random();
-        double bestA = 0;
-        double bestB = 0;
-
-        for(int i = 0;i<nstarts;i++)
-        {
-            double x0,y0,x1,y1;
-
-            double[] p0 = allPoints[random.nextInt(t)];
-            double[] p1 = allPoints[random.nextInt(t)];
-
-            x0 = p0[0];
-            y0 = p0[1];
-            x1 = p1[0];
-            y1 = p1[1];
-
-            if(Math.abs(x0)>TOLERANCE)
-            {
-                double x0Exp = Math.pow(x0, exp);
-                double a = (y0 - y1)/(x0Exp - Math.pow(x1, exp));
-                double b = y0 - a*x0Exp;
-
-                PowerInterceptFunction exactFit = new PowerInterceptFunction(a,exp, b);
-                double crit = exactFit.trimmedSquares(data, support, residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestA = a;
-                    bestB = b;
-                };
-            }
+        FastLTS fastFit = FastLTS.findFit(data, support, new double[] {exp, 0}, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new PowerInterceptFunction(fastFit.getCoefficient(0), exp, fastFit.getCoefficient(1));
 
-        }
-        FittedLinearUnivariateFunction bestFit = new PowerInterceptFunction(bestA,exp, bestB);
-
-        double[] residualsdata = new double[t];
-        for(int i = 0;i<t;i++)
-        {
-            residualsdata[i] = bestFit.residual(allPoints[i]);
-        }
-        ResidualVector residuals = new ResidualVector(residualsdata);
-        SupportedLTS fit = new SupportedLTS(bestFit,residuals,lowestCriterion);
-        return fit;
+        return buildFit(data, support, bestFit, fastFit.getObjectiveFunctionMinimum());
     }
 
-
     //Constructs an SupportedLTS object, which represent quadratic fit, i.e. quadratic function with intercept is fitted
     private static SupportedLTS findQuadraticFit(double[][] data, double[][] support, boolean constant, double h, int nstarts)
     {	
-        double[][] allPoints = ArrayUtilities.join(data, support);	
         int n = data.length;
-        int s = support.length;
-        int t = n + s;
         int c = (int)Math.min(n, h*n);
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] residualsSqrt = new double[n];
-        FittedLinearUnivariateFunction bestFit = null;
-        Random random = new Random();
-
         if(constant)
         {
-            double[][] vandermondData = new double[3][3];
-            double[] ordinates = new double[3];
-            double[] bestFitCoeff = null;
-            double[][] elementalSet = new double[3][2];	
-
-            for(int i = 0;i<nstarts;i++)
-            {
-                for(int j = 0;j<3;j++)
-                {
-                    int k = random.nextInt(t);
-                    elementalSet[j] = allPoints[k];
-                }
-
-                double[] coeff;
-
-                for(int j = 0;j<3;j++)
-                {
-                    double[] point = elementalSet[j];
-                    double x = point[0];
-                    double y = point[1];
-
-                    double[] row = vandermondData[j];
-                    row[0] = 1;
-                    row[1] = x;
-                    row[2] = x*x;
-
-                    ordinates[j] = y;
-                }
-                Matrix vandermondMatrix = new Matrix(vandermondData, 3, 3);
-                LUDecomposition decomp = new LUDecomposition(vandermondMatrix);
-                if(!decomp.isNonsingular()){continue;}
-                Matrix coeffMatrix = decomp.solve(new Matrix(ordinates,3));
-                coeff = coeffMatrix.getRowPackedCopy();
-
-                Quadratic exactFit = new Quadratic(coeff[0],coeff[1],coeff[2]);
-                double crit = exactFit.trimmedSquares(data, support, residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestFitCoeff = coeff;
-                }
-            }
-            bestFit = new Polynomial(bestFitCoeff);
-        }
-        else
-        {
-            double bestA = 0;
-            double bestB = 0;
-
-            for(int i = 0;i<nstarts;i++)
-            {
-                double x0,x1,y0,y1;
-
-                double[] p = allPoints[random.nextInt(t)];
-                x0 = p[0];y0 = p[1];			
-                p = allPoints[random.nextInt(t)];
-                x1 = p[0];y1 = p[1];			
-                double denomin = (x0*(x0 - x1)*x1);
-                if(Math.abs(denomin)>TOLERANCE)
-                {
-                    double a = (-x1*x1*y0 + x0*x0*y1)/denomin;
-                    double b = ((x1*y0 - x0*y1)/denomin);
-                    InterceptlessQuadratic exactFit = new InterceptlessQuadratic(a,b);
-                    double crit = exactFit.trimmedSquares(data, support, residualsSqrt, c);
-
-                    if(crit<lowestCriterion)
-                    {
-                        lowestCriterion = crit;
-                        bestA = a;
-                        bestB = b;
-                    };
-                }
-
-            }
-            bestFit = new Polynomial(new double[] {0, bestA,bestB});
-        }
+            FastLTS fastFit = FastLTS.findFit(data, support, QUADRATIC, c, nstarts);
+            FittedLinearUnivariateFunction bestFit = new Polynomial(fastFit.getCoefficients());
 
-        double[] residualsdata = new double[t];
-        for(int i = 0;i<t;i++)
-        {
-            residualsdata[i] = bestFit.residual(allPoints[i]);
+            return buildFit(data, support, bestFit, fastFit.getObjectiveFunctionMinimum());
         }
-        ResidualVector residuals = new ResidualVector(residualsdata);
-        SupportedLTS fit = new SupportedLTS(bestFit,residuals,lowestCriterion);
-        return fit;
-    }
 
+        FastLTS fastFit = FastLTS.findFit(data, support, QUADRATIC_INTERCEPTLESS, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new Polynomial(new double[] {0, fastFit.getCoefficient(0), fastFit.getCoefficient(1)});
+
+        return buildFit(data, support, bestFit, fastFit.getObjectiveFunctionMinimum());
+    }
 
     private static SupportedLTS findPolynomialFit(double[][] data, double[][] support, int p, double h, int nstarts)
     {	
-        double[][] allPoints = ArrayUtilities.join(data, support);	
         int n = data.length;
-        int s = support.length;
-        int t = n + s;
         int c = (int)Math.min(n, h*n);
 
-        Random random = new Random();
-
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        double[] ordinates = new double[p];
-        double[] bestFitCoeff = null;
-        double[] residualsSqrt = new double[n];
-        double[][] elementalSet = new double[p][2];
-        double[][] vandermondData = new double[p][p];
-
-        for(int i = 0;i<nstarts;i++)
+        double[] model = new double[p];
+        for(int k = 0; k<p; k++)
         {
-            for(int j = 0;j<p;j++)
-            {
-                int k = random.nextInt(t);
-                elementalSet[j] = allPoints[k];
-            }
-
-            double[] coeff;
-
-            for(int j = 0;j<p;j++)
-            {
-                double[] point = elementalSet[j];
-                double x = point[0];
-                double y = point[1];
-
-                ordinates[j] = y;
-
-                double[] row = vandermondData[j];
-                row[0] = 1;
-                row[1] = x;
-                for(int k = 2;k<p;k++)
-                {
-                    row[k] = x*row[k - 1];
-                }
-            }
-
-            Matrix vandermondMatrix = new Matrix(vandermondData, p, p);
-            LUDecomposition decomp = new LUDecomposition(vandermondMatrix);
-
-            if(decomp.isNonsingular())
-            {
-                Matrix coeffMatrix = decomp.solve(new Matrix(ordinates,p));
-                coeff = coeffMatrix.getRowPackedCopy();
-
-                double crit =  Polynomial.trimmedSquares(data, coeff, p-1,residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestFitCoeff = coeff;
-                }
-            }
-
+            model[k] = k;
         }
 
-        FittedLinearUnivariateFunction bestFit = new Polynomial(bestFitCoeff);;
+        FastLTS fastFit = FastLTS.findFit(data, support, model, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new Polynomial(fastFit.getCoefficients());
 
-        double[] residualsdata = new double[t];
-        for(int i = 0;i<t;i++)
-        {
-            residualsdata[i] = bestFit.residual(allPoints[i]);
-        }
-        ResidualVector residuals = new ResidualVector(residualsdata);
-        SupportedLTS fit = new SupportedLTS(bestFit,residuals,lowestCriterion);
-        return fit;
+        return buildFit(data, support, bestFit, fastFit.getObjectiveFunctionMinimum());
     }
 
     private static SupportedLTS findPowerFunctionsCombinationFit(double[][] data, double[][] support, double[] model, double h, int nstarts)
     {
-        double[][] allPoints = ArrayUtilities.join(data, support);	
         int n = data.length;
-        double[] residualsSqrt = new double[n];
-
-        int s = support.length;
-        int t = n + s;
         int c = (int)Math.min(n, h*n);
-        int p = model.length;
 
-        double lowestCriterion = Double.POSITIVE_INFINITY;
-        PowerFunctionCombination bestFit = null;
-        double[][] elementalSet = new double[p][2];
+        FastLTS fastFit = FastLTS.findFit(data, support, model, c, nstarts);
+        FittedLinearUnivariateFunction bestFit = new PowerFunctionCombination(model, fastFit.getCoefficients());
 
-        double[][] powersMatrix = new double[p][p];
-        double[] ordinates = new double[p];
+        return buildFit(data, support, bestFit, fastFit.getObjectiveFunctionMinimum());
+    }
 
-        Random random = new Random();
+    private static SupportedLTS buildFit(double[][] data, double[][] support, FittedLinearUnivariateFunction bestFit, double lowestCriterion)
+    {
+        double[][] allPoints = ArrayUtilities.join(data, support);  
+        int t = allPoints.length;
 
-        for(int i = 0;i<nstarts;i++)
-        {
-            for(int j = 0;j<p;j++)
-            {
-                int k = random.nextInt(t);
-                elementalSet[j] = allPoints[k];
-            }
-
-
-            double[] coeff;
-
-            for(int j = 0;j<p;j++)
-            {
-                double[] point = elementalSet[j];
-                double x = point[0];
-                double y = point[1];
-
-                ordinates[j] = y;
-
-                for(int k = 0;k<p;k++)
-                {
-                    double e = model[k];
-                    powersMatrix[j][k] = Math.pow(x, e);
-                }
-            }
-            Matrix matrixTest = new Matrix(powersMatrix, p, p);
-            LUDecomposition decomp = new LUDecomposition(matrixTest);
-
-            if(decomp.isNonsingular())
-            {
-                Matrix coeffMatrix = decomp.solve(new Matrix(ordinates,p));
-                coeff = coeffMatrix.getRowPackedCopy();
-                PowerFunctionCombination elementalFit = new PowerFunctionCombination(model, coeff);;
-
-                double crit = elementalFit.trimmedSquares(data, support, residualsSqrt, c);
-
-                if(crit<lowestCriterion)
-                {
-                    lowestCriterion = crit;
-                    bestFit = elementalFit;
-                }
-            }		
-        }	
         double[] residualsData = new double[t];
         for(int i = 0;i<t;i++)
         {
@@ -698,8 +253,6 @@ public class SupportedLTS implements LinearRegressionEsimator
         ResidualVector residuals = new ResidualVector(residualsData);
         SupportedLTS fit = new SupportedLTS(bestFit,residuals,lowestCriterion);
         return fit;
-
-
     }
 
     @Override
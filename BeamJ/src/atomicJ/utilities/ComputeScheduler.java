@@ -0,0 +1,482 @@
+package atomicJ.utilities;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+//a single pool of computation threads shared by all concurrent tasks of the application,
+//so that tasks do not create and destroy their own threads, and tasks that run at the same time do not oversubscribe the processors
+//each task obtains its own TaskExecutor, which limits how many of its subtasks run at the same time,
+//and can be shut down or cancelled without affecting subtasks of other tasks
+//subtasks of interactive tasks, like previews, are run before waiting subtasks of batch tasks
+public class ComputeScheduler
+{
+    public static enum Priority
+    {
+        INTERACTIVE, BATCH;
+    }
+
+    private static final ComputeScheduler INSTANCE = new ComputeScheduler(Runtime.getRuntime().availableProcessors());
+
+    private final ThreadPoolExecutor pool;
+    //gives subtasks of equal priority the order in which they were submitted
+    private final AtomicLong submissionCount = new AtomicLong();
+
+    private ComputeScheduler(int threadCount)
+    {
+        this.pool = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<Runnable>(), new ComputeThreadFactory());
+    }
+
+    public static ComputeScheduler getInstance()
+    {
+        return INSTANCE;
+    }
+
+    public int getThreadCount()
+    {
+        return pool.getMaximumPoolSize();
+    }
+
+    public TaskExecutor newTaskExecutor(String taskName, Priority priority, int maximalParallelism)
+    {
+        return new TaskExecutor(taskName, priority, maximalParallelism);
+    }
+
+    private static boolean isComputeThread()
+    {
+        return Thread.currentThread() instanceof ComputeThread;
+    }
+
+    //the executor of a single task
+    //shutdown() should be called when no more subtasks are going to be submitted, and shutdownNow() cancels the task,
+    //i.e. it discards subtasks which have not been started and interrupts the running ones
+    //subtasks submitted from a computation thread are run immediately by this thread, as a computation thread
+    //waiting for subtasks queued behind it could wait forever
+    public class TaskExecutor extends AbstractExecutorService
+    {
+        private final String taskName;
+        private final Priority priority;
+        private final int maximalParallelism;
+
+        private final Object lock = new Object();
+        //guarded by lock
+        private final Deque<Runnable> pendingSubtasks = new ArrayDeque<>();
+        //subtasks passed to the pool, which have not been started yet
+        private final Set<QueuedSubtask> queuedSubtasks = new HashSet<>();
+        private final Set<Thread> runningThreads = new HashSet<>();
+        //the threads interrupted by shutdownNow(), which have not finished their subtask of this executor yet
+        private final Set<Thread> interruptedThreads = new HashSet<>();
+        private int runningCount;
+        private boolean shutdown;
+        private boolean cancelled;
+        private boolean terminated;
+
+        private final long creationTime = System.nanoTime();
+        private final AtomicInteger submittedCount = new AtomicInteger();
+        private final AtomicInteger completedCount = new AtomicInteger();
+        private final AtomicInteger failedCount = new AtomicInteger();
+        private final AtomicLong totalRunTime = new AtomicLong();
+        private final AtomicLong totalWaitTime = new AtomicLong();
+        private volatile long terminationTime = -1;
+
+        private TaskExecutor(String taskName, Priority priority, int maximalParallelism)
+        {
+            this.taskName = Validation.requireNonNullParameterName(taskName, "taskName");
+            this.priority = Validation.requireNonNullParameterName(priority, "priority");
+            this.maximalParallelism = Math.max(1, maximalParallelism);
+        }
+
+        public String getTaskName()
+        {
+            return taskName;
+        }
+
+        public Priority getPriority()
+        {
+            return priority;
+        }
+
+        public boolean isCancelled()
+        {
+            synchronized(lock)
+            {
+                return cancelled;
+            }
+        }
+
+        @Override
+        public void execute(Runnable command)
+        {
+            Validation.requireNonNullParameterName(command, "command");
+
+            synchronized(lock)
+            {
+                if(shutdown)
+                {
+                    throw new RejectedExecutionException("The executor of the task " + taskName + " is shut down");
+                }
+
+                submittedCount.incrementAndGet();
+
+                if(!isComputeThread())
+                {
+                    pendingSubtasks.add(command);
+                    dispatchPendingSubtasks();
+                    return;
+                }
+            }
+
+            runSubtask(command, System.nanoTime(), false);
+        }
+
+        //should be called while holding the lock
+        private void dispatchPendingSubtasks()
+        {
+            while(runningCount < maximalParallelism && !pendingSubtasks.isEmpty())
+            {
+                QueuedSubtask subtask = new QueuedSubtask(pendingSubtasks.poll());
+                queuedSubtasks.add(subtask);
+                runningCount++;
+
+                pool.execute(subtask);
+            }
+        }
+
+        private void runSubtask(Runnable command, long submissionTime, boolean dispatched)
+        {
+            long startTime = System.nanoTime();
+            totalWaitTime.addAndGet(startTime - submissionTime);
+
+            Thread currentThread = Thread.currentThread();
+            //a subtask run immediately by a computation thread interrupts the subtask of another task, which the thread runs,
+            //if this executor is cancelled, so the interrupt state of that subtask is restored afterwards
+            boolean callerInterrupted = !dispatched && currentThread.isInterrupted();
+            boolean registered;
+
+            synchronized(lock)
+            {
+                //a subtask run immediately by a thread which already runs a subtask of this executor does not register the thread again
+                registered = runningThreads.add(currentThread);
+            }
+
+            try
+            {
+                command.run();
+            }
+            catch(RuntimeException | Error e)
+            {
+                failedCount.incrementAndGet();
+                throw e;
+            }
+            finally
+            {
+                totalRunTime.addAndGet(System.nanoTime() - startTime);
+                completedCount.incrementAndGet();
+
+                synchronized(lock)
+                {
+                    if(registered)
+                    {
+                        runningThreads.remove(currentThread);
+
+                        if(interruptedThreads.remove(currentThread) && !dispatched)
+                        {
+                            Thread.interrupted();
+
+                            if(callerInterrupted)
+                            {
+                                currentThread.interrupt();
+                            }
+                        }
+                    }
+
+                    if(dispatched)
+                    {
+                        //clears the interrupt of a cancelled subtask, so that it does not affect subtasks of other tasks
+                        Thread.interrupted();
+                        runningCount--;
+                        dispatchPendingSubtasks();
+                    }
+
+                    checkIfTerminated();
+                }
+            }
+        }
+
+        //should be called while holding the lock
+        private void checkIfTerminated()
+        {
+            if(!terminated && shutdown && runningCount == 0 && pendingSubtasks.isEmpty() && runningThreads.isEmpty())
+            {
+                terminated = true;
+                terminationTime = System.nanoTime();
+                lock.notifyAll();
+
+                Logger.getLogger("").log(Level.FINE, getMetrics().toString());
+            }
+        }
+
+        @Override
+        public void shutdown()
+        {
+            synchronized(lock)
+            {
+                shutdown = true;
+                checkIfTerminated();
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow()
+        {
+            synchronized(lock)
+            {
+                shutdown = true;
+                cancelled = true;
+
+                List<Runnable> discardedSubtasks = new ArrayList<>();
+
+                for(QueuedSubtask subtask : queuedSubtasks)
+                {
+                    pool.remove(subtask);
+                    discardedSubtasks.add(subtask.command);
+                    runningCount--;
+                }
+
+                queuedSubtasks.clear();
+
+                discardedSubtasks.addAll(pendingSubtasks);
+                pendingSubtasks.clear();
+
+                for(Thread thread : runningThreads)
+                {
+                    thread.interrupt();
+                    interruptedThreads.add(thread);
+                }
+
+                checkIfTerminated();
+
+                return discardedSubtasks;
+            }
+        }
+
+        @Override
+        public boolean isShutdown()
+        {
+            synchronized(lock)
+            {
+                return shutdown;
+            }
+        }
+
+        @Override
+        public boolean isTerminated()
+        {
+            synchronized(lock)
+            {
+                return terminated;
+            }
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+        {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+            synchronized(lock)
+            {
+                while(!terminated)
+                {
+                    long remainingTime = deadline - System.nanoTime();
+                    if(remainingTime <= 0)
+                    {
+                        return false;
+                    }
+
+                    TimeUnit.NANOSECONDS.timedWait(lock, remainingTime);
+                }
+
+                return true;
+            }
+        }
+
+        private class QueuedSubtask extends PrioritizedRunnable
+        {
+            private final Runnable command;
+            private final long submissionTime = System.nanoTime();
+
+            private QueuedSubtask(Runnable command)
+            {
+                super(priority, submissionCount.getAndIncrement());
+                this.command = command;
+            }
+
+            @Override
+            public void run()
+            {
+                synchronized(lock)
+                {
+                    //the subtask was discarded by shutdownNow(), but the pool started it before it could be removed from the queue
+                    if(!queuedSubtasks.remove(this))
+                    {
+                        return;
+                    }
+                }
+
+                runSubtask(command, submissionTime, true);
+            }
+        }
+
+        public TaskMetrics getMetrics()
+        {
+            long endTime = terminationTime >= 0 ? terminationTime : System.nanoTime();
+
+            return new TaskMetrics(taskName, priority, submittedCount.get(), completedCount.get(), failedCount.get(), isCancelled(),
+                    endTime - creationTime, totalRunTime.get(), totalWaitTime.get());
+        }
+    }
+
+    public static class TaskMetrics
+    {
+        private final String taskName;
+        private final Priority priority;
+        private final int submittedCount;
+        private final int completedCount;
+        private final int failedCount;
+        private final boolean cancelled;
+        private final long elapsedTime;
+        private final long totalRunTime;
+        private final long totalWaitTime;
+
+        private TaskMetrics(String taskName, Priority priority, int submittedCount, int completedCount, int failedCount, boolean cancelled,
+                long elapsedTime, long totalRunTime, long totalWaitTime)
+        {
+            this.taskName = taskName;
+            this.priority = priority;
+            this.submittedCount = submittedCount;
+            this.completedCount = completedCount;
+            this.failedCount = failedCount;
+            this.cancelled = cancelled;
+            this.elapsedTime = elapsedTime;
+            this.totalRunTime = totalRunTime;
+            this.totalWaitTime = totalWaitTime;
+        }
+
+        public String getTaskName()
+        {
+            return taskName;
+        }
+
+        public Priority getPriority()
+        {
+            return priority;
+        }
+
+        public int getSubmittedCount()
+        {
+            return submittedCount;
+        }
+
+        public int getCompletedCount()
+        {
+            return completedCount;
+        }
+
+        //only subtasks which threw an exception are counted, FutureTasks created by submit() catch the exceptions themselves
+        public int getFailedCount()
+        {
+            return failedCount;
+        }
+
+        public boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        //in nanoseconds, from the creation of the executor to its termination, or to now, if it is not terminated
+        public long getElapsedTime()
+        {
+            return elapsedTime;
+        }
+
+        //in nanoseconds, summed over all subtasks
+        public long getTotalRunTime()
+        {
+            return totalRunTime;
+        }
+
+        //in nanoseconds, summed over all subtasks
+        public long getTotalWaitTime()
+        {
+            return totalWaitTime;
+        }
+
+        @Override
+        public String toString()
+        {
+            return taskName + " (" + priority + "): " + completedCount + " of " + submittedCount + " subtasks completed" + (cancelled ? ", cancelled" : "")
+                    + ", elapsed " + TimeUnit.NANOSECONDS.toMillis(elapsedTime) + " ms, run " + TimeUnit.NANOSECONDS.toMillis(totalRunTime)
+                    + " ms, waited " + TimeUnit.NANOSECONDS.toMillis(totalWaitTime) + " ms";
+        }
+    }
+
+    private static abstract class PrioritizedRunnable implements Runnable, Comparable<PrioritizedRunnable>
+    {
+        private final Priority priority;
+        private final long sequenceNumber;
+
+        private PrioritizedRunnable(Priority priority, long sequenceNumber)
+        {
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public int compareTo(PrioritizedRunnable that)
+        {
+            int result = this.priority.compareTo(that.priority);
+
+            if(result == 0)
+            {
+                result = Long.compare(this.sequenceNumber, that.sequenceNumber);
+            }
+
+            return result;
+        }
+    }
+
+    private static class ComputeThread extends Thread
+    {
+        private ComputeThread(Runnable target, String name)
+        {
+            super(target, name);
+        }
+    }
+
+    private static class ComputeThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable target)
+        {
+            Thread thread = new ComputeThread(target, "Computation thread " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package atomicJ.utilities;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+//writes text with numbers to a stream, without java.text.NumberFormat and without the locale,
+//the text is collected in a reusable byte buffer, and numbers are converted to digits in place, so writing a number allocates nothing
+//in nearly all cases
+//numbers are written either with at most maximumFractionDigits digits after the decimal separator, rounded half even
+//as by DecimalFormat, or, if maximumFractionDigits is SHORTEST_ROUNDTRIP, with the fewest significant digits
+//which are read back as the same double
+//an instance is not thread safe, but it is cheap, so each saving task should simply create its own
+public class NumericTextWriter implements Closeable, Flushable
+{
+    public static final int SHORTEST_ROUNDTRIP = -1;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    //the powers of ten which are exactly representable as doubles
+    private static final double[] EXACT_POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    //integers up to this value are exactly representable as doubles
+    private static final double EXACT_INTEGER_LIMIT = 9007199254740992.;
+    //numbers with fewer digits than 16 are the same whether the exact value or its shortest decimal representation is rounded
+    private static final double FAST_ROUNDING_LIMIT = 1e15;
+
+    //in the shortest roundtrip format, numbers with magnitude in [1e-3, 1e7) are written without an exponent, as by Double.toString()
+    private static final int MINIMAL_PLAIN_EXPONENT = -3;
+    private static final int MAXIMAL_PLAIN_EXPONENT = 6;
+
+    private final OutputStream out;
+    private final Charset charset = Charset.defaultCharset();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+
+    //the digits of the number being written, from the most significant one
+    private byte[] digits = new byte[64];
+
+    private final int maximumFractionDigits;
+    private final int minimumFractionDigits;
+    private final char decimalSeparator;
+    private final boolean groupingUsed;
+    private final int groupingSize;
+
+    //the separators encoded once, as they may be any characters
+    private final byte[] decimalSeparatorBytes;
+    private final byte[] groupingSeparatorBytes;
+
+    private final String lineSeparator = System.lineSeparator();
+
+    public NumericTextWriter(OutputStream out, int maximumFractionDigits)
+    {
+        this(out, maximumFractionDigits, 0, '.', false, ',', 3);
+    }
+
+    public NumericTextWriter(OutputStream out, int maximumFractionDigits, int minimumFractionDigits, char decimalSeparator, boolean groupingUsed, char groupingSeparator, int groupingSize)
+    {
+        Validation.requireNonNullParameterName(out, "out");
+
+        if(maximumFractionDigits < 0 && maximumFractionDigits != SHORTEST_ROUNDTRIP)
+        {
+            throw new IllegalArgumentException("Negative maximumFractionDigits " + maximumFractionDigits);
+        }
+
+        this.out = out;
+        this.maximumFractionDigits = maximumFractionDigits;
+        this.minimumFractionDigits = Math.max(0, Math.min(minimumFractionDigits, maximumFractionDigits));
+        this.decimalSeparator = decimalSeparator;
+        this.groupingUsed = groupingUsed && groupingSize > 0;
+        this.groupingSize = groupingSize;
+
+        this.decimalSeparatorBytes = String.valueOf(decimalSeparator).getBytes(charset);
+        this.groupingSeparatorBytes = String.valueOf(groupingSeparator).getBytes(charset);
+    }
+
+    public void write(char c) throws IOException
+    {
+        if(c < 0x80)
+        {
+            ensureCapacity(1);
+            buffer[count++] = (byte)c;
+        }
+        else
+        {
+            writeEncoded(String.valueOf(c));
+        }
+    }
+
+    public void write(String text) throws IOException
+    {
+        int length = text.length();
+
+        for(int i = 0; i < length; i++)
+        {
+            if(text.charAt(i) >= 0x80)
+            {
+                writeEncoded(text);
+                return;
+            }
+        }
+
+        for(int start = 0; start < length;)
+        {
+            ensureCapacity(1);
+
+            int end = Math.min(length, start + buffer.length - count);
+            for(int i = start; i < end; i++)
+            {
+                buffer[count++] = (byte)text.charAt(i);
+            }
+
+            start = end;
+        }
+    }
+
+    private void writeEncoded(String text) throws IOException
+    {
+        byte[] bytes = text.getBytes(charset);
+
+        if(bytes.length > buffer.length - count)
+        {
+            flushBuffer();
+        }
+
+        if(bytes.length > buffer.length)
+        {
+            out.write(bytes);
+        }
+        else
+        {
+            System.arraycopy(bytes, 0, buffer, count, bytes.length);
+            count += bytes.length;
+        }
+    }
+
+    public void newLine() throws IOException
+    {
+        write(lineSeparator);
+    }
+
+    public void writeLine(String text) throws IOException
+    {
+        write(text);
+        newLine();
+    }
+
+    public void write(double value) throws IOException
+    {
+        if(Double.isNaN(value))
+        {
+            write("NaN");
+        }
+        else if(Double.isInfinite(value))
+        {
+            write(value > 0 ? "Infinity" : "-Infinity");
+        }
+        else if(maximumFractionDigits == SHORTEST_ROUNDTRIP)
+        {
+            writeShortest(value);
+        }
+        else
+        {
+            writeFixed(value);
+        }
+    }
+
+    private void writeFixed(double value) throws IOException
+    {
+        double magnitude = Math.abs(value);
+
+        int digitCount = -1;
+
+        if(maximumFractionDigits < EXACT_POWERS_OF_TEN.length)
+        {
+            double scaled = magnitude*EXACT_POWERS_OF_TEN[maximumFractionDigits];
+
+            //the product differs from the exact one by at most half of its ulp, so unless its fractional part is close to one half,
+            //it is rounded in the same way as the exact value, and as the shortest decimal representation of the value
+            if(scaled < FAST_ROUNDING_LIMIT && Math.abs(scaled - Math.floor(scaled) - 0.5) > 2*Math.ulp(scaled))
+            {
+                digitCount = putDigits((long)Math.rint(scaled));
+            }
+        }
+
+        if(digitCount < 0)
+        {
+            digitCount = putDigits(roundAsDecimalFormat(magnitude).unscaledValue().toString());
+        }
+
+        //the leading zeros, so that there is at least one integer digit
+        if(digitCount <= maximumFractionDigits)
+        {
+            int shift = maximumFractionDigits + 1 - digitCount;
+            ensureDigitCapacity(digitCount + shift);
+            System.arraycopy(digits, 0, digits, shift, digitCount);
+            Arrays.fill(digits, 0, shift, (byte)'0');
+            digitCount += shift;
+        }
+
+        int fractionDigitCount = maximumFractionDigits;
+        while(fractionDigitCount > minimumFractionDigits && digitCount > 0 && digits[digitCount - 1] == '0')
+        {
+            digitCount--;
+            fractionDigitCount--;
+        }
+
+        boolean zero = true;
+        for(int i = 0; i < digitCount; i++)
+        {
+            if(digits[i] != '0')
+            {
+                zero = false;
+                break;
+            }
+        }
+
+        //numbers rounded to zero are written without the sign
+        if(value < 0 && !zero)
+        {
+            write('-');
+        }
+
+        writePlain(digitCount, fractionDigitCount, groupingUsed);
+    }
+
+    //DecimalFormat rounds the digits of Double.toString(), so it does not write more significant digits than needed
+    //to identify the double, and only when these digits end exactly in the middle, it rounds towards the exact value
+    private BigDecimal roundAsDecimalFormat(double magnitude)
+    {
+        BigDecimal shortest = new BigDecimal(Double.toString(magnitude)).stripTrailingZeros();
+        RoundingMode roundingMode = RoundingMode.HALF_EVEN;
+
+        boolean halfway = shortest.scale() == maximumFractionDigits + 1 && shortest.unscaledValue().mod(BigInteger.TEN).intValue() == 5;
+        if(halfway)
+        {
+            int comparison = new BigDecimal(magnitude).compareTo(shortest);
+            roundingMode = comparison > 0 ? RoundingMode.UP : (comparison < 0 ? RoundingMode.DOWN : RoundingMode.HALF_EVEN);
+        }
+
+        return shortest.setScale(maximumFractionDigits, roundingMode);
+    }
+
+    private void writeShortest(double value) throws IOException
+    {
+        if(value == 0)
+        {
+            write((1/value) < 0 ? "-0" : "0");
+            return;
+        }
+
+        double magnitude = Math.abs(value);
+        int exponent = (int)Math.floor(Math.log10(magnitude));
+
+        for(int significantDigitCount = 1; significantDigitCount <= 17; significantDigitCount++)
+        {
+            //the value is approximated by unscaled*10^(-scale)
+            int scale = significantDigitCount - 1 - exponent;
+
+            if(Math.abs(scale) >= EXACT_POWERS_OF_TEN.length)
+            {
+                break;
+            }
+
+            double power = EXACT_POWERS_OF_TEN[Math.abs(scale)];
+            double unscaled = Math.rint(scale >= 0 ? magnitude*power : magnitude/power);
+
+            if(unscaled >= EXACT_INTEGER_LIMIT)
+            {
+                break;
+            }
+
+            //the quotient or product of two exactly represented doubles is rounded correctly,
+            //so it is the double read back from the written digits
+            double readBack = scale >= 0 ? unscaled/power : unscaled*power;
+
+            if(readBack == magnitude)
+            {
+                int digitCount = putDigits((long)unscaled);
+
+                while(digitCount > 1 && digits[digitCount - 1] == '0')
+                {
+                    digitCount--;
+                    scale--;
+                }
+
+                if(value < 0)
+                {
+                    write('-');
+                }
+
+                writeShortest(digitCount, scale);
+                return;
+            }
+        }
+
+        //values with 17 significant digits or extreme exponents are left to Double.toString(), which also reads back as the same value
+        String text = Double.toString(value);
+        write(decimalSeparator == '.' ? text : text.replace('.', decimalSeparator));
+    }
+
+    //writes digits[0], ..., digits[digitCount - 1] multiplied by 10^(-scale)
+    private void writeShortest(int digitCount, int scale) throws IOException
+    {
+        int exponent = digitCount - 1 - scale;
+
+        if(exponent >= MINIMAL_PLAIN_EXPONENT && exponent <= MAXIMAL_PLAIN_EXPONENT)
+        {
+            if(scale <= 0)
+            {
+                ensureDigitCapacity(digitCount - scale);
+                for(int i = 0; i < -scale; i++)
+                {
+                    digits[digitCount++] = '0';
+                }
+                writePlain(digitCount, 0, false);
+            }
+            else
+            {
+                writePlain(digitCount, scale, false);
+            }
+        }
+        else
+        {
+            writePlain(1, 0, false);
+
+            if(digitCount > 1)
+            {
+                writeBytes(decimalSeparatorBytes);
+                writeDigits(1, digitCount);
+            }
+
+            write('E');
+            write(Integer.toString(exponent));
+        }
+    }
+
+    //writes digits[0], ..., digits[digitCount - 1], of which the last fractionDigitCount are after the decimal separator
+    private void writePlain(int digitCount, int fractionDigitCount, boolean grouped) throws IOException
+    {
+        int integerDigitCount = digitCount - fractionDigitCount;
+
+        if(integerDigitCount <= 0)
+        {
+            write('0');
+        }
+        else if(grouped)
+        {
+            int groupEnd = integerDigitCount % groupingSize;
+            if(groupEnd == 0)
+            {
+                groupEnd = groupingSize;
+            }
+
+            writeDigits(0, groupEnd);
+
+            for(int i = groupEnd; i < integerDigitCount; i += groupingSize)
+            {
+                writeBytes(groupingSeparatorBytes);
+                writeDigits(i, i + groupingSize);
+            }
+        }
+        else
+        {
+            writeDigits(0, integerDigitCount);
+        }
+
+        if(fractionDigitCount > 0)
+        {
+            writeBytes(decimalSeparatorBytes);
+
+            for(int i = integerDigitCount; i < 0; i++)
+            {
+                write('0');
+            }
+
+            writeDigits(Math.max(0, integerDigitCount), digitCount);
+        }
+    }
+
+    private void writeDigits(int from, int to) throws IOException
+    {
+        for(int start = from; start < to;)
+        {
+            ensureCapacity(1);
+
+            int length = Math.min(to - start, buffer.length - count);
+            System.arraycopy(digits, start, buffer, count, length);
+            count += length;
+            start += length;
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException
+    {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    //puts the decimal digits of a non-negative number to the digit array, and returns their count
+    private int putDigits(long number)
+    {
+        int digitCount = 0;
+        for(long remaining = number; remaining >= 10; remaining /= 10)
+        {
+            digitCount++;
+        }
+        digitCount++;
+
+        long remaining = number;
+        for(int i = digitCount - 1; i >= 0; i--)
+        {
+            digits[i] = (byte)('0' + (remaining % 10));
+            remaining /= 10;
+        }
+
+        return digitCount;
+    }
+
+    private int putDigits(String number)
+    {
+        int digitCount = number.length();
+        ensureDigitCapacity(digitCount);
+
+        for(int i = 0; i < digitCount; i++)
+        {
+            digits[i] = (byte)number.charAt(i);
+        }
+
+        return digitCount;
+    }
+
+    private void ensureDigitCapacity(int digitCount)
+    {
+        if(digitCount > digits.length)
+        {
+            digits = Arrays.copyOf(digits, Math.max(digitCount, 2*digits.length));
+        }
+    }
+
+    private void ensureCapacity(int byteCount) throws IOException
+    {
+        if(byteCount > buffer.length - count)
+        {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException
+    {
+        if(count > 0)
+        {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flushBuffer();
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+}
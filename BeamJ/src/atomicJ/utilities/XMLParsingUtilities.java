@@ -0,0 +1,105 @@
+package atomicJ.utilities;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+//DocumentBuilderFactory.newInstance(), XPathFactory.newInstance() and XMLInputFactory.newInstance() look up the implementation on every call,
+//which costs more than parsing a small settings file, so readers get parsers from here instead
+//DocumentBuilder, XPath and XPathExpression are not thread-safe, and XMLInputFactory is not guaranteed to be,
+//so each thread gets its own instances, which are reused for all files read by this thread
+public class XMLParsingUtilities
+{
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<>();
+    private static final ThreadLocal<CachingXPath> XPATH = new ThreadLocal<>();
+    private static final ThreadLocal<XMLInputFactory> XML_INPUT_FACTORY = new ThreadLocal<>();
+
+    private XMLParsingUtilities()
+    {}
+
+    //the builder ignores whitespace in element content, as the readers of settings files expect
+    public static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException
+    {
+        DocumentBuilder builder = DOCUMENT_BUILDER.get();
+
+        if(builder == null)
+        {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setIgnoringElementContentWhitespace(true);
+
+            builder = factory.newDocumentBuilder();
+            DOCUMENT_BUILDER.set(builder);
+        }
+        else
+        {
+            builder.reset();
+        }
+
+        return builder;
+    }
+
+    public static CachingXPath getXPath()
+    {
+        CachingXPath path = XPATH.get();
+
+        if(path == null)
+        {
+            path = new CachingXPath(XPathFactory.newInstance().newXPath());
+            XPATH.set(path);
+        }
+
+        return path;
+    }
+
+    //the stream readers created by the factory join adjacent text into a single event, and do not resolve external entities
+    public static XMLInputFactory getXMLInputFactory()
+    {
+        XMLInputFactory factory = XML_INPUT_FACTORY.get();
+
+        if(factory == null)
+        {
+            factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            XML_INPUT_FACTORY.set(factory);
+        }
+
+        return factory;
+    }
+
+    //compiles each expression only once, and then evaluates the compiled expression
+    //instances must not be shared between threads
+    public static class CachingXPath
+    {
+        private final XPath path;
+        private final Map<String, XPathExpression> compiledExpressions = new HashMap<>();
+
+        private CachingXPath(XPath path)
+        {
+            this.path = path;
+        }
+
+        public Object evaluate(String expression, Object item, QName returnType) throws XPathExpressionException
+        {
+            XPathExpression compiledExpression = compiledExpressions.get(expression);
+
+            if(compiledExpression == null)
+            {
+                compiledExpression = path.compile(expression);
+                compiledExpressions.put(expression, compiledExpression);
+            }
+
+            return compiledExpression.evaluate(item, returnType);
+        }
+    }
+}
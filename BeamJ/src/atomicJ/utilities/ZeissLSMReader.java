@@ -417,6 +417,41 @@ public class ZeissLSMReader extends FormatReader {
         return buf;
     }
 
+    //reads the whole plane from a stream opened only for this call, so that the planes can be read on demand
+    //after the file was closed with close(true), which keeps the metadata and the IFDs of the planes
+    public byte[] openBytesFromReopenedFile(int no, byte[] buf) throws FormatException, IOException
+    {
+        int w = getSizeX();
+        int h = getSizeY();
+
+        FormatTools.checkPlaneParameters(this, no, buf.length, 0, 0, w, h);
+
+        IFDList ifds = ifdsList.get(getSeries());
+
+        try (RandomAccessInputStream planeIn = new RandomAccessInputStream(getLSMFileFromSeries(getSeries())))
+        {
+            TiffParser parser = new TiffParser(planeIn);
+
+            if (splitPlanes && getSizeC() > 1 && ifds.size() == getSizeZ() * getSizeT())
+            {
+                int bpp = FormatTools.getBytesPerPixel(getPixelType());
+                int plane = no / getSizeC();
+                int c = no % getSizeC();
+
+                byte[] planeBuf = new byte[w * h * bpp * getSizeC()];
+                parser.getSamples(ifds.get(plane), planeBuf, 0, 0, w, h);
+
+                ImageTools.splitChannels(
+                        planeBuf, buf, c, getSizeC(), bpp, false, false, w * h * bpp);
+            }
+            else {
+                parser.getSamples(ifds.get(no), buf, 0, 0, w, h);
+            }
+        }
+
+        return buf;
+    }
+
     // -- Internal FormatReader API methods --
 
     /* @see loci.formats.FormatReader#initFile(String) */
@@ -32,12 +32,9 @@ import java.util.logging.Logger;
 
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -47,6 +44,8 @@ import org.xml.sax.SAXException;
 import atomicJ.gui.UserCommunicableException;
 import atomicJ.utilities.FileExtensionPatternFilter;
 import atomicJ.utilities.RomanNumeralConverter;
+import atomicJ.utilities.XMLParsingUtilities;
+import atomicJ.utilities.XMLParsingUtilities.CachingXPath;
 import chloroplastInterface.ActinicBeamManualCalibrationModel.ActinicBeamCalibrationImmutable;
 import chloroplastInterface.optics.SliderMountedFilter;
 
@@ -73,13 +72,8 @@ public class ABCFileReader
 
         try(InputStream inputStream = new BufferedInputStream(new FileInputStream(f)))
         {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setIgnoringElementContentWhitespace(true);
-
-            DocumentBuilder builder = factory.newDocumentBuilder();
-
-            XPathFactory xpfactory = XPathFactory.newInstance();
-            XPath path = xpfactory.newXPath();
+            DocumentBuilder builder = XMLParsingUtilities.getDocumentBuilder();
+            CachingXPath path = XMLParsingUtilities.getXPath();
             Document doc = builder.parse(inputStream);
 
             NodeList nodesActinicBeamPhases = (NodeList)path.evaluate(ABCSaver.getPathFromRootToCalibrationPoint(), doc, XPathConstants.NODESET);
@@ -22,9 +22,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -35,12 +39,9 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -52,6 +53,7 @@ import atomicJ.data.Channel1D;
 import atomicJ.data.Channel1DData;
 import atomicJ.data.Channel1DStandard;
 import atomicJ.data.FlexibleFlatChannel1DData;
+import atomicJ.data.MappedChannel1DData;
 import atomicJ.data.units.DimensionlessQuantity;
 import atomicJ.data.units.Quantity;
 import atomicJ.data.units.UnitQuantity;
@@ -63,15 +65,27 @@ import atomicJ.utilities.FileExtensionPatternFilter;
 import atomicJ.utilities.FileInputUtilities;
 import atomicJ.utilities.IOUtilities;
 import atomicJ.utilities.RomanNumeralConverter;
+import atomicJ.utilities.XMLParsingUtilities;
+import atomicJ.utilities.XMLParsingUtilities.CachingXPath;
 import chloroplastInterface.ExperimentDescriptionModel.PhotometricDescriptionImmutable;
+import chloroplastInterface.StoredZipEntryLocator.StoredEntry;
 import chloroplastInterface.optics.SimpleFilter;
 import chloroplastInterface.optics.SliderMountedFilter;
 
 
 public class CLMFileReader extends AbstractSourceReader<SimplePhotometricSource>
 {
-    private static final String[] ACCEPTED_EXTENSIONS = new String[] {"clm"};
-    private static final String DESCRIPTION = "Photometric curve (.clm)";
+    private static final String[] ACCEPTED_EXTENSIONS = new String[] {"clm", CLMRecordingJournal.JOURNAL_EXTENSION};
+    private static final String DESCRIPTION = "Photometric curve (.clm, ." + CLMRecordingJournal.JOURNAL_EXTENSION + ")";
+
+    //smaller channels are read into the heap, as mapping them would not save much
+    private static final int MINIMAL_MAPPED_DATA_LENGTH = CLMSaver.MINIMAL_STORED_DATA_LENGTH;
+
+    //on Windows a mapped file cannot be replaced or deleted until the mapping is garbage collected, so saving a recording
+    //back to the path it was read from would fail, that is why the channels are not mapped there unless the property is set to true
+    //on other systems the savers replace the file instead of truncating it, so the mapping keeps the old file
+    private static final String MAP_CHANNEL_DATA_PROPERTY = "chloroplastInterface.mapChannelData";
+    private static final boolean MAP_CHANNEL_DATA = Boolean.parseBoolean(System.getProperty(MAP_CHANNEL_DATA_PROPERTY, Boolean.toString(!System.getProperty("os.name").toLowerCase().startsWith("windows"))));
 
     private static final CLMFileReader INSTANCE = new CLMFileReader();
 
@@ -87,6 +101,13 @@ public class CLMFileReader extends AbstractSourceReader<SimplePhotometricSource>
     {
         List<SimplePhotometricSource> sources = new ArrayList<>();
 
+        //journal left by a recording that was not finished, e.g. because the application crashed
+        if(CLMRecordingJournal.isJournalFile(f))
+        {
+            sources.add(CLMRecordingJournal.readSource(f));
+            return sources;
+        }
+
         try(ZipFile zipFile = new ZipFile(f))
         {             
             List<ZipEntry> dataEntries = new ArrayList<>();
@@ -121,202 +142,266 @@ public class CLMFileReader extends AbstractSourceReader<SimplePhotometricSource>
             {
                 throw new UserCommunicableException("No settings entry found");
             }
-            Map<String, Dataset1DDescriptionImmutable> datasetDescriptions = new LinkedHashMap<>();
-            Map<String, Channel1D> channels = new LinkedHashMap<>();
-            List<ActinicPhaseSettingsImmutable> actinicBeamPhaseSettings = new ArrayList<>();
 
-            MeasuringBeamSettingsImmutable measuringBeamSettings = null;
-            List<SignalSamplingSettingsImmutable> signalSamplingSettingsAll = new ArrayList<>();
+            Map<String, Channel1D> channels = new LinkedHashMap<>();
 
-            List<CalibrationSettingsImmutable> calibrationSettingsAll = new ArrayList<>();
+            RecordingSettings settings;
+            try(InputStream settingEntryIS = zipFile.getInputStream(settingEntry))
+            {
+                settings = readSettings(settingEntryIS);
+            }
 
-            List<SignalSettingsImmutable> signalSettingsAll = new ArrayList<>();
+            Map<String, Dataset1DDescriptionImmutable> datasetDescriptions = settings.getDatasetDescriptions();
 
             PhotometricDescriptionImmutable experimentDescription = null;
 
-            try
+            if(experimentDescriptionEntry != null)
             {
-                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-                factory.setIgnoringElementContentWhitespace(true);
+                try(InputStream descriptionEntryIS = zipFile.getInputStream(experimentDescriptionEntry))
+                {
+                    experimentDescription = readDescription(descriptionEntryIS);
+                }
+            }
 
-                DocumentBuilder builder = factory.newDocumentBuilder();
+            Map<String, StoredEntry> storedEntries = MAP_CHANNEL_DATA ? findStoredEntries(f, dataEntries) : Collections.<String, StoredEntry>emptyMap();
 
-                XPathFactory xpfactory = XPathFactory.newInstance();
-                XPath path = xpfactory.newXPath();
+            for(ZipEntry dataEntry : dataEntries)
+            {
+                String dataEntryName = dataEntry.getName();
+                String dataIdentifier = IOUtilities.getBareName(dataEntryName);
+                Dataset1DDescriptionImmutable description = datasetDescriptions.get(dataIdentifier);
 
-                try(InputStream settingEntryIS = zipFile.getInputStream(settingEntry))
+                int dataLengthInSampleCount = description.getLength();
+                int dataLengthInBytes = Double.BYTES*dataLengthInSampleCount;
+
+                StoredEntry storedEntry = storedEntries.get(dataEntryName);
+                if(storedEntry != null && dataLengthInBytes >= MINIMAL_MAPPED_DATA_LENGTH && storedEntry.getSize() >= 2L*dataLengthInBytes)
                 {
-                    Document settingsDoc = builder.parse(settingEntryIS);
+                    Channel1DData channelData = mapChannelData(f, storedEntry, dataLengthInSampleCount, description);
+                    channels.put(dataIdentifier, new Channel1DStandard(channelData, dataIdentifier));
+                    continue;
+                }
 
-                    NodeList nodesDatasets = (NodeList)path.evaluate(CLMSaver.getPathFromRootToDatasets(), settingsDoc, XPathConstants.NODESET);
+                try(ReadableByteChannel dataChannel = Channels.newChannel(zipFile.getInputStream(dataEntry))) 
+                {
+                    ByteBuffer bufferXs = FileInputUtilities.readBytesToBuffer(dataChannel, dataLengthInBytes, CLMSaver.getDataByteOrder());
+                    ByteBuffer bufferYs = FileInputUtilities.readBytesToBuffer(dataChannel, dataLengthInBytes, CLMSaver.getDataByteOrder());
 
-                    for(int i = 0; i<nodesDatasets.getLength();i++)
-                    {
-                        Node datasetNode = nodesDatasets.item(i);
-                        String datasetIdentifier = path.evaluate(CLMSaver.getPathFromDatasetToItsIdentifier(), datasetNode, XPathConstants.STRING).toString();
-                        int sampleCount = ((Number)path.evaluate(CLMSaver.getPathFromDatasetToItsSampleCount(), datasetNode, XPathConstants.NUMBER)).intValue();
+                    double[] xs = new double[dataLengthInSampleCount];
+                    bufferXs.asDoubleBuffer().get(xs, 0, dataLengthInSampleCount);
 
-                        Node xQuantityNode = (Node)path.evaluate(CLMSaver.getPathFromDatasetToXQuantity(), datasetNode, XPathConstants.NODE);
-                        
-                        System.out.println("XQIAN "+(xQuantityNode == null));
-                        
-                        String xQuantityName = path.evaluate(CLMSaver.getPathFromDataQuantityToQuantityName(), xQuantityNode, XPathConstants.STRING).toString();
-                        String xUnitName = path.evaluate(CLMSaver.getPathFromDataQuantityToQuantityUnit(), xQuantityNode, XPathConstants.STRING).toString();
+                    double[] ys = new double[dataLengthInSampleCount];
+                    bufferYs.asDoubleBuffer().get(ys, 0, dataLengthInSampleCount);
 
-                        Quantity xQuantity = (xUnitName.trim().isEmpty()) ? new DimensionlessQuantity(xQuantityName): new UnitQuantity(xQuantityName, UnitUtilities.getSIUnit(xUnitName));
+                    Channel1DData channelData = new FlexibleFlatChannel1DData(xs, ys, description.getXQuantity(), description.getYQuantity(), SortedArrayOrder.ASCENDING);
+                    Channel1D channel = new Channel1DStandard(channelData, dataIdentifier);
+                    channels.put(dataIdentifier, channel);
+                } 
+            }
 
-                        Node yQuantityNode = (Node)path.evaluate(CLMSaver.getPathFromDatasetToYQuantity(), datasetNode, XPathConstants.NODE);
-                        String yQuantityName = path.evaluate(CLMSaver.getPathFromDataQuantityToQuantityName(), yQuantityNode, XPathConstants.STRING).toString();
-                        String yUnitName = path.evaluate(CLMSaver.getPathFromDataQuantityToQuantityUnit(), yQuantityNode, XPathConstants.STRING).toString();
 
-                        Quantity yQuantity = (yUnitName.trim().isEmpty()) ? new DimensionlessQuantity(yQuantityName): new UnitQuantity(yQuantityName, UnitUtilities.getSIUnit(yUnitName));
+            SimplePhotometricSource source = new StandardPhotometricSource(f, IOUtilities.getBareName(f), f.getAbsolutePath(), 
+                    channels.values(), settings.getActinicBeamPhaseSettings(), settings.getMeasuringBeamSettings(), settings.getSignalSettings(), experimentDescription);
+            sources.add(source);
+        } catch (IOException e)
+        {
+            e.printStackTrace();
+            throw new UserCommunicableException("Error occured while reading the file", e);
+        }
+        return sources;
+    }   
 
-                        Dataset1DDescriptionImmutable datasetDescription = new Dataset1DDescriptionImmutable(datasetIdentifier, sampleCount, xQuantity, yQuantity);
-                        datasetDescriptions.put(datasetIdentifier, datasetDescription);    
-                    }
+    //the data entries are mapped only if they are stored without compression, which is the case for files written by CLMSaver
+    //since it started to store them in this way; data entries of older files are read into the heap
+    private static Map<String, StoredEntry> findStoredEntries(File f, List<ZipEntry> dataEntries) throws IOException
+    {
+        boolean anyStored = false;
+        for(ZipEntry dataEntry : dataEntries)
+        {
+            anyStored = anyStored || dataEntry.getMethod() == ZipEntry.STORED;
+        }
 
-                    NodeList nodesActinicBeamPhases = (NodeList)path.evaluate(CLMSaver.getPathFromRootToActinicBeamPhases(), settingsDoc, XPathConstants.NODESET);
+        if(!anyStored)
+        {
+            return Collections.emptyMap();
+        }
 
-                    for(int i = 0; i < nodesActinicBeamPhases.getLength();i++)
-                    {
-                        Node actinicBeamNode = nodesActinicBeamPhases.item(i);
-                        double durationValue = ((Number)path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToDurationValue(), actinicBeamNode, XPathConstants.NUMBER)).doubleValue();
-                        String durationUnitName = path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToDurationUnit(), actinicBeamNode, XPathConstants.STRING).toString();
-                        StandardTimeUnit durationUnit = StandardTimeUnit.getUnit(durationUnitName);
-                        double intensityInPercents = ((Number)path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToIntensityInPercents(), actinicBeamNode, XPathConstants.NUMBER)).doubleValue();
-                        String actinicBeamFilterDescription = path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToSliderMountedFilter(), actinicBeamNode, XPathConstants.STRING).toString();
+        try(FileChannel fileChannel = FileChannel.open(f.toPath(), StandardOpenOption.READ))
+        {
+            return StoredZipEntryLocator.findStoredEntries(fileChannel);
+        }
+    }
 
-                        int sliderPositionIndex = ((Number)path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToSliderPosition(), actinicBeamNode, XPathConstants.NUMBER)).intValue();
+    //the .dat entry holds all x values followed by all y values, each column is mapped separately
+    //the mapping stays valid after the file channel is closed, and pages of the file are read only when they are accessed
+    private static Channel1DData mapChannelData(File f, StoredEntry storedEntry, int sampleCount, Dataset1DDescriptionImmutable description) throws IOException
+    {
+        long columnLengthInBytes = (long)Double.BYTES*sampleCount;
 
-                        SliderMountedFilter currentlyMountedFilter = new SliderMountedFilter(sliderPositionIndex, new SimpleFilter(actinicBeamFilterDescription));
+        try(FileChannel fileChannel = FileChannel.open(f.toPath(), StandardOpenOption.READ))
+        {
+            DoubleBuffer xs = fileChannel.map(FileChannel.MapMode.READ_ONLY, storedEntry.getDataOffset(), columnLengthInBytes).order(CLMSaver.getDataByteOrder()).asDoubleBuffer();
+            DoubleBuffer ys = fileChannel.map(FileChannel.MapMode.READ_ONLY, storedEntry.getDataOffset() + columnLengthInBytes, columnLengthInBytes).order(CLMSaver.getDataByteOrder()).asDoubleBuffer();
 
-                        ActinicPhaseSettingsImmutable actinicPhaseSettings = new ActinicPhaseSettingsImmutable(durationValue, durationUnit, intensityInPercents, currentlyMountedFilter);
-                        actinicBeamPhaseSettings.add(actinicPhaseSettings);
-                    }
+            return new MappedChannel1DData(xs, ys, sampleCount, description.getXQuantity(), description.getYQuantity());
+        }
+    }
 
-                    Node nodeMeasuringBeam = (Node)path.evaluate(CLMSaver.getPathFromRootToMeasuringBeam(), settingsDoc, XPathConstants.NODE);
-                    double measuringBeamFrequencyInHertz = ((Number)path.evaluate(CLMSaver.getPathFromMeasuringBeamToFrequencyInHertz(), nodeMeasuringBeam, XPathConstants.NUMBER)).doubleValue();
-                    double measuringBeamIntensityInPercents = ((Number)path.evaluate(CLMSaver.getPathFromMeasuringBeamToIntensityInPercents(), nodeMeasuringBeam, XPathConstants.NUMBER)).doubleValue();
+    //parses settings.xml, as written by CLMSaver
+    static RecordingSettings readSettings(InputStream settingsIS) throws UserCommunicableException, IOException
+    {
+        return CLMSettingsReader.readSettings(settingsIS);
+    }
 
-                    measuringBeamSettings = new MeasuringBeamSettingsImmutable(measuringBeamFrequencyInHertz, measuringBeamIntensityInPercents, true);
+    //the former DOM and XPath parser of settings.xml, which is kept, so that CLMReadingBenchmark can check that CLMSettingsReader reads the same settings
+    static RecordingSettings readSettingsWithXPath(InputStream settingsIS) throws UserCommunicableException, IOException
+    {
+        Map<String, Dataset1DDescriptionImmutable> datasetDescriptions = new LinkedHashMap<>();
+        List<ActinicPhaseSettingsImmutable> actinicBeamPhaseSettings = new ArrayList<>();
+        MeasuringBeamSettingsImmutable measuringBeamSettings = null;
+        List<SignalSettingsImmutable> signalSettingsAll = new ArrayList<>();
 
-                    NodeList signalSettingsNodes = (NodeList)path.evaluate(CLMSaver.getPathFromRootToSignalSettings(), settingsDoc, XPathConstants.NODESET);   
+        try
+        {
+            DocumentBuilder builder = XMLParsingUtilities.getDocumentBuilder();
+            CachingXPath path = XMLParsingUtilities.getXPath();
 
-                    for(int i = 0; i < signalSettingsNodes.getLength(); i++)
-                    {
-                        Node signalSettingsNode = signalSettingsNodes.item(i) ;
-                                                
-                        String signalTypeName = path.evaluate(CLMSaver.getPathFromSignalSettingsToSignalType(), signalSettingsNode, XPathConstants.STRING).toString();
-                        
-                        System.err.println("signalTypeName "+signalTypeName);
-                        LightSignalType signalType = LightSignalType.valueOf(signalTypeName);                      
-                        
-                        Node calibrationNode = (Node)path.evaluate(CLMSaver.getPathFromSignalSettingsToCalibration(), signalSettingsNode, XPathConstants.NODE);
-
-                        double calibrationOffsetInVolts = ((Number)path.evaluate(CLMSaver.getPathFromCalibrationToOffsetInVolts(), calibrationNode, XPathConstants.NUMBER)).doubleValue();
-                        double calibrationSlopeInPercentsPerVolt = ((Number)path.evaluate(CLMSaver.getPathFromCalibrationToSlopeInPercentsPerVolt(), calibrationNode, XPathConstants.NUMBER)).doubleValue();
-
-                        CalibrationSettingsImmutable calibrationSettings = new CalibrationSettingsImmutable(calibrationSlopeInPercentsPerVolt, calibrationOffsetInVolts);               
-                        
-                        
-                        Node signalSamplingNode = (Node)path.evaluate(CLMSaver.getPathFromSignalSettingsToSignalSampling(), signalSettingsNode, XPathConstants.NODE);
-                        double transmittanceSamplesPerMinute = ((Number)path.evaluate(CLMSaver.getPathFromSignalSamplingToSamplesPerMinute(), signalSamplingNode, XPathConstants.NUMBER)).doubleValue();
-                        String transmittanceFactoryIdentifier = path.evaluate(CLMSaver.getPathFromSignalSamplingToSourceIdentifier(), signalSamplingNode, XPathConstants.STRING).toString();
-
-                        SignalSamplingSettingsImmutable signalSamplingSettings = new SignalSamplingSettingsImmutable(transmittanceSamplesPerMinute, transmittanceFactoryIdentifier);
-
-                        
-                        signalSettingsAll.add(new SignalSettingsImmutable(signalSamplingSettings, calibrationSettings, signalType));
+            Document settingsDoc = builder.parse(settingsIS);
 
-                    }
+            NodeList nodesDatasets = (NodeList)path.evaluate(CLMSaver.getPathFromRootToDatasets(), settingsDoc, XPathConstants.NODESET);
 
-                } 
-                catch (SAXException | XPathExpressionException eSax) 
-                {
-                    eSax.printStackTrace();
-                    throw new UserCommunicableException("Error occured during parsing the settings", eSax);
-                } 
+            for(int i = 0; i<nodesDatasets.getLength();i++)
+            {
+                Node datasetNode = nodesDatasets.item(i);
+                String datasetIdentifier = path.evaluate(CLMSaver.getPathFromDatasetToItsIdentifier(), datasetNode, XPathConstants.STRING).toString();
+                int sampleCount = ((Number)path.evaluate(CLMSaver.getPathFromDatasetToItsSampleCount(), datasetNode, XPathConstants.NUMBER)).intValue();
 
-                if(experimentDescriptionEntry != null)
-                {
-                    builder.reset();
-                    path.reset();
+                Node xQuantityNode = (Node)path.evaluate(CLMSaver.getPathFromDatasetToXQuantity(), datasetNode, XPathConstants.NODE);
+                
+                String xQuantityName = path.evaluate(CLMSaver.getPathFromDataQuantityToQuantityName(), xQuantityNode, XPathConstants.STRING).toString();
+                String xUnitName = path.evaluate(CLMSaver.getPathFromDataQuantityToQuantityUnit(), xQuantityNode, XPathConstants.STRING).toString();
 
-                    try(InputStream descriptionEntryIS = zipFile.getInputStream(experimentDescriptionEntry))
-                    {
-                        Document descriptionDoc = builder.parse(descriptionEntryIS);
+                Quantity xQuantity = (xUnitName.trim().isEmpty()) ? new DimensionlessQuantity(xQuantityName): new UnitQuantity(xQuantityName, UnitUtilities.getSIUnit(xUnitName));
 
-                        Node plantMaterialNode = (Node)path.evaluate(CLMSaver.getPathFromRootToPlantMaterialElement(), descriptionDoc, XPathConstants.NODE);
-                        String speciesName = (path.evaluate(CLMSaver.getPathFromPlantMaterialToSpeciesName(), plantMaterialNode, XPathConstants.STRING)).toString();
-                        String lineName = (path.evaluate(CLMSaver.getPathFromPlantMaterialToLineName(), plantMaterialNode, XPathConstants.STRING)).toString();
-                        boolean darkAdapted = Boolean.parseBoolean(path.evaluate(CLMSaver.getPathFromPlantMaterialToDarkAdapted(), plantMaterialNode, XPathConstants.STRING).toString());
+                Node yQuantityNode = (Node)path.evaluate(CLMSaver.getPathFromDatasetToYQuantity(), datasetNode, XPathConstants.NODE);
+                String yQuantityName = path.evaluate(CLMSaver.getPathFromDataQuantityToQuantityName(), yQuantityNode, XPathConstants.STRING).toString();
+                String yUnitName = path.evaluate(CLMSaver.getPathFromDataQuantityToQuantityUnit(), yQuantityNode, XPathConstants.STRING).toString();
 
-                        Node experimentDescriptionNode = (Node)path.evaluate(CLMSaver.getPathFromRootToPhotometricExperimentElement(), descriptionDoc, XPathConstants.NODE);
-                        IrradianceUnitType intensityUnitType = IrradianceUnitType.getValue(path.evaluate(CLMSaver.getPathFromPhotometricExperimentToLightIntensityUnit(), experimentDescriptionNode, XPathConstants.STRING).toString(),null);
-                        NodeList nodesDatasets = (NodeList)path.evaluate(CLMSaver.getPathFromPhotometricExperimentToPhases(), experimentDescriptionNode, XPathConstants.NODESET);
+                Quantity yQuantity = (yUnitName.trim().isEmpty()) ? new DimensionlessQuantity(yQuantityName): new UnitQuantity(yQuantityName, UnitUtilities.getSIUnit(yUnitName));
 
-                        List<Double> lightIntensities = new ArrayList<>();
-                        for(int i = 0; i<nodesDatasets.getLength();i++)
-                        {
-                            Node phaseNode = nodesDatasets.item(i);
-                            double intensity = ((Number)path.evaluate(CLMSaver.getPathFromDatasetToItsSampleCount(), phaseNode, XPathConstants.NUMBER)).doubleValue();
-                            lightIntensities.add(intensity);
-                        }
+                Dataset1DDescriptionImmutable datasetDescription = new Dataset1DDescriptionImmutable(datasetIdentifier, sampleCount, xQuantity, yQuantity);
+                datasetDescriptions.put(datasetIdentifier, datasetDescription);    
+            }
 
-                        String comments = path.evaluate(CLMSaver.getPathFromRootToComments(), descriptionDoc, XPathConstants.STRING).toString(); 
+            NodeList nodesActinicBeamPhases = (NodeList)path.evaluate(CLMSaver.getPathFromRootToActinicBeamPhases(), settingsDoc, XPathConstants.NODESET);
 
-                        experimentDescription = new PhotometricDescriptionImmutable(speciesName, lineName, lightIntensities, intensityUnitType, darkAdapted, comments);
-                    } 
-                    catch (SAXException | XPathExpressionException eSax) 
-                    {
-                        eSax.printStackTrace();
-                        throw new UserCommunicableException("Error occured during parsing the settings", eSax);
-                    } 
-                }
-            }
-            catch (ParserConfigurationException eConfig) 
+            for(int i = 0; i < nodesActinicBeamPhases.getLength();i++)
             {
-                eConfig.printStackTrace();
-                throw new UserCommunicableException("Error occured during preparations for parsing the settings", eConfig);
-            } 
+                Node actinicBeamNode = nodesActinicBeamPhases.item(i);
+                double durationValue = ((Number)path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToDurationValue(), actinicBeamNode, XPathConstants.NUMBER)).doubleValue();
+                String durationUnitName = path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToDurationUnit(), actinicBeamNode, XPathConstants.STRING).toString();
+                StandardTimeUnit durationUnit = StandardTimeUnit.getUnit(durationUnitName);
+                double intensityInPercents = ((Number)path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToIntensityInPercents(), actinicBeamNode, XPathConstants.NUMBER)).doubleValue();
+                String actinicBeamFilterDescription = path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToSliderMountedFilter(), actinicBeamNode, XPathConstants.STRING).toString();
 
-            for(ZipEntry dataEntry : dataEntries)
+                int sliderPositionIndex = ((Number)path.evaluate(CLMSaver.getPathFromActinicBeamPhaseToSliderPosition(), actinicBeamNode, XPathConstants.NUMBER)).intValue();
+
+                SliderMountedFilter currentlyMountedFilter = new SliderMountedFilter(sliderPositionIndex, new SimpleFilter(actinicBeamFilterDescription));
+
+                ActinicPhaseSettingsImmutable actinicPhaseSettings = new ActinicPhaseSettingsImmutable(durationValue, durationUnit, intensityInPercents, currentlyMountedFilter);
+                actinicBeamPhaseSettings.add(actinicPhaseSettings);
+            }
+
+            Node nodeMeasuringBeam = (Node)path.evaluate(CLMSaver.getPathFromRootToMeasuringBeam(), settingsDoc, XPathConstants.NODE);
+            double measuringBeamFrequencyInHertz = ((Number)path.evaluate(CLMSaver.getPathFromMeasuringBeamToFrequencyInHertz(), nodeMeasuringBeam, XPathConstants.NUMBER)).doubleValue();
+            double measuringBeamIntensityInPercents = ((Number)path.evaluate(CLMSaver.getPathFromMeasuringBeamToIntensityInPercents(), nodeMeasuringBeam, XPathConstants.NUMBER)).doubleValue();
+
+            measuringBeamSettings = new MeasuringBeamSettingsImmutable(measuringBeamFrequencyInHertz, measuringBeamIntensityInPercents, true);
+
+            NodeList signalSettingsNodes = (NodeList)path.evaluate(CLMSaver.getPathFromRootToSignalSettings(), settingsDoc, XPathConstants.NODESET);   
+
+            for(int i = 0; i < signalSettingsNodes.getLength(); i++)
             {
-                String dataEntryName = dataEntry.getName();
-                String dataIdentifier = IOUtilities.getBareName(dataEntryName);
-                Dataset1DDescriptionImmutable description = datasetDescriptions.get(dataIdentifier);
+                Node signalSettingsNode = signalSettingsNodes.item(i) ;
+                                        
+                String signalTypeName = path.evaluate(CLMSaver.getPathFromSignalSettingsToSignalType(), signalSettingsNode, XPathConstants.STRING).toString();
+                LightSignalType signalType = LightSignalType.valueOf(signalTypeName);                      
+                
+                Node calibrationNode = (Node)path.evaluate(CLMSaver.getPathFromSignalSettingsToCalibration(), signalSettingsNode, XPathConstants.NODE);
 
-                int dataLengthInSampleCount = description.getLength();
-                int dataLengthInBytes = Double.BYTES*dataLengthInSampleCount;
+                double calibrationOffsetInVolts = ((Number)path.evaluate(CLMSaver.getPathFromCalibrationToOffsetInVolts(), calibrationNode, XPathConstants.NUMBER)).doubleValue();
+                double calibrationSlopeInPercentsPerVolt = ((Number)path.evaluate(CLMSaver.getPathFromCalibrationToSlopeInPercentsPerVolt(), calibrationNode, XPathConstants.NUMBER)).doubleValue();
 
-                try(ReadableByteChannel dataChannel = Channels.newChannel(zipFile.getInputStream(dataEntry))) 
-                {
-                    ByteBuffer bufferXs = FileInputUtilities.readBytesToBuffer(dataChannel, dataLengthInBytes, CLMSaver.getDataByteOrder());
-                    ByteBuffer bufferYs = FileInputUtilities.readBytesToBuffer(dataChannel, dataLengthInBytes, CLMSaver.getDataByteOrder());
+                CalibrationSettingsImmutable calibrationSettings = new CalibrationSettingsImmutable(calibrationSlopeInPercentsPerVolt, calibrationOffsetInVolts);               
+                
+                
+                Node signalSamplingNode = (Node)path.evaluate(CLMSaver.getPathFromSignalSettingsToSignalSampling(), signalSettingsNode, XPathConstants.NODE);
+                double transmittanceSamplesPerMinute = ((Number)path.evaluate(CLMSaver.getPathFromSignalSamplingToSamplesPerMinute(), signalSamplingNode, XPathConstants.NUMBER)).doubleValue();
+                String transmittanceFactoryIdentifier = path.evaluate(CLMSaver.getPathFromSignalSamplingToSourceIdentifier(), signalSamplingNode, XPathConstants.STRING).toString();
 
-                    double[] xs = new double[dataLengthInSampleCount];
-                    bufferXs.asDoubleBuffer().get(xs, 0, dataLengthInSampleCount);
+                SignalSamplingSettingsImmutable signalSamplingSettings = new SignalSamplingSettingsImmutable(transmittanceSamplesPerMinute, transmittanceFactoryIdentifier);
 
-                    double[] ys = new double[dataLengthInSampleCount];
-                    bufferYs.asDoubleBuffer().get(ys, 0, dataLengthInSampleCount);
+                
+                signalSettingsAll.add(new SignalSettingsImmutable(signalSamplingSettings, calibrationSettings, signalType));
 
-                    Channel1DData channelData = new FlexibleFlatChannel1DData(xs, ys, description.getXQuantity(), description.getYQuantity(), SortedArrayOrder.ASCENDING);
-                    Channel1D channel = new Channel1DStandard(channelData, dataIdentifier);
-                    channels.put(dataIdentifier, channel);
-                } 
+            }
+        } 
+        catch (SAXException | XPathExpressionException eSax) 
+        {
+            eSax.printStackTrace();
+            throw new UserCommunicableException("Error occured during parsing the settings", eSax);
+        } 
+        catch (ParserConfigurationException eConfig) 
+        {
+            eConfig.printStackTrace();
+            throw new UserCommunicableException("Error occured during preparations for parsing the settings", eConfig);
+        } 
+
+        return new RecordingSettings(datasetDescriptions, actinicBeamPhaseSettings, measuringBeamSettings, signalSettingsAll);
+    }
+
+    //parses description.xml, as written by CLMSaver
+    static PhotometricDescriptionImmutable readDescription(InputStream descriptionIS) throws UserCommunicableException, IOException
+    {
+        try
+        {
+            DocumentBuilder builder = XMLParsingUtilities.getDocumentBuilder();
+            CachingXPath path = XMLParsingUtilities.getXPath();
+
+            Document descriptionDoc = builder.parse(descriptionIS);
+
+            Node plantMaterialNode = (Node)path.evaluate(CLMSaver.getPathFromRootToPlantMaterialElement(), descriptionDoc, XPathConstants.NODE);
+            String speciesName = (path.evaluate(CLMSaver.getPathFromPlantMaterialToSpeciesName(), plantMaterialNode, XPathConstants.STRING)).toString();
+            String lineName = (path.evaluate(CLMSaver.getPathFromPlantMaterialToLineName(), plantMaterialNode, XPathConstants.STRING)).toString();
+            boolean darkAdapted = Boolean.parseBoolean(path.evaluate(CLMSaver.getPathFromPlantMaterialToDarkAdapted(), plantMaterialNode, XPathConstants.STRING).toString());
+
+            Node experimentDescriptionNode = (Node)path.evaluate(CLMSaver.getPathFromRootToPhotometricExperimentElement(), descriptionDoc, XPathConstants.NODE);
+            IrradianceUnitType intensityUnitType = IrradianceUnitType.getValue(path.evaluate(CLMSaver.getPathFromPhotometricExperimentToLightIntensityUnit(), experimentDescriptionNode, XPathConstants.STRING).toString(),null);
+            NodeList nodesDatasets = (NodeList)path.evaluate(CLMSaver.getPathFromPhotometricExperimentToPhases(), experimentDescriptionNode, XPathConstants.NODESET);
+
+            List<Double> lightIntensities = new ArrayList<>();
+            for(int i = 0; i<nodesDatasets.getLength();i++)
+            {
+                Node phaseNode = nodesDatasets.item(i);
+                double intensity = ((Number)path.evaluate(CLMSaver.getPathFromDatasetToItsSampleCount(), phaseNode, XPathConstants.NUMBER)).doubleValue();
+                lightIntensities.add(intensity);
             }
 
+            String comments = path.evaluate(CLMSaver.getPathFromRootToComments(), descriptionDoc, XPathConstants.STRING).toString(); 
 
-            SimplePhotometricSource source = new StandardPhotometricSource(f, IOUtilities.getBareName(f), f.getAbsolutePath(), 
-                    channels.values(), actinicBeamPhaseSettings, measuringBeamSettings, signalSettingsAll, experimentDescription);
-            sources.add(source);
-        } catch (IOException e)
+            return new PhotometricDescriptionImmutable(speciesName, lineName, lightIntensities, intensityUnitType, darkAdapted, comments);
+        } 
+        catch (SAXException | XPathExpressionException eSax) 
         {
-            e.printStackTrace();
-            throw new UserCommunicableException("Error occured while reading the file", e);
-        }
-        return sources;
-    }   
+            eSax.printStackTrace();
+            throw new UserCommunicableException("Error occured during parsing the settings", eSax);
+        } 
+        catch (ParserConfigurationException eConfig) 
+        {
+            eConfig.printStackTrace();
+            throw new UserCommunicableException("Error occured during preparations for parsing the settings", eConfig);
+        } 
+    }
 
     public List<ActinicPhaseSettingsImmutable> readActinicBeamSettings(File f) throws UserCommunicableException 
     {
@@ -348,13 +433,8 @@ public class CLMFileReader extends AbstractSourceReader<SimplePhotometricSource>
 
             try
             {
-                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-                factory.setIgnoringElementContentWhitespace(true);
-
-                DocumentBuilder builder = factory.newDocumentBuilder();
-
-                XPathFactory xpfactory = XPathFactory.newInstance();
-                XPath path = xpfactory.newXPath();
+                DocumentBuilder builder = XMLParsingUtilities.getDocumentBuilder();
+                CachingXPath path = XMLParsingUtilities.getXPath();
 
                 try(InputStream settingEntryIS = zipFile.getInputStream(settingEntry))
                 {
@@ -423,4 +503,41 @@ public class CLMFileReader extends AbstractSourceReader<SimplePhotometricSource>
         boolean accept =  filter.accept(f); 
         return accept;
     }
-}
\ No newline at end of file
+
+    static class RecordingSettings
+    {
+        private final Map<String, Dataset1DDescriptionImmutable> datasetDescriptions;
+        private final List<ActinicPhaseSettingsImmutable> actinicBeamPhaseSettings;
+        private final MeasuringBeamSettingsImmutable measuringBeamSettings;
+        private final List<SignalSettingsImmutable> signalSettings;
+
+        RecordingSettings(Map<String, Dataset1DDescriptionImmutable> datasetDescriptions, List<ActinicPhaseSettingsImmutable> actinicBeamPhaseSettings, 
+                MeasuringBeamSettingsImmutable measuringBeamSettings, List<SignalSettingsImmutable> signalSettings)
+        {
+            this.datasetDescriptions = datasetDescriptions;
+            this.actinicBeamPhaseSettings = actinicBeamPhaseSettings;
+            this.measuringBeamSettings = measuringBeamSettings;
+            this.signalSettings = signalSettings;
+        }
+
+        public Map<String, Dataset1DDescriptionImmutable> getDatasetDescriptions()
+        {
+            return datasetDescriptions;
+        }
+
+        public List<ActinicPhaseSettingsImmutable> getActinicBeamPhaseSettings()
+        {
+            return actinicBeamPhaseSettings;
+        }
+
+        public MeasuringBeamSettingsImmutable getMeasuringBeamSettings()
+        {
+            return measuringBeamSettings;
+        }
+
+        public List<SignalSettingsImmutable> getSignalSettings()
+        {
+            return signalSettings;
+        }
+    }
+}
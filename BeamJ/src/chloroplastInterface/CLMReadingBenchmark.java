@@ -0,0 +1,299 @@
+package chloroplastInterface;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import atomicJ.analysis.SortedArrayOrder;
+import atomicJ.data.Channel1D;
+import atomicJ.data.Channel1DStandard;
+import atomicJ.data.FlexibleFlatChannel1DData;
+import atomicJ.data.units.Quantity;
+import atomicJ.gui.UserCommunicableException;
+import atomicJ.gui.save.SavingException;
+import chloroplastInterface.CLMFileReader.RecordingSettings;
+import chloroplastInterface.ExperimentDescriptionModel.PhotometricDescriptionImmutable;
+import chloroplastInterface.optics.SimpleFilter;
+import chloroplastInterface.optics.SliderMountedFilter;
+
+//measures the throughput of reading CLM files, in files per second, over a corpus generated in a temporary directory, which is deleted afterwards
+//most files have short channels, whose entries are deflated, and every tenth file has a long channel, whose entry is stored and mapped by the reader
+//first it checks that CLMSettingsReader reads the same settings from each file as the former XPath parser, and that all samples are read back,
+//then it times parsing of settings.xml alone, with both parsers, and the whole import, on one thread and on one thread per processor,
+//whose subtasks take the next unread file, as ConcurrentReadingTask does
+//arguments: the number of files (by default 400) and the number of timed rounds (by default 5), which follow the same number of warm-up rounds
+//the output is deterministic apart from the timings, as the corpus is generated without randomness
+class CLMReadingBenchmark
+{
+    private static final int DEFAULT_FILE_COUNT = 400;
+    private static final int DEFAULT_ROUND_COUNT = 5;
+
+    private static final int SHORT_CHANNEL_LENGTH = 4000;
+    private static final int LONG_CHANNEL_LENGTH = 200000;
+    private static final int LONG_CHANNEL_FILE_PERIOD = 10;
+
+    public static void main(String[] args) throws Exception
+    {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FILE_COUNT;
+        int roundCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUND_COUNT;
+
+        File directory = Files.createTempDirectory("clmReadingBenchmark").toFile();
+
+        try
+        {
+            List<File> corpus = generateCorpus(directory, fileCount);
+            List<byte[]> settingsEntries = readSettingsEntries(corpus);
+
+            checkCorpus(corpus, settingsEntries);
+
+            int threadCount = Runtime.getRuntime().availableProcessors();
+
+            System.out.println(String.format(Locale.US, "%d files, %d rounds, %d processors", fileCount, roundCount, threadCount));
+
+            report("settings.xml, XPath", fileCount, time(roundCount, () -> parseSettings(settingsEntries, false)));
+            report("settings.xml, StAX", fileCount, time(roundCount, () -> parseSettings(settingsEntries, true)));
+            report("import, 1 thread", fileCount, time(roundCount, () -> importFiles(corpus, 1)));
+
+            if(threadCount > 1)
+            {
+                report("import, " + threadCount + " threads", fileCount, time(roundCount, () -> importFiles(corpus, threadCount)));
+            }
+        }
+        finally
+        {
+            for(File f : directory.listFiles())
+            {
+                f.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    private static List<File> generateCorpus(File directory, int fileCount) throws SavingException
+    {
+        List<File> corpus = new ArrayList<>();
+
+        for(int i = 0; i < fileCount; i++)
+        {
+            File f = new File(directory, "recording" + i + ".clm");
+            CLMSaver.getInstance().save(new PhotometricResource(buildSource(f, i)), f);
+            corpus.add(f);
+        }
+
+        return corpus;
+    }
+
+    //the settings vary with the index of the file, but their numbers are written by Double.toString() without the exponent, which XPath could not read
+    private static StandardPhotometricSource buildSource(File f, int index)
+    {
+        LightSignalType signalType = LightSignalType.TRANSMITTANCE;
+        int channelLength = (index % LONG_CHANNEL_FILE_PERIOD == 0) ? LONG_CHANNEL_LENGTH : SHORT_CHANNEL_LENGTH;
+
+        double[] xs = new double[channelLength];
+        double[] ys = new double[channelLength];
+        for(int i = 0; i < channelLength; i++)
+        {
+            xs[i] = 0.1*i;
+            ys[i] = index + Math.sin(0.01*i);
+        }
+
+        List<Channel1D> channels = Arrays.<Channel1D>asList(new Channel1DStandard(new FlexibleFlatChannel1DData(xs, ys, signalType.getXQuantity(), signalType.getYQuantity(), SortedArrayOrder.ASCENDING), "Signal1"));
+
+        List<ActinicPhaseSettingsImmutable> phases = new ArrayList<>();
+        for(int i = 0; i < 1 + index % 4; i++)
+        {
+            phases.add(new ActinicPhaseSettingsImmutable(10 + i, StandardTimeUnit.SECOND, 25*i, new SliderMountedFilter(i, new SimpleFilter("Filter " + i))));
+        }
+
+        MeasuringBeamSettingsImmutable measuringBeamSettings = new MeasuringBeamSettingsImmutable(100 + index, 50, true);
+        List<SignalSettingsImmutable> signalSettings = Arrays.asList(new SignalSettingsImmutable(new SignalSamplingSettingsImmutable(600, "Source " + index), new CalibrationSettingsImmutable(1.5, 0.25), signalType));
+        PhotometricDescriptionImmutable description = new PhotometricDescriptionImmutable("Species", "Line " + index, Arrays.asList(100.), IrradianceUnitType.values()[0], true, "Generated by CLMReadingBenchmark");
+
+        return new StandardPhotometricSource(f, f.getName(), f.getAbsolutePath(), channels, phases, measuringBeamSettings, signalSettings, description);
+    }
+
+    //the entries are read into memory, so that parsing of the settings is timed without inflating them
+    private static List<byte[]> readSettingsEntries(List<File> corpus) throws IOException
+    {
+        List<byte[]> settingsEntries = new ArrayList<>();
+
+        for(File f : corpus)
+        {
+            try(ZipFile zipFile = new ZipFile(f))
+            {
+                ZipEntry entry = zipFile.getEntry(CLMSaver.SETTINGS_ENTRY_NAME_WITH_EXTENSION);
+
+                try(InputStream in = zipFile.getInputStream(entry))
+                {
+                    byte[] bytes = new byte[(int)entry.getSize()];
+                    int offset = 0;
+                    int readCount;
+                    while(offset < bytes.length && (readCount = in.read(bytes, offset, bytes.length - offset)) > 0)
+                    {
+                        offset += readCount;
+                    }
+
+                    settingsEntries.add(bytes);
+                }
+            }
+        }
+
+        return settingsEntries;
+    }
+
+    private static void checkCorpus(List<File> corpus, List<byte[]> settingsEntries) throws Exception
+    {
+        for(int i = 0; i < corpus.size(); i++)
+        {
+            String streamed = describe(CLMSettingsReader.readSettings(new ByteArrayInputStream(settingsEntries.get(i))));
+            String parsedWithXPath = describe(CLMFileReader.readSettingsWithXPath(new ByteArrayInputStream(settingsEntries.get(i))));
+
+            if(!streamed.equals(parsedWithXPath))
+            {
+                throw new IllegalStateException("The settings of " + corpus.get(i) + " differ:\n" + streamed + "\n" + parsedWithXPath);
+            }
+
+            Channel1D channel = CLMFileReader.getInstance().readSources(corpus.get(i), null).get(0).getChannels().get(0);
+            int expectedLength = (i % LONG_CHANNEL_FILE_PERIOD == 0) ? LONG_CHANNEL_LENGTH : SHORT_CHANNEL_LENGTH;
+            int last = expectedLength - 1;
+
+            if(channel.getItemCount() != expectedLength || channel.getChannelData().getX(last) != 0.1*last || channel.getChannelData().getY(last) != i + Math.sin(0.01*last))
+            {
+                throw new IllegalStateException("The samples of " + corpus.get(i) + " were not read back");
+            }
+        }
+
+        System.out.println("Both parsers read the same settings and all samples were read back");
+    }
+
+    private static String describe(RecordingSettings settings)
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for(Dataset1DDescriptionImmutable dataset : settings.getDatasetDescriptions().values())
+        {
+            builder.append(dataset.getIdentifier()).append(' ').append(dataset.getLength()).append(' ')
+            .append(describe(dataset.getXQuantity())).append(' ').append(describe(dataset.getYQuantity())).append(';');
+        }
+
+        for(ActinicPhaseSettingsImmutable phase : settings.getActinicBeamPhaseSettings())
+        {
+            builder.append(phase.getDuration()).append(' ').append(phase.getDurationUnit()).append(' ').append(phase.getBeamIntensityInPercent()).append(' ')
+            .append(phase.getFilter().getPositionIndex()).append(' ').append(phase.getFilter().getDescription()).append(';');
+        }
+
+        MeasuringBeamSettingsImmutable measuringBeam = settings.getMeasuringBeamSettings();
+        builder.append(measuringBeam.getMeasuringBeamFrequencyInHertz()).append(' ').append(measuringBeam.getMeasuringBeamMaxIntensityInPercent()).append(';');
+
+        for(SignalSettingsImmutable signal : settings.getSignalSettings())
+        {
+            builder.append(signal.getSignalType()).append(' ').append(signal.getSamplingSettings().getSignalSamplesPerMinute()).append(' ')
+            .append(signal.getSamplingSettings().getSignalFactoryIdentifier()).append(' ').append(signal.getCalibrationSettings().getCalibrationSlopeInPercentsPerVolt())
+            .append(' ').append(signal.getCalibrationSettings().getCalibrationOffsetInVolts()).append(';');
+        }
+
+        return builder.toString();
+    }
+
+    private static String describe(Quantity quantity)
+    {
+        return quantity.getName() + " [" + quantity.getUnit().getFullName() + "]";
+    }
+
+    private static Void parseSettings(List<byte[]> settingsEntries, boolean streaming) throws UserCommunicableException, IOException
+    {
+        for(byte[] entry : settingsEntries)
+        {
+            InputStream in = new ByteArrayInputStream(entry);
+            RecordingSettings settings = streaming ? CLMSettingsReader.readSettings(in) : CLMFileReader.readSettingsWithXPath(in);
+
+            if(settings.getDatasetDescriptions().isEmpty())
+            {
+                throw new IllegalStateException("No datasets were read");
+            }
+        }
+
+        return null;
+    }
+
+    private static Void importFiles(List<File> corpus, int threadCount) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        AtomicInteger nextFileIndex = new AtomicInteger();
+
+        try
+        {
+            List<Future<Void>> futures = new ArrayList<>();
+
+            for(int i = 0; i < threadCount; i++)
+            {
+                futures.add(executor.submit(new Callable<Void>()
+                {
+                    @Override
+                    public Void call() throws Exception
+                    {
+                        int fileIndex;
+                        while((fileIndex = nextFileIndex.getAndIncrement()) < corpus.size())
+                        {
+                            if(CLMFileReader.getInstance().readSources(corpus.get(fileIndex), null).isEmpty())
+                            {
+                                throw new IllegalStateException("No source was read from " + corpus.get(fileIndex));
+                            }
+                        }
+
+                        return null;
+                    }
+                }));
+            }
+
+            for(Future<Void> future : futures)
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        return null;
+    }
+
+    //returns the shortest time of a round, in seconds, after as many warm-up rounds as there are timed rounds
+    private static double time(int roundCount, Callable<Void> round) throws Exception
+    {
+        for(int i = 0; i < roundCount; i++)
+        {
+            round.call();
+        }
+
+        double shortestTime = Double.POSITIVE_INFINITY;
+
+        for(int i = 0; i < roundCount; i++)
+        {
+            long start = System.nanoTime();
+            round.call();
+            shortestTime = Math.min(shortestTime, (System.nanoTime() - start)/1e9);
+        }
+
+        return shortestTime;
+    }
+
+    private static void report(String name, int fileCount, double timeInSeconds)
+    {
+        System.out.println(String.format(Locale.US, "%-24s %10.1f files/s", name, fileCount/timeInSeconds));
+    }
+}
@@ -0,0 +1,766 @@
+package chloroplastInterface;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.stream.XMLStreamException;
+
+import atomicJ.analysis.SortedArrayOrder;
+import atomicJ.data.Channel1D;
+import atomicJ.data.Channel1DStandard;
+import atomicJ.data.FlexibleFlatChannel1DData;
+import atomicJ.gui.UserCommunicableException;
+import atomicJ.utilities.IOUtilities;
+import chloroplastInterface.CLMFileReader.RecordingSettings;
+import chloroplastInterface.ExperimentDescriptionModel.PhotometricDescriptionImmutable;
+
+//append-only journal of a running recording, so that the recorded samples are on the disk as soon as they are received
+//and the recording survives a crash of the application
+//the samples are written on the thread that appends them, i.e. the journaling thread of the signal sampling worker, which drains a gating cursor,
+//so if the disk falls behind, the samples wait in the bounded sample pipeline, whose producer is held back, instead of accumulating on the heap
+//
+//layout: header (magic number, version), followed by records: type (int), payload length (int), payload, CRC32 of the type, length and payload (int)
+//the settings and description records hold settings.xml and description.xml, as written by CLMSaver, the settings describe datasets without samples
+//a samples record holds the channel identifier (UTF), sample count (int), x values and y values, big-endian, as in the .dat entries of the CLM file
+//a record torn by a crash fails the checksum, so the journal can be read up to the last complete record
+public class CLMRecordingJournal
+{
+    public static final String JOURNAL_EXTENSION = "clmj";
+
+    private static final int MAGIC_NUMBER = 0x434C4D4A;//"CLMJ" in ASCII
+    private static final int VERSION = 1;
+
+    private static final int SETTINGS_RECORD = 1;
+    private static final int DESCRIPTION_RECORD = 2;
+    private static final int SAMPLES_RECORD = 3;
+
+    private static final int MAX_PAYLOAD_LENGTH = 1 << 28;
+    private static final long FORCE_PERIOD_IN_MILISECONDS = 2000;
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private final File file;
+    private final FileOutputStream fileStream;
+    private final DataOutputStream out;
+    private final CRC32 checksum = new CRC32();
+
+    //guards the stream, as several signal sources may append their samples concurrently, and the closed flag, so that nothing is written after closing
+    private final Object writingLock = new Object();
+    private boolean closed;
+    private long lastForceTime = System.currentTimeMillis();
+    private IOException writingException;
+
+    private CLMRecordingJournal(File file) throws IOException
+    {
+        this.file = file;
+        this.fileStream = new FileOutputStream(file);
+        this.out = new DataOutputStream(new BufferedOutputStream(fileStream));
+    }
+
+    //the journal is kept next to the output file, e.g. recording.clm.4711.clmj for recording.clm
+    //each recording gets a new journal, so that the next recording need not wait until the journal of the previous one is finished into its file
+    public static File createJournalFile(File outputFile) throws IOException
+    {
+        return File.createTempFile(outputFile.getName() + ".", "." + JOURNAL_EXTENSION, outputFile.getAbsoluteFile().getParentFile());
+    }
+
+    public static boolean isJournalFile(File f)
+    {
+        return JOURNAL_EXTENSION.equalsIgnoreCase(IOUtilities.getExtension(f));
+    }
+
+    //only the settings, description and channel quantities of the settingsSource are journaled, not its samples
+    public static CLMRecordingJournal create(File journalFile, SimplePhotometricSource settingsSource) throws IOException
+    {
+        CLMRecordingJournal journal = new CLMRecordingJournal(journalFile);
+
+        try
+        {
+            journal.out.writeInt(MAGIC_NUMBER);
+            journal.out.writeInt(VERSION);
+
+            ByteArrayOutputStream settingsBytes = new ByteArrayOutputStream();
+            CLMSaver.getInstance().saveSettingsInXML(settingsBytes, getDatasetDescriptions(settingsSource, Collections.emptyMap()), settingsSource);
+            journal.writeRecord(SETTINGS_RECORD, settingsBytes.toByteArray());
+
+            ByteArrayOutputStream descriptionBytes = new ByteArrayOutputStream();
+            CLMSaver.getInstance().saveDescriptionInXML(descriptionBytes, settingsSource.getDescription());
+            journal.writeRecord(DESCRIPTION_RECORD, descriptionBytes.toByteArray());
+
+            journal.fileStream.getFD().sync();
+        }
+        catch(IOException | XMLStreamException e)
+        {
+            journal.out.close();
+            throw new IOException("Could not create the recording journal " + journalFile, e);
+        }
+
+        return journal;
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    //the samples are written before the method returns, so the arrays may be reused afterwards
+    //may be called from any thread, the samples appended after the journal is closed, or after a writing error, are ignored
+    public void append(String channelIdentifier, double[] xs, double[] ys)
+    {
+        synchronized(writingLock)
+        {
+            if(closed || writingException != null)
+            {
+                return;
+            }
+
+            writeSamplesRecord(channelIdentifier, xs, ys);
+        }
+    }
+
+    private void writeSamplesRecord(String channelIdentifier, double[] xs, double[] ys)
+    {
+        try
+        {
+            int count = Math.min(xs.length, ys.length);
+
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(16*count + 64);
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+
+            payload.writeUTF(channelIdentifier);
+            payload.writeInt(count);
+            for(int i = 0; i < count; i++)
+            {
+                payload.writeDouble(xs[i]);
+            }
+            for(int i = 0; i < count; i++)
+            {
+                payload.writeDouble(ys[i]);
+            }
+
+            writeRecord(SAMPLES_RECORD, payloadBytes.toByteArray());
+
+            //flushing is enough to survive a crash of the application, syncing protects also against a crash of the system
+            long currentTime = System.currentTimeMillis();
+            if(currentTime - lastForceTime > FORCE_PERIOD_IN_MILISECONDS)
+            {
+                fileStream.getFD().sync();
+                lastForceTime = currentTime;
+            }
+        }
+        catch(IOException e)
+        {
+            this.writingException = e;
+            Logger.getLogger(CLMRecordingJournal.class.getName()).log(Level.SEVERE, "Could not write to the recording journal " + file, e);
+        }
+    }
+
+    private void writeRecord(int type, byte[] payload) throws IOException
+    {
+        checksum.reset();
+        updateChecksum(checksum, type);
+        updateChecksum(checksum, payload.length);
+        checksum.update(payload, 0, payload.length);
+
+        out.writeInt(type);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt((int)checksum.getValue());
+        out.flush();
+    }
+
+    private static void updateChecksum(CRC32 checksum, int value)
+    {
+        checksum.update(value >>> 24);
+        checksum.update(value >>> 16);
+        checksum.update(value >>> 8);
+        checksum.update(value);
+    }
+
+    //waits until the samples which are being appended are written
+    public void close() throws IOException
+    {
+        synchronized(writingLock)
+        {
+            if(closed)
+            {
+                return;
+            }
+
+            this.closed = true;
+
+            try
+            {
+                out.flush();
+                fileStream.getFD().sync();
+            }
+            finally
+            {
+                out.close();
+            }
+
+            if(writingException != null)
+            {
+                throw writingException;
+            }
+        }
+    }
+
+    //closes and deletes the journal, e.g. when the recording was cancelled
+    public void discard()
+    {
+        try
+        {
+            close();
+        }
+        catch (IOException e)
+        {
+            Logger.getLogger(CLMRecordingJournal.class.getName()).log(Level.WARNING, "Could not close the recording journal " + file, e);
+        }
+
+        file.delete();
+    }
+
+    //writes the CLM file from the journal, streaming the samples, so that they need not be in memory
+    //the settings and the description are taken from the settingsSource, whose channel samples are ignored
+    //the journal is deleted if the CLM file is written successfully
+    public void finishInto(File clmFile, SimplePhotometricSource settingsSource) throws IOException
+    {
+        close();
+
+        List<String> channelIdentifiers = new ArrayList<>();
+        for(Channel1D channel : settingsSource.getChannels())
+        {
+            channelIdentifiers.add(channel.getIdentifier());
+        }
+
+        Map<String, ChannelRecordIndex> recordIndices = readRecordIndices(file);
+        List<Dataset1DDescriptionImmutable> datasetDescriptions = getDatasetDescriptions(settingsSource, recordIndices);
+
+        writeCLMFile(file, clmFile, datasetDescriptions, recordIndices, settingsSource, settingsSource.getDescription());
+
+        file.delete();
+    }
+
+    //writes the CLM file from the journal left by a recording that was not finished, the journal is not deleted
+    public static void recover(File journalFile, File clmFile) throws IOException, UserCommunicableException
+    {
+        JournalHeader header = readHeader(journalFile);
+        RecordingSettings settings = header.getSettings();
+
+        List<Dataset1DDescriptionImmutable> datasetDescriptions = new ArrayList<>();
+        for(Dataset1DDescriptionImmutable description : settings.getDatasetDescriptions().values())
+        {
+            int count = getSampleCount(header.getRecordIndices(), description.getIdentifier());
+            datasetDescriptions.add(new Dataset1DDescriptionImmutable(description.getIdentifier(), count, description.getXQuantity(), description.getYQuantity()));
+        }
+
+        SimplePhotometricSource settingsSource = new StandardPhotometricSource(clmFile, IOUtilities.getBareName(clmFile), clmFile.getAbsolutePath(),
+                Collections.<Channel1D>emptyList(), settings.getActinicBeamPhaseSettings(), settings.getMeasuringBeamSettings(), settings.getSignalSettings(), header.getDescription());
+
+        writeCLMFile(journalFile, clmFile, datasetDescriptions, header.getRecordIndices(), settingsSource, header.getDescription());
+    }
+
+    //reads the journal left by a recording that was not finished, all complete records are read
+    public static SimplePhotometricSource readSource(File journalFile) throws UserCommunicableException
+    {
+        try
+        {
+            JournalHeader header = readHeader(journalFile);
+            RecordingSettings settings = header.getSettings();
+
+            Map<String, double[]> xsAll = new LinkedHashMap<>();
+            Map<String, double[]> ysAll = new LinkedHashMap<>();
+            Map<String, Integer> filledCounts = new LinkedHashMap<>();
+
+            for(String identifier : settings.getDatasetDescriptions().keySet())
+            {
+                int length = getSampleCount(header.getRecordIndices(), identifier);
+                xsAll.put(identifier, new double[length]);
+                ysAll.put(identifier, new double[length]);
+                filledCounts.put(identifier, 0);
+            }
+
+            try(RecordReader reader = new RecordReader(journalFile))
+            {
+                while(reader.next())
+                {
+                    if(reader.getType() != SAMPLES_RECORD || !xsAll.containsKey(reader.getChannelIdentifier()))
+                    {
+                        continue;
+                    }
+
+                    String identifier = reader.getChannelIdentifier();
+                    int filled = filledCounts.get(identifier);
+                    int count = reader.getSampleCount();
+
+                    reader.getXBuffer().asDoubleBuffer().get(xsAll.get(identifier), filled, count);
+                    reader.getYBuffer().asDoubleBuffer().get(ysAll.get(identifier), filled, count);
+
+                    filledCounts.put(identifier, filled + count);
+                }
+            }
+
+            List<Channel1D> channels = new ArrayList<>();
+            for(Dataset1DDescriptionImmutable description : settings.getDatasetDescriptions().values())
+            {
+                String identifier = description.getIdentifier();
+                FlexibleFlatChannel1DData channelData = new FlexibleFlatChannel1DData(xsAll.get(identifier), ysAll.get(identifier), description.getXQuantity(), description.getYQuantity(), SortedArrayOrder.ASCENDING);
+                channels.add(new Channel1DStandard(channelData, identifier));
+            }
+
+            return new StandardPhotometricSource(journalFile, IOUtilities.getBareName(journalFile), journalFile.getAbsolutePath(),
+                    channels, settings.getActinicBeamPhaseSettings(), settings.getMeasuringBeamSettings(), settings.getSignalSettings(), header.getDescription());
+        }
+        catch(IOException e)
+        {
+            e.printStackTrace();
+            throw new UserCommunicableException("Error occured while reading the recording journal", e);
+        }
+    }
+
+    private static List<Dataset1DDescriptionImmutable> getDatasetDescriptions(SimplePhotometricSource source, Map<String, ChannelRecordIndex> recordIndices)
+    {
+        List<Dataset1DDescriptionImmutable> datasetDescriptions = new ArrayList<>();
+        for(Channel1D channel : source.getChannels())
+        {
+            int count = getSampleCount(recordIndices, channel.getIdentifier());
+            datasetDescriptions.add(new Dataset1DDescriptionImmutable(channel.getIdentifier(), count, channel.getXQuantity(), channel.getYQuantity()));
+        }
+
+        return datasetDescriptions;
+    }
+
+    private static int getSampleCount(Map<String, ChannelRecordIndex> recordIndices, String channelIdentifier)
+    {
+        ChannelRecordIndex index = recordIndices.get(channelIdentifier);
+        return index != null ? index.getSampleCount() : 0;
+    }
+
+    private static Map<String, ChannelRecordIndex> readRecordIndices(File journalFile) throws IOException
+    {
+        Map<String, ChannelRecordIndex> recordIndices = new LinkedHashMap<>();
+
+        try(RecordReader reader = new RecordReader(journalFile))
+        {
+            while(reader.next())
+            {
+                if(reader.getType() == SAMPLES_RECORD)
+                {
+                    addToIndex(recordIndices, reader);
+                }
+            }
+        }
+
+        return recordIndices;
+    }
+
+    private static void addToIndex(Map<String, ChannelRecordIndex> recordIndices, RecordReader reader)
+    {
+        recordIndices.computeIfAbsent(reader.getChannelIdentifier(), identifier -> new ChannelRecordIndex()).add(reader.getXPosition(), reader.getSampleCount());
+    }
+
+    private static JournalHeader readHeader(File journalFile) throws IOException, UserCommunicableException
+    {
+        RecordingSettings settings = null;
+        PhotometricDescriptionImmutable description = null;
+        Map<String, ChannelRecordIndex> recordIndices = new LinkedHashMap<>();
+
+        try(RecordReader reader = new RecordReader(journalFile))
+        {
+            while(reader.next())
+            {
+                int type = reader.getType();
+                if(type == SETTINGS_RECORD)
+                {
+                    settings = CLMFileReader.readSettings(reader.getPayloadStream());
+                }
+                else if(type == DESCRIPTION_RECORD)
+                {
+                    description = CLMFileReader.readDescription(reader.getPayloadStream());
+                }
+                else if(type == SAMPLES_RECORD)
+                {
+                    addToIndex(recordIndices, reader);
+                }
+            }
+        }
+
+        if(settings == null)
+        {
+            throw new UserCommunicableException("No settings found in the recording journal");
+        }
+
+        return new JournalHeader(settings, description, recordIndices);
+    }
+
+    //the .dat entry of each channel holds all x values followed by all y values; the entries of large channels are stored without compression,
+    //so that they can be mapped by CLMFileReader, and a stored entry needs its checksum before it is written
+    //so the values of such a channel are read from the journal at the indexed positions and spooled into a temporary file,
+    //whose checksum is computed on the way, and then the spooled file is copied into the entry
+    //the values of smaller channels are copied from the journal directly into deflated entries, as CLMSaver writes them
+    //the CLM file is written next to clmFile and moved over it, as CLMSaver does
+    private static void writeCLMFile(File journalFile, File clmFile, List<Dataset1DDescriptionImmutable> datasetDescriptions, Map<String, ChannelRecordIndex> recordIndices,
+            SimplePhotometricSource settingsSource, PhotometricDescriptionImmutable description) throws IOException
+    {
+        CLMSaver saver = CLMSaver.getInstance();
+        File spoolFile = CLMSaver.createTemporarySibling(clmFile);
+        File temporaryFile = CLMSaver.createTemporarySibling(clmFile);
+
+        try(FileChannel journalChannel = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ);
+                FileChannel spoolChannel = FileChannel.open(spoolFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                ZipOutputStream zipStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile))))
+        {
+            WritableByteChannel zipChannel = Channels.newChannel(zipStream);
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+
+            for(Dataset1DDescriptionImmutable datasetDescription : datasetDescriptions)
+            {
+                String identifier = datasetDescription.getIdentifier();
+                ChannelRecordIndex index = recordIndices.get(identifier);
+
+                if((long)Double.BYTES*getSampleCount(recordIndices, identifier) < CLMSaver.MINIMAL_STORED_DATA_LENGTH)
+                {
+                    zipStream.putNextEntry(new ZipEntry(identifier + "." + CLMSaver.DATA_ENTRY_EXTENSION));
+
+                    if(index != null)
+                    {
+                        spoolValues(journalChannel, index, true, zipChannel, null, buffer);
+                        spoolValues(journalChannel, index, false, zipChannel, null, buffer);
+                    }
+
+                    zipStream.closeEntry();
+                    continue;
+                }
+
+                spoolChannel.truncate(0);
+                CRC32 checksum = new CRC32();
+
+                if(index != null)
+                {
+                    spoolValues(journalChannel, index, true, spoolChannel, checksum, buffer);
+                    spoolValues(journalChannel, index, false, spoolChannel, checksum, buffer);
+                }
+
+                long size = spoolChannel.size();
+
+                zipStream.putNextEntry(CLMSaver.createStoredDataEntry(identifier, size, checksum.getValue()));
+
+                long transferred = 0;
+                while(transferred < size)
+                {
+                    transferred += spoolChannel.transferTo(transferred, size - transferred, zipChannel);
+                }
+
+                zipStream.closeEntry();
+            }
+
+            zipStream.putNextEntry(new ZipEntry(CLMSaver.SETTINGS_ENTRY_NAME_WITH_EXTENSION));
+            saver.saveSettingsInXML(zipStream, datasetDescriptions, settingsSource);
+            zipStream.closeEntry();
+
+            if(description != null)
+            {
+                zipStream.putNextEntry(new ZipEntry(CLMSaver.DESCRIPTION_ENTRY_NAME_WITH_EXTENSION));
+                saver.saveDescriptionInXML(zipStream, description);
+                zipStream.closeEntry();
+            }
+        }
+        catch(XMLStreamException e)
+        {
+            temporaryFile.delete();
+            throw new IOException("Could not write the settings of the recording", e);
+        }
+        catch(IOException e)
+        {
+            temporaryFile.delete();
+            throw e;
+        }
+        finally
+        {
+            spoolFile.delete();
+        }
+
+        try
+        {
+            CLMSaver.moveIntoPlace(temporaryFile, clmFile);
+        }
+        catch(IOException e)
+        {
+            temporaryFile.delete();
+            throw e;
+        }
+    }
+
+    //appends the x or y values of all indexed records to the spool channel, and adds them to the checksum, if it is not null
+    private static void spoolValues(FileChannel journalChannel, ChannelRecordIndex index, boolean xValues, WritableByteChannel spoolChannel, CRC32 checksum, ByteBuffer buffer) throws IOException
+    {
+        for(int i = 0; i < index.getRecordCount(); i++)
+        {
+            long valuesLength = (long)Double.BYTES*index.getSampleCount(i);
+            long position = xValues ? index.getXPosition(i) : index.getXPosition(i) + valuesLength;
+            long end = position + valuesLength;
+
+            while(position < end)
+            {
+                buffer.clear();
+                buffer.limit((int)Math.min(buffer.capacity(), end - position));
+
+                int readCount = journalChannel.read(buffer, position);
+                if(readCount < 0)
+                {
+                    throw new EOFException("The recording journal ended unexpectedly");
+                }
+                position += readCount;
+
+                buffer.flip();
+
+                if(checksum != null)
+                {
+                    buffer.mark();
+                    checksum.update(buffer);
+                    buffer.reset();
+                }
+
+                while(buffer.hasRemaining())
+                {
+                    spoolChannel.write(buffer);
+                }
+            }
+        }
+    }
+
+    private static class JournalHeader
+    {
+        private final RecordingSettings settings;
+        private final PhotometricDescriptionImmutable description;
+        private final Map<String, ChannelRecordIndex> recordIndices;
+
+        private JournalHeader(RecordingSettings settings, PhotometricDescriptionImmutable description, Map<String, ChannelRecordIndex> recordIndices)
+        {
+            this.settings = settings;
+            this.description = description;
+            this.recordIndices = recordIndices;
+        }
+
+        public RecordingSettings getSettings()
+        {
+            return settings;
+        }
+
+        public PhotometricDescriptionImmutable getDescription()
+        {
+            return description;
+        }
+
+        public Map<String, ChannelRecordIndex> getRecordIndices()
+        {
+            return recordIndices;
+        }
+    }
+
+    //positions in the journal of the x values of the samples records of one channel, the y values of a record follow its x values
+    private static class ChannelRecordIndex
+    {
+        private long[] xPositions = new long[16];
+        private int[] sampleCounts = new int[16];
+        private int recordCount;
+        private int sampleCount;
+
+        private void add(long xPosition, int count)
+        {
+            if(recordCount == xPositions.length)
+            {
+                this.xPositions = Arrays.copyOf(xPositions, 2*recordCount);
+                this.sampleCounts = Arrays.copyOf(sampleCounts, 2*recordCount);
+            }
+
+            xPositions[recordCount] = xPosition;
+            sampleCounts[recordCount] = count;
+            recordCount++;
+            sampleCount += count;
+        }
+
+        private int getRecordCount()
+        {
+            return recordCount;
+        }
+
+        private int getSampleCount()
+        {
+            return sampleCount;
+        }
+
+        private long getXPosition(int record)
+        {
+            return xPositions[record];
+        }
+
+        private int getSampleCount(int record)
+        {
+            return sampleCounts[record];
+        }
+    }
+
+    //reads records one by one into a reused array, stops at the end of the file or at the first incomplete or corrupted record
+    private static class RecordReader implements Closeable
+    {
+        private final DataInputStream in;
+        private final CRC32 checksum = new CRC32();
+
+        private byte[] payload = new byte[8192];
+        private int payloadLength;
+        private int type;
+
+        //positions in the file of the current record and of the next one
+        private long recordPosition;
+        private long nextRecordPosition = 2*Integer.BYTES;
+
+        //fields of the samples record
+        private String channelIdentifier;
+        private int sampleCount;
+        private int dataOffset;
+
+        private RecordReader(File journalFile) throws IOException
+        {
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+
+            try
+            {
+                if(in.readInt() != MAGIC_NUMBER || in.readInt() != VERSION)
+                {
+                    throw new IOException("The file " + journalFile + " is not a recording journal");
+                }
+            }
+            catch(IOException e)
+            {
+                in.close();
+                throw e;
+            }
+        }
+
+        private boolean next() throws IOException
+        {
+            try
+            {
+                int typeNew = in.readInt();
+                int lengthNew = in.readInt();
+
+                if(lengthNew < 0 || lengthNew > MAX_PAYLOAD_LENGTH)
+                {
+                    return false;
+                }
+
+                if(payload.length < lengthNew)
+                {
+                    payload = new byte[Math.max(lengthNew, 2*payload.length)];
+                }
+
+                in.readFully(payload, 0, lengthNew);
+                int storedChecksum = in.readInt();
+
+                checksum.reset();
+                updateChecksum(checksum, typeNew);
+                updateChecksum(checksum, lengthNew);
+                checksum.update(payload, 0, lengthNew);
+
+                if((int)checksum.getValue() != storedChecksum)
+                {
+                    return false;
+                }
+
+                this.type = typeNew;
+                this.payloadLength = lengthNew;
+                this.recordPosition = nextRecordPosition;
+                this.nextRecordPosition = recordPosition + 3*Integer.BYTES + lengthNew;
+
+                if(type == SAMPLES_RECORD)
+                {
+                    DataInputStream payloadStream = getPayloadStream();
+                    this.channelIdentifier = payloadStream.readUTF();
+                    this.sampleCount = payloadStream.readInt();
+                    this.dataOffset = payloadLength - 2*Double.BYTES*sampleCount;
+
+                    if(sampleCount < 0 || dataOffset < 0)
+                    {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+            catch(EOFException e)
+            {
+                return false;
+            }
+        }
+
+        private int getType()
+        {
+            return type;
+        }
+
+        private DataInputStream getPayloadStream()
+        {
+            return new DataInputStream(new ByteArrayInputStream(payload, 0, payloadLength));
+        }
+
+        private String getChannelIdentifier()
+        {
+            return channelIdentifier;
+        }
+
+        private int getSampleCount()
+        {
+            return sampleCount;
+        }
+
+        //position in the file of the x values of the samples record
+        private long getXPosition()
+        {
+            return recordPosition + 2*Integer.BYTES + dataOffset;
+        }
+
+        private ByteBuffer getXBuffer()
+        {
+            return ByteBuffer.wrap(payload, dataOffset, Double.BYTES*sampleCount).slice().order(CLMSaver.getDataByteOrder());
+        }
+
+        private ByteBuffer getYBuffer()
+        {
+            return ByteBuffer.wrap(payload, dataOffset + Double.BYTES*sampleCount, Double.BYTES*sampleCount).slice().order(CLMSaver.getDataByteOrder());
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            in.close();
+        }
+    }
+}
@@ -2,23 +2,22 @@ package chloroplastInterface;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.nio.channels.Channels;
-import java.nio.channels.WritableByteChannel;
+import java.nio.DoubleBuffer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 import java.text.NumberFormat;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -28,6 +27,7 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
 import atomicJ.data.Channel1D;
+import atomicJ.data.Channel1DData;
 import atomicJ.data.units.PrefixedUnit;
 import atomicJ.data.units.Quantity;
 import atomicJ.gui.save.SavingException;
@@ -100,6 +100,11 @@ public class CLMSaver implements Saver<PhotometricResource>
 
     private static final ByteOrder DATA_BYTE_ORDER = ByteOrder.BIG_ENDIAN;
 
+    //the .dat entries of channels whose x values take at least this many bytes are stored without compression, so that CLMFileReader can map them,
+    //the entries of shorter channels are deflated, as they are read into the heap anyway
+    static final int MINIMAL_STORED_DATA_LENGTH = 1 << 20;
+    private static final int DATA_BLOCK_SIZE = 1 << 16;
+
     private static final CLMSaver SAVER_INSTANCE = new CLMSaver();
 
 
@@ -324,38 +329,51 @@ public class CLMSaver implements Saver<PhotometricResource>
         return path;
     }
 
+    //only the .dat entries of large channels are stored without compression, so that CLMFileReader can map them, the other entries are deflated
+    //the file is written next to the target and then moved over it, so that a reader that maps the channel data of the target
+    //keeps reading the old file, instead of having it truncated under the mapping
     @Override
     public void save(PhotometricResource resource, File f) throws SavingException
     {   
-        SimplePhotometricSource sourceToSave = resource.getSource();
-        
-        Map<String, String> env = new HashMap<>(); 
-        env.put("create", "true");
-
-        URI uri = URI.create("jar:" + f.toURI());
-        try(FileSystem fs = FileSystems.newFileSystem(uri, env);)
+        File temporaryFile = null;
+        try
         {
-            List<? extends Channel1D> channels = sourceToSave.getChannels();
+            temporaryFile = createTemporarySibling(f);
+            try(OutputStream out = new FileOutputStream(temporaryFile))
+            {
+                writeToStream(resource, out);
+            }
 
-            for(Channel1D dataChannel : channels)
+            moveIntoPlace(temporaryFile, f);
+        } 
+        catch (IOException e) 
+        {
+            throw new SavingException("Exception encountered by CLMSaver", e);
+        }
+        finally
+        {
+            //does nothing if the file was moved
+            if(temporaryFile != null)
             {
-                OutputStream outData = Files.newOutputStream(fs.getPath(dataChannel.getIdentifier() + "." + DATA_ENTRY_EXTENSION), StandardOpenOption.CREATE,
-                        StandardOpenOption.TRUNCATE_EXISTING);
-                saveDataAsBinary(outData, dataChannel);
-                outData.close();
+                temporaryFile.delete();
             }
-            
-            OutputStream outSettings = Files.newOutputStream(fs.getPath(SETTINGS_ENTRY_NAME_WITH_EXTENSION), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            saveSettingsInXML(outSettings, sourceToSave);
-            outSettings.close();
+        }
+    }
 
-            OutputStream outDecription = Files.newOutputStream(fs.getPath(DESCRIPTION_ENTRY_NAME_WITH_EXTENSION), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            saveDescriptionInXML(outDecription, sourceToSave.getDescription());
-            outDecription.close();
+    static File createTemporarySibling(File f) throws IOException
+    {
+        return File.createTempFile(f.getName() + ".saving", ".tmp", f.getAbsoluteFile().getParentFile());
+    }
 
-        } catch (IOException | ParserConfigurationException | XMLStreamException e) 
+    static void moveIntoPlace(File source, File target) throws IOException
+    {
+        try
         {
-            throw new SavingException("Exception encountered by CLMSaver", e);
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(AtomicMoveNotSupportedException e)
+        {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
@@ -367,12 +385,20 @@ public class CLMSaver implements Saver<PhotometricResource>
             SimplePhotometricSource sourceToSave = resource.getSource();
             List<? extends Channel1D> channels = sourceToSave.getChannels();
 
+            ByteBuffer block = ByteBuffer.allocate(DATA_BLOCK_SIZE).order(DATA_BYTE_ORDER);
+
             for(Channel1D dataChannel : channels)
             {
-                ZipEntry dataChannelEntry = new ZipEntry(dataChannel.getIdentifier() + "." + DATA_ENTRY_EXTENSION);
-                zipStream.putNextEntry(dataChannelEntry);
-                saveDataAsBinary(zipStream, dataChannel);
-                zipStream.closeEntry();
+                if((long)Double.BYTES*dataChannel.getItemCount() >= MINIMAL_STORED_DATA_LENGTH)
+                {
+                    saveDataAsStoredEntry(zipStream, dataChannel, block);
+                }
+                else
+                {
+                    zipStream.putNextEntry(new ZipEntry(getDataEntryName(dataChannel.getIdentifier())));
+                    writeDataInBlocks(dataChannel.getChannelData(), block, null, zipStream);
+                    zipStream.closeEntry();
+                }
             }
 
             ZipEntry settingsEntry = new ZipEntry(SETTINGS_ENTRY_NAME_WITH_EXTENSION);
@@ -393,7 +419,7 @@ public class CLMSaver implements Saver<PhotometricResource>
         }       
     }
 
-    private void saveDescriptionInXML(OutputStream out, PhotometricDescriptionImmutable description) throws XMLStreamException
+    void saveDescriptionInXML(OutputStream out, PhotometricDescriptionImmutable description) throws XMLStreamException
     {
         XMLOutputFactory factory = XMLOutputFactory.newInstance();
         XMLStreamWriter writer = factory.createXMLStreamWriter(out,  StandardCharsets.UTF_8.name());
@@ -450,30 +476,83 @@ public class CLMSaver implements Saver<PhotometricResource>
         writer.close();//does not close the underlying output stream
     }
 
-    private void saveDataAsBinary(OutputStream out, Channel1D data) throws IOException
+    //a stored entry must have its size and checksum set before it is written, so the checksum is computed in the first pass over the data,
+    //and the data are written in the second one
+    private void saveDataAsStoredEntry(ZipOutputStream zipStream, Channel1D data, ByteBuffer block) throws IOException
     {
-        WritableByteChannel writeChannel = Channels.newChannel(out);
+        Channel1DData channelData = data.getChannelData();
+
+        CRC32 checksum = new CRC32();
+        writeDataInBlocks(channelData, block, checksum, null);
+
+        zipStream.putNextEntry(createStoredDataEntry(data.getIdentifier(), 2L*Double.BYTES*channelData.getItemCount(), checksum.getValue()));
+        writeDataInBlocks(channelData, block, null, zipStream);
+        zipStream.closeEntry();
+    }
 
-        double[][] xyPointsView = data.getChannelData().getXYView();
-        ByteBuffer byteBufferX = ByteBuffer.allocate(Double.BYTES*data.getItemCount());
-        byteBufferX.order(DATA_BYTE_ORDER);
+    //the x values followed by the y values are converted to bytes in blocks, so that neither a copy of the values nor a buffer for all bytes is allocated,
+    //each block is added to the checksum and written to the stream, if they are not null
+    private static void writeDataInBlocks(Channel1DData channelData, ByteBuffer block, CRC32 checksum, OutputStream out) throws IOException
+    {
+        DoubleBuffer doubleBlock = block.asDoubleBuffer();
+        int blockCapacity = doubleBlock.capacity();
+        int itemCount = channelData.getItemCount();
 
-        byteBufferX.asDoubleBuffer().put(xyPointsView[0]);
-        while(byteBufferX.hasRemaining())
+        for(int coordinate = 0; coordinate < 2; coordinate++)
         {
-            writeChannel.write(byteBufferX);
+            for(int from = 0; from < itemCount; from += blockCapacity)
+            {
+                int to = Math.min(itemCount, from + blockCapacity);
+
+                doubleBlock.clear();
+                for(int i = from; i < to; i++)
+                {
+                    doubleBlock.put(coordinate == 0 ? channelData.getX(i) : channelData.getY(i));
+                }
+
+                int byteCount = Double.BYTES*(to - from);
+
+                if(checksum != null)
+                {
+                    checksum.update(block.array(), 0, byteCount);
+                }
+                if(out != null)
+                {
+                    out.write(block.array(), 0, byteCount);
+                }
+            }
         }
+    }
+
+    private static String getDataEntryName(String channelIdentifier)
+    {
+        return channelIdentifier + "." + DATA_ENTRY_EXTENSION;
+    }
+
+    static ZipEntry createStoredDataEntry(String channelIdentifier, long size, long crc)
+    {
+        ZipEntry entry = new ZipEntry(getDataEntryName(channelIdentifier));
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(size);
+        entry.setCompressedSize(size);
+        entry.setCrc(crc);
+
+        return entry;
+    }
 
-        ByteBuffer byteBufferY = ByteBuffer.allocate(Double.BYTES*data.getItemCount());
-        byteBufferY.order(DATA_BYTE_ORDER);
-        byteBufferY.asDoubleBuffer().put(xyPointsView[1]);
-        while(byteBufferY.hasRemaining())
+    private void saveSettingsInXML(OutputStream out, SimplePhotometricSource source) throws ParserConfigurationException, XMLStreamException
+    {
+        List<Dataset1DDescriptionImmutable> datasetDescriptions = new ArrayList<>();
+        for(Channel1D channel : source.getChannels())
         {
-            writeChannel.write(byteBufferY);
+            datasetDescriptions.add(new Dataset1DDescriptionImmutable(channel.getIdentifier(), channel.getItemCount(), channel.getXQuantity(), channel.getYQuantity()));
         }
+
+        saveSettingsInXML(out, datasetDescriptions, source);
     }
 
-    private void saveSettingsInXML(OutputStream out, SimplePhotometricSource source) throws ParserConfigurationException, XMLStreamException
+    //datasets are described by datasetDescriptions, instead of the channels of the source, so that the data need not be in memory when the settings are saved
+    void saveSettingsInXML(OutputStream out, List<Dataset1DDescriptionImmutable> datasetDescriptions, SimplePhotometricSource source) throws XMLStreamException
     {
         XMLOutputFactory factory = XMLOutputFactory.newInstance();
         XMLStreamWriter writer = factory.createXMLStreamWriter(out,  StandardCharsets.UTF_8.name());
@@ -481,7 +560,7 @@ public class CLMSaver implements Saver<PhotometricResource>
 
         writer.writeStartElement(PHOTOMETRIC_ROOT);        
         
-        writeDataChannelDescriptions(writer, source.getChannels());
+        writeDataChannelDescriptions(writer, datasetDescriptions);
         writeActinicBeamElement(writer, source.getActinicBeamPhaseSettings());
         writeMeasuringBeamElement(writer, source.getMeasuringBeamSettings());
         writeSignalSettingsElements(writer, source);
@@ -492,21 +571,21 @@ public class CLMSaver implements Saver<PhotometricResource>
         writer.close();//does not close the underlying output stream
     }
 
-    private void writeDataChannelDescriptions(XMLStreamWriter writer, List<? extends Channel1D> dataChannels) throws XMLStreamException
+    private void writeDataChannelDescriptions(XMLStreamWriter writer, List<Dataset1DDescriptionImmutable> datasetDescriptions) throws XMLStreamException
     {
-        for(Channel1D dataChannel : dataChannels)
+        for(Dataset1DDescriptionImmutable datasetDescription : datasetDescriptions)
         {
             writer.writeStartElement(DATASET);
 
             writer.writeStartElement(DATASET_IDENTIFIER);
-            writer.writeCharacters(dataChannel.getIdentifier());
+            writer.writeCharacters(datasetDescription.getIdentifier());
             writer.writeEndElement();
 
             writer.writeStartElement(DATASET_SAMPLE_COUNT);
-            writer.writeCharacters(Integer.toString(dataChannel.getItemCount()));
+            writer.writeCharacters(Integer.toString(datasetDescription.getLength()));
             writer.writeEndElement();
             
-            writeSingleChannelDataQuantities(writer, dataChannel);
+            writeSingleChannelDataQuantities(writer, datasetDescription.getXQuantity(), datasetDescription.getYQuantity());
             
             writer.writeEndElement();
         }
@@ -625,11 +704,10 @@ public class CLMSaver implements Saver<PhotometricResource>
     }
 
     
-    private void writeSingleChannelDataQuantities(XMLStreamWriter writer, Channel1D channel)  throws XMLStreamException
+    private void writeSingleChannelDataQuantities(XMLStreamWriter writer, Quantity xQuantity, Quantity yQuantity)  throws XMLStreamException
     {
         writer.writeStartElement(CHANNEL_ELEMENT);
               
-        Quantity xQuantity = channel.getXQuantity();
         PrefixedUnit xUnit = xQuantity.getUnit();
 
         writer.writeStartElement(DATA_X_QUANTITY_ELEMENT);
@@ -645,7 +723,6 @@ public class CLMSaver implements Saver<PhotometricResource>
         writer.writeEndElement();       
         
                
-        Quantity yQuantity = channel.getYQuantity();
         PrefixedUnit yUnit = yQuantity.getUnit();
         
         writer.writeStartElement(DATA_Y_QUANTITY_ELEMENT);
@@ -0,0 +1,233 @@
+package chloroplastInterface;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import atomicJ.data.units.DimensionlessQuantity;
+import atomicJ.data.units.Quantity;
+import atomicJ.data.units.UnitQuantity;
+import atomicJ.data.units.UnitUtilities;
+import atomicJ.gui.UserCommunicableException;
+import atomicJ.utilities.XMLParsingUtilities;
+import chloroplastInterface.CLMFileReader.RecordingSettings;
+import chloroplastInterface.optics.SimpleFilter;
+import chloroplastInterface.optics.SliderMountedFilter;
+
+//reads settings.xml, as written by CLMSaver, in a single pass of a StAX reader, without building a DOM tree or evaluating XPath expressions
+//the elements are recognized by their paths, which are built from the same CLMSaver paths as the XPath expressions of CLMFileReader.readSettingsWithXPath(),
+//the first element found at a path is used, and a missing element is read as an empty string or NaN, as with XPath,
+//but numbers are parsed by Double.parseDouble(), so the exponent notation written by Double.toString() for very small or large values is read correctly
+class CLMSettingsReader
+{
+    private static final String DATASET_PATH = CLMSaver.getPathFromRootToDatasets();
+    private static final String ACTINIC_BEAM_PHASE_PATH = CLMSaver.getPathFromRootToActinicBeamPhases();
+    private static final String MEASURING_BEAM_PATH = CLMSaver.getPathFromRootToMeasuringBeam();
+    private static final String SIGNAL_SETTINGS_PATH = CLMSaver.getPathFromRootToSignalSettings();
+
+    private static final String X_QUANTITY_NAME_PATH = CLMSaver.getPathFromDatasetToXQuantity() + "/" + CLMSaver.getPathFromDataQuantityToQuantityName();
+    private static final String X_QUANTITY_UNIT_PATH = CLMSaver.getPathFromDatasetToXQuantity() + "/" + CLMSaver.getPathFromDataQuantityToQuantityUnit();
+    private static final String Y_QUANTITY_NAME_PATH = CLMSaver.getPathFromDatasetToYQuantity() + "/" + CLMSaver.getPathFromDataQuantityToQuantityName();
+    private static final String Y_QUANTITY_UNIT_PATH = CLMSaver.getPathFromDatasetToYQuantity() + "/" + CLMSaver.getPathFromDataQuantityToQuantityUnit();
+
+    private static final String CALIBRATION_OFFSET_PATH = CLMSaver.getPathFromSignalSettingsToCalibration() + "/" + CLMSaver.getPathFromCalibrationToOffsetInVolts();
+    private static final String CALIBRATION_SLOPE_PATH = CLMSaver.getPathFromSignalSettingsToCalibration() + "/" + CLMSaver.getPathFromCalibrationToSlopeInPercentsPerVolt();
+    private static final String SAMPLES_PER_MINUTE_PATH = CLMSaver.getPathFromSignalSettingsToSignalSampling() + "/" + CLMSaver.getPathFromSignalSamplingToSamplesPerMinute();
+    private static final String SOURCE_IDENTIFIER_PATH = CLMSaver.getPathFromSignalSettingsToSignalSampling() + "/" + CLMSaver.getPathFromSignalSamplingToSourceIdentifier();
+
+    private final Map<String, Dataset1DDescriptionImmutable> datasetDescriptions = new LinkedHashMap<>();
+    private final List<ActinicPhaseSettingsImmutable> actinicBeamPhaseSettings = new ArrayList<>();
+    private MeasuringBeamSettingsImmutable measuringBeamSettings;
+    private final List<SignalSettingsImmutable> signalSettingsAll = new ArrayList<>();
+
+    //the texts of the elements within the element which is being read, e.g. a dataset, by their paths relative to this element
+    private final Map<String, String> values = new HashMap<>();
+
+    private CLMSettingsReader()
+    {}
+
+    static RecordingSettings readSettings(InputStream settingsIS) throws UserCommunicableException
+    {
+        CLMSettingsReader settingsReader = new CLMSettingsReader();
+
+        try
+        {
+            XMLStreamReader reader = XMLParsingUtilities.getXMLInputFactory().createXMLStreamReader(settingsIS);
+
+            try
+            {
+                settingsReader.read(reader);
+            }
+            finally
+            {
+                reader.close();//does not close the underlying input stream
+            }
+        }
+        catch(XMLStreamException | IllegalArgumentException e)
+        {
+            throw new UserCommunicableException("Error occured during parsing the settings", e);
+        }
+
+        //when the element is missing, XPath reads the settings of the measuring beam from an empty context, so all their values are NaN
+        MeasuringBeamSettingsImmutable measuringBeamSettings = settingsReader.measuringBeamSettings != null ? settingsReader.measuringBeamSettings : new MeasuringBeamSettingsImmutable(Double.NaN, Double.NaN, true);
+
+        return new RecordingSettings(settingsReader.datasetDescriptions, settingsReader.actinicBeamPhaseSettings, measuringBeamSettings, settingsReader.signalSettingsAll);
+    }
+
+    private void read(XMLStreamReader reader) throws XMLStreamException
+    {
+        StringBuilder path = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+
+        //the path of the dataset, phase, measuring beam or signal settings element which is being read, or null
+        String recordPath = null;
+
+        while(reader.hasNext())
+        {
+            int event = reader.next();
+
+            if(event == XMLStreamConstants.START_ELEMENT)
+            {
+                path.append('/').append(reader.getLocalName());
+                text.setLength(0);
+
+                if(recordPath == null && isRecordPath(path))
+                {
+                    recordPath = path.toString();
+                    values.clear();
+                }
+            }
+            else if(event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)
+            {
+                text.append(reader.getText());
+            }
+            else if(event == XMLStreamConstants.END_ELEMENT)
+            {
+                if(recordPath != null)
+                {
+                    if(path.length() == recordPath.length())
+                    {
+                        readRecord(recordPath);
+                        recordPath = null;
+                    }
+                    else
+                    {
+                        values.putIfAbsent(path.substring(recordPath.length() + 1), text.toString());
+                    }
+                }
+
+                path.setLength(path.lastIndexOf("/"));
+                text.setLength(0);
+            }
+        }
+    }
+
+    private static boolean isRecordPath(CharSequence path)
+    {
+        String pathString = path.toString();
+        return DATASET_PATH.equals(pathString) || ACTINIC_BEAM_PHASE_PATH.equals(pathString) || MEASURING_BEAM_PATH.equals(pathString) || SIGNAL_SETTINGS_PATH.equals(pathString);
+    }
+
+    private void readRecord(String recordPath)
+    {
+        if(DATASET_PATH.equals(recordPath))
+        {
+            readDataset();
+        }
+        else if(ACTINIC_BEAM_PHASE_PATH.equals(recordPath))
+        {
+            readActinicBeamPhase();
+        }
+        else if(MEASURING_BEAM_PATH.equals(recordPath))
+        {
+            readMeasuringBeam();
+        }
+        else if(SIGNAL_SETTINGS_PATH.equals(recordPath))
+        {
+            readSignalSettings();
+        }
+    }
+
+    private void readDataset()
+    {
+        String datasetIdentifier = getString(CLMSaver.getPathFromDatasetToItsIdentifier());
+        int sampleCount = (int)getNumber(CLMSaver.getPathFromDatasetToItsSampleCount());
+
+        Quantity xQuantity = buildQuantity(getString(X_QUANTITY_NAME_PATH), getString(X_QUANTITY_UNIT_PATH));
+        Quantity yQuantity = buildQuantity(getString(Y_QUANTITY_NAME_PATH), getString(Y_QUANTITY_UNIT_PATH));
+
+        datasetDescriptions.put(datasetIdentifier, new Dataset1DDescriptionImmutable(datasetIdentifier, sampleCount, xQuantity, yQuantity));
+    }
+
+    private void readActinicBeamPhase()
+    {
+        double durationValue = getNumber(CLMSaver.getPathFromActinicBeamPhaseToDurationValue());
+        StandardTimeUnit durationUnit = StandardTimeUnit.getUnit(getString(CLMSaver.getPathFromActinicBeamPhaseToDurationUnit()));
+        double intensityInPercents = getNumber(CLMSaver.getPathFromActinicBeamPhaseToIntensityInPercents());
+        String actinicBeamFilterDescription = getString(CLMSaver.getPathFromActinicBeamPhaseToSliderMountedFilter());
+        int sliderPositionIndex = (int)getNumber(CLMSaver.getPathFromActinicBeamPhaseToSliderPosition());
+
+        SliderMountedFilter currentlyMountedFilter = new SliderMountedFilter(sliderPositionIndex, new SimpleFilter(actinicBeamFilterDescription));
+
+        actinicBeamPhaseSettings.add(new ActinicPhaseSettingsImmutable(durationValue, durationUnit, intensityInPercents, currentlyMountedFilter));
+    }
+
+    //only the first measuring beam element is read, as XPath would
+    private void readMeasuringBeam()
+    {
+        if(measuringBeamSettings == null)
+        {
+            double measuringBeamFrequencyInHertz = getNumber(CLMSaver.getPathFromMeasuringBeamToFrequencyInHertz());
+            double measuringBeamIntensityInPercents = getNumber(CLMSaver.getPathFromMeasuringBeamToIntensityInPercents());
+
+            this.measuringBeamSettings = new MeasuringBeamSettingsImmutable(measuringBeamFrequencyInHertz, measuringBeamIntensityInPercents, true);
+        }
+    }
+
+    private void readSignalSettings()
+    {
+        LightSignalType signalType = LightSignalType.valueOf(getString(CLMSaver.getPathFromSignalSettingsToSignalType()));
+
+        CalibrationSettingsImmutable calibrationSettings = new CalibrationSettingsImmutable(getNumber(CALIBRATION_SLOPE_PATH), getNumber(CALIBRATION_OFFSET_PATH));
+        SignalSamplingSettingsImmutable signalSamplingSettings = new SignalSamplingSettingsImmutable(getNumber(SAMPLES_PER_MINUTE_PATH), getString(SOURCE_IDENTIFIER_PATH));
+
+        signalSettingsAll.add(new SignalSettingsImmutable(signalSamplingSettings, calibrationSettings, signalType));
+    }
+
+    private static Quantity buildQuantity(String name, String unitName)
+    {
+        return unitName.trim().isEmpty() ? new DimensionlessQuantity(name) : new UnitQuantity(name, UnitUtilities.getSIUnit(unitName));
+    }
+
+    private String getString(String relativePath)
+    {
+        String value = values.get(relativePath);
+        return value != null ? value : "";
+    }
+
+    private double getNumber(String relativePath)
+    {
+        String value = values.get(relativePath);
+
+        if(value == null)
+        {
+            return Double.NaN;
+        }
+
+        try
+        {
+            return Double.parseDouble(value);
+        }
+        catch(NumberFormatException e)
+        {
+            return Double.NaN;
+        }
+    }
+}
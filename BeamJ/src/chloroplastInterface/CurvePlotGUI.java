@@ -31,6 +31,7 @@ import org.jfree.ui.Layer;
 import atomicJ.data.Channel1D;
 import atomicJ.data.Channel1DCollection;
 import atomicJ.gui.Channel1DChart;
+import atomicJ.gui.ChartRefreshCoordinator;
 import atomicJ.gui.CustomizableValueMarker;
 import atomicJ.gui.CustomizableXYPlot;
 import atomicJ.gui.ExtensionFileChooser;
@@ -63,6 +64,8 @@ public class CurvePlotGUI
     private final Action browseForOutputFileAction = new BrowseAction();
 
     private Channel1DChart<CustomizableXYPlot> chart;
+    //batches of samples may arrive much more often than the chart can be drawn
+    private ChartRefreshCoordinator refreshCoordinator;
     private final List<CustomizableValueMarker> phaseMarkers = new ArrayList<>(); //this class has to keep its own list of markers, because if an i-th marker is first removed from plot and than added, its style should not change
     private final RecordingModel model;
 
@@ -100,12 +103,14 @@ public class CurvePlotGUI
 
         Channel1DPlot plot = PlotFactoryPhotometric.getInstance().getPlot(initialDataset);
              
+        //the fixed range of the domain axis lets the refresh coordinator redraw only the region of newly recorded points
         plot.getDomainAxis().setRange(0, model.getTotalDurationOfActinicPhasesInSeconds());
 
         this.chart = new Channel1DChart<>(plot, PhotometricSourceVisualization.TRANSMITTANCE_CURVE_PLOT);
 
         plotPanel.addChart(chart);
         plotPanel.setSelectedChart(0);      
+        this.refreshCoordinator = new ChartRefreshCoordinator(chart, plotPanel);
         plotPanel.setBorder(BorderFactory.createEmptyBorder(20, 50, 50, 50));
      
         this.phaseMarkers.addAll(PhotometricSourceVisualization.createMarkers(this.model.getRecordingPhases(), CURRENT_PHOTOMETRIC_CURVE_PREF));
@@ -289,7 +294,7 @@ public class CurvePlotGUI
             @Override
             public void recordedChannelChanged(String channelKey) 
             {
-                chart.notifyOfDataChange(channelKey);
+                refreshCoordinator.channelChanged(channelKey);
             }
 
             @Override
@@ -0,0 +1,327 @@
+package chloroplastInterface;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+
+//continuous, hardware-clocked acquisition: the task is started once, samples are clocked by the device at a fixed rate
+//and read in blocks into a reusable native buffer on a background thread
+//time of each sample is calculated from its index and the sampling rate, so it does not depend on JVM scheduling
+//each output sample is the mean of all hardware samples acquired during its sampling period (a boxcar average),
+//not of a short burst of samples read at the maximal rate, as in NIDAQmxSignalSource
+public class NIDAQmxBufferedSignalSource implements SignalSource
+{
+    //the task is not named, so that NI-DAQmx gives it a unique name, and a task which was not cleared cannot block creation of a new one
+    private static final String TASK_NAME = "";
+    private static final int DAQmx_Val_Diff = 10106;
+    private static final double READ_TIMEOUT_IN_SECONDS = 10.0;
+    private static final double BLOCK_DURATION_IN_SECONDS = 0.05;
+    private static final double DEVICE_BUFFER_DURATION_IN_SECONDS = 5;
+    private static final int RING_BUFFER_CAPACITY = 1 << 16;
+    private static final long SAMPLE_TIMEOUT_IN_MILISECONDS = 1000;
+
+    private final Nicaiu nicaiu;
+    private final String channelDescription;
+    private final double minExpectedVoltage;
+    private final double maxExpectedVoltage;
+    private final int numberOfSamplesToAverage;
+    private final double outputSamplingRateInHertz;
+    private final double hardwareSamplingRateInHertz;
+    private final double maximalHardwareSamplingRateInHertz;
+    private final int blockSize;
+
+    private final DoubleBuffer nativeReadBuffer;
+    private final IntBuffer nativeReadCount;
+    private final RawVoltageSampleRingBuffer samples = new RawVoltageSampleRingBuffer(RING_BUFFER_CAPACITY);
+
+    private Pointer task;
+    private Thread acquisitionThread;
+    private volatile boolean acquiring;
+
+    public NIDAQmxBufferedSignalSource(NIDevice niDevice, int aiChannelIndex, double minExpectedVoltage, double maxExpectedVoltage, int numberOfSamplesToAverage, double outputSamplingRateInHertz)
+    {
+        this(Nicaiu.INSTANCE, niDevice.getChannelDescriptionForAnalogInputChannel(aiChannelIndex), niDevice.getMaximalAnalogRateForSingleChannel(), minExpectedVoltage, maxExpectedVoltage, numberOfSamplesToAverage, outputSamplingRateInHertz);
+    }
+
+    //nicaiu can be SimulatedNicaiu, which allows for acquisition without the NI-DAQmx library
+    public NIDAQmxBufferedSignalSource(Nicaiu nicaiu, String channelDescription, double maximalHardwareSamplingRateInHertz, double minExpectedVoltage, double maxExpectedVoltage, int numberOfSamplesToAverage, double outputSamplingRateInHertz)
+    {
+        if(outputSamplingRateInHertz <= 0)
+        {
+            throw new IllegalArgumentException("Sampling rate must be positive");
+        }
+
+        this.nicaiu = nicaiu;
+        this.channelDescription = channelDescription;
+        this.minExpectedVoltage = minExpectedVoltage;
+        this.maxExpectedVoltage = maxExpectedVoltage;
+        this.numberOfSamplesToAverage = Math.max(1, numberOfSamplesToAverage);
+        this.maximalHardwareSamplingRateInHertz = maximalHardwareSamplingRateInHertz;
+
+        //every output sample is the mean of numberOfSamplesToAverage consecutive hardware samples
+        this.hardwareSamplingRateInHertz = Math.min(maximalHardwareSamplingRateInHertz, this.numberOfSamplesToAverage*outputSamplingRateInHertz);
+        this.outputSamplingRateInHertz = hardwareSamplingRateInHertz/this.numberOfSamplesToAverage;
+
+        int averagedSamplesPerBlock = Math.max(1, (int)Math.round(BLOCK_DURATION_IN_SECONDS*this.outputSamplingRateInHertz));
+        this.blockSize = averagedSamplesPerBlock*this.numberOfSamplesToAverage;
+
+        this.nativeReadBuffer = ByteBuffer.allocateDirect(8*blockSize).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        this.nativeReadCount = ByteBuffer.allocateDirect(4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    public double getOutputSamplingRateInHertz()
+    {
+        return outputSamplingRateInHertz;
+    }
+
+    public boolean isAcquiring()
+    {
+        return acquiring;
+    }
+
+    public long getOverwrittenSampleCount()
+    {
+        return samples.getOverwrittenSampleCount();
+    }
+
+    @Override
+    public synchronized void initializeIfNecessary() throws IllegalStateException
+    {
+        if(acquiring)
+        {
+            return;
+        }
+
+        //the task left after a failed read or start is released before a new one is created
+        releaseTask();
+
+        PointerByReference taskHandleRef = new PointerByReference();
+        checkError(nicaiu.DAQmxCreateTask(TASK_NAME, taskHandleRef), "DAQmxCreateTask");
+        Pointer taskNew = taskHandleRef.getValue();
+
+        int bufferSizePerChannel = Math.max(2*blockSize, (int)Math.ceil(DEVICE_BUFFER_DURATION_IN_SECONDS*hardwareSamplingRateInHertz));
+
+        try
+        {
+            checkError(nicaiu.DAQmxCreateAIVoltageChan(taskNew, channelDescription, "", DAQmx_Val_Diff, minExpectedVoltage, maxExpectedVoltage, Nicaiu.DAQmx_Val_Volts, null), "DAQmxCreateAIVoltageChan");
+            checkError(nicaiu.DAQmxCfgSampClkTiming(taskNew, "", hardwareSamplingRateInHertz, Nicaiu.DAQmx_Val_Rising, Nicaiu.DAQmx_Val_ContSamps, bufferSizePerChannel), "DAQmxCfgSampClkTiming");
+        }
+        catch(IllegalStateException e)
+        {
+            nicaiu.DAQmxClearTask(taskNew);
+            throw e;
+        }
+
+        samples.clear();
+
+        long startTimeInMilis = System.currentTimeMillis();
+
+        try
+        {
+            checkError(nicaiu.DAQmxStartTask(taskNew), "DAQmxStartTask");
+        }
+        catch(IllegalStateException e)
+        {
+            nicaiu.DAQmxClearTask(taskNew);
+            throw e;
+        }
+
+        this.task = taskNew;
+        this.acquiring = true;
+        this.acquisitionThread = new Thread(new AcquisitionTask(task, startTimeInMilis), "NI DAQmx acquisition " + channelDescription);
+        this.acquisitionThread.setDaemon(true);
+        this.acquisitionThread.start();
+    }
+
+    private static void checkError(int errorCode, String functionName) throws IllegalStateException
+    {
+        if(errorCode < 0)
+        {
+            throw new IllegalStateException(functionName + " failed with the NI-DAQmx error code " + errorCode);
+        }
+    }
+
+    //returns the next acquired sample, without removing samples that have not been read by readSamples() yet
+    @Override
+    public RawVoltageSample getSample()
+    {
+        initializeIfNecessary();
+
+        RawVoltageSample sample = null;
+        try {
+            sample = samples.awaitNewSample(SAMPLE_TIMEOUT_IN_MILISECONDS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return sample != null ? sample : new RawVoltageSample(Double.NaN, System.currentTimeMillis());
+    }
+
+    //removes at most maxCount oldest samples and copies their values and times into the arrays, returns the number of copied samples
+    @Override
+    public int readSamples(double[] valuesInVolts, long[] timesInMilis, int maxCount)
+    {
+        initializeIfNecessary();
+        return samples.drainTo(valuesInVolts, timesInMilis, maxCount);
+    }
+
+    @Override
+    public boolean isContinuous()
+    {
+        return true;
+    }
+
+    @Override
+    public void finishReading()
+    {
+        releaseTask();
+    }
+
+    //stops the acquisition thread, if it still runs, and stops and clears the task
+    private void releaseTask()
+    {
+        Thread threadToJoin;
+        Pointer taskToClear;
+
+        synchronized(this)
+        {
+            if(!acquiring && task == null)
+            {
+                return;
+            }
+
+            this.acquiring = false;
+            threadToJoin = acquisitionThread;
+            taskToClear = task;
+            this.acquisitionThread = null;
+            this.task = null;
+        }
+
+        //stopping the task makes a blocked DAQmxReadAnalogF64 return
+        nicaiu.DAQmxStopTask(taskToClear);
+
+        if(threadToJoin != null && threadToJoin != Thread.currentThread())
+        {
+            try {
+                threadToJoin.join(TimeUnit.SECONDS.toMillis((long)READ_TIMEOUT_IN_SECONDS));
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        nicaiu.DAQmxClearTask(taskToClear);
+    }
+
+    @Override
+    public double getMaximalSignalSamplingRateInHertz()
+    {
+        return maximalHardwareSamplingRateInHertz/numberOfSamplesToAverage;
+    }
+
+    @Override
+    public boolean isFrequencySupported(double desiredFrequencyInHertz)
+    {
+        return true;
+    }
+
+    @Override
+    public double getClosestSupportedFrequency(double desiredFrequencyInHertz)
+    {
+        return desiredFrequencyInHertz;
+    }
+
+    //we can ignore this information
+    @Override
+    public void informAboutFrequency(double desiredFrequencyInHertz) throws IllegalStateException
+    {
+    }
+
+    //called by the acquisition thread after a read error, the task is released only if it was not already released or replaced
+    private void releaseFailedTask(Pointer failedTask)
+    {
+        synchronized(this)
+        {
+            if(task != failedTask)
+            {
+                return;
+            }
+        }
+
+        releaseTask();
+    }
+
+    private class AcquisitionTask implements Runnable
+    {
+        private final Pointer acquisitionTask;
+        private final long startTimeInMilis;
+        private long acquiredSampleCount;
+
+        public AcquisitionTask(Pointer acquisitionTask, long startTimeInMilis)
+        {
+            this.acquisitionTask = acquisitionTask;
+            this.startTimeInMilis = startTimeInMilis;
+        }
+
+        @Override
+        public void run()
+        {
+            NativeLong fillMode = new NativeLong(Nicaiu.DAQmx_Val_GroupByChannel);
+            NativeLong arraySize = new NativeLong(blockSize);
+
+            while(acquiring)
+            {
+                int errorCode = nicaiu.DAQmxReadAnalogF64(acquisitionTask, blockSize, READ_TIMEOUT_IN_SECONDS, fillMode, nativeReadBuffer, arraySize, nativeReadCount, null);
+
+                if(!acquiring)
+                {
+                    break;
+                }
+
+                int readCount = nativeReadCount.get(0);
+                publishBlock(readCount);
+
+                if(errorCode < 0)
+                {
+                    Logger.getLogger(NIDAQmxBufferedSignalSource.class.getName()).log(Level.SEVERE, "DAQmxReadAnalogF64 failed with the NI-DAQmx error code " + errorCode);
+                    releaseFailedTask(acquisitionTask);
+                    break;
+                }
+            }
+        }
+
+        //averages consecutive groups of numberOfSamplesToAverage hardware samples, the time of an averaged sample
+        //is the time of the last hardware sample in its group
+        private void publishBlock(int readCount)
+        {
+            int averagedCount = readCount/numberOfSamplesToAverage;
+
+            for(int i = 0; i < averagedCount; i++)
+            {
+                double sum = 0;
+                int offset = i*numberOfSamplesToAverage;
+                for(int j = 0; j < numberOfSamplesToAverage; j++)
+                {
+                    sum += nativeReadBuffer.get(offset + j);
+                }
+
+                acquiredSampleCount += numberOfSamplesToAverage;
+                long timeInMilis = startTimeInMilis + Math.round(1000*(acquiredSampleCount - 1)/hardwareSamplingRateInHertz);
+
+                samples.add(sum/numberOfSamplesToAverage, timeInMilis);
+            }
+
+            //partial groups are not expected, as we always request whole blocks, but we keep the sample count consistent
+            acquiredSampleCount += readCount - averagedCount*numberOfSamplesToAverage;
+        }
+    }
+}
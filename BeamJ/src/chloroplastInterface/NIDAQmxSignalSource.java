@@ -81,6 +81,27 @@ public class NIDAQmxSignalSource implements SignalSource
         return sample;
     }
 
+    @Override
+    public int readSamples(double[] valuesInVolts, long[] timesInMilis, int maxCount)
+    {
+        if(maxCount < 1)
+        {
+            return 0;
+        }
+
+        RawVoltageSample sample = getSample();
+        valuesInVolts[0] = sample.getValueInVolts();
+        timesInMilis[0] = sample.getAbsoluteTimeInMilis();
+
+        return 1;
+    }
+
+    @Override
+    public boolean isContinuous()
+    {
+        return false;
+    }
+
     @Override
     public void finishReading()
     {
@@ -13,12 +13,24 @@ import atomicJ.utilities.Validation;
 public class NIDeviceSignalSourceController implements SignalSourceController 
 {
     private final NIDevice niDevice;
+    private boolean hardwareTimedAcquisition = true;
 
     public NIDeviceSignalSourceController(NIDevice niDevice)
     {
         this.niDevice = niDevice;
     }
 
+    public boolean isHardwareTimedAcquisition()
+    {
+        return hardwareTimedAcquisition;
+    }
+
+    //if true, signal sources acquire samples continuously with the device clock, otherwise a finite task is started for every sample
+    public void setHardwareTimedAcquisition(boolean hardwareTimedAcquisition)
+    {
+        this.hardwareTimedAcquisition = hardwareTimedAcquisition;
+    }
+
     public static List<NIDeviceSignalSourceController> buildFactoriesWhenPossible(List<NIDevice> devices)
     {
         List<NIDeviceSignalSourceController> factories = new ArrayList<>();
@@ -140,14 +152,14 @@ public class NIDeviceSignalSourceController implements SignalSourceController
     @Override
     public SignalSource getSignalSource(int numberOfSamplesToAverage, double expectedCallCountPerSecond) 
     {
-        SignalSource source = new NIDAQmxSignalSource(niDevice, numberOfSamplesToAverage,  expectedCallCountPerSecond);
-        return source;
+        return getSignalSource(numberOfSamplesToAverage, -10.0, 10.0, expectedCallCountPerSecond);
     }
 
     @Override
     public SignalSource getSignalSource(int numberOfSamplesToAverage, double minExpectedVoltage, double maxExpectedVoltage, double expectedCallCountPerSecond) 
     {
-        SignalSource source = new NIDAQmxSignalSource(niDevice, 0, minExpectedVoltage, maxExpectedVoltage, numberOfSamplesToAverage,  expectedCallCountPerSecond);
+        SignalSource source = hardwareTimedAcquisition ? new NIDAQmxBufferedSignalSource(niDevice, 0, minExpectedVoltage, maxExpectedVoltage, numberOfSamplesToAverage,  expectedCallCountPerSecond)
+                : new NIDAQmxSignalSource(niDevice, 0, minExpectedVoltage, maxExpectedVoltage, numberOfSamplesToAverage,  expectedCallCountPerSecond);
         return source;
     }
 
@@ -181,6 +181,12 @@ public class PhotometricResource extends AbstractResource implements DataModelRe
         undoManager.setSizeLimit(sizeLimit);
     }
 
+    @Override
+    public long getUndoMemoryUsage()
+    {
+        return undoManager.getMemoryUsage();
+    }
+
     @Override
     public void pushCommand(String type, UndoableCommand command)
     {
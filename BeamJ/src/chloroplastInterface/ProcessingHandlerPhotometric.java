@@ -36,10 +36,13 @@ import atomicJ.sources.IdentityTag;
 
 public class ProcessingHandlerPhotometric implements ProcessingResultsHandler<ProcessingResultPhotometric>
 {   
-    private final List<VisualizablePack<SimplePhotometricSource,ProcessedResourcePhotometric>> allVisualizablePacks = new ArrayList<>();
     private final ResultDestinationPhotometric  destination;
 
-    private final Map<IdentityTag, Batch> processedBatches = new LinkedHashMap<>(); 
+    //the results accepted since the last publication, the batches are new objects after each publication,
+    //as the result view keeps the published batches and merges the later ones with the same tag into them
+    private final List<VisualizablePack<SimplePhotometricSource,ProcessedResourcePhotometric>> unpublishedVisualizablePacks = new ArrayList<>();
+    private final Map<IdentityTag, Batch> unpublishedBatches = new LinkedHashMap<>(); 
+    private boolean anyResultsPublished;
 
     private final CurveVisualizationHandle<VisualizablePack<SimplePhotometricSource,ProcessedResourcePhotometric>> curveVisualizationHandle;
     private final NumericalResultsHandler resultHandle;
@@ -65,11 +68,11 @@ public class ProcessingHandlerPhotometric implements ProcessingResultsHandler<Pr
             ProcessedPackPhotometric processedPack = result.getProcessedPack();          
             IdentityTag tag = processedPack.getBatchIdTag();
 
-            Batch batch = processedBatches.get(tag);
+            Batch batch = unpublishedBatches.get(tag);
             if(batch == null)
             {
                 batch = new Batch(tag.getLabel(), (int)tag.getKey());
-                processedBatches.put(tag, batch);
+                unpublishedBatches.put(tag, batch);
             }
 
             batch.addProcessedPack(processedPack);
@@ -77,19 +80,41 @@ public class ProcessingHandlerPhotometric implements ProcessingResultsHandler<Pr
             VisualizablePack<SimplePhotometricSource,ProcessedResourcePhotometric> visualized = result.getVisualizablePack();
             if(visualized != null)
             {
-                allVisualizablePacks.add(visualized);
+                unpublishedVisualizablePacks.add(visualized);
             }
         }
 
     }
 
+    @Override
+    public void publishPartialResults()
+    {
+        if(!unpublishedBatches.isEmpty())
+        {
+            publishUnpublishedResults();
+        }
+    }
+
+    //the handles are called at least once, even if there are no results, as the replacing handles also remove the old results
     @Override
     public void sendResultsToDestination()
     {        
-        destination.getResultBatchesCoordinator().countNewBatches(processedBatches.keySet());
+        if(!anyResultsPublished || !unpublishedBatches.isEmpty())
+        {
+            publishUnpublishedResults();
+        }
+    }
+
+    private void publishUnpublishedResults()
+    {
+        destination.getResultBatchesCoordinator().countNewBatches(unpublishedBatches.keySet());
+
+        resultHandle.handlePublicationRequest(new ArrayList<>(unpublishedBatches.values()));
+        curveVisualizationHandle.handlePublicationRequest(new ArrayList<>(unpublishedVisualizablePacks));
 
-        resultHandle.handlePublicationRequest(processedBatches.values());
-        curveVisualizationHandle.handlePublicationRequest(allVisualizablePacks);
+        unpublishedBatches.clear();
+        unpublishedVisualizablePacks.clear();
+        this.anyResultsPublished = true;
     }
 
     @Override
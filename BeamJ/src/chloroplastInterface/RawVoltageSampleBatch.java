@@ -0,0 +1,72 @@
+package chloroplastInterface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//samples read from a signal source in a single call of SignalSource.readSamples(), kept in primitive arrays
+public class RawVoltageSampleBatch
+{
+    private final double[] valuesInVolts;
+    private final long[] timesInMilis;
+    private final int sampleCount;
+
+    public RawVoltageSampleBatch(double[] valuesInVolts, long[] timesInMilis, int sampleCount)
+    {
+        if(sampleCount < 0 || sampleCount > valuesInVolts.length || sampleCount > timesInMilis.length)
+        {
+            throw new IllegalArgumentException("Sample count must be between 0 and the length of the arrays");
+        }
+
+        this.valuesInVolts = valuesInVolts;
+        this.timesInMilis = timesInMilis;
+        this.sampleCount = sampleCount;
+    }
+
+    //copies the first sampleCount elements of the arrays, so that they can be reused by the caller
+    public static RawVoltageSampleBatch getCopy(double[] valuesInVolts, long[] timesInMilis, int sampleCount)
+    {
+        return new RawVoltageSampleBatch(Arrays.copyOf(valuesInVolts, sampleCount), Arrays.copyOf(timesInMilis, sampleCount), sampleCount);
+    }
+
+    public int getSampleCount()
+    {
+        return sampleCount;
+    }
+
+    public boolean isEmpty()
+    {
+        return sampleCount == 0;
+    }
+
+    public double getValueInVolts(int index)
+    {
+        return valuesInVolts[index];
+    }
+
+    public long getAbsoluteTimeInMilis(int index)
+    {
+        return timesInMilis[index];
+    }
+
+    public RawVoltageSample getSample(int index)
+    {
+        return new RawVoltageSample(valuesInVolts[index], timesInMilis[index]);
+    }
+
+    public void addSamplesTo(List<RawVoltageSample> samples)
+    {
+        for(int i = 0; i < sampleCount; i++)
+        {
+            samples.add(new RawVoltageSample(valuesInVolts[i], timesInMilis[i]));
+        }
+    }
+
+    public List<RawVoltageSample> getSamples()
+    {
+        List<RawVoltageSample> samples = new ArrayList<>(sampleCount);
+        addSamplesTo(samples);
+
+        return samples;
+    }
+}
@@ -0,0 +1,304 @@
+package chloroplastInterface;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+//ring buffer of raw voltage samples with a single producer and many consumers, each of which reads the samples with its own cursor
+//the producer never takes a lock; it waits only for gating cursors, which must not lose any sample (e.g. the file writer),
+//while other cursors (e.g. GUI) may lag behind by more than the capacity, in which case they skip to the newest samples
+//
+//sequence numbers of samples are counted from 0 and never wrap; the sample with the sequence number s is stored at s & mask
+//samples are stored in AtomicLongArrays, so that a consumer that races with the producer can detect overwritten slots
+public class RawVoltageSamplePipeline
+{
+    private static final long PRODUCER_WAIT_IN_NANOSECONDS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicLongArray valueBits;
+    private final AtomicLongArray timesInMilis;
+
+    //sequence number of the first sample that is not published yet
+    private final AtomicLong publishedSequence = new AtomicLong();
+    //sequence number of the first sample whose slot the producer has not started to overwrite yet
+    private final AtomicLong claimedSequence = new AtomicLong();
+
+    private final CopyOnWriteArrayList<Cursor> gatingCursors = new CopyOnWriteArrayList<>();
+
+    private final Object waitLock = new Object();
+    private final AtomicInteger waitingConsumerCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    //capacity is rounded up to a power of 2
+    public RawVoltageSamplePipeline(int capacity)
+    {
+        if(capacity < 1 || capacity > (1 << 30))
+        {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+
+        int roundedCapacity = 1;
+        while(roundedCapacity < capacity)
+        {
+            roundedCapacity <<= 1;
+        }
+
+        this.capacity = roundedCapacity;
+        this.mask = this.capacity - 1;
+        this.valueBits = new AtomicLongArray(this.capacity);
+        this.timesInMilis = new AtomicLongArray(this.capacity);
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public long getPublishedSampleCount()
+    {
+        return publishedSequence.get();
+    }
+
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    //a gating cursor starts at the newest sample and holds back the producer until it reads the samples, so it must be closed when no longer used
+    public Cursor createCursor(boolean gating)
+    {
+        Cursor cursor = new Cursor(gating, publishedSequence.get());
+        if(gating)
+        {
+            gatingCursors.add(cursor);
+        }
+
+        return cursor;
+    }
+
+    //wakes the producer and all waiting consumers, subsequent calls of publish() are ignored
+    public void close()
+    {
+        this.closed = true;
+        signalConsumers();
+    }
+
+    //may be called by one thread at a time
+    //if a gating cursor lags behind, waits until it reads enough samples or the pipeline is closed
+    public void publish(double[] valuesInVolts, long[] timesInMilisSource, int count)
+    {
+        int offset = 0;
+
+        while(offset < count && !closed)
+        {
+            int chunkLength = Math.min(count - offset, capacity);
+            long start = publishedSequence.get();
+            long end = start + chunkLength;
+
+            if(!awaitGatingCursors(end - capacity))
+            {
+                return;
+            }
+
+            //consumers that are not gating check the claimed sequence after copying the samples, to find out whether the slots were overwritten meanwhile
+            claimedSequence.set(end);
+
+            for(int i = 0; i < chunkLength; i++)
+            {
+                int index = (int)((start + i) & mask);
+                valueBits.lazySet(index, Double.doubleToRawLongBits(valuesInVolts[offset + i]));
+                timesInMilis.lazySet(index, timesInMilisSource[offset + i]);
+            }
+
+            publishedSequence.set(end);
+            offset += chunkLength;
+
+            signalConsumers();
+        }
+    }
+
+    private boolean awaitGatingCursors(long requiredSequence)
+    {
+        while(!closed && getMinimalGatingSequence() < requiredSequence)
+        {
+            LockSupport.parkNanos(PRODUCER_WAIT_IN_NANOSECONDS);
+        }
+
+        return !closed;
+    }
+
+    private long getMinimalGatingSequence()
+    {
+        long minimalSequence = Long.MAX_VALUE;
+        for(Cursor cursor : gatingCursors)
+        {
+            minimalSequence = Math.min(minimalSequence, cursor.sequence);
+        }
+
+        return minimalSequence;
+    }
+
+    private void signalConsumers()
+    {
+        if(waitingConsumerCount.get() > 0)
+        {
+            synchronized(waitLock)
+            {
+                waitLock.notifyAll();
+            }
+        }
+    }
+
+    public class Cursor
+    {
+        private final boolean gating;
+
+        //sequence number of the next sample to read, it is written only by the consumer
+        private volatile long sequence;
+        private volatile long skippedSampleCount;
+
+        private Cursor(boolean gating, long sequence)
+        {
+            this.gating = gating;
+            this.sequence = sequence;
+        }
+
+        public boolean isGating()
+        {
+            return gating;
+        }
+
+        //number of samples that were overwritten or skipped before this cursor read them, for a gating cursor only readLatest() skips samples
+        public long getSkippedSampleCount()
+        {
+            return skippedSampleCount;
+        }
+
+        public int getAvailableSampleCount()
+        {
+            return (int)Math.min(capacity, publishedSequence.get() - sequence);
+        }
+
+        //copies at most maxCount oldest unread samples into the arrays, starting from the index 0, and returns the number of copied samples
+        public int read(double[] valuesInVolts, long[] timesInMilisDestination, int maxCount)
+        {
+            int maxReadCount = Math.min(maxCount, Math.min(valuesInVolts.length, timesInMilisDestination.length));
+
+            while(true)
+            {
+                long start = sequence;
+                long published = publishedSequence.get();
+
+                if(published - start > capacity)
+                {
+                    start = skipTo(published - capacity);
+                }
+
+                int readCount = (int)Math.min(maxReadCount, published - start);
+
+                for(int i = 0; i < readCount; i++)
+                {
+                    int index = (int)((start + i) & mask);
+                    valuesInVolts[i] = Double.longBitsToDouble(valueBits.get(index));
+                    timesInMilisDestination[i] = timesInMilis.get(index);
+                }
+
+                //the producer could have overwritten some of the slots while they were copied, then we read again from newer samples
+                if(!gating && claimedSequence.get() - capacity > start)
+                {
+                    skipTo(claimedSequence.get() - capacity);
+                    continue;
+                }
+
+                this.sequence = start + readCount;
+                return readCount;
+            }
+        }
+
+        //reads all unread samples
+        public RawVoltageSampleBatch readBatch()
+        {
+            int availableCount = getAvailableSampleCount();
+            double[] valuesInVolts = new double[availableCount];
+            long[] timesInMilisDestination = new long[availableCount];
+
+            int readCount = read(valuesInVolts, timesInMilisDestination, availableCount);
+
+            return new RawVoltageSampleBatch(valuesInVolts, timesInMilisDestination, readCount);
+        }
+
+        //skips all unread samples but the newest maxCount, which is how a GUI consumer can coalesce the samples it could not display in time
+        public int readLatest(double[] valuesInVolts, long[] timesInMilisDestination, int maxCount)
+        {
+            long published = publishedSequence.get();
+            if(published - sequence > maxCount)
+            {
+                skipTo(published - maxCount);
+            }
+
+            return read(valuesInVolts, timesInMilisDestination, maxCount);
+        }
+
+        //waits until a sample is published after the call and returns the newest sample, or null if no sample was published within the timeout
+        //all samples published before are skipped
+        public RawVoltageSample awaitNewSample(long timeout, TimeUnit unit) throws InterruptedException
+        {
+            long sequenceAtCall = publishedSequence.get();
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+            waitingConsumerCount.incrementAndGet();
+            try
+            {
+                synchronized(waitLock)
+                {
+                    while(publishedSequence.get() == sequenceAtCall && !closed)
+                    {
+                        long remainingNanos = deadline - System.nanoTime();
+                        if(remainingNanos <= 0)
+                        {
+                            return null;
+                        }
+
+                        TimeUnit.NANOSECONDS.timedWait(waitLock, remainingNanos);
+                    }
+                }
+            }
+            finally
+            {
+                waitingConsumerCount.decrementAndGet();
+            }
+
+            double[] value = new double[1];
+            long[] time = new long[1];
+
+            return readLatest(value, time, 1) > 0 ? new RawVoltageSample(value[0], time[0]) : null;
+        }
+
+        private long skipTo(long sequenceNew)
+        {
+            long sequenceOld = this.sequence;
+            if(sequenceNew > sequenceOld)
+            {
+                this.skippedSampleCount = skippedSampleCount + (sequenceNew - sequenceOld);
+                this.sequence = sequenceNew;
+                return sequenceNew;
+            }
+
+            return sequenceOld;
+        }
+
+        //after closing, a gating cursor no longer holds back the producer
+        public void close()
+        {
+            if(gating)
+            {
+                gatingCursors.remove(this);
+            }
+        }
+    }
+}
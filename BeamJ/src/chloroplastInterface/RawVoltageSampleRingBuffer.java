@@ -0,0 +1,120 @@
+package chloroplastInterface;
+
+import java.util.concurrent.TimeUnit;
+
+//bounded buffer of raw voltage samples, filled by a single acquisition thread and drained by consumers
+//when the buffer is full, the oldest samples are overwritten, and the number of overwritten samples is counted
+public class RawVoltageSampleRingBuffer
+{
+    private final double[] valuesInVolts;
+    private final long[] timesInMilis;
+    private final int capacity;
+
+    private int head;//index of the oldest sample
+    private int count;
+    private long overwrittenSampleCount;
+
+    //the newest sample is kept also after it is drained, so that it can be returned by awaitNewSample()
+    private long addedSampleCount;
+    private double newestValueInVolts = Double.NaN;
+    private long newestTimeInMilis;
+
+    public RawVoltageSampleRingBuffer(int capacity)
+    {
+        if(capacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity of the buffer must be positive");
+        }
+
+        this.capacity = capacity;
+        this.valuesInVolts = new double[capacity];
+        this.timesInMilis = new long[capacity];
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public synchronized int getSampleCount()
+    {
+        return count;
+    }
+
+    public synchronized long getOverwrittenSampleCount()
+    {
+        return overwrittenSampleCount;
+    }
+
+    public synchronized void add(double valueInVolts, long timeInMilis)
+    {
+        int tail = (head + count) % capacity;
+
+        valuesInVolts[tail] = valueInVolts;
+        timesInMilis[tail] = timeInMilis;
+
+        if(count < capacity)
+        {
+            count++;
+        }
+        else
+        {
+            head = (head + 1) % capacity;
+            overwrittenSampleCount++;
+        }
+
+        addedSampleCount++;
+        newestValueInVolts = valueInVolts;
+        newestTimeInMilis = timeInMilis;
+
+        notifyAll();
+    }
+
+    public synchronized void clear()
+    {
+        this.head = 0;
+        this.count = 0;
+    }
+
+    //waits until a sample is added after the call and returns the newest sample, without removing any samples from the buffer,
+    //so that the buffer can be sampled by several readers while a single consumer drains it
+    //returns null if no sample was added within the timeout
+    public synchronized RawVoltageSample awaitNewSample(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long addedCountAtCall = addedSampleCount;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while(addedSampleCount == addedCountAtCall)
+        {
+            long remainingNanos = deadline - System.nanoTime();
+            if(remainingNanos <= 0)
+            {
+                return null;
+            }
+
+            TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+        }
+
+        return new RawVoltageSample(newestValueInVolts, newestTimeInMilis);
+    }
+
+    //copies at most maxCount oldest samples into the arrays, starting from the index 0, and removes them from the buffer
+    //returns the number of copied samples
+    public synchronized int drainTo(double[] valuesInVoltsDestination, long[] timesInMilisDestination, int maxCount)
+    {
+        int drainedCount = Math.min(Math.min(maxCount, count), Math.min(valuesInVoltsDestination.length, timesInMilisDestination.length));
+
+        int firstPartLength = Math.min(drainedCount, capacity - head);
+        System.arraycopy(valuesInVolts, head, valuesInVoltsDestination, 0, firstPartLength);
+        System.arraycopy(timesInMilis, head, timesInMilisDestination, 0, firstPartLength);
+
+        int secondPartLength = drainedCount - firstPartLength;
+        System.arraycopy(valuesInVolts, 0, valuesInVoltsDestination, firstPartLength, secondPartLength);
+        System.arraycopy(timesInMilis, 0, timesInMilisDestination, firstPartLength, secondPartLength);
+
+        this.head = (head + drainedCount) % capacity;
+        this.count = count - drainedCount;
+
+        return drainedCount;
+    }
+}
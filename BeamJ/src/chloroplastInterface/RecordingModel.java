@@ -12,10 +12,16 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.Preferences;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileFilter;
 
 import com.fazecast.jSerialComm.SerialPort;
@@ -25,10 +31,10 @@ import com.fazecast.jSerialComm.SerialPortPacketListener;
 import atomicJ.analysis.SortedArrayOrder;
 import atomicJ.curveProcessing.Channel1DDataTransformation;
 import atomicJ.curveProcessing.ClearPoints1DTransformation;
-import atomicJ.curveProcessing.MultiplePointsAddition1DTransformation;
+import atomicJ.curveProcessing.MultiplePointsAppending1DTransformation;
+import atomicJ.curveProcessing.Thinning1DTransformation;
+import atomicJ.data.Channel1D;
 import atomicJ.data.Channel1DCollection;
-import atomicJ.data.Channel1DData;
-import atomicJ.data.FlexibleChannel1DData;
 import atomicJ.geometricSets.ClosedInterval;
 import atomicJ.geometricSets.RealSet;
 import atomicJ.gui.AtomicJ;
@@ -119,6 +125,15 @@ public class RecordingModel
 
     private File outputFile;
     private SaveFormatType<PhotometricResource> formatType = CLMDataSaveFormatType.getInstance();
+    //samples are journaled while the recording is running, so that they are not lost if the application crashes
+    private CLMRecordingJournal recordingJournal;
+
+    //when the recording is journaled, the recorded channels are only shown in the chart, so they are thinned to keep the memory use bounded
+    private static final int MAX_JOURNALED_CHANNEL_POINT_COUNT = 1 << 20;
+    private final Map<String, RecordedChannelThinning> recordedChannelThinnings = new LinkedHashMap<>();
+
+    //the recordings are saved one by one on this thread, its thread is not a daemon, so that a file being saved is completed before the application exits
+    private final ThreadPoolExecutor fileSavingExecutor = createFileSavingExecutor();
     private final ExperimentDescriptionModel experimentDescriptionModel;
     private final FlipperModel flipperModel = new FlipperModel();
     private final Channel1DCollection recordedChannelCollection = new Channel1DCollection(PHOTOMETRIC_RECORDING_KEY);
@@ -295,8 +310,7 @@ public class RecordingModel
             String channelKey = signalModel.getRecordedChannelKey();
             channelIdentifiers.add(channelKey);
 
-            Channel1DData signalChannelData = new FlexibleChannel1DData(new double[][] {}, signalModel.getXQuantity(), signalModel.getYQuantity(), SortedArrayOrder.ASCENDING);
-            recordedChannelCollection.addChannel(signalChannelData, channelKey);
+            recordedChannelCollection.addAppendableChannel(signalModel.getXQuantity(), signalModel.getYQuantity(), channelKey);
 
             sampleReceivers.forEach(receiver -> receiver.recordedChannelAdded(recordedChannelCollection.getChannel(channelKey)));
         }
@@ -1321,6 +1335,7 @@ public class RecordingModel
         {
             setActinicBeamPhase(PhaseStamp.IDLE_INSTANCE, false);
             setRecordingStatus(RecordingStatus.IDLE);
+            discardRecordingJournal();
         }
         else if (RecordingStatus.STOPPED.equals(recordingStatus))
         {                        
@@ -1372,6 +1387,9 @@ public class RecordingModel
         setRecordingStatus(RecordingStatus.IDLE);
         terminateActinicBeamPhaseScheduleWorker();
 
+        //the journal is kept, so that the samples recorded so far can be recovered
+        closeRecordingJournal();
+
         this.flipperModel.notifyAboutRunFinishedWithException();
     }
 
@@ -1405,6 +1423,7 @@ public class RecordingModel
             double intensity = this.keepMeasuringBeamOnWhenIdle ? measuringBeamIntensityInPercent: 0.;
             attemptToSendMeasuringBeamIntensityToController(intensity);
         }
+        updateSignalJournaling();
         setEnablednessConsistentWithModelState();
     }
 
@@ -1480,6 +1499,7 @@ public class RecordingModel
             sendMeasuringBeamFrequencyToControllers(measuringBeamFrequencyInHertz);
 
             prepareChannelDataCollectionForNewRecording();
+            openRecordingJournal();
 
             buildAndExecuteSignalSamplingWorkers();
             buildAndExecuteActinicBeamPhaseScheduleWorker();
@@ -1634,6 +1654,7 @@ public class RecordingModel
             {
                 setRecordingStatus(RecordingStatus.IDLE); 
                 setActinicBeamPhase(PhaseStamp.IDLE_INSTANCE, false);
+                discardRecordingJournal();
             }
 
             for(int signalIndex = 0; signalIndex < signalSourceModels.size();signalIndex++)
@@ -2044,19 +2065,20 @@ public class RecordingModel
         }
 
         int n = samples.size();
-        double[][] newPoints = new double[n][];
+        double[] newXs = new double[n];
+        double[] newYs = new double[n];
         for(int i = 0; i<n;i++)
         {
             CalibratedSignalSample sample = samples.get(i);
-            newPoints[i] = new double[] {sample.getTimeInSecondsSinceExperimentOnset(), sample.getSignalValueInPercents()};
+            newXs[i] = sample.getTimeInSecondsSinceExperimentOnset();
+            newYs[i] = sample.getSignalValueInPercents();
         }
 
         double lastSignalValue = samples.get(n - 1).getSignalValueInPercents();
 
         String channelIdentifier = channelIdentifiers.get(signalIndex);
 
-        Channel1DDataTransformation tr = new MultiplePointsAddition1DTransformation(newPoints, SortedArrayOrder.ASCENDING);
-        recordedChannelCollection.transform(channelIdentifier, tr);    
+        appendToRecordedChannel(channelIdentifier, newXs, newYs);
 
         for(RecordedDataReceiver receiver : sampleReceivers)
         {
@@ -2065,10 +2087,51 @@ public class RecordingModel
         }
     }
 
+    //if the recording is journaled, only every stride-th sample is appended, and the stride is doubled whenever the channel reaches
+    //the maximal number of points, the samples are saved from the journal, which holds all of them
+    private void appendToRecordedChannel(String channelIdentifier, double[] xs, double[] ys)
+    {
+        RecordedChannelThinning thinning = (recordingJournal != null) ? recordedChannelThinnings.computeIfAbsent(channelIdentifier, identifier -> new RecordedChannelThinning()) : null;
+
+        double[] keptXs = xs;
+        double[] keptYs = ys;
+
+        if(thinning != null && thinning.stride > 1)
+        {
+            int n = xs.length;
+            int firstKept = (int)((thinning.stride - thinning.receivedCount % thinning.stride) % thinning.stride);
+            int keptCount = firstKept < n ? (n - firstKept + thinning.stride - 1)/thinning.stride : 0;
+
+            keptXs = new double[keptCount];
+            keptYs = new double[keptCount];
+            for(int i = 0; i < keptCount; i++)
+            {
+                keptXs[i] = xs[firstKept + i*thinning.stride];
+                keptYs[i] = ys[firstKept + i*thinning.stride];
+            }
+        }
+
+        Channel1DDataTransformation tr = new MultiplePointsAppending1DTransformation(keptXs, keptYs);
+        recordedChannelCollection.transform(channelIdentifier, tr);    
+
+        if(thinning != null)
+        {
+            thinning.receivedCount += xs.length;
+
+            Channel1D channel = recordedChannelCollection.getChannel(channelIdentifier);
+            if(channel != null && channel.getItemCount() >= MAX_JOURNALED_CHANNEL_POINT_COUNT)
+            {
+                recordedChannelCollection.transform(channelIdentifier, new Thinning1DTransformation(2));
+                thinning.stride *= 2;
+            }
+        }
+    }
+
     private void clearChannelsAndNotifyListeners()
     {
         Channel1DDataTransformation tr = new ClearPoints1DTransformation(SortedArrayOrder.ASCENDING);
         recordedChannelCollection.transform(tr);    
+        recordedChannelThinnings.clear();
 
         for(RecordedDataReceiver receiver : sampleReceivers)
         {
@@ -2122,31 +2185,132 @@ public class RecordingModel
         List<ActinicPhaseSettingsImmutable> phaseSettingsImmutable = buildImmutableActinicPhaseSettings();
         PhotometricDescriptionImmutable description = experimentDescriptionModel.getMemento();
         String recordingName = "ActiveCurve";
-        StandardPhotometricSource source = new StandardPhotometricSource(outputFile, recordingName, recordingName, recordedChannelCollection.getChannels(), phaseSettingsImmutable, measuringBeamSettings, allSignalSettings, description);
+        StandardPhotometricSource source = new StandardPhotometricSource(outputFile, recordingName, recordingName, recordedChannelCollection.getChannelSnapshots(), phaseSettingsImmutable, measuringBeamSettings, allSignalSettings, description);
 
         return source;
     }
 
-    private PhotometricResource buildDataResource()
+    //the file is written on the saving thread, the source is built on the EDT, as its channels are snapshots of the recorded channels
+    private void finishFileSaving()
     {
+        CLMRecordingJournal journal = recordingJournal;
+        this.recordingJournal = null;
+        updateSignalJournaling();
+
         StandardPhotometricSource source = buildSource();
-        PhotometricResource dataResource = new PhotometricResource(source);
+        File file = outputFile;
+        Saver<PhotometricResource> saver = formatType.getSaver();
 
-        return dataResource;
+        fileSavingExecutor.execute(() -> saveRecording(journal, source, file, saver));
     }
 
-    private void finishFileSaving()
+    private static void saveRecording(CLMRecordingJournal journal, StandardPhotometricSource source, File file, Saver<PhotometricResource> saver)
     {
-        PhotometricResource dataResource = buildDataResource();
-        Saver<PhotometricResource> saver = formatType.getSaver();
+        if(journal != null)
+        {
+            //the CLM file is written from the journal, so that the samples are streamed from the disk
+            //if this fails, the recorded channels are not saved instead, as they may be thinned, but the journal, which holds all samples, is kept
+            try {
+                journal.finishInto(file, source);
+            } catch (IOException e) {
+                Logger.getLogger(RecordingModel.class.getName()).log(Level.SEVERE, "Could not write the recording from the journal " + journal.getFile(), e);
+                reportSavingFailure("The recording could not be saved to " + file + ".\nAll recorded samples are kept in the recording journal " + journal.getFile()
+                + ",\nwhich can be opened as a photometric curve and saved again.");
+            }
+
+            return;
+        }
+
         try {
-            saver.save(dataResource, outputFile);
+            saver.save(new PhotometricResource(source), file);
         } catch (SavingException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+            Logger.getLogger(RecordingModel.class.getName()).log(Level.SEVERE, "Could not save the recording to " + file, e);
+            reportSavingFailure("The recording could not be saved to " + file);
         }
     }
 
+    //called on the saving thread
+    private static void reportSavingFailure(String message)
+    {
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(AtomicJ.currentFrame, message, "ChloroplastJ", JOptionPane.ERROR_MESSAGE));
+    }
+
+    private static ThreadPoolExecutor createFileSavingExecutor()
+    {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, "Recording saving"));
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+    //journal is written only for the CLM format, as it is finished into a CLM file,
+    //and only if the channels are cleared before the recording, as the samples recorded before are not journaled
+    private void openRecordingJournal()
+    {
+        discardRecordingJournal();
+
+        if(overlayPlotOnPrevious || !CLMDataSaveFormatType.getInstance().equals(formatType))
+        {
+            return;
+        }
+
+        try {
+            this.recordingJournal = CLMRecordingJournal.create(CLMRecordingJournal.createJournalFile(outputFile), buildSource());
+        } catch (IOException e) {
+            Logger.getLogger(RecordingModel.class.getName()).log(Level.WARNING, "The recording will not be journaled", e);
+        }
+
+        updateSignalJournaling();
+    }
+
+    //the signal source models journal the samples on the sampling threads, with the same condition on which the EDT adds them to the recorded channels
+    private void updateSignalJournaling()
+    {
+        boolean journaling = recordingJournal != null && RecordingStatus.RUNNING.equals(recordingStatus) && latestRecordingOnsetAbsoluteTime > 0;
+
+        for(SignalSourceModel signalModel : signalSourceModels)
+        {
+            if(journaling)
+            {
+                signalModel.startJournaling(recordingJournal);
+            }
+            else
+            {
+                signalModel.stopJournaling();
+            }
+        }
+    }
+
+    private void closeRecordingJournal()
+    {
+        if(recordingJournal != null)
+        {
+            try {
+                recordingJournal.close();
+            } catch (IOException e) {
+                Logger.getLogger(RecordingModel.class.getName()).log(Level.WARNING, "Could not close the recording journal " + recordingJournal.getFile(), e);
+            }
+            this.recordingJournal = null;
+            updateSignalJournaling();
+        }
+    }
+
+    private void discardRecordingJournal()
+    {
+        if(recordingJournal != null)
+        {
+            recordingJournal.discard();
+            this.recordingJournal = null;
+            updateSignalJournaling();
+        }
+    }
+
+    private static class RecordedChannelThinning
+    {
+        private int stride = 1;
+        private long receivedCount;
+    }
+
     private class SerialPortPingResponseListener implements SerialPortPacketListener 
     {
         @Override
@@ -2394,8 +2558,8 @@ public class RecordingModel
 
             recordedChannelCollection.removeChannel(channelKeyOld);
 
-            Channel1DData signalChannelData = new FlexibleChannel1DData(new double[][] {}, signalModel.getXQuantity(), signalModel.getYQuantity(), SortedArrayOrder.ASCENDING);
-            recordedChannelCollection.addChannel(signalChannelData, channelKeyNew);
+            recordedChannelCollection.addAppendableChannel(signalModel.getXQuantity(), signalModel.getYQuantity(), channelKeyNew);
+            updateSignalJournaling();
 
             for(RecordedDataReceiver receiver : sampleReceivers)
             {
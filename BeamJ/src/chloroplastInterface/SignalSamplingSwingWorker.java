@@ -18,20 +18,38 @@
 
 package chloroplastInterface;
 
-import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 
-public class SignalSamplingSwingWorker extends SwingWorker<Void, RawVoltageSample>
+//the sampling task writes samples into a RawVoltageSamplePipeline, from which each consumer reads with its own cursor
+//the model is updated on the EDT by at most one pending event, which reads all samples published until it runs;
+//its cursor is not gating, so if the EDT stalls for longer than the pipeline holds, the oldest samples are skipped and the acquisition goes on
+//the samples for the recording journal are read by a gating cursor on a separate thread, so that none of them is lost
+public class SignalSamplingSwingWorker extends SwingWorker<Void, Void>
 {
+    //continuous sources are polled at least this often, so that the latency of samples acquired at high rates is bounded
+    private static final long MAX_CONTINUOUS_SOURCE_POLLING_PERIOD_IN_MILISECONDS = 50;
+    private static final int READ_BUFFER_CAPACITY = 4096;
+    private static final int PIPELINE_CAPACITY = 1 << 16;
+
+    private static final long JOURNALING_TERMINATION_TIMEOUT_IN_MILISECONDS = 1000;
+
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final ScheduledExecutorService journalingScheduler = Executors.newSingleThreadScheduledExecutor();
     private final long samplingPeriodInMiliseconds;
     private final SignalSource signalSource;
     private final SignalSourceModel model;
 
+    private final RawVoltageSamplePipeline pipeline = new RawVoltageSamplePipeline(PIPELINE_CAPACITY);
+    private final RawVoltageSamplePipeline.Cursor modelCursor = pipeline.createCursor(false);
+    private final RawVoltageSamplePipeline.Cursor journalCursor = pipeline.createCursor(true);
+    private final AtomicBoolean modelUpdateScheduled = new AtomicBoolean();
+
     public SignalSamplingSwingWorker(SignalSourceModel model, SignalSource signalSource, long samplingPeriodInMiliseconds)
     {	
         this.model = model;
@@ -39,9 +57,10 @@ public class SignalSamplingSwingWorker extends SwingWorker<Void, RawVoltageSampl
         this.samplingPeriodInMiliseconds = samplingPeriodInMiliseconds;
     }
 
+    //continuous sources are shared through the pipeline, so that the consumer of the shared source does not drain the samples read by this worker
     public SignalSource getSignalSourceForSharing()
     {
-        return new SignalSourceSharingWrapper(signalSource);
+        return signalSource.isContinuous() ? new SignalSourceSharingWrapper(signalSource, pipeline.createCursor(false)) : new SignalSourceSharingWrapper(signalSource);
     }
 
     public double getSamplingPeriodInMiliseconds()
@@ -54,27 +73,74 @@ public class SignalSamplingSwingWorker extends SwingWorker<Void, RawVoltageSampl
     {                
         long delay = 0;
         SignalSamplingTask task = new SignalSamplingTask(this.signalSource);
-        scheduler.scheduleAtFixedRate(task, delay, samplingPeriodInMiliseconds, TimeUnit.MILLISECONDS);
+
+        long pollingPeriod = signalSource.isContinuous() ? Math.max(1, Math.min(samplingPeriodInMiliseconds, MAX_CONTINUOUS_SOURCE_POLLING_PERIOD_IN_MILISECONDS)) : samplingPeriodInMiliseconds;
+        scheduler.scheduleAtFixedRate(task, delay, pollingPeriod, TimeUnit.MILLISECONDS);
+
+        long journalingPeriod = Math.max(1, Math.min(samplingPeriodInMiliseconds, MAX_CONTINUOUS_SOURCE_POLLING_PERIOD_IN_MILISECONDS));
+        journalingScheduler.scheduleWithFixedDelay(new JournalingTask(), journalingPeriod, journalingPeriod, TimeUnit.MILLISECONDS);
 
         return null;        
     }   
 
-    @Override
-    public void process(List<RawVoltageSample> receivedSignalSamples)
+    private void scheduleModelUpdate()
+    {
+        if(modelUpdateScheduled.compareAndSet(false, true))
+        {
+            SwingUtilities.invokeLater(this::updateModel);
+        }
+    }
+
+    private void updateModel()
     {
-        if(!isCancelled())
+        //reset before reading, so that samples published while the model is updated schedule another update
+        modelUpdateScheduled.set(false);
+
+        if(isCancelled())
         {
-            this.model.signalSamplesReceived(receivedSignalSamples);
+            return;
+        }
+
+        //reads the samples that are still in the pipeline, the ones overwritten while the EDT was busy are skipped
+        RawVoltageSampleBatch batch = modelCursor.readBatch();
+        if(!batch.isEmpty())
+        {
+            this.model.signalSamplesReceived(batch.getSamples());
         }
     }
 
     public void terminateAllTasks()
     {
         cancel(false);
-        scheduler.shutdownNow();              
+        scheduler.shutdownNow();
+        modelCursor.close();
+        finishJournaling();
+        pipeline.close();
         signalSource.finishReading();
     }
 
+    //the samples not yet journaled are read on the calling thread, after the journaling task stops, as a cursor may be read by one thread at a time
+    private void finishJournaling()
+    {
+        journalingScheduler.shutdown();
+
+        try
+        {
+            if(journalingScheduler.awaitTermination(JOURNALING_TERMINATION_TIMEOUT_IN_MILISECONDS, TimeUnit.MILLISECONDS))
+            {
+                new JournalingTask().run();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            journalCursor.close();
+        }
+    }
+
     @Override
     protected void done()
     {
@@ -83,6 +149,9 @@ public class SignalSamplingSwingWorker extends SwingWorker<Void, RawVoltageSampl
     private class SignalSamplingTask implements Runnable
     { 
         private final SignalSource signalSource;
+        //the arrays are reused between calls, the samples are copied into the pipeline
+        private final double[] valuesInVolts = new double[READ_BUFFER_CAPACITY];
+        private final long[] timesInMilis = new long[READ_BUFFER_CAPACITY];
 
         public SignalSamplingTask(SignalSource signalSource)
         {
@@ -95,14 +164,46 @@ public class SignalSamplingSwingWorker extends SwingWorker<Void, RawVoltageSampl
         {             
             Thread currentThread = Thread.currentThread();
 
-            if(currentThread.isInterrupted())
+            //the source may have acquired more samples than fit into the arrays since the last call, so we read until it is drained
+            int readCount;
+            do
             {
-                return;
+                if(currentThread.isInterrupted())
+                {
+                    return;
+                }
+
+                readCount = this.signalSource.readSamples(valuesInVolts, timesInMilis, READ_BUFFER_CAPACITY);
+
+                if(readCount > 0)
+                {
+                    pipeline.publish(valuesInVolts, timesInMilis, readCount);
+                    scheduleModelUpdate();
+                }
             }
+            while(readCount == READ_BUFFER_CAPACITY && signalSource.isContinuous());
+        }
+    }
+
+    private class JournalingTask implements Runnable
+    {
+        private final double[] valuesInVolts = new double[READ_BUFFER_CAPACITY];
+        private final long[] timesInMilis = new long[READ_BUFFER_CAPACITY];
 
-            RawVoltageSample transmittance = this.signalSource.getSample();     
+        @Override
+        public void run()
+        {
+            int readCount;
+            do
+            {
+                readCount = journalCursor.read(valuesInVolts, timesInMilis, READ_BUFFER_CAPACITY);
 
-            publish(transmittance);                 
+                if(readCount > 0)
+                {
+                    model.journalSamples(valuesInVolts, timesInMilis, readCount);
+                }
+            }
+            while(readCount == READ_BUFFER_CAPACITY);
         }
     }
-} 
+}
@@ -4,6 +4,11 @@ public interface SignalSource
 {
     public void initializeIfNecessary() throws IllegalStateException;
     public RawVoltageSample getSample();
+    //copies at most maxCount samples into the arrays, starting from the index 0, and returns the number of copied samples
+    //continuous sources return all samples acquired since the previous call, other sources read a single sample
+    public int readSamples(double[] valuesInVolts, long[] timesInMilis, int maxCount);
+    //true if the source acquires samples on its own, at the requested rate, so that readSamples() is the only call needed to collect them
+    public boolean isContinuous();
     public void finishReading();
     public double getMaximalSignalSamplingRateInHertz();
     public void informAboutFrequency(double desiredFrequencyInHertz) throws IllegalStateException;
@@ -56,6 +56,9 @@ public class SignalSourceModel
 
     private long latestRecordingOnsetAbsoluteTime;
 
+    //read on the journaling thread of the signal sampling worker, so it holds a copy of the calibration and of the channel identifier
+    private volatile JournalingTarget journalingTarget;
+
     private final List<SignalModelListener> listeners = new ArrayList<>();
     private final RecordingModel recordingModel;
 
@@ -301,6 +304,29 @@ public class SignalSourceModel
         }
     }
 
+    //samples are journaled from the start of journaling until it is stopped, the recording model starts it only when the recording is running
+    public void startJournaling(CLMRecordingJournal journal)
+    {
+        Validation.requireNonNullParameterName(journal, "journal");
+
+        this.journalingTarget = calibrationWellSpecified ? new JournalingTarget(journal, getRecordedChannelKey(), calibrationSlopeInPercentsPerVolt, calibrationOffsetInVolts, latestRecordingOnsetAbsoluteTime) : null;
+    }
+
+    public void stopJournaling()
+    {
+        this.journalingTarget = null;
+    }
+
+    //called by the signal sampling worker on its journaling thread, the arrays are reused by the caller
+    void journalSamples(double[] valuesInVolts, long[] timesInMilis, int count)
+    {
+        JournalingTarget target = this.journalingTarget;
+        if(target != null && count > 0)
+        {
+            target.append(valuesInVolts, timesInMilis, count);
+        }
+    }
+
     public void terminateSignalSamplingWorker()
     {
         if(this.signalSamplingWorker != null)
@@ -569,4 +595,36 @@ public class SignalSourceModel
         public void signalTypeChanged(LightSignalType signalTypeOld, LightSignalType signalTypeNew);
         void calibrationInitialized();
     }
+
+    private static class JournalingTarget
+    {
+        private final CLMRecordingJournal journal;
+        private final String channelIdentifier;
+        private final double slope;
+        private final double offset;
+        private final long recordingOnsetInMillis;
+
+        private JournalingTarget(CLMRecordingJournal journal, String channelIdentifier, double slope, double offset, long recordingOnsetInMillis)
+        {
+            this.journal = journal;
+            this.channelIdentifier = channelIdentifier;
+            this.slope = slope;
+            this.offset = offset;
+            this.recordingOnsetInMillis = recordingOnsetInMillis;
+        }
+
+        //calibrates the samples in the same way as CalibratedSignalSample.getCalibrated()
+        private void append(double[] valuesInVolts, long[] timesInMilis, int count)
+        {
+            double[] xs = new double[count];
+            double[] ys = new double[count];
+            for(int i = 0; i < count; i++)
+            {
+                xs[i] = (timesInMilis[i] - recordingOnsetInMillis)/1000.;
+                ys[i] = slope*(valuesInVolts[i] - offset);
+            }
+
+            journal.append(channelIdentifier, xs, ys);
+        }
+    }
 }
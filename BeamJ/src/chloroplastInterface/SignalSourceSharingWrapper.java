@@ -1,16 +1,28 @@
 package chloroplastInterface;
 
+import java.util.concurrent.TimeUnit;
+
 import chloroplastInterface.redPitaya.RedPitayaLIAFrequency;
 
 public class SignalSourceSharingWrapper implements SignalSource 
 {
     //This class is a wrapper for signalSource that ignores finishReading call, so that it can be used to share the signal source
+    //If a cursor is given, samples are read from the pipeline filled by the owner of the source, instead of from the source itself
+
+    private static final long SAMPLE_TIMEOUT_IN_MILISECONDS = 1000;
 
     private final SignalSource signalSource;
+    private final RawVoltageSamplePipeline.Cursor cursor;
 
     public SignalSourceSharingWrapper(SignalSource signalSource)
+    {
+        this(signalSource, null);
+    }    
+
+    public SignalSourceSharingWrapper(SignalSource signalSource, RawVoltageSamplePipeline.Cursor cursor)
     {
         this.signalSource = signalSource;
+        this.cursor = cursor;
     }    
 
     @Override
@@ -22,7 +34,32 @@ public class SignalSourceSharingWrapper implements SignalSource
     @Override
     public RawVoltageSample getSample()
     {
-        return signalSource.getSample();
+        if(cursor == null)
+        {
+            return signalSource.getSample();
+        }
+
+        RawVoltageSample sample = null;
+        try {
+            sample = cursor.awaitNewSample(SAMPLE_TIMEOUT_IN_MILISECONDS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) 
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return sample != null ? sample : new RawVoltageSample(Double.NaN, System.currentTimeMillis());
+    }
+
+    @Override
+    public int readSamples(double[] valuesInVolts, long[] timesInMilis, int maxCount)
+    {
+        return cursor != null ? cursor.read(valuesInVolts, timesInMilis, maxCount) : signalSource.readSamples(valuesInVolts, timesInMilis, maxCount);
+    }
+
+    @Override
+    public boolean isContinuous()
+    {
+        return signalSource.isContinuous();
     }
 
     @Override
@@ -0,0 +1,376 @@
+package chloroplastInterface;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.NativeLongByReference;
+import com.sun.jna.ptr.PointerByReference;
+
+//stand-in for the NI-DAQmx library, which does not need nicaiu.dll
+//analogue input tasks produce a slowly varying noisy signal, clocked by System.nanoTime() at the rate set with DAQmxCfgSampClkTiming,
+//so that acquisition code can be run without any NI device
+public class SimulatedNicaiu implements Nicaiu
+{
+    public static final String DEVICE_NAME = "SimDev1";
+
+    private static final int DAQmxErrorInvalidTask = -200088;
+    private static final int DAQmxErrorSamplesNotYetAvailable = -200284;
+    private static final int DAQmxErrorTaskNotRunning = -200474;
+
+    private static final double DEFAULT_RATE_IN_HERTZ = 1000;
+    private static final double MAXIMAL_SINGLE_CHANNEL_RATE_IN_HERTZ = 250000;
+    private static final int SERIAL_NUMBER = 12345;
+
+    private final AtomicLong taskCount = new AtomicLong();
+    private final Map<Long, SimulatedTask> tasks = new ConcurrentHashMap<>();
+
+    private final double signalMeanInVolts;
+    private final double signalModulationInVolts;
+    private final double modulationFrequencyInHertz;
+    private final double noiseInVolts;
+
+    public SimulatedNicaiu()
+    {
+        this(0.5, 0.1, 0.2, 0.005);
+    }
+
+    public SimulatedNicaiu(double signalMeanInVolts, double signalModulationInVolts, double modulationFrequencyInHertz, double noiseInVolts)
+    {
+        this.signalMeanInVolts = signalMeanInVolts;
+        this.signalModulationInVolts = signalModulationInVolts;
+        this.modulationFrequencyInHertz = modulationFrequencyInHertz;
+        this.noiseInVolts = noiseInVolts;
+    }
+
+    private SimulatedTask getTask(Pointer taskHandle)
+    {
+        return taskHandle != null ? tasks.get(Pointer.nativeValue(taskHandle)) : null;
+    }
+
+    @Override
+    public int DAQmxCreateTask(String taskName, PointerByReference taskHandle)
+    {
+        long id = taskCount.incrementAndGet();
+        tasks.put(id, new SimulatedTask());
+        taskHandle.setValue(new Pointer(id));
+        return 0;
+    }
+
+    @Override
+    public int DAQmxCreateAIVoltageChan(Pointer taskHandle, String physicalChannel, String nameToAssignToChannel, int terminalConfig, double minVal, double maxVal, int units, String customScaleName)
+    {
+        SimulatedTask task = getTask(taskHandle);
+        if(task == null)
+        {
+            return DAQmxErrorInvalidTask;
+        }
+
+        task.minValue = minVal;
+        task.maxValue = maxVal;
+        return 0;
+    }
+
+    @Override
+    public int DAQmxCfgSampClkTiming(Pointer taskHandle, String source, double rate, int activeEdge, int sampleMode, long sampsPerChan)
+    {
+        SimulatedTask task = getTask(taskHandle);
+        if(task == null)
+        {
+            return DAQmxErrorInvalidTask;
+        }
+
+        task.rateInHertz = rate;
+        return 0;
+    }
+
+    @Override
+    public int DAQmxStartTask(Pointer taskHandle)
+    {
+        SimulatedTask task = getTask(taskHandle);
+        if(task == null)
+        {
+            return DAQmxErrorInvalidTask;
+        }
+
+        task.start();
+        return 0;
+    }
+
+    @Override
+    public int DAQmxStopTask(Pointer taskHandle)
+    {
+        SimulatedTask task = getTask(taskHandle);
+        if(task == null)
+        {
+            return DAQmxErrorInvalidTask;
+        }
+
+        task.running = false;
+        return 0;
+    }
+
+    @Override
+    public int DAQmxClearTask(Pointer taskHandle)
+    {
+        SimulatedTask task = taskHandle != null ? tasks.remove(Pointer.nativeValue(taskHandle)) : null;
+        if(task == null)
+        {
+            return DAQmxErrorInvalidTask;
+        }
+
+        task.running = false;
+        return 0;
+    }
+
+    @Override
+    public int DAQmxReadAnalogF64(Pointer taskHandle, int numSampsPerChan, double timeout, NativeLong fillMode, DoubleBuffer readArray, NativeLong arraySizeInSamps, IntBuffer sampsPerChanRead, NativeLongByReference reserved)
+    {
+        SimulatedTask task = getTask(taskHandle);
+        if(task == null)
+        {
+            return DAQmxErrorInvalidTask;
+        }
+        if(!task.running)
+        {
+            return DAQmxErrorTaskNotRunning;
+        }
+
+        int requestedCount = Math.min(numSampsPerChan < 0 ? Integer.MAX_VALUE : numSampsPerChan, arraySizeInSamps.intValue());
+        long deadline = timeout < 0 ? Long.MAX_VALUE : System.nanoTime() + (long)(1e9*timeout);
+
+        long available = task.getAvailableSampleCount();
+        while(numSampsPerChan >= 0 && available < requestedCount && task.running)
+        {
+            long remainingNanos = deadline - System.nanoTime();
+            if(remainingNanos <= 0)
+            {
+                break;
+            }
+
+            long missingSampleNanos = (long)(1e9*(requestedCount - available)/task.rateInHertz);
+            sleepNanos(Math.min(remainingNanos, Math.max(missingSampleNanos, 100000)));
+
+            available = task.getAvailableSampleCount();
+        }
+
+        int readCount = (int)Math.min(requestedCount, available);
+
+        for(int i = 0; i < readCount; i++)
+        {
+            readArray.put(i, task.nextValue());
+        }
+
+        if(sampsPerChanRead != null)
+        {
+            sampsPerChanRead.put(0, readCount);
+        }
+
+        return (readCount < requestedCount && numSampsPerChan >= 0) ? DAQmxErrorSamplesNotYetAvailable : 0;
+    }
+
+    @Override
+    public int DAQmxReadAnalogScalarF64(Pointer taskHandle, double timeout, DoubleBuffer value, NativeLongByReference reserved)
+    {
+        SimulatedTask task = getTask(taskHandle);
+        if(task == null)
+        {
+            return DAQmxErrorInvalidTask;
+        }
+
+        if(!task.running)
+        {
+            task.start();
+        }
+
+        value.put(0, task.nextValue());
+        return 0;
+    }
+
+    private static void sleepNanos(long nanos)
+    {
+        try
+        {
+            Thread.sleep(nanos/1000000, (int)(nanos % 1000000));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int DAQmxGetSysDevNames(ByteBuffer data, NativeLong bufferSize)
+    {
+        return putString(DEVICE_NAME, data, bufferSize);
+    }
+
+    @Override
+    public int DAQmxGetDevSerialNum(String device, NativeLongByReference data)
+    {
+        data.setValue(new NativeLong(SERIAL_NUMBER));
+        return 0;
+    }
+
+    @Override
+    public int DAQmxGetDevIsSimulated(String device, NativeLongByReference data)
+    {
+        data.setValue(new NativeLong(1));
+        return 0;
+    }
+
+    @Override
+    public int DAQmxGetDevAIPhysicalChans(String device, ByteBuffer data, NativeLong bufferSize)
+    {
+        return putString(device + "/ai0," + device + "/ai1", data, bufferSize);
+    }
+
+    //mimics the DAQmx convention, i.e. when the buffer size is 0, the required size is returned
+    private static int putString(String value, ByteBuffer data, NativeLong bufferSize)
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        if(bufferSize.intValue() == 0)
+        {
+            return bytes.length;
+        }
+
+        data.put(bytes, 0, Math.min(bytes.length, bufferSize.intValue()));
+        return 0;
+    }
+
+    @Override
+    public int DAQmxGetAIConvMaxRate(Pointer taskHandle, DoubleBuffer data)
+    {
+        data.put(0, MAXIMAL_SINGLE_CHANNEL_RATE_IN_HERTZ);
+        return 0;
+    }
+
+    @Override
+    public int DAQmxGetDevAIMaxSingleChanRate(String deviceName, DoubleBuffer data)
+    {
+        data.put(0, MAXIMAL_SINGLE_CHANNEL_RATE_IN_HERTZ);
+        return 0;
+    }
+
+    @Override
+    public int DAQmxCreateDOChan(Pointer taskHandle, byte[] lines, byte[] nameToAssignToLines, int lineGrouping)
+    {
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    @Override
+    public int DAQmxCreateDIChan(Pointer taskHandle, byte[] lines, byte[] nameToAssignToLines, int lineGrouping)
+    {
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    @Override
+    public int DAQmxCreateAICurrentChan(Pointer taskHandle, byte[] physicalChannel, byte[] nameToAssignToChannel, int terminalConfig, double minVal, double maxVal, int units, int shuntResistorLoc, double extShuntResistorVal, byte[] customScaleName)
+    {
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    @Override
+    public int DAQmxCreateAOVoltageChan(Pointer taskHandle, String channelDescription, String nameToAssignToChannel, double minOutputVoltage, double maxOutputVoltage, int daqmxValVolts, String customScaleName)
+    {
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    @Override
+    public int DAQmxReadDigitalU32(Pointer taskHandle, int numSampsPerChan, double timeout, NativeLong fillMode, DoubleBuffer readArray, NativeLong arraySizeInSamps, IntBuffer sampsPerChanRead, NativeLongByReference reserved)
+    {
+        if(sampsPerChanRead != null)
+        {
+            sampsPerChanRead.put(0, 0);
+        }
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    @Override
+    public int DAQmxReadDigitalLines(Pointer taskHandle, int numSampsPerChan, double timeout, NativeLong fillMode, ByteBuffer readArray, NativeLong arraySizeInBytes, IntBuffer sampsPerChanRead, IntBuffer numBytesPerSamp, NativeLongByReference reserved)
+    {
+        if(sampsPerChanRead != null)
+        {
+            sampsPerChanRead.put(0, 0);
+        }
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    @Override
+    public int DAQmxWriteAnalogF64(Pointer taskHandle, int numSampsPerChan, NativeLong autoStart, double timeout, NativeLong dataLayout, DoubleBuffer writeArray, IntBuffer sampsPerChanWritten, NativeLongByReference reserved)
+    {
+        if(sampsPerChanWritten != null)
+        {
+            sampsPerChanWritten.put(0, numSampsPerChan);
+        }
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    @Override
+    public int DAQmxWriteAnalogScalarF64(Pointer taskHandle, NativeLong autoStart, double timeout, double value, NativeLongByReference reserved)
+    {
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    @Override
+    public int DAQmxResetDevice(byte[] deviceName)
+    {
+        return 0;
+    }
+
+    @Override
+    public int DAQmxGetNthTaskChannel(Pointer taskHandle, NativeLong index, String buffer, int bufferSize)
+    {
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    @Override
+    public int DAQmxGetPhysicalChanName(Pointer taskHandle, String channel, String data, NativeLong bufferSize)
+    {
+        return getTask(taskHandle) != null ? 0 : DAQmxErrorInvalidTask;
+    }
+
+    private class SimulatedTask
+    {
+        private final Random random = new Random();
+
+        private volatile boolean running;
+        private volatile double rateInHertz = DEFAULT_RATE_IN_HERTZ;
+        private double minValue = -10;
+        private double maxValue = 10;
+
+        private long startTimeInNanos;
+        private long readSampleCount;
+
+        private void start()
+        {
+            this.startTimeInNanos = System.nanoTime();
+            this.readSampleCount = 0;
+            this.running = true;
+        }
+
+        //number of samples acquired by the simulated hardware clock but not yet read
+        private long getAvailableSampleCount()
+        {
+            long acquiredSampleCount = (long)(1e-9*(System.nanoTime() - startTimeInNanos)*rateInHertz);
+            return acquiredSampleCount - readSampleCount;
+        }
+
+        private double nextValue()
+        {
+            double timeInSeconds = readSampleCount/rateInHertz;
+            readSampleCount++;
+
+            double value = signalMeanInVolts + signalModulationInVolts*Math.sin(2*Math.PI*modulationFrequencyInHertz*timeInSeconds) + noiseInVolts*random.nextGaussian();
+            return Math.max(minValue, Math.min(maxValue, value));
+        }
+    }
+}
@@ -41,6 +41,9 @@ public final class StandardProcessor implements Processor<ProcessablePackPhotome
 
     private static final boolean ALWAYS_CALCULATE_TWO_EXTREMA = false;
 
+    private static final Channel1DDataTransformation ASCENDING_SORTER = new SortX1DTransformation(SortedArrayOrder.ASCENDING);
+    private static final TransformedSignalCache TRANSFORMED_SIGNALS = new TransformedSignalCache();
+
     private StandardProcessor(){}
 
     public static StandardProcessor getInstance()
@@ -172,38 +175,38 @@ public final class StandardProcessor implements Processor<ProcessablePackPhotome
 
     public static Channel1DData getTrimmedAndSmoothedSignalChannelData(ProcessingSettings processSettings, SimplePhotometricSource sourceToProcess)
     {
-        int signalIndex = processSettings.getSignalIndex();
-        Channel1D signalChannel = sourceToProcess.getRecordedChannel(signalIndex);
         Channel1DDataTransformation trimmer = processSettings.getTrimmer();
-
-        Channel1DData trimmedSignal = trimmer.transform(signalChannel.getChannelData());
-
-        Channel1DDataTransformation ascendingSorter = new SortX1DTransformation(SortedArrayOrder.ASCENDING);
-        Channel1DData trimmedAndSortedSignal = ascendingSorter.transform(trimmedSignal);                
-
         Channel1DDataTransformation smoother = processSettings.getSmoother();
 
-        Channel1DData trimmedSortedAndSmoothedSignal = smoother.transform(trimmedAndSortedSignal);
+        Channel1DData signal = sourceToProcess.getRecordedChannel(processSettings.getSignalIndex()).getChannelData();
+        Channel1DData trimmedSignal = getTrimmedSignalChannelData(trimmer, sourceToProcess, signal);
+
+        Channel1DData trimmedSortedAndSmoothedSignal = TRANSFORMED_SIGNALS.getTransformedSignal(sourceToProcess, signal, 
+                () -> smoother.transform(ASCENDING_SORTER.transform(trimmedSignal)), trimmer, ASCENDING_SORTER, smoother);
 
         return trimmedSortedAndSmoothedSignal;
     }
 
     public static Channel1DData getTrimmedSignalDerivativeChannelData(ProcessingSettings processSettings, SimplePhotometricSource sourceToProcess)
     {
-        int signalIndex = processSettings.getSignalIndex();
-
-        Channel1D transmittanceChannel = sourceToProcess.getRecordedChannel(signalIndex);
         Channel1DDataTransformation trimmer = processSettings.getTrimmer();
-
-        Channel1DData trimmedTransmittance = trimmer.transform(transmittanceChannel.getChannelData());
-
         Channel1DDataTransformation derivativeTransformation = processSettings.getDerivativeTransformation();
 
-        Channel1DData firstDerivativeChannel = derivativeTransformation.transform(trimmedTransmittance);
+        Channel1DData signal = sourceToProcess.getRecordedChannel(processSettings.getSignalIndex()).getChannelData();
+        Channel1DData trimmedSignal = getTrimmedSignalChannelData(trimmer, sourceToProcess, signal);
+
+        Channel1DData firstDerivativeChannel = TRANSFORMED_SIGNALS.getTransformedSignal(sourceToProcess, signal,
+                () -> derivativeTransformation.transform(trimmedSignal), trimmer, derivativeTransformation);
 
         return firstDerivativeChannel;
     }
 
+    //the trimmed signal is shared by the smoothed signal and by the derivative, so it is cached too, and the trimmer is applied only once
+    private static Channel1DData getTrimmedSignalChannelData(Channel1DDataTransformation trimmer, SimplePhotometricSource sourceToProcess, Channel1DData signal)
+    {
+        return TRANSFORMED_SIGNALS.getTransformedSignal(sourceToProcess, signal, () -> trimmer.transform(signal), trimmer);
+    }
+
     public static VisualizablePack<SimplePhotometricSource, ProcessedResourcePhotometric> visualize(ProcessedPackPhotometric processedPack, Channel1DData signalChannelTrimmedSmoothedData, Channel1DData signalDerivativeData, VisualizationSettingsPhotometric visSettings)
     {                
         VisualizablePack<SimplePhotometricSource,ProcessedResourcePhotometric> visualizable = null;
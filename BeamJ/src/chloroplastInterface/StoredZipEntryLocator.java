@@ -0,0 +1,183 @@
+package chloroplastInterface;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//finds where the data of uncompressed (stored) entries of a zip file begin, so that they can be mapped into memory
+//java.util.zip.ZipFile does not expose the offsets of entries, so the central directory is read directly
+//zip64 archives are not supported, for them no entries are found, and the data should be read in the usual way
+class StoredZipEntryLocator
+{
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+
+    private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+    private static final int CENTRAL_DIRECTORY_HEADER_LENGTH = 46;
+    private static final int LOCAL_FILE_HEADER_LENGTH = 30;
+    private static final int MAXIMAL_COMMENT_LENGTH = 0xFFFF;
+
+    private static final int METHOD_STORED = 0;
+    private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+
+    private StoredZipEntryLocator()
+    {}
+
+    //returns a map from entry names to the positions in the file at which the data of the entries begin
+    //only stored entries are included
+    static Map<String, StoredEntry> findStoredEntries(FileChannel channel) throws IOException
+    {
+        Map<String, StoredEntry> entries = new LinkedHashMap<>();
+
+        ByteBuffer endOfCentralDirectory = findEndOfCentralDirectory(channel);
+        if(endOfCentralDirectory == null)
+        {
+            return entries;
+        }
+
+        int entryCount = Short.toUnsignedInt(endOfCentralDirectory.getShort(10));
+        long centralDirectorySize = Integer.toUnsignedLong(endOfCentralDirectory.getInt(12));
+        long centralDirectoryOffset = Integer.toUnsignedLong(endOfCentralDirectory.getInt(16));
+
+        if(entryCount == 0xFFFF || centralDirectorySize == ZIP64_MARKER || centralDirectoryOffset == ZIP64_MARKER
+                || centralDirectoryOffset + centralDirectorySize > channel.size())
+        {
+            return entries;
+        }
+
+        ByteBuffer centralDirectory = readFully(channel, centralDirectoryOffset, (int)centralDirectorySize);
+
+        for(int i = 0; i < entryCount; i++)
+        {
+            int headerPosition = centralDirectory.position();
+
+            if(centralDirectory.remaining() < CENTRAL_DIRECTORY_HEADER_LENGTH || centralDirectory.getInt(headerPosition) != CENTRAL_DIRECTORY_HEADER_SIGNATURE)
+            {
+                break;
+            }
+
+            int method = Short.toUnsignedInt(centralDirectory.getShort(headerPosition + 10));
+            long compressedSize = Integer.toUnsignedLong(centralDirectory.getInt(headerPosition + 20));
+            long uncompressedSize = Integer.toUnsignedLong(centralDirectory.getInt(headerPosition + 24));
+            int nameLength = Short.toUnsignedInt(centralDirectory.getShort(headerPosition + 28));
+            int extraLength = Short.toUnsignedInt(centralDirectory.getShort(headerPosition + 30));
+            int commentLength = Short.toUnsignedInt(centralDirectory.getShort(headerPosition + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(centralDirectory.getInt(headerPosition + 42));
+
+            if(centralDirectory.remaining() < CENTRAL_DIRECTORY_HEADER_LENGTH + nameLength + extraLength + commentLength)
+            {
+                break;
+            }
+
+            byte[] nameBytes = new byte[nameLength];
+            centralDirectory.position(headerPosition + CENTRAL_DIRECTORY_HEADER_LENGTH);
+            centralDirectory.get(nameBytes);
+            centralDirectory.position(headerPosition + CENTRAL_DIRECTORY_HEADER_LENGTH + nameLength + extraLength + commentLength);
+
+            boolean zip64 = compressedSize == ZIP64_MARKER || uncompressedSize == ZIP64_MARKER || localHeaderOffset == ZIP64_MARKER;
+            if(method != METHOD_STORED || zip64)
+            {
+                continue;
+            }
+
+            long dataOffset = findDataOffset(channel, localHeaderOffset);
+            if(dataOffset >= 0 && dataOffset + uncompressedSize <= centralDirectoryOffset)
+            {
+                String name = new String(nameBytes, StandardCharsets.UTF_8);
+                entries.put(name, new StoredEntry(dataOffset, uncompressedSize));
+            }
+        }
+
+        return entries;
+    }
+
+    //the end of central directory record is followed only by the archive comment, so it is searched for backwards
+    private static ByteBuffer findEndOfCentralDirectory(FileChannel channel) throws IOException
+    {
+        long fileSize = channel.size();
+        if(fileSize < END_OF_CENTRAL_DIRECTORY_LENGTH)
+        {
+            return null;
+        }
+
+        int tailLength = (int)Math.min(fileSize, END_OF_CENTRAL_DIRECTORY_LENGTH + MAXIMAL_COMMENT_LENGTH);
+        ByteBuffer tail = readFully(channel, fileSize - tailLength, tailLength);
+
+        for(int position = tailLength - END_OF_CENTRAL_DIRECTORY_LENGTH; position >= 0; position--)
+        {
+            if(tail.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+            {
+                tail.position(position);
+                return tail.slice().order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        return null;
+    }
+
+    //returns -1 if there is no valid local file header at the given offset
+    private static long findDataOffset(FileChannel channel, long localHeaderOffset) throws IOException
+    {
+        if(localHeaderOffset + LOCAL_FILE_HEADER_LENGTH > channel.size())
+        {
+            return -1;
+        }
+
+        ByteBuffer localHeader = readFully(channel, localHeaderOffset, LOCAL_FILE_HEADER_LENGTH);
+
+        if(localHeader.getInt(0) != LOCAL_FILE_HEADER_SIGNATURE)
+        {
+            return -1;
+        }
+
+        //the lengths of the name and of the extra field in the local header may differ from those in the central directory
+        int nameLength = Short.toUnsignedInt(localHeader.getShort(26));
+        int extraLength = Short.toUnsignedInt(localHeader.getShort(28));
+
+        return localHeaderOffset + LOCAL_FILE_HEADER_LENGTH + nameLength + extraLength;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while(buffer.hasRemaining())
+        {
+            int readCount = channel.read(buffer, position + buffer.position());
+            if(readCount < 0)
+            {
+                throw new IOException("Unexpected end of the zip file");
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    static class StoredEntry
+    {
+        private final long dataOffset;
+        private final long size;
+
+        private StoredEntry(long dataOffset, long size)
+        {
+            this.dataOffset = dataOffset;
+            this.size = size;
+        }
+
+        public long getDataOffset()
+        {
+            return dataOffset;
+        }
+
+        public long getSize()
+        {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package chloroplastInterface;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+import atomicJ.curveProcessing.Channel1DDataTransformation;
+import atomicJ.data.Channel1DData;
+
+//keeps the results of transforming the recorded signals of sources, so that processing and visualizing
+//the same source again with equal settings does not repeat the trimming, smoothing and differentiation
+//the results are keyed by the signal data, compared by identity, and by the list of applied transformations, compared by equals(),
+//so transformations should override equals() to be recognized when they are rebuilt from unchanged settings
+//sources are held weakly, so the cached results are released together with the source
+class TransformedSignalCache
+{
+    //a few recent results are kept for each source, so that switching the settings back and forth is also fast
+    private static final int MAXIMAL_RESULT_COUNT_PER_SOURCE = 8;
+
+    private final Map<SimplePhotometricSource, Map<ResultKey, Channel1DData>> results = new WeakHashMap<>();
+
+    //the result is calculated outside the lock, so different sources can be transformed concurrently
+    //if two threads request the same missing result, both calculate it, and the later one is kept
+    Channel1DData getTransformedSignal(SimplePhotometricSource source, Channel1DData signal, Supplier<Channel1DData> calculation, Channel1DDataTransformation... transformations)
+    {
+        ResultKey key = new ResultKey(signal, Arrays.asList(transformations));
+
+        synchronized(results)
+        {
+            Map<ResultKey, Channel1DData> sourceResults = results.get(source);
+            Channel1DData result = sourceResults != null ? sourceResults.get(key) : null;
+
+            if(result != null)
+            {
+                return result;
+            }
+        }
+
+        Channel1DData result = calculation.get();
+
+        synchronized(results)
+        {
+            Map<ResultKey, Channel1DData> sourceResults = results.get(source);
+
+            if(sourceResults == null)
+            {
+                sourceResults = new LinkedHashMap<ResultKey, Channel1DData>(16, 0.75f, true)
+                {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<ResultKey, Channel1DData> eldest)
+                    {
+                        return size() > MAXIMAL_RESULT_COUNT_PER_SOURCE;
+                    }
+                };
+                results.put(source, sourceResults);
+            }
+
+            sourceResults.put(key, result);
+        }
+
+        return result;
+    }
+
+    private static class ResultKey
+    {
+        private final Channel1DData signal;
+        private final List<Channel1DDataTransformation> transformations;
+
+        private ResultKey(Channel1DData signal, List<Channel1DDataTransformation> transformations)
+        {
+            this.signal = signal;
+            this.transformations = transformations;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = 17;
+
+            result = 31*result + System.identityHashCode(signal);
+            result = 31*result + transformations.hashCode();
+
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object that)
+        {
+            if(that instanceof ResultKey)
+            {
+                ResultKey thatKey = (ResultKey)that;
+
+                boolean equal = this.signal == thatKey.signal && this.transformations.equals(thatKey.transformations);
+                return equal;
+            }
+
+            return false;
+        }
+    }
+}
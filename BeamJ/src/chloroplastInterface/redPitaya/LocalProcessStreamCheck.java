@@ -0,0 +1,185 @@
+package chloroplastInterface.redPitaya;
+
+import java.io.IOException;
+
+import chloroplastInterface.redPitaya.RedPitayaLockInDevice.RegisterValuesParser;
+
+//checks the streaming of samples without the device, by running shell loops which print lines in the format of the streaming script
+//through LocalProcessStreamConnectionFactory, and comparing what readSamples() drains with the printed lines
+//run with the main method, it throws IllegalStateException if a check fails
+class LocalProcessStreamCheck
+{
+    private static final long WAITING_TIMEOUT_IN_MILISECONDS = 10000;
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        checkSamplesStampedByDevice();
+        checkSamplesWithoutDeviceTime();
+        checkFailedCommand();
+        checkCommandReportingError();
+
+        System.out.println("All streaming checks passed");
+    }
+
+    //the intervals between the samples are the intervals between the times printed by the device, whatever the delays of the transport
+    private static void checkSamplesStampedByDevice() throws IOException, InterruptedException
+    {
+        int sampleCount = 20;
+        String command = "i=0; while [ $i -lt " + sampleCount + " ]; do echo \"$((i*1000)) $((i*2000)) $((1000+i)).250000\"; "
+                + "if [ $((i%5)) -eq 0 ]; then sleep 0.1; fi; i=$((i+1)); done; exec sleep 60";
+
+        RedPitayaSampleStream stream = new RedPitayaSampleStream(new LocalProcessStreamConnectionFactory(), command, new RegisterValuesParser());
+        long startTime = System.currentTimeMillis();
+
+        try
+        {
+            stream.start();
+
+            double[] values = new double[2*sampleCount];
+            long[] times = new long[2*sampleCount];
+            int count = drain(stream, values, times, sampleCount);
+
+            check(count == sampleCount, "Expected " + sampleCount + " samples, but " + count + " were drained");
+
+            RegisterValuesParser parser = new RegisterValuesParser();
+            for(int i = 0; i<count; i++)
+            {
+                double expectedValue = parser.parseValueInVolts((i*1000) + " " + (i*2000));
+                check(values[i] == expectedValue, "The value of the sample " + i + " is " + values[i] + " instead of " + expectedValue);
+                check(times[i] - times[0] == 1000L*i, "The sample " + i + " was stamped " + (times[i] - times[0]) + " ms after the first one instead of " + 1000*i + " ms");
+            }
+
+            //the device clock is shifted to the clock of this computer when the first sample is received
+            check(times[0] >= startTime && times[0] <= System.currentTimeMillis(), "The time of the first sample is not the time of its reception");
+            check(!stream.hasFailedToStart(), "The stream which sent samples was regarded as failed");
+            check(stream.readSamples(values, times, values.length) == 0, "The samples were not removed by the previous call of readSamples()");
+        }
+        finally
+        {
+            stream.stop();
+        }
+    }
+
+    //lines printed by an older version of the streaming script are stamped with the time of their reception
+    private static void checkSamplesWithoutDeviceTime() throws IOException, InterruptedException
+    {
+        int sampleCount = 10;
+        String command = "i=0; while [ $i -lt " + sampleCount + " ]; do echo \"$i 0\"; i=$((i+1)); done; echo \"not a sample\"; exec sleep 60";
+
+        RedPitayaSampleStream stream = new RedPitayaSampleStream(new LocalProcessStreamConnectionFactory(), command, new RegisterValuesParser());
+        long startTime = System.currentTimeMillis();
+
+        try
+        {
+            stream.start();
+
+            double[] values = new double[2*sampleCount];
+            long[] times = new long[2*sampleCount];
+            int count = drain(stream, values, times, sampleCount);
+
+            check(count == sampleCount, "Expected " + sampleCount + " samples, but " + count + " were drained");
+
+            RegisterValuesParser parser = new RegisterValuesParser();
+            for(int i = 0; i<count; i++)
+            {
+                double expectedValue = parser.parseValueInVolts(i + " 0");
+                check(values[i] == expectedValue, "The value of the sample " + i + " is " + values[i] + " instead of " + expectedValue);
+                check(times[i] >= startTime && times[i] <= System.currentTimeMillis(), "The sample " + i + " was not stamped with the time of its reception");
+                check(i == 0 || times[i] >= times[i - 1], "The times of the samples " + (i - 1) + " and " + i + " are not in order");
+            }
+        }
+        finally
+        {
+            stream.stop();
+        }
+    }
+
+    //the command exits at once, as it would if neither python3 nor python was installed
+    private static void checkFailedCommand() throws IOException, InterruptedException
+    {
+        RedPitayaSampleStream stream = new RedPitayaSampleStream(new LocalProcessStreamConnectionFactory(), "exit 127", new RegisterValuesParser());
+
+        try
+        {
+            stream.start();
+
+            check(awaitFailure(stream), "The stream whose command exited before sending any sample was not regarded as failed");
+            check(stream.readSamples(new double[1], new long[1], 1) == 0, "The failed stream returned a sample");
+        }
+        finally
+        {
+            stream.stop();
+        }
+    }
+
+    //the command keeps running, but writes to its error stream, as the interpreter would if /dev/mem could not be opened
+    private static void checkCommandReportingError() throws IOException, InterruptedException
+    {
+        RedPitayaSampleStream stream = new RedPitayaSampleStream(new LocalProcessStreamConnectionFactory(), "echo \"PermissionError: /dev/mem\" >&2; exec sleep 60", new RegisterValuesParser());
+
+        try
+        {
+            stream.start();
+
+            check(awaitFailure(stream), "The stream whose command reported an error before sending any sample was not regarded as failed");
+        }
+        finally
+        {
+            stream.stop();
+        }
+    }
+
+    private static int drain(RedPitayaSampleStream stream, double[] values, long[] times, int expectedCount) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + WAITING_TIMEOUT_IN_MILISECONDS;
+        int count = 0;
+
+        while(System.currentTimeMillis() < deadline)
+        {
+            double[] drainedValues = new double[values.length];
+            long[] drainedTimes = new long[times.length];
+            int drainedCount = stream.readSamples(drainedValues, drainedTimes, values.length - count);
+
+            System.arraycopy(drainedValues, 0, values, count, drainedCount);
+            System.arraycopy(drainedTimes, 0, times, count, drainedCount);
+            count += drainedCount;
+
+            if(count >= expectedCount)
+            {
+                //any sample beyond the expected ones would be drained here, and make the count wrong
+                Thread.sleep(200);
+                count += stream.readSamples(new double[values.length], new long[times.length], values.length - count);
+                break;
+            }
+
+            Thread.sleep(20);
+        }
+
+        return count;
+    }
+
+    private static boolean awaitFailure(RedPitayaSampleStream stream) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + WAITING_TIMEOUT_IN_MILISECONDS;
+
+        while(System.currentTimeMillis() < deadline)
+        {
+            if(stream.hasFailedToStart())
+            {
+                return true;
+            }
+
+            Thread.sleep(20);
+        }
+
+        return false;
+    }
+
+    private static void check(boolean condition, String message)
+    {
+        if(!condition)
+        {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package chloroplastInterface.redPitaya;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+//runs the streaming command in a local shell instead of on the Red Pitaya,
+//so that the streaming session can be checked without the device, e.g. with a script that prints register values
+public class LocalProcessStreamConnectionFactory implements RedPitayaStreamConnectionFactory
+{
+    private final String shell;
+
+    public LocalProcessStreamConnectionFactory()
+    {
+        this("sh");
+    }
+
+    public LocalProcessStreamConnectionFactory(String shell)
+    {
+        this.shell = shell;
+    }
+
+    @Override
+    public RedPitayaStreamConnection openStreamConnection(String command) throws IOException
+    {
+        //the error stream is not inherited, as it is read by the sample stream, which falls back to register reads if the command reports an error
+        ProcessBuilder processBuilder = new ProcessBuilder(shell, "-c", command);
+
+        Process process = processBuilder.start();
+
+        return new LocalProcessStreamConnection(process);
+    }
+
+    private static class LocalProcessStreamConnection implements RedPitayaStreamConnection
+    {
+        private final Process process;
+
+        private LocalProcessStreamConnection(Process process)
+        {
+            this.process = process;
+        }
+
+        @Override
+        public InputStream getInputStream()
+        {
+            return process.getInputStream();
+        }
+
+        @Override
+        public InputStream getErrorStream()
+        {
+            return process.getErrorStream();
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return process.isAlive();
+        }
+
+        @Override
+        public void close()
+        {
+            process.destroy();
+        }
+    }
+}
@@ -9,7 +9,7 @@ import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
 import com.jcraft.jsch.Session;
 
-public class RedPitayaCommunicationChannel
+public class RedPitayaCommunicationChannel implements RedPitayaStreamConnectionFactory
 {
     private static final int KEEP_ALIVE_MESSAGE_INTERVAL_IN_MILISECONDS = 60000;
     private static final int DEFAULT_PORT = 22;
@@ -159,6 +159,51 @@ public class RedPitayaCommunicationChannel
         return response;
     }
 
+    //opens a separate exec channel on the shared session, which stays open until the returned connection is closed
+    //or the command on the Red Pitaya finishes
+    @Override
+    public RedPitayaStreamConnection openStreamConnection(String command) throws IOException
+    {
+        try
+        {
+            return openStreamConnectionWithoutReconnecting(command);
+        }
+        catch(JSchException | IOException error)
+        {
+            error.printStackTrace();
+
+            try
+            {
+                refreshLastUsedSession();
+                return openStreamConnectionWithoutReconnecting(command);
+            } 
+            catch (JSchException e) 
+            {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private RedPitayaStreamConnection openStreamConnectionWithoutReconnecting(String command) throws JSchException, IOException
+    {
+        Session session = retrieveOrCreateIfNecessaryNewSession();
+
+        if(!session.isConnected())
+        {
+            session.connect();
+        }
+
+        ChannelExec channel = (ChannelExec) session.openChannel("exec");
+        channel.setCommand(command);
+
+        //both streams must be retrieved before the channel is connected
+        InputStream in = channel.getInputStream();
+        InputStream err = channel.getErrStream();
+        channel.connect();
+
+        return new ExecChannelStreamConnection(channel, in, err);
+    }
+
     private String readRedPitayaResponseWithoutReconecting(String command) throws JSchException, IOException 
     {              
         ChannelExec channel = null;
@@ -359,4 +404,42 @@ public class RedPitayaCommunicationChannel
             }
         }
     }
+
+    private static class ExecChannelStreamConnection implements RedPitayaStreamConnection
+    {
+        private final ChannelExec channel;
+        private final InputStream in;
+        private final InputStream err;
+
+        private ExecChannelStreamConnection(ChannelExec channel, InputStream in, InputStream err)
+        {
+            this.channel = channel;
+            this.in = in;
+            this.err = err;
+        }
+
+        @Override
+        public InputStream getInputStream()
+        {
+            return in;
+        }
+
+        @Override
+        public InputStream getErrorStream()
+        {
+            return err;
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return channel.isConnected() && !channel.isClosed();
+        }
+
+        @Override
+        public void close()
+        {
+            channel.disconnect();
+        }
+    }
 }
@@ -2,12 +2,17 @@ package chloroplastInterface.redPitaya;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import com.jcraft.jsch.JSchException;
 
 import atomicJ.geometricSets.RealSet;
 import chloroplastInterface.RawVoltageSample;
 import chloroplastInterface.SignalSource;
+import chloroplastInterface.redPitaya.RedPitayaSampleStream.RedPitayaSampleParser;
 
 //ta klasa nie powinna implementowac SignalSource, tylko Signal Source Controller
 public class RedPitayaLockInDevice implements SignalSource
@@ -25,9 +30,39 @@ public class RedPitayaLockInDevice implements SignalSource
 
     private static final String LOCK_IN_INITIALIZATION_COMMAND = "cat /opt/redpitaya/www/apps/lock_in+pid/red_pitaya.bit > /dev/xdevcfg";
     public static final double MAX_SIGNAL_SAMPLING_FREQUENCY_IN_HERTZ = 20;
+    public static final double MAX_STREAMED_SIGNAL_SAMPLING_FREQUENCY_IN_HERTZ = 100;
+
+    //a single Python process on the device maps the page with the lock-in registers from /dev/mem once, and then reads both registers
+    //at the streamed sampling rate, printing them in one line per sample, so neither an SSH channel nor a monitor process is started per sample
+    //each line ends with the time of the device clock at which the registers were read, which is used as the time of the sample
+    //the next read is scheduled one period after the previous one, so the rate does not drift, and after a delay the schedule is restarted
+    private static final int REGISTER_PAGE_ADDRESS = X28_FPG_REGISTER & ~0xfff;
+    private static final String STREAMING_SCRIPT_TEMPLATE = "import mmap,os,struct,sys,time\n"
+            + "f=os.open(\"/dev/mem\",os.O_RDONLY|os.O_SYNC)\n"
+            + "m=mmap.mmap(f,4096,mmap.MAP_SHARED,mmap.PROT_READ,offset=%d)\n"
+            + "p=%s\n"
+            + "t=time.time()\n"
+            + "while True:\n"
+            + " s=time.time()\n"
+            + " x=struct.unpack_from(\"<I\",m,%d)[0]\n"
+            + " y=struct.unpack_from(\"<I\",m,%d)[0]\n"
+            + " sys.stdout.write(\"%%d %%d %%.6f\\n\"%%(x,y,s))\n"
+            + " sys.stdout.flush()\n"
+            + " t+=p\n"
+            + " d=t-time.time()\n"
+            + " if d>0: time.sleep(d)\n"
+            + " else: t=time.time()\n";
+    private static final long STREAMED_SAMPLE_TIMEOUT_IN_MILISECONDS = 1000;
 
     private final RedPitayaCommunicationChannel communicationChannel;
+    private final RedPitayaStreamConnectionFactory streamConnectionFactory;
+    private volatile RedPitayaSampleStream sampleStream;
+    //the stream whose command failed before sending any sample, samples are read from the registers instead, until a new stream is built or streaming is enabled again
+    private volatile RedPitayaSampleStream failedSampleStream;
+    private double streamedSamplingRateInHertz = MAX_STREAMED_SIGNAL_SAMPLING_FREQUENCY_IN_HERTZ;
     private boolean initialized;
+    private volatile boolean streamingEnabled = true;
+    private long lastSingleSampleTimeInMilis = Long.MIN_VALUE/2;
 
     private final double maxExpectedVoltageInVolts;
 
@@ -37,9 +72,78 @@ public class RedPitayaLockInDevice implements SignalSource
     }   
 
     public RedPitayaLockInDevice(RedPitayaCommunicationChannel communicationChannel, double maxExpectedVoltage)
+    {
+        this(communicationChannel, communicationChannel, maxExpectedVoltage);
+    }
+
+    //the stream connection factory is used only for streaming of samples, e.g. LocalProcessStreamConnectionFactory allows for streaming without the device
+    public RedPitayaLockInDevice(RedPitayaCommunicationChannel communicationChannel, RedPitayaStreamConnectionFactory streamConnectionFactory, double maxExpectedVoltage)
     {
         this.communicationChannel = communicationChannel;
+        this.streamConnectionFactory = streamConnectionFactory;
         this.maxExpectedVoltageInVolts = maxExpectedVoltage;
+        this.sampleStream = buildSampleStream(streamedSamplingRateInHertz);
+    }
+
+    private RedPitayaSampleStream buildSampleStream(double samplingRateInHertz)
+    {
+        return new RedPitayaSampleStream(streamConnectionFactory, buildStreamingCommand(samplingRateInHertz), new RegisterValuesParser());
+    }
+
+    static String buildStreamingCommand(double samplingRateInHertz)
+    {
+        String period = String.format(Locale.US, "%.6f", 1./samplingRateInHertz);
+        String script = String.format(Locale.US, STREAMING_SCRIPT_TEMPLATE, REGISTER_PAGE_ADDRESS, period,
+                X28_FPG_REGISTER - REGISTER_PAGE_ADDRESS, Y28_FPG_REGISTER - REGISTER_PAGE_ADDRESS);
+
+        //the script contains no single quotes, so it can be passed in them to the interpreter
+        String command = "exec $(command -v python3 || command -v python) -u -c '" + script + "'";
+        return command;
+    }
+
+    public synchronized double getStreamedSamplingRateInHertz()
+    {
+        return streamedSamplingRateInHertz;
+    }
+
+    //the rate at which the command on the device reads the registers, the running stream is restarted if the rate changes
+    public synchronized void setStreamedSamplingRateInHertz(double samplingRateInHertz)
+    {
+        if(!(samplingRateInHertz > 0))
+        {
+            throw new IllegalArgumentException("Sampling rate must be positive");
+        }
+
+        double rateNew = Math.min(samplingRateInHertz, MAX_STREAMED_SIGNAL_SAMPLING_FREQUENCY_IN_HERTZ);
+
+        if(rateNew != streamedSamplingRateInHertz)
+        {
+            this.streamedSamplingRateInHertz = rateNew;
+
+            sampleStream.stop();
+            this.sampleStream = buildSampleStream(rateNew);
+        }
+    }
+
+    public boolean isStreamingEnabled()
+    {
+        return streamingEnabled;
+    }
+
+    //when streaming is enabled, samples are read from a single long-lived command on the device
+    //instead of a new SSH channel and monitor process for every sample
+    public void setStreamingEnabled(boolean streamingEnabled)
+    {
+        this.streamingEnabled = streamingEnabled;
+
+        if(streamingEnabled)
+        {
+            this.failedSampleStream = null;
+        }
+        else
+        {
+            sampleStream.stop();
+        }
     }
 
     public static boolean checkIfLockInApplicationInstalled(RedPitayaCommunicationChannel communicationChannel) throws JSchException, IOException
@@ -193,6 +297,17 @@ public class RedPitayaLockInDevice implements SignalSource
 
     @Override
     public RawVoltageSample getSample() 
+    {
+        if(streamingEnabled && ensureStreamRunning())
+        {
+            return getStreamedSample();
+        }
+
+        return getRegisterSample();
+    }
+
+    //reads the registers with a separate command on the device
+    private RawVoltageSample getRegisterSample()
     {
         long timeInMilis = System.currentTimeMillis();
         double val = Double.NaN;
@@ -200,10 +315,7 @@ public class RedPitayaLockInDevice implements SignalSource
         try {
 
             long[] vals = getFPGRegisterValue(X28_FPG_REGISTER, Y28_FPG_REGISTER);
-            long x28 = (((int)vals[0]) << 4) >> 4;//bitwise and will not work easily due to two's complement,we need to define x28 as a long number, otherwise x28*x28 is too large
-            long y28 = (((int)vals[1]) << 4) >> 4;
-            double r = Math.sqrt(x28*x28 + y28*y28);
-            val = r*INTEGER_TO_RAW_VOLTAGE_CONVERSION_FACTOR;
+            val = convertRegisterValuesToVolts(vals[0], vals[1]);
 
             //            System.err.println("x28 " + x28);
             //            System.err.println("y28 " + y28);
@@ -219,6 +331,96 @@ public class RedPitayaLockInDevice implements SignalSource
         return sample;
     }
 
+    //returns the next streamed sample, without draining the buffer read by readSamples(), or a sample with NaN value if the device did not send anything in time
+    private RawVoltageSample getStreamedSample()
+    {
+        RawVoltageSample sample = null;
+
+        try {
+            sample = sampleStream.awaitNewSample(STREAMED_SAMPLE_TIMEOUT_IN_MILISECONDS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) 
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return sample != null ? sample : new RawVoltageSample(Double.NaN, System.currentTimeMillis());
+    }
+
+    //when streaming is enabled, the device is continuous, and all samples streamed since the previous call are drained from the buffer
+    //if the stream cannot be started, single samples are read, at most one per streamed sampling period, as the caller polls continuous sources more often
+    @Override
+    public int readSamples(double[] valuesInVolts, long[] timesInMilis, int maxCount)
+    {
+        if(maxCount < 1)
+        {
+            return 0;
+        }
+
+        if(streamingEnabled && ensureStreamRunning())
+        {
+            return sampleStream.readSamples(valuesInVolts, timesInMilis, maxCount);
+        }
+
+        long currentTime = System.currentTimeMillis();
+        if(streamingEnabled && currentTime - lastSingleSampleTimeInMilis < 1000./getStreamedSamplingRateInHertz())
+        {
+            return 0;
+        }
+
+        RawVoltageSample sample = getRegisterSample();
+        valuesInVolts[0] = sample.getValueInVolts();
+        timesInMilis[0] = sample.getAbsoluteTimeInMilis();
+
+        this.lastSingleSampleTimeInMilis = currentTime;
+
+        return 1;
+    }
+
+    private boolean ensureStreamRunning()
+    {
+        //the stream may be replaced when the sampling rate changes, so it is read once
+        RedPitayaSampleStream stream = sampleStream;
+
+        if(stream == failedSampleStream)
+        {
+            return false;
+        }
+
+        //e.g. neither python3 nor python is installed on the device, or /dev/mem cannot be opened, so the command exits at once
+        if(stream.hasFailedToStart())
+        {
+            Logger.getLogger(RedPitayaLockInDevice.class.getName()).log(Level.WARNING, "The streaming command failed on the Red Pitaya " + getIdentifier() + ", the registers are read with separate commands");
+
+            stream.stop();
+            this.failedSampleStream = stream;
+
+            return false;
+        }
+
+        if(stream.isRunning())
+        {
+            return true;
+        }
+
+        try {
+            stream.start();
+        } catch (IOException e) 
+        {
+            Logger.getLogger(RedPitayaLockInDevice.class.getName()).log(Level.WARNING, "Could not start the streaming command on the Red Pitaya " + getIdentifier(), e);
+        }
+
+        return stream.isRunning();
+    }
+
+    private static double convertRegisterValuesToVolts(long xRegisterValue, long yRegisterValue)
+    {
+        long x28 = (((int)xRegisterValue) << 4) >> 4;//bitwise and will not work easily due to two's complement,we need to define x28 as a long number, otherwise x28*x28 is too large
+        long y28 = (((int)yRegisterValue) << 4) >> 4;
+        double r = Math.sqrt(x28*x28 + y28*y28);
+
+        return r*INTEGER_TO_RAW_VOLTAGE_CONVERSION_FACTOR;
+    }
+
     private long getFPGRegisterValue(int address) throws JSchException, IOException
     {
         String command = new StringBuilder(MONITOR_COMMAND).append(" ").append(address).toString();        
@@ -246,6 +448,7 @@ public class RedPitayaLockInDevice implements SignalSource
     @Override
     public void finishReading() 
     {
+        sampleStream.stop();
         communicationChannel.close();
     }
 
@@ -255,14 +458,66 @@ public class RedPitayaLockInDevice implements SignalSource
         return working;
     }
 
+    //the streaming command reads the registers at the streamed sampling rate, so with streaming the samples need only to be collected by readSamples(),
+    //without streaming, each sample must be requested once per sampling period
+    @Override
+    public boolean isContinuous()
+    {
+        return streamingEnabled;
+    }
+
     @Override
     public double getMaximalSignalSamplingRateInHertz()
     {
-        return MAX_SIGNAL_SAMPLING_FREQUENCY_IN_HERTZ;
+        return streamingEnabled ? MAX_STREAMED_SIGNAL_SAMPLING_FREQUENCY_IN_HERTZ : MAX_SIGNAL_SAMPLING_FREQUENCY_IN_HERTZ;
     }
 
     public String getIdentifier()
     {
         return communicationChannel.getHost();
     }
+
+    //package-private, so that the streaming can be checked with LocalProcessStreamCheck without the device
+    static class RegisterValuesParser implements RedPitayaSampleParser
+    {
+        @Override
+        public double parseValueInVolts(String line)
+        {
+            String[] split = line.trim().split("\\s+");
+
+            if(split.length < 2)
+            {
+                return Double.NaN;
+            }
+
+            try
+            {
+                return convertRegisterValuesToVolts(Long.decode(split[0]), Long.decode(split[1]));
+            }
+            catch(NumberFormatException e)
+            {
+                return Double.NaN;
+            }
+        }
+
+        @Override
+        public long parseDeviceTimeInMilis(String line)
+        {
+            String[] split = line.trim().split("\\s+");
+
+            if(split.length < 3)
+            {
+                return RedPitayaSampleStream.NO_DEVICE_TIME;
+            }
+
+            try
+            {
+                return Math.round(1000*Double.parseDouble(split[2]));
+            }
+            catch(NumberFormatException e)
+            {
+                return RedPitayaSampleStream.NO_DEVICE_TIME;
+            }
+        }
+    }
 }
@@ -0,0 +1,257 @@
+package chloroplastInterface.redPitaya;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import chloroplastInterface.RawVoltageSample;
+import chloroplastInterface.RawVoltageSampleRingBuffer;
+
+//keeps a single command running on the Red Pitaya, which prints values of the lock-in registers continuously, one line per sample,
+//and parses its output on a background thread into a bounded ring buffer
+//if the lines contain the time at which the device read the sample, the samples are stamped with it, shifted to the clock of this computer,
+//so that the jitter of the transport does not affect the intervals between the samples
+public class RedPitayaSampleStream
+{
+    public static final long NO_DEVICE_TIME = Long.MIN_VALUE;
+
+    private static final int DEFAULT_BUFFER_CAPACITY = 8192;
+    //the interpreter may need a few seconds to start on the device
+    private static final long FIRST_SAMPLE_TIMEOUT_IN_MILISECONDS = 5000;
+
+    private final RedPitayaStreamConnectionFactory connectionFactory;
+    private final String command;
+    private final RawVoltageSampleRingBuffer buffer;
+    private final RedPitayaSampleParser parser;
+
+    private RedPitayaStreamConnection connection;
+    private Thread readingThread;
+    private Thread errorReadingThread;
+    private volatile SampleReadingTask currentTask;
+
+    public RedPitayaSampleStream(RedPitayaStreamConnectionFactory connectionFactory, String command, RedPitayaSampleParser parser)
+    {
+        this(connectionFactory, command, parser, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    public RedPitayaSampleStream(RedPitayaStreamConnectionFactory connectionFactory, String command, RedPitayaSampleParser parser, int bufferCapacity)
+    {
+        this.connectionFactory = connectionFactory;
+        this.command = command;
+        this.parser = parser;
+        this.buffer = new RawVoltageSampleRingBuffer(bufferCapacity);
+    }
+
+    public boolean isRunning()
+    {
+        SampleReadingTask task = currentTask;
+        return task != null && task.active;
+    }
+
+    //true if the command exited or wrote to its error stream before it sent the first sample, or did not send it in time,
+    //e.g. because neither python3 nor python is installed, or /dev/mem cannot be opened
+    public boolean hasFailedToStart()
+    {
+        SampleReadingTask task = currentTask;
+
+        if(task == null || task.sampleReceived)
+        {
+            return false;
+        }
+
+        return !task.active || task.errorOutputReceived || System.currentTimeMillis() - task.startTimeInMilis > FIRST_SAMPLE_TIMEOUT_IN_MILISECONDS;
+    }
+
+    public long getOverwrittenSampleCount()
+    {
+        return buffer.getOverwrittenSampleCount();
+    }
+
+    public synchronized void start() throws IOException
+    {
+        if(isRunning())
+        {
+            return;
+        }
+
+        //the previous connection may be still open if the command on the device stopped printing samples
+        if(connection != null)
+        {
+            connection.close();
+        }
+
+        buffer.clear();
+
+        RedPitayaStreamConnection connectionNew = connectionFactory.openStreamConnection(command);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(connectionNew.getInputStream(), StandardCharsets.US_ASCII));
+        InputStream errorStream = connectionNew.getErrorStream();
+
+        SampleReadingTask task = new SampleReadingTask(reader);
+
+        this.connection = connectionNew;
+        this.currentTask = task;
+
+        this.readingThread = new Thread(task, "Red Pitaya sample stream " + command.hashCode());
+        this.readingThread.setDaemon(true);
+        this.readingThread.start();
+
+        if(errorStream != null)
+        {
+            BufferedReader errorReader = new BufferedReader(new InputStreamReader(errorStream, StandardCharsets.US_ASCII));
+
+            this.errorReadingThread = new Thread(new ErrorReadingTask(errorReader, task), "Red Pitaya sample stream errors " + command.hashCode());
+            this.errorReadingThread.setDaemon(true);
+            this.errorReadingThread.start();
+        }
+    }
+
+    public synchronized void stop()
+    {
+        if(currentTask != null)
+        {
+            currentTask.active = false;
+            currentTask = null;
+        }
+
+        if(connection != null)
+        {
+            connection.close();
+            connection = null;
+        }
+        if(readingThread != null)
+        {
+            readingThread.interrupt();
+            readingThread = null;
+        }
+        if(errorReadingThread != null)
+        {
+            errorReadingThread.interrupt();
+            errorReadingThread = null;
+        }
+    }
+
+    //waits for the next sample from the device and returns it without removing anything from the buffer, or null if no sample arrived within the timeout
+    public RawVoltageSample awaitNewSample(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return buffer.awaitNewSample(timeout, unit);
+    }
+
+    //removes at most maxCount oldest samples from the buffer and copies them into the arrays, returns the number of copied samples
+    public int readSamples(double[] valuesInVolts, long[] timesInMilis, int maxCount)
+    {
+        return buffer.drainTo(valuesInVolts, timesInMilis, maxCount);
+    }
+
+    public static interface RedPitayaSampleParser
+    {
+        //returns NaN if the line does not contain a valid sample
+        public double parseValueInVolts(String line);
+
+        //returns the time at which the device read the sample, in milliseconds of the clock of the device, or NO_DEVICE_TIME if the line does not contain it
+        public long parseDeviceTimeInMilis(String line);
+    }
+
+    private class SampleReadingTask implements Runnable
+    {
+        private final BufferedReader reader;
+        //each task has its own flag, so that a task that is still finishing after stop() cannot affect a task started later
+        private volatile boolean active = true;
+        private volatile boolean sampleReceived;
+        private volatile boolean errorOutputReceived;
+        private final long startTimeInMilis = System.currentTimeMillis();
+
+        //the difference between the clocks of this computer and of the device, measured when the first sample stamped by the device is received
+        private boolean clockOffsetKnown;
+        private long clockOffsetInMilis;
+
+        public SampleReadingTask(BufferedReader reader)
+        {
+            this.reader = reader;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                String line;
+                while(active && (line = reader.readLine()) != null)
+                {
+                    long receptionTimeInMilis = System.currentTimeMillis();
+                    double valueInVolts = parser.parseValueInVolts(line);
+
+                    if(!Double.isNaN(valueInVolts))
+                    {
+                        buffer.add(valueInVolts, getSampleTime(line, receptionTimeInMilis));
+                        sampleReceived = true;
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                if(active)
+                {
+                    Logger.getLogger(RedPitayaSampleStream.class.getName()).log(Level.WARNING, "Could not read the samples streamed by the command " + command, e);
+                }
+            }
+            finally
+            {
+                active = false;
+            }
+        }
+
+        private long getSampleTime(String line, long receptionTimeInMilis)
+        {
+            long deviceTimeInMilis = parser.parseDeviceTimeInMilis(line);
+
+            if(deviceTimeInMilis == NO_DEVICE_TIME)
+            {
+                return receptionTimeInMilis;
+            }
+
+            if(!clockOffsetKnown)
+            {
+                this.clockOffsetInMilis = receptionTimeInMilis - deviceTimeInMilis;
+                this.clockOffsetKnown = true;
+            }
+
+            return deviceTimeInMilis + clockOffsetInMilis;
+        }
+    }
+
+    //the error output is logged, and if it comes before the first sample, the stream is regarded as failed
+    private class ErrorReadingTask implements Runnable
+    {
+        private final BufferedReader reader;
+        private final SampleReadingTask sampleReadingTask;
+
+        public ErrorReadingTask(BufferedReader reader, SampleReadingTask sampleReadingTask)
+        {
+            this.reader = reader;
+            this.sampleReadingTask = sampleReadingTask;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                String line;
+                while((line = reader.readLine()) != null)
+                {
+                    sampleReadingTask.errorOutputReceived = true;
+                    Logger.getLogger(RedPitayaSampleStream.class.getName()).log(Level.WARNING, "The command streaming the samples reported: " + line);
+                }
+            }
+            catch (IOException e)
+            {
+                //the error stream is closed together with the connection
+            }
+        }
+    }
+}
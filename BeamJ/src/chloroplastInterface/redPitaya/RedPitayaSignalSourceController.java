@@ -117,13 +117,15 @@ public class RedPitayaSignalSourceController implements SignalSourceController
     @Override
     public SignalSource getSignalSource(int numberOfSamplesToAverage, double expectedCallCountPerSecond) 
     {
+        //the command streaming samples from the device reads the registers at the rate at which they are needed
+        device.setStreamedSamplingRateInHertz(expectedCallCountPerSecond);
         return device;
     }
 
     @Override
     public SignalSource getSignalSource(int numberOfSamplesToAverage, double minExpectedVoltage, double maxExpectedVoltage, double expectedCallCountPerSecond) 
     {
-        return device;
+        return getSignalSource(numberOfSamplesToAverage, expectedCallCountPerSecond);
     }
 
     @Override
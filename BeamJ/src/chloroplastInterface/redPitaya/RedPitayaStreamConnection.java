@@ -0,0 +1,14 @@
+package chloroplastInterface.redPitaya;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+//long-lived connection to a command running on the Red Pitaya, whose standard output is read continuously
+public interface RedPitayaStreamConnection
+{
+    public InputStream getInputStream() throws IOException;
+    //the command writes to its error stream e.g. when the interpreter or /dev/mem is not available
+    public InputStream getErrorStream() throws IOException;
+    public boolean isOpen();
+    public void close();
+}
@@ -0,0 +1,8 @@
+package chloroplastInterface.redPitaya;
+
+import java.io.IOException;
+
+public interface RedPitayaStreamConnectionFactory
+{
+    public RedPitayaStreamConnection openStreamConnection(String command) throws IOException;
+}